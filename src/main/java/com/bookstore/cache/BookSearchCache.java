@@ -0,0 +1,85 @@
+package com.bookstore.cache;
+
+import com.bookstore.config.CacheConfig;
+import com.bookstore.dto.book.BookSearchParametersDto;
+import com.bookstore.event.BookDeletedEvent;
+import com.bookstore.event.BookSavedEvent;
+import com.bookstore.event.BooksUpdatedEvent;
+import com.bookstore.event.CategoriesMovedEvent;
+import com.bookstore.event.CategoryDeletedEvent;
+import com.bookstore.event.CategorySavedEvent;
+import com.bookstore.service.CatalogVersionService;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Ids of the books on a search result page, keyed by {@link BookSearchKey}, so a repeated
+ * search skips the specification, SQL and index work and only hydrates the ids from the
+ * books cache. Keys carry the catalog version (shared by every node), so a change makes
+ * new searches miss and the entries of older versions simply expire after the configured
+ * TTL. The version is held in memory: it is re-read after each local catalog write
+ * commits and polled for the writes of other nodes.
+ */
+@Component
+public class BookSearchCache {
+    private final Cache cache;
+    private final CatalogVersionService catalogVersionService;
+    private final AtomicLong catalogVersion = new AtomicLong(-1);
+
+    public BookSearchCache(CacheManager cacheManager,
+                           CatalogVersionService catalogVersionService,
+                           MeterRegistry meterRegistry) {
+        this.cache = cacheManager.getCache(CacheConfig.BOOK_SEARCH_CACHE);
+        this.catalogVersionService = catalogVersionService;
+        if (cache instanceof CaffeineCache) {
+            CaffeineCache caffeineCache = (CaffeineCache) cache;
+            Gauge.builder("cache.hit.ratio", caffeineCache.getNativeCache(),
+                    nativeCache -> nativeCache.stats().hitRate())
+                    .tag("cache", CacheConfig.BOOK_SEARCH_CACHE)
+                    .description("Share of book searches answered from the cache")
+                    .register(meterRegistry);
+        }
+    }
+
+    /**
+     * Returns the key of a search at the last known catalog version.
+     */
+    public BookSearchKey keyOf(BookSearchParametersDto searchParameters, Pageable pageable) {
+        if (catalogVersion.get() < 0) {
+            refreshVersion();
+        }
+        return BookSearchKey.of(catalogVersion.get(), searchParameters, pageable);
+    }
+
+    @TransactionalEventListener(classes = {BookSavedEvent.class, BooksUpdatedEvent.class,
+            BookDeletedEvent.class, CategorySavedEvent.class, CategoriesMovedEvent.class,
+            CategoryDeletedEvent.class},
+            fallbackExecution = true)
+    public void onCatalogChanged() {
+        refreshVersion();
+    }
+
+    @Scheduled(fixedDelayString = "${cache.book-search.version-poll-interval:PT5S}")
+    public void refreshVersion() {
+        catalogVersion.accumulateAndGet(catalogVersionService.getVersion(), Math::max);
+    }
+
+    @SuppressWarnings("unchecked")
+    public Optional<List<Long>> find(BookSearchKey key) {
+        return Optional.ofNullable((List<Long>) cache.get(key, List.class));
+    }
+
+    public void put(BookSearchKey key, List<Long> bookIds) {
+        cache.put(key, List.copyOf(bookIds));
+    }
+}
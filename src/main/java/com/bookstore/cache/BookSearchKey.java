@@ -0,0 +1,97 @@
+package com.bookstore.cache;
+
+import com.bookstore.dto.book.BookSearchParametersDto;
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import lombok.Value;
+import org.springframework.data.domain.Pageable;
+
+/**
+ * Canonical form of a search request: blank values dropped, text lower-cased with its
+ * whitespace collapsed, the value lists sorted, prices reduced to their numeric value and
+ * defaults spelled out, so equivalent requests share one cached id list. The catalog
+ * version is part of the key, so entries computed before a write are never served after it.
+ */
+@Value
+public class BookSearchKey {
+    private static final long NO_VERSION = -1;
+
+    private long catalogVersion;
+    private List<String> titles;
+    private List<String> authors;
+    private List<String> prices;
+    private List<String> isbns;
+    private String keywords;
+    private List<Long> categoryIds;
+    private boolean matchAllCategories;
+    private boolean fuzzy;
+    private Pageable pageable;
+
+    /**
+     * Returns the key of a search regardless of the catalog version, to recognise
+     * identical requests that are in flight at the same time.
+     */
+    public static BookSearchKey of(BookSearchParametersDto searchParameters,
+                                   Pageable pageable) {
+        return of(NO_VERSION, searchParameters, pageable);
+    }
+
+    public static BookSearchKey of(long catalogVersion,
+                                   BookSearchParametersDto searchParameters,
+                                   Pageable pageable) {
+        return new BookSearchKey(catalogVersion,
+                normalize(searchParameters.titles(), true),
+                normalize(searchParameters.authors(), true),
+                normalizePrices(searchParameters.prices()),
+                normalize(searchParameters.isbns(), true),
+                normalizeText(searchParameters.q()),
+                searchParameters.categoryIds() == null
+                        ? List.of()
+                        : Arrays.stream(searchParameters.categoryIds())
+                                .filter(Objects::nonNull)
+                                .distinct()
+                                .sorted()
+                                .toList(),
+                searchParameters.matchAllCategories(),
+                searchParameters.isFuzzy(),
+                pageable);
+    }
+
+    private static List<String> normalize(String[] values, boolean sorted) {
+        if (values == null) {
+            return List.of();
+        }
+        List<String> normalized = Arrays.stream(values)
+                .map(BookSearchKey::normalizeText)
+                .filter(Objects::nonNull)
+                .toList();
+        return sorted ? normalized.stream().distinct().sorted().toList() : normalized;
+    }
+
+    /**
+     * Keeps the (min, max) order; values that are not numbers are kept as typed
+     * so the search itself reports them.
+     */
+    private static List<String> normalizePrices(String[] prices) {
+        return normalize(prices, false)
+                .stream()
+                .map(price -> {
+                    try {
+                        return new BigDecimal(price).stripTrailingZeros().toPlainString();
+                    } catch (NumberFormatException e) {
+                        return price;
+                    }
+                })
+                .toList();
+    }
+
+    private static String normalizeText(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        return value.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,177 @@
+package com.bookstore.cache;
+
+import com.bookstore.event.CategoryDeletedEvent;
+import com.bookstore.event.CategorySavedEvent;
+import com.bookstore.model.Category;
+import com.bookstore.repository.catalog.CatalogVersionRepository;
+import com.bookstore.repository.category.CategoryRepository;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import lombok.RequiredArgsConstructor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Immutable snapshot of every live category, so category reads and id/name lookups never
+ * query the database. Local saves and deletes swap in a modified copy once they commit;
+ * changes made on other nodes are picked up by polling the shared catalog version and
+ * reloading the snapshot when it moved. The snapshot also holds the category tree.
+ * Lookups return detached copies that callers may modify or attach to books.
+ */
+@RequiredArgsConstructor
+@Component
+public class CategoryCatalog {
+    private final CategoryRepository categoryRepository;
+    private final CatalogVersionRepository catalogVersionRepository;
+    private volatile Snapshot snapshot;
+
+    /**
+     * Returns every category, ordered by id.
+     */
+    public List<Category> findAll() {
+        return snapshot().categories
+                .stream()
+                .map(CategoryCatalog::copyOf)
+                .toList();
+    }
+
+    /**
+     * Returns the parent/child structure of the categories; the same instance is kept for
+     * as long as no category is added, moved or deleted.
+     */
+    public CategoryTree tree() {
+        return snapshot().tree;
+    }
+
+    public Optional<Category> findById(Long id) {
+        return Optional.ofNullable(snapshot().byId.get(id)).map(CategoryCatalog::copyOf);
+    }
+
+    public Optional<Category> findByName(String name) {
+        return Optional.ofNullable(snapshot().byName.get(name)).map(CategoryCatalog::copyOf);
+    }
+
+    /**
+     * Returns the categories with the given ids, skipping the ids of missing ones.
+     */
+    public Set<Category> findByIdIn(Collection<Long> ids) {
+        Map<Long, Category> byId = snapshot().byId;
+        return ids.stream()
+                .map(byId::get)
+                .filter(Objects::nonNull)
+                .map(CategoryCatalog::copyOf)
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+    }
+
+    /**
+     * Replaces the snapshot with the categories currently in the database.
+     */
+    public synchronized void reload() {
+        long version = catalogVersionRepository.getVersion();
+        snapshot = Snapshot.of(version, categoryRepository.findAll(), snapshot);
+    }
+
+    @Scheduled(fixedDelayString = "${catalog.categories.poll-interval:PT5S}")
+    public void reloadIfChanged() {
+        Snapshot current = snapshot;
+        if (current != null && catalogVersionRepository.getVersion() != current.version) {
+            reload();
+        }
+    }
+
+    /**
+     * Swaps the saved category into the snapshot, or reloads it when the category was
+     * moved, since the paths of all its descendants changed with it.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onCategorySaved(CategorySavedEvent event) {
+        Snapshot current = snapshot;
+        if (current == null) {
+            return;
+        }
+        Category saved = event.getCategory();
+        Category previous = current.byId.get(saved.getId());
+        if (previous != null && !Objects.equals(previous.getParentId(), saved.getParentId())) {
+            reload();
+            return;
+        }
+        Map<Long, Category> categories = new HashMap<>(current.byId);
+        categories.put(saved.getId(), copyOf(saved));
+        snapshot = Snapshot.of(current.version, categories.values(), current);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onCategoryDeleted(CategoryDeletedEvent event) {
+        Snapshot current = snapshot;
+        if (current != null) {
+            Map<Long, Category> categories = new HashMap<>(current.byId);
+            categories.remove(event.getCategoryId());
+            snapshot = Snapshot.of(current.version, categories.values(), current);
+        }
+    }
+
+    private Snapshot snapshot() {
+        Snapshot current = snapshot;
+        if (current != null) {
+            return current;
+        }
+        synchronized (this) {
+            if (snapshot == null) {
+                reload();
+            }
+            return snapshot;
+        }
+    }
+
+    private static Category copyOf(Category category) {
+        return new Category()
+                .setId(category.getId())
+                .setName(category.getName())
+                .setDescription(category.getDescription())
+                .setParentId(category.getParentId())
+                .setPath(category.getPath())
+                .setVersion(category.getVersion());
+    }
+
+    private static final class Snapshot {
+        private final long version;
+        private final List<Category> categories;
+        private final Map<Long, Category> byId;
+        private final Map<String, Category> byName;
+        private final CategoryTree tree;
+
+        private Snapshot(long version, List<Category> categories, CategoryTree tree) {
+            this.version = version;
+            this.categories = categories;
+            this.tree = tree;
+            this.byId = categories.stream()
+                    .collect(Collectors.toUnmodifiableMap(Category::getId, Function.identity()));
+            this.byName = categories.stream()
+                    .collect(Collectors.toUnmodifiableMap(Category::getName, Function.identity()));
+        }
+
+        private static Snapshot of(long version,
+                                   Collection<Category> categories,
+                                   Snapshot previous) {
+            List<Category> copies = categories.stream()
+                    .map(CategoryCatalog::copyOf)
+                    .sorted(Comparator.comparing(Category::getId))
+                    .toList();
+            CategoryTree tree = CategoryTree.of(copies);
+            if (previous != null && previous.tree.equals(tree)) {
+                tree = previous.tree;
+            }
+            return new Snapshot(version, copies, tree);
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.bookstore.cache;
+
+import com.bookstore.model.Category;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import lombok.EqualsAndHashCode;
+
+/**
+ * Immutable parent/child structure of the live categories. Categories whose parent is
+ * missing (e.g. deleted) are treated as roots.
+ */
+@EqualsAndHashCode(of = "parentIds")
+public final class CategoryTree {
+    private final Map<Long, Long> parentIds;
+    private final Map<Long, List<Long>> childIds;
+
+    private CategoryTree(Map<Long, Long> parentIds, Map<Long, List<Long>> childIds) {
+        this.parentIds = parentIds;
+        this.childIds = childIds;
+    }
+
+    /**
+     * Builds the tree of the given categories; children are ordered by id.
+     */
+    public static CategoryTree of(Collection<Category> categories) {
+        Map<Long, Long> parentIds = new HashMap<>();
+        for (Category category : categories) {
+            parentIds.put(category.getId(), category.getParentId());
+        }
+        Map<Long, List<Long>> childIds = new HashMap<>();
+        categories.stream()
+                .map(Category::getId)
+                .sorted()
+                .forEach(id -> {
+                    Long parentId = parentIds.get(id);
+                    childIds.computeIfAbsent(parentIds.containsKey(parentId) ? parentId : null,
+                            key -> new ArrayList<>()).add(id);
+                });
+        childIds.replaceAll((parentId, children) -> List.copyOf(children));
+        return new CategoryTree(Collections.unmodifiableMap(parentIds),
+                Collections.unmodifiableMap(childIds));
+    }
+
+    public boolean contains(Long categoryId) {
+        return parentIds.containsKey(categoryId);
+    }
+
+    /**
+     * Returns the ids of the direct children of the category, or of the roots for null.
+     */
+    public List<Long> getChildIds(Long categoryId) {
+        return childIds.getOrDefault(categoryId, List.of());
+    }
+
+    /**
+     * Returns the id of the category followed by the ids of its ancestors up to the root.
+     */
+    public long[] getAncestorAndSelfIds(long categoryId) {
+        List<Long> ids = new ArrayList<>();
+        Long id = categoryId;
+        while (id != null && parentIds.containsKey(id) && ids.size() <= parentIds.size()) {
+            ids.add(id);
+            id = parentIds.get(id);
+        }
+        return ids.stream().mapToLong(Long::longValue).toArray();
+    }
+
+    public boolean isInSubtree(Long categoryId, Long rootId) {
+        for (long id : getAncestorAndSelfIds(categoryId)) {
+            if (id == rootId) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
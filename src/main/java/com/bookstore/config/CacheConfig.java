@@ -0,0 +1,62 @@
+package com.bookstore.config;
+
+import com.bookstore.dto.book.BookDto;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import java.time.Duration;
+import java.util.List;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.support.SimpleCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@EnableCaching
+@Configuration
+public class CacheConfig {
+    public static final String BOOKS_CACHE = "books";
+    public static final String BOOK_SEARCH_CACHE = "bookSearch";
+    private static final int OBJECT_OVERHEAD_BYTES = 16;
+    private static final int REFERENCE_BYTES = 8;
+    private static final int BOOK_DTO_BYTES = 64;
+    private static final int CATEGORY_ID_BYTES = 48;
+
+    @Value("${cache.books.max-weight-bytes:33554432}")
+    private long booksCacheMaxWeightBytes;
+    @Value("${cache.book-search.ttl:60s}")
+    private Duration bookSearchCacheTtl;
+    @Value("${cache.book-search.max-entries:10000}")
+    private long bookSearchCacheMaxEntries;
+
+    @Bean
+    public CacheManager cacheManager() {
+        SimpleCacheManager cacheManager = new SimpleCacheManager();
+        cacheManager.setCaches(List.of(new CaffeineCache(BOOKS_CACHE, Caffeine.newBuilder()
+                        .maximumWeight(booksCacheMaxWeightBytes)
+                        .weigher((Object id, Object bookDto) -> weigh((BookDto) bookDto))
+                        .recordStats()
+                        .build(), false),
+                new CaffeineCache(BOOK_SEARCH_CACHE, Caffeine.newBuilder()
+                        .expireAfterWrite(bookSearchCacheTtl)
+                        .maximumSize(bookSearchCacheMaxEntries)
+                        .recordStats()
+                        .build(), false)));
+        return cacheManager;
+    }
+
+    private static int weigh(BookDto bookDto) {
+        int categoryIds = bookDto.getCategoryIds() == null ? 0 : bookDto.getCategoryIds().size();
+        return BOOK_DTO_BYTES
+                + weigh(bookDto.getTitle())
+                + weigh(bookDto.getAuthor())
+                + weigh(bookDto.getIsbn())
+                + weigh(bookDto.getDescription())
+                + weigh(bookDto.getCoverImage())
+                + categoryIds * CATEGORY_ID_BYTES;
+    }
+
+    private static int weigh(String value) {
+        return value == null ? 0 : OBJECT_OVERHEAD_BYTES + REFERENCE_BYTES + value.length();
+    }
+}
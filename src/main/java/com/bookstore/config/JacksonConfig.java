@@ -0,0 +1,27 @@
+package com.bookstore.config;
+
+import com.bookstore.dto.book.BookDto;
+import com.bookstore.dto.book.BookFields;
+import com.fasterxml.jackson.annotation.JsonFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import org.springframework.boot.autoconfigure.jackson.Jackson2ObjectMapperBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class JacksonConfig {
+    /**
+     * Lets responses narrow books to the requested {@code fields=}. Unless a response sets
+     * the {@link BookFields#FILTER} filter, books are written with every property.
+     */
+    @Bean
+    public Jackson2ObjectMapperBuilderCustomizer bookFieldsFilter() {
+        return builder -> builder
+                .mixIn(BookDto.class, BookFieldsFilter.class)
+                .filters(new SimpleFilterProvider().setFailOnUnknownId(false));
+    }
+
+    @JsonFilter(BookFields.FILTER)
+    private interface BookFieldsFilter {
+    }
+}
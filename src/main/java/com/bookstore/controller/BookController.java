@@ -1,53 +1,231 @@
 package com.bookstore.controller;
 
+import com.bookstore.dto.book.BookBatchRequestDto;
+import com.bookstore.dto.book.BookBatchResultDto;
+import com.bookstore.dto.book.BookCursorPageDto;
 import com.bookstore.dto.book.BookDto;
+import com.bookstore.dto.book.BookFields;
+import com.bookstore.dto.book.BookImportResultDto;
+import com.bookstore.dto.book.BookPriceUpdateRequestDto;
+import com.bookstore.dto.book.BookPriceUpdateResultDto;
 import com.bookstore.dto.book.BookSearchParametersDto;
+import com.bookstore.dto.book.BookSearchResultDto;
+import com.bookstore.dto.book.BookSuggestionDto;
 import com.bookstore.dto.book.CreateBookRequestDto;
+import com.bookstore.dto.catalog.CatalogChangePageDto;
+import com.bookstore.service.BookImportService;
 import com.bookstore.service.BookService;
+import com.bookstore.service.CatalogChangeService;
+import com.bookstore.service.CatalogVersionService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.time.Duration;
 import java.util.List;
+import java.util.Set;
+import java.util.zip.GZIPOutputStream;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.AsyncTaskExecutor;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
 
 @Tag(name = "Book management", description = "Endpoints for managing books")
 @RequiredArgsConstructor
 @RestController
 @RequestMapping(value = "/api/books")
 public class BookController {
+    private static final String GZIP = "gzip";
+
     private final BookService bookService;
+    private final BookImportService bookImportService;
+    private final CatalogVersionService catalogVersionService;
+    private final CatalogChangeService catalogChangeService;
+    private final AsyncTaskExecutor applicationTaskExecutor;
+    @Value("${export.books.timeout:PT1H}")
+    private Duration exportTimeout;
 
     @GetMapping
     @PreAuthorize("hasRole('USER')")
-    @Operation(summary = "Get all books", description = "Get a list of available books")
-    public List<BookDto> getAll(Pageable pageable) {
-        return bookService.getAll(pageable);
+    @Operation(summary = "Get all books", description = "Get a list of available books, "
+            + "or 304 when If-None-Match carries the current catalog ETag. "
+            + "fields=title,price,... limits the properties returned")
+    public List<BookDto> getAll(Pageable pageable,
+                                @RequestParam(required = false) String[] fields,
+                                WebRequest webRequest) {
+        BookFields bookFields = BookFields.of(fields);
+        if (webRequest.checkNotModified("catalog-" + catalogVersionService.getVersion())) {
+            return null;
+        }
+        return bookService.getAll(pageable, bookFields);
+    }
+
+    @GetMapping(params = "ids")
+    @PreAuthorize("hasRole('USER')")
+    @Operation(summary = "Get books by ids",
+            description = "Get the requested books in the requested order with one lookup, "
+                    + "listing the ids of books that don't exist")
+    public BookBatchResultDto getBooksByIds(@RequestParam List<Long> ids) {
+        return bookService.getBooksByIds(ids);
+    }
+
+    @PostMapping("/batch")
+    @PreAuthorize("hasRole('USER')")
+    @Operation(summary = "Get books by ids from a request body",
+            description = "Same as GET /api/books?ids=, for sets of ids too large for a URL")
+    public BookBatchResultDto getBooksByIds(
+            @RequestBody @Valid BookBatchRequestDto bookBatchRequestDto) {
+        return bookService.getBooksByIds(bookBatchRequestDto.getIds());
+    }
+
+    @GetMapping(params = "after")
+    @PreAuthorize("hasRole('USER')")
+    @Operation(summary = "Get books after a cursor",
+            description = "Get the next slice of books after an opaque cursor (empty for the first "
+                    + "slice), sorted by id, title or price, without counting the catalog. "
+                    + "fields=title,price,... limits the properties returned")
+    public BookCursorPageDto getAllAfter(@RequestParam String after,
+                                         @RequestParam(defaultValue = "20") int size,
+                                         Sort sort,
+                                         @RequestParam(required = false) String[] fields) {
+        return bookService.getAllAfter(after, size, sort, BookFields.of(fields));
+    }
+
+    @GetMapping("/changes")
+    @PreAuthorize("hasRole('USER')")
+    @Operation(summary = "Get catalog changes since a token",
+            description = "Get the books and categories saved or deleted after the token of "
+                    + "the previous call (empty for the whole log), deleted ones as tombstones. "
+                    + "The catalog version in a list ETag is a token too")
+    public CatalogChangePageDto getChanges(@RequestParam(required = false) String since,
+                                           @RequestParam(defaultValue = "100") int limit) {
+        return catalogChangeService.getChanges(since, limit);
+    }
+
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Export the catalog(only for admins)",
+            description = "Stream every book as newline-delimited JSON, "
+                    + "gzip-compressed when the client accepts it")
+    public ResponseEntity<ResponseBodyEmitter> exportBooks(
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false)
+            String acceptEncoding) {
+        boolean gzip = acceptEncoding != null && acceptEncoding.contains(GZIP);
+        ResponseBodyEmitter emitter = new ResponseBodyEmitter(exportTimeout.toMillis());
+        applicationTaskExecutor.execute(() -> {
+            OutputStream emitterOutputStream = new EmitterOutputStream(emitter,
+                    MediaType.APPLICATION_NDJSON);
+            try (OutputStream outputStream = gzip
+                    ? new GZIPOutputStream(emitterOutputStream)
+                    : emitterOutputStream) {
+                bookService.exportBooks(outputStream);
+            } catch (IOException | RuntimeException e) {
+                emitter.completeWithError(e);
+                return;
+            }
+            emitter.complete();
+        });
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, GZIP);
+        }
+        return response.body(emitter);
+    }
+
+    @PostMapping(value = "/import", consumes = {"text/csv", MediaType.APPLICATION_NDJSON_VALUE})
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Import books(only for admins)",
+            description = "Import books from CSV (with a header row) or newline-delimited JSON "
+                    + "and report the rows that could not be imported")
+    public BookImportResultDto importBooks(
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+            InputStream inputStream) {
+        return bookImportService.importBooks(inputStream, contentType);
     }
 
     @GetMapping("/{id}")
     @PreAuthorize("hasRole('USER')")
-    @Operation(summary = "Get book by specific id", description = "Get book by specific id")
-    public BookDto getBookById(@PathVariable Long id) {
-        return bookService.getBookById(id);
+    @Operation(summary = "Get book by specific id", description = "Get book by specific id, "
+            + "or 304 when If-None-Match carries the ETag of its current version")
+    public BookDto getBookById(@PathVariable Long id, WebRequest webRequest) {
+        BookDto bookDto = bookService.getBookById(id);
+        if (webRequest.checkNotModified("book-" + id + "-" + bookDto.getVersion())) {
+            return null;
+        }
+        return bookDto;
     }
 
     @GetMapping("/search")
     @PreAuthorize("hasRole('USER')")
-    @Operation(summary = "Search books", description = "Search book by specific search parameters")
-    public List<BookDto> searchBooks(BookSearchParametersDto searchParameters, Pageable pageable) {
-        return bookService.searchBooks(searchParameters, pageable);
+    @Operation(summary = "Search books", description = "Search book by specific search "
+            + "parameters. fields=title,price,... limits the properties returned")
+    public List<BookDto> searchBooks(BookSearchParametersDto searchParameters,
+                                     Pageable pageable,
+                                     @RequestParam(required = false) String[] fields) {
+        return bookService.searchBooks(searchParameters, pageable, BookFields.of(fields));
+    }
+
+    @GetMapping(value = "/search", params = "facets")
+    @PreAuthorize("hasRole('USER')")
+    @Operation(summary = "Search books with facet counts",
+            description = "Search books and count all matches per facet "
+                    + "(facets=category,price)")
+    public BookSearchResultDto searchBooksWithFacets(BookSearchParametersDto searchParameters,
+                                                     @RequestParam Set<String> facets,
+                                                     Pageable pageable) {
+        return bookService.searchBooksWithFacets(searchParameters, facets, pageable);
+    }
+
+    @GetMapping("/suggest")
+    @PreAuthorize("hasRole('USER')")
+    @Operation(summary = "Suggest titles and authors",
+            description = "Complete a prefix typed in the search box with the titles and "
+                    + "author names having a word that starts with it, most common first")
+    public List<BookSuggestionDto> suggest(@RequestParam String q,
+                                           @RequestParam(defaultValue = "10") int limit) {
+        return bookService.suggest(q, limit);
+    }
+
+    @GetMapping("/bestsellers")
+    @PreAuthorize("hasRole('USER')")
+    @Operation(summary = "Get bestsellers",
+            description = "Get the best selling books, overall or in one category")
+    public List<BookDto> getBestsellers(@RequestParam(required = false) Long categoryId,
+                                        @RequestParam(defaultValue = "10") int limit) {
+        return bookService.getBestsellers(categoryId, limit);
+    }
+
+    @GetMapping("/{id}/related")
+    @PreAuthorize("hasRole('USER')")
+    @Operation(summary = "Get related books",
+            description = "Get the books customers also bought with the book")
+    public List<BookDto> getRelatedBooks(@PathVariable Long id,
+                                         @RequestParam(defaultValue = "10") int limit) {
+        return bookService.getRelatedBooks(id, limit);
     }
 
     @PostMapping
@@ -68,6 +246,17 @@ public class BookController {
         return bookService.updateBook(id, bookRequestDto);
     }
 
+    @PatchMapping("/prices")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Reprice books(only for admins)",
+            description = "Change the price of every book matching the search parameters "
+                    + "by a percentage or an absolute amount")
+    public BookPriceUpdateResultDto updatePrices(
+            BookSearchParametersDto searchParameters,
+            @RequestBody @Valid BookPriceUpdateRequestDto priceUpdateRequestDto) {
+        return bookService.updatePrices(searchParameters, priceUpdateRequestDto);
+    }
+
     @DeleteMapping("/{id}")
     @PreAuthorize("hasRole('ADMIN')")
     @Operation(summary = "Delete book(only for admins)", description = "Delete book by specific id")
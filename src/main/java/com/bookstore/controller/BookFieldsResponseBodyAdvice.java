@@ -0,0 +1,42 @@
+package com.bookstore.controller;
+
+import com.bookstore.dto.book.BookFields;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.MappingJacksonValue;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.AbstractMappingJacksonResponseBodyAdvice;
+
+/**
+ * Writes only the requested {@code fields=} of the books that {@link BookController}
+ * returns from GET requests.
+ */
+@ControllerAdvice(assignableTypes = BookController.class)
+public class BookFieldsResponseBodyAdvice extends AbstractMappingJacksonResponseBodyAdvice {
+    private static final String FIELDS = "fields";
+
+    @Override
+    protected void beforeBodyWriteInternal(MappingJacksonValue bodyContainer,
+                                           MediaType contentType,
+                                           MethodParameter returnType,
+                                           ServerHttpRequest request,
+                                           ServerHttpResponse response) {
+        if (request.getMethod() != HttpMethod.GET
+                || !(request instanceof ServletServerHttpRequest)) {
+            return;
+        }
+        String[] fields = ((ServletServerHttpRequest) request).getServletRequest()
+                .getParameterValues(FIELDS);
+        BookFields bookFields = BookFields.of(fields);
+        if (!bookFields.isAll()) {
+            bodyContainer.setFilters(new SimpleFilterProvider().addFilter(BookFields.FILTER,
+                    SimpleBeanPropertyFilter.filterOutAllExcept(bookFields.names())));
+        }
+    }
+}
@@ -2,7 +2,9 @@ package com.bookstore.controller;
 
 import com.bookstore.dto.book.BookDtoWithoutCategoryIds;
 import com.bookstore.dto.category.CategoryDto;
+import com.bookstore.dto.category.CategoryNodeDto;
 import com.bookstore.service.BookService;
+import com.bookstore.service.CatalogVersionService;
 import com.bookstore.service.CategoryService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -18,8 +20,10 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
 @Tag(name = "Category management", description = "Endpoints for managing categories")
 @RequiredArgsConstructor
@@ -28,6 +32,7 @@ import org.springframework.web.bind.annotation.RestController;
 public class CategoryController {
     private final CategoryService categoryService;
     private final BookService bookService;
+    private final CatalogVersionService catalogVersionService;
 
     @PostMapping
     @ResponseStatus(HttpStatus.CREATED)
@@ -40,11 +45,23 @@ public class CategoryController {
 
     @GetMapping
     @PreAuthorize("hasRole('USER')")
-    @Operation(summary = "Get all categories", description = "Get all categories")
-    public List<CategoryDto> getAll(Pageable pageable) {
+    @Operation(summary = "Get all categories", description = "Get all categories, "
+            + "or 304 when If-None-Match carries the current catalog ETag")
+    public List<CategoryDto> getAll(Pageable pageable, WebRequest webRequest) {
+        if (webRequest.checkNotModified("catalog-" + catalogVersionService.getVersion())) {
+            return null;
+        }
         return categoryService.findAll(pageable);
     }
 
+    @GetMapping("/roots")
+    @PreAuthorize("hasRole('USER')")
+    @Operation(summary = "Get root categories", description = "Get the top-level categories "
+            + "with their number of subcategories and of books in their whole subtree")
+    public List<CategoryNodeDto> getRoots() {
+        return categoryService.findChildren(null);
+    }
+
     @GetMapping("/{id}")
     @PreAuthorize("hasRole('USER')")
     @Operation(summary = "Get category by specific id", description = "Get category by specific id")
@@ -68,12 +85,27 @@ public class CategoryController {
         categoryService.deleteById(id);
     }
 
+    @GetMapping("/{id}/children")
+    @PreAuthorize("hasRole('USER')")
+    @Operation(summary = "Get subcategories of specific category_id",
+            description = "Get the direct subcategories with their number of subcategories "
+                    + "and of books in their whole subtree")
+    public List<CategoryNodeDto> getChildren(@PathVariable Long id) {
+        return categoryService.findChildren(id);
+    }
+
     @GetMapping("/{id}/books")
     @PreAuthorize("hasRole('USER')")
     @Operation(summary = "Get books by specific category_id",
-            description = "Get books by specific category_id")
-    public List<BookDtoWithoutCategoryIds> getBooksByCategoryId(@PathVariable Long id,
-                                                                Pageable pageable) {
+            description = "Get books by specific category_id, or with includeSubcategories "
+                    + "the books of its whole subtree")
+    public List<BookDtoWithoutCategoryIds> getBooksByCategoryId(
+            @PathVariable Long id,
+            @RequestParam(defaultValue = "false") boolean includeSubcategories,
+            Pageable pageable) {
+        if (includeSubcategories) {
+            return bookService.findAllInCategorySubtree(id, pageable);
+        }
         return bookService.findAllByCategoryId(id, pageable);
     }
 }
@@ -0,0 +1,55 @@
+package com.bookstore.controller;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+
+/**
+ * Output stream over a {@link ResponseBodyEmitter}, sending what is written in chunks of
+ * about {@link #CHUNK_BYTES} rather than one emitter send per write.
+ */
+final class EmitterOutputStream extends OutputStream {
+    private static final int CHUNK_BYTES = 64 * 1024;
+
+    private final ResponseBodyEmitter emitter;
+    private final MediaType mediaType;
+    private final ByteArrayOutputStream buffer = new ByteArrayOutputStream(CHUNK_BYTES);
+
+    EmitterOutputStream(ResponseBodyEmitter emitter, MediaType mediaType) {
+        this.emitter = emitter;
+        this.mediaType = mediaType;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        buffer.write(b);
+        sendIfFull();
+    }
+
+    @Override
+    public void write(byte[] bytes, int offset, int length) throws IOException {
+        buffer.write(bytes, offset, length);
+        sendIfFull();
+    }
+
+    @Override
+    public void flush() throws IOException {
+        if (buffer.size() > 0) {
+            emitter.send(buffer.toByteArray(), mediaType);
+            buffer.reset();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        flush();
+    }
+
+    private void sendIfFull() throws IOException {
+        if (buffer.size() >= CHUNK_BYTES) {
+            flush();
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.bookstore.dto.book;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import java.util.List;
+import lombok.Data;
+import lombok.experimental.Accessors;
+
+@Accessors(chain = true)
+@Data
+public class BookBatchRequestDto {
+    @NotEmpty
+    private List<@NotNull Long> ids;
+}
@@ -0,0 +1,12 @@
+package com.bookstore.dto.book;
+
+import java.util.List;
+import lombok.Data;
+import lombok.experimental.Accessors;
+
+@Accessors(chain = true)
+@Data
+public class BookBatchResultDto {
+    private List<BookDto> content;
+    private List<Long> missingIds;
+}
@@ -0,0 +1,12 @@
+package com.bookstore.dto.book;
+
+import java.util.List;
+import lombok.Data;
+import lombok.experimental.Accessors;
+
+@Accessors(chain = true)
+@Data
+public class BookCursorPageDto {
+    private List<BookDto> content;
+    private String nextCursor;
+}
@@ -1,5 +1,6 @@
 package com.bookstore.dto.book;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import java.math.BigDecimal;
 import java.util.Set;
 import lombok.Data;
@@ -16,4 +17,6 @@ public class BookDto {
     private String description;
     private String coverImage;
     private Set<Long> categoryIds;
+    @JsonIgnore
+    private Long version;
 }
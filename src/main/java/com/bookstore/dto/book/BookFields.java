@@ -0,0 +1,57 @@
+package com.bookstore.dto.book;
+
+import com.bookstore.exception.InvalidParameterException;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import lombok.EqualsAndHashCode;
+
+/**
+ * The {@link BookDto} properties a client asked for with {@code fields=}. The id is always
+ * included; without the parameter every property is.
+ */
+@EqualsAndHashCode
+public final class BookFields {
+    public static final String FILTER = "bookFields";
+    public static final String ID = "id";
+    public static final String CATEGORY_IDS = "categoryIds";
+    public static final List<String> NAMES = List.of(ID, "title", "author", "isbn", "price",
+            "description", "coverImage", CATEGORY_IDS);
+    public static final BookFields ALL = new BookFields(new LinkedHashSet<>(NAMES));
+
+    private final Set<String> names;
+
+    private BookFields(Set<String> names) {
+        this.names = names;
+    }
+
+    public static BookFields of(String[] fields) {
+        if (fields == null || fields.length == 0) {
+            return ALL;
+        }
+        Set<String> names = new LinkedHashSet<>();
+        names.add(ID);
+        Arrays.stream(fields)
+                .flatMap(field -> Arrays.stream(field.split(",")))
+                .map(String::trim)
+                .filter(field -> !field.isEmpty())
+                .forEach(names::add);
+        if (!NAMES.containsAll(names)) {
+            throw new InvalidParameterException("Supported fields are: " + NAMES);
+        }
+        return names.size() == NAMES.size() ? ALL : new BookFields(names);
+    }
+
+    public boolean isAll() {
+        return names.size() == NAMES.size();
+    }
+
+    public boolean includes(String name) {
+        return names.contains(name);
+    }
+
+    public Set<String> names() {
+        return names;
+    }
+}
@@ -0,0 +1,11 @@
+package com.bookstore.dto.book;
+
+import lombok.Data;
+import lombok.experimental.Accessors;
+
+@Accessors(chain = true)
+@Data
+public class BookImportErrorDto {
+    private long row;
+    private String message;
+}
@@ -0,0 +1,15 @@
+package com.bookstore.dto.book;
+
+import java.util.List;
+import lombok.Data;
+import lombok.experimental.Accessors;
+
+@Accessors(chain = true)
+@Data
+public class BookImportResultDto {
+    private long imported;
+    private long failed;
+    private List<BookImportErrorDto> errors;
+    private long elapsedMillis;
+    private long booksPerSecond;
+}
@@ -0,0 +1,20 @@
+package com.bookstore.dto.book;
+
+import jakarta.validation.constraints.NotNull;
+import java.math.BigDecimal;
+import lombok.Data;
+import lombok.experimental.Accessors;
+
+@Accessors(chain = true)
+@Data
+public class BookPriceUpdateRequestDto {
+    @NotNull
+    private Type type;
+    @NotNull
+    private BigDecimal value;
+
+    public enum Type {
+        PERCENTAGE,
+        ABSOLUTE
+    }
+}
@@ -0,0 +1,10 @@
+package com.bookstore.dto.book;
+
+import lombok.Data;
+import lombok.experimental.Accessors;
+
+@Accessors(chain = true)
+@Data
+public class BookPriceUpdateResultDto {
+    private long updated;
+}
@@ -1,7 +1,47 @@
 package com.bookstore.dto.book;
 
+import java.util.Arrays;
+
 public record BookSearchParametersDto(String[] titles,
                                       String[] authors,
                                       String[] prices,
-                                      String[] isbns) {
+                                      String[] isbns,
+                                      String q,
+                                      Long[] categoryIds,
+                                      String categoryMatch,
+                                      Boolean fuzzy) {
+    public static final String MATCH_ANY = "any";
+    public static final String MATCH_ALL = "all";
+
+    public boolean hasText() {
+        return hasValues(titles) || hasValues(authors) || (q != null && !q.isBlank());
+    }
+
+    public boolean hasCategories() {
+        return categoryIds != null && categoryIds.length > 0;
+    }
+
+    public boolean hasFilters() {
+        return hasPriceRange() || hasIsbns();
+    }
+
+    public boolean hasPriceRange() {
+        return prices != null && prices.length > 0;
+    }
+
+    public boolean hasIsbns() {
+        return isbns != null && isbns.length > 0;
+    }
+
+    public boolean isFuzzy() {
+        return Boolean.TRUE.equals(fuzzy);
+    }
+
+    public boolean matchAllCategories() {
+        return MATCH_ALL.equalsIgnoreCase(categoryMatch);
+    }
+
+    private static boolean hasValues(String[] values) {
+        return values != null && Arrays.stream(values).anyMatch(v -> v != null && !v.isBlank());
+    }
 }
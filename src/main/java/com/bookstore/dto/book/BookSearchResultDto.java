@@ -0,0 +1,13 @@
+package com.bookstore.dto.book;
+
+import java.util.List;
+import java.util.Map;
+import lombok.Data;
+import lombok.experimental.Accessors;
+
+@Accessors(chain = true)
+@Data
+public class BookSearchResultDto {
+    private List<BookDto> content;
+    private Map<String, List<FacetCountDto>> facets;
+}
@@ -0,0 +1,12 @@
+package com.bookstore.dto.book;
+
+import lombok.Data;
+import lombok.experimental.Accessors;
+
+@Accessors(chain = true)
+@Data
+public class BookSuggestionDto {
+    private String type;
+    private String text;
+    private long books;
+}
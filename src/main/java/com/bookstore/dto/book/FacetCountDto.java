@@ -0,0 +1,11 @@
+package com.bookstore.dto.book;
+
+import lombok.Data;
+import lombok.experimental.Accessors;
+
+@Accessors(chain = true)
+@Data
+public class FacetCountDto {
+    private String value;
+    private long count;
+}
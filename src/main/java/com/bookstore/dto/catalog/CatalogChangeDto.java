@@ -0,0 +1,24 @@
+package com.bookstore.dto.catalog;
+
+import com.bookstore.dto.book.BookDto;
+import com.bookstore.dto.category.CategoryDto;
+import com.bookstore.repository.catalog.CatalogChange;
+import java.time.LocalDateTime;
+import lombok.Data;
+import lombok.experimental.Accessors;
+
+/**
+ * Latest change of one book or category: its current state, or a tombstone without
+ * one when it was deleted.
+ */
+@Accessors(chain = true)
+@Data
+public class CatalogChangeDto {
+    private long sequenceNumber;
+    private CatalogChange.EntityType type;
+    private Long id;
+    private boolean deleted;
+    private LocalDateTime changedAt;
+    private BookDto book;
+    private CategoryDto category;
+}
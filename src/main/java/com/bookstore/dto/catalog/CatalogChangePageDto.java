@@ -0,0 +1,13 @@
+package com.bookstore.dto.catalog;
+
+import java.util.List;
+import lombok.Data;
+import lombok.experimental.Accessors;
+
+@Accessors(chain = true)
+@Data
+public class CatalogChangePageDto {
+    private List<CatalogChangeDto> content;
+    private String nextToken;
+    private boolean hasMore;
+}
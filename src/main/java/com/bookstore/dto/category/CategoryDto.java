@@ -1,6 +1,11 @@
 package com.bookstore.dto.category;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.AccessLevel;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.Setter;
+import lombok.ToString;
 import lombok.experimental.Accessors;
 
 @Accessors(chain = true)
@@ -9,4 +14,20 @@ public class CategoryDto {
 
     private String name;
     private String description;
+    private Long parentId;
+    @JsonIgnore
+    @Setter(AccessLevel.NONE)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private boolean parentIdPresent;
+
+    /**
+     * Also records that the parent was given at all, so an update without the field keeps
+     * the category where it is while an explicit null moves it to the root.
+     */
+    public CategoryDto setParentId(Long parentId) {
+        this.parentId = parentId;
+        this.parentIdPresent = true;
+        return this;
+    }
 }
@@ -0,0 +1,19 @@
+package com.bookstore.dto.category;
+
+import lombok.Data;
+import lombok.experimental.Accessors;
+
+@Accessors(chain = true)
+@Data
+public class CategoryNodeDto {
+    private Long id;
+    private String name;
+    private String description;
+    private Long parentId;
+    private int childCount;
+    /**
+     * Distinct books in this category and all of its descendants, or null while the book
+     * indexes are still loading.
+     */
+    private Long bookCount;
+}
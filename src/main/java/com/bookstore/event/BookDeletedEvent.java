@@ -0,0 +1,8 @@
+package com.bookstore.event;
+
+import lombok.Value;
+
+@Value
+public class BookDeletedEvent {
+    private final Long bookId;
+}
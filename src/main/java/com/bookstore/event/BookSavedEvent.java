@@ -0,0 +1,9 @@
+package com.bookstore.event;
+
+import com.bookstore.model.Book;
+import lombok.Value;
+
+@Value
+public class BookSavedEvent {
+    private final Book book;
+}
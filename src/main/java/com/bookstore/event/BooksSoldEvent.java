@@ -0,0 +1,13 @@
+package com.bookstore.event;
+
+import java.util.Map;
+import lombok.Value;
+
+/**
+ * Published once per placed order with the quantity sold of each of its books.
+ */
+@Value
+public class BooksSoldEvent {
+    private final Long orderId;
+    private final Map<Long, Long> quantities;
+}
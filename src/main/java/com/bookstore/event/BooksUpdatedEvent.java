@@ -0,0 +1,12 @@
+package com.bookstore.event;
+
+import java.util.List;
+import lombok.Value;
+
+/**
+ * Published once after a bulk change to many books, instead of one event per book.
+ */
+@Value
+public class BooksUpdatedEvent {
+    private final List<Long> bookIds;
+}
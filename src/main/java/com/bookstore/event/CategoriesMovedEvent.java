@@ -0,0 +1,13 @@
+package com.bookstore.event;
+
+import java.util.List;
+import lombok.Value;
+
+/**
+ * Published once for the descendants of a moved category, whose paths were all rewritten
+ * in bulk, instead of one save event per category.
+ */
+@Value
+public class CategoriesMovedEvent {
+    private final List<Long> categoryIds;
+}
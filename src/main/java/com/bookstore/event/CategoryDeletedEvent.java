@@ -0,0 +1,8 @@
+package com.bookstore.event;
+
+import lombok.Value;
+
+@Value
+public class CategoryDeletedEvent {
+    private final Long categoryId;
+}
@@ -0,0 +1,9 @@
+package com.bookstore.event;
+
+import com.bookstore.model.Category;
+import lombok.Value;
+
+@Value
+public class CategorySavedEvent {
+    private final Category category;
+}
@@ -0,0 +1,12 @@
+package com.bookstore.exception;
+
+/**
+ * Not-found answer for a book id known to be absent without querying the database.
+ * Such lookups are frequent and expected (scrapers, stale links), so the exception
+ * is created without capturing a stack trace.
+ */
+public class BookNotFoundException extends EntityNotFoundException {
+    public BookNotFoundException(Long bookId) {
+        super("No book in DB by id: " + bookId, false);
+    }
+}
@@ -0,0 +1,11 @@
+package com.bookstore.exception;
+
+/**
+ * Not-found answer for a category a request refers to, e.g. among the categories of a
+ * book, that exists neither in the category catalog nor in the database.
+ */
+public class CategoryNotFoundException extends EntityNotFoundException {
+    public CategoryNotFoundException(Long categoryId) {
+        super("Can't find a category in DB by id: " + categoryId);
+    }
+}
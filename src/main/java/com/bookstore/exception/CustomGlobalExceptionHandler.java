@@ -46,6 +46,17 @@ public class CustomGlobalExceptionHandler extends ResponseEntityExceptionHandler
         );
     }
 
+    @ExceptionHandler(CategoryNotFoundException.class)
+    protected ResponseEntity<Object> handleCategoryNotFoundException(
+            CategoryNotFoundException ex,
+            WebRequest request
+    ) {
+        Map<String, Object> body = getBody(ex, HttpStatus.NOT_FOUND);
+        return handleExceptionInternal(
+                ex, body, new HttpHeaders(), HttpStatus.NOT_FOUND, request
+        );
+    }
+
     @ExceptionHandler(RegistrationException.class)
     protected ResponseEntity<Object> handleRegistrationException(
             RegistrationException ex,
@@ -68,6 +79,28 @@ public class CustomGlobalExceptionHandler extends ResponseEntityExceptionHandler
         );
     }
 
+    @ExceptionHandler(DuplicateIsbnException.class)
+    protected ResponseEntity<Object> handleDuplicateIsbnException(
+            DuplicateIsbnException ex,
+            WebRequest request
+    ) {
+        Map<String, Object> body = getBody(ex, HttpStatus.CONFLICT);
+        return handleExceptionInternal(
+                ex, body, new HttpHeaders(), HttpStatus.CONFLICT, request
+        );
+    }
+
+    @ExceptionHandler(InvalidParameterException.class)
+    protected ResponseEntity<Object> handleInvalidParameterException(
+            InvalidParameterException ex,
+            WebRequest request
+    ) {
+        Map<String, Object> body = getBody(ex);
+        return handleExceptionInternal(
+                ex, body, new HttpHeaders(), HttpStatus.BAD_REQUEST, request
+        );
+    }
+
     @Override
     protected ResponseEntity<Object> handleExceptionInternal(
             Exception ex,
@@ -88,9 +121,13 @@ public class CustomGlobalExceptionHandler extends ResponseEntityExceptionHandler
     }
 
     private Map<String, Object> getBody(Exception ex) {
+        return getBody(ex, HttpStatus.BAD_REQUEST);
+    }
+
+    private Map<String, Object> getBody(Exception ex, HttpStatus status) {
         Map<String, Object> body = new LinkedHashMap<>();
         body.put("timestamp", LocalDateTime.now());
-        body.put("status", HttpStatus.BAD_REQUEST.value());
+        body.put("status", status.value());
         body.put("errors", ex.getMessage());
         return body;
     }
@@ -0,0 +1,11 @@
+package com.bookstore.exception;
+
+/**
+ * Conflict answer for a book whose ISBN, compared as a canonical ISBN-13, is already
+ * taken by another book, live or soft-deleted.
+ */
+public class DuplicateIsbnException extends DataBaseConflictException {
+    public DuplicateIsbnException(String isbn) {
+        super("A book with isbn " + isbn + " already exists");
+    }
+}
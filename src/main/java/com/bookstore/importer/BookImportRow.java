@@ -0,0 +1,14 @@
+package com.bookstore.importer;
+
+import com.bookstore.dto.book.CreateBookRequestDto;
+import lombok.Value;
+
+/**
+ * One record of an import feed: the parsed book, or the reason it could not be parsed.
+ */
+@Value
+public class BookImportRow {
+    private final long rowNumber;
+    private final CreateBookRequestDto book;
+    private final String error;
+}
@@ -0,0 +1,10 @@
+package com.bookstore.importer;
+
+import java.io.IOException;
+
+public interface BookRowReader {
+    /**
+     * Reads the next record of the feed, or returns null once the feed is exhausted.
+     */
+    BookImportRow next() throws IOException;
+}
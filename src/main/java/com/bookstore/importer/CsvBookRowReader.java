@@ -0,0 +1,137 @@
+package com.bookstore.importer;
+
+import com.bookstore.dto.book.CreateBookRequestDto;
+import com.bookstore.exception.InvalidParameterException;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Streaming RFC 4180 reader: a header row naming the columns (title, author, isbn, price,
+ * description, coverImage, categoryIds in any order) followed by one record per book.
+ * Quoted fields may contain commas, doubled quotes and line breaks; several category ids
+ * are separated by ';'.
+ */
+public class CsvBookRowReader implements BookRowReader {
+    private static final String TITLE = "title";
+    private static final String AUTHOR = "author";
+    private static final String ISBN = "isbn";
+    private static final String PRICE = "price";
+    private static final String DESCRIPTION = "description";
+    private static final String COVER_IMAGE = "coverimage";
+    private static final String CATEGORY_IDS = "categoryids";
+    private static final List<String> REQUIRED_COLUMNS = List.of(TITLE, AUTHOR, ISBN, PRICE);
+
+    private final BufferedReader reader;
+    private final Map<String, Integer> columns = new HashMap<>();
+    private long rowNumber;
+
+    public CsvBookRowReader(Reader reader) throws IOException {
+        this.reader = new BufferedReader(reader);
+        List<String> header = readRecord();
+        if (header != null) {
+            for (int i = 0; i < header.size(); i++) {
+                columns.put(header.get(i).trim().toLowerCase(Locale.ROOT), i);
+            }
+        }
+        if (!columns.keySet().containsAll(REQUIRED_COLUMNS)) {
+            throw new InvalidParameterException(
+                    "CSV header must contain the columns " + REQUIRED_COLUMNS);
+        }
+    }
+
+    @Override
+    public BookImportRow next() throws IOException {
+        List<String> record = readRecord();
+        while (record != null && record.size() == 1 && record.get(0).isBlank()) {
+            record = readRecord();
+        }
+        if (record == null) {
+            return null;
+        }
+        rowNumber++;
+        try {
+            return new BookImportRow(rowNumber, toBook(record), null);
+        } catch (NumberFormatException e) {
+            return new BookImportRow(rowNumber, null, "Malformed number: " + e.getMessage());
+        }
+    }
+
+    private CreateBookRequestDto toBook(List<String> record) {
+        String price = value(record, PRICE);
+        return new CreateBookRequestDto()
+                .setTitle(value(record, TITLE))
+                .setAuthor(value(record, AUTHOR))
+                .setIsbn(value(record, ISBN))
+                .setPrice(price == null ? null : new BigDecimal(price.trim()))
+                .setDescription(value(record, DESCRIPTION))
+                .setCoverImage(value(record, COVER_IMAGE))
+                .setCategoryIds(toCategoryIds(value(record, CATEGORY_IDS)));
+    }
+
+    private Set<Long> toCategoryIds(String value) {
+        Set<Long> categoryIds = new HashSet<>();
+        if (value == null) {
+            return categoryIds;
+        }
+        for (String categoryId : value.split(";")) {
+            if (!categoryId.isBlank()) {
+                categoryIds.add(Long.valueOf(categoryId.trim()));
+            }
+        }
+        return categoryIds;
+    }
+
+    private String value(List<String> record, String column) {
+        Integer index = columns.get(column);
+        if (index == null || index >= record.size() || record.get(index).isEmpty()) {
+            return null;
+        }
+        return record.get(index);
+    }
+
+    private List<String> readRecord() throws IOException {
+        int c = reader.read();
+        if (c == -1) {
+            return null;
+        }
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        while (true) {
+            if (quoted) {
+                if (c == -1) {
+                    fields.add(field.toString());
+                    return fields;
+                }
+                if (c == '"') {
+                    c = reader.read();
+                    if (c != '"') {
+                        quoted = false;
+                        continue;
+                    }
+                }
+                field.append((char) c);
+            } else if (c == -1 || c == '\n') {
+                fields.add(field.toString());
+                return fields;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '"' && field.length() == 0) {
+                quoted = true;
+            } else if (c != '\r') {
+                field.append((char) c);
+            }
+            c = reader.read();
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.bookstore.importer;
+
+import com.bookstore.dto.book.CreateBookRequestDto;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectReader;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * Reads one JSON object per line, so a malformed line only fails its own row.
+ */
+public class NdjsonBookRowReader implements BookRowReader {
+    private final BufferedReader reader;
+    private final ObjectReader objectReader;
+    private long lineNumber;
+
+    public NdjsonBookRowReader(Reader reader, ObjectReader objectReader) {
+        this.reader = new BufferedReader(reader);
+        this.objectReader = objectReader.forType(CreateBookRequestDto.class);
+    }
+
+    @Override
+    public BookImportRow next() throws IOException {
+        String line = reader.readLine();
+        lineNumber++;
+        while (line != null && line.isBlank()) {
+            line = reader.readLine();
+            lineNumber++;
+        }
+        if (line == null) {
+            return null;
+        }
+        try {
+            return new BookImportRow(lineNumber, objectReader.readValue(line), null);
+        } catch (JsonProcessingException e) {
+            return new BookImportRow(lineNumber, null, "Malformed JSON: " + e.getOriginalMessage());
+        }
+    }
+}
@@ -0,0 +1,289 @@
+package com.bookstore.index;
+
+import com.bookstore.event.BooksSoldEvent;
+import com.bookstore.event.CategoryDeletedEvent;
+import com.bookstore.model.Book;
+import com.bookstore.model.Category;
+import com.bookstore.service.BookSalesService;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Best selling books overall and per category, each ranking a top-k of at most
+ * {@link #CAPACITY} books that is updated with every sale, so a bestseller list is read
+ * without aggregating orders. A ranking that is not full holds every sold book of its
+ * category; a full one is only recomputed when one of its books leaves the category.
+ * Totals are loaded with the books and then follow local sales; sales made on other
+ * nodes are picked up by a periodic reload.
+ */
+@RequiredArgsConstructor
+@Component
+public class BestsellerIndex implements BookIndex {
+    public static final int CAPACITY = 100;
+
+    private final BookSalesService bookSalesService;
+    private final Map<Long, Long> soldByBook = new HashMap<>();
+    private final Map<Long, long[]> categoriesByBook = new HashMap<>();
+    private final Map<Long, Ranking> rankingsByCategory = new HashMap<>();
+    private final Ranking overallRanking = new Ranking();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private boolean loaded;
+
+    @Override
+    public void index(Book book) {
+        long[] categoryIds = book.getCategories()
+                .stream()
+                .map(Category::getId)
+                .mapToLong(Long::longValue)
+                .toArray();
+        lock.writeLock().lock();
+        try {
+            long[] previousCategoryIds = categoriesByBook.put(book.getId(), categoryIds);
+            if (!loaded) {
+                return;
+            }
+            long sold = soldByBook.getOrDefault(book.getId(), 0L);
+            if (previousCategoryIds != null) {
+                for (long categoryId : previousCategoryIds) {
+                    if (!contains(categoryIds, categoryId)) {
+                        removeFromRanking(categoryId, book.getId());
+                    }
+                }
+            }
+            if (sold > 0) {
+                overallRanking.offer(book.getId(), sold);
+                for (long categoryId : categoryIds) {
+                    ranking(categoryId).offer(book.getId(), sold);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void remove(Long bookId) {
+        lock.writeLock().lock();
+        try {
+            long[] categoryIds = categoriesByBook.remove(bookId);
+            soldByBook.remove(bookId);
+            if (!loaded || categoryIds == null) {
+                return;
+            }
+            removeFromRanking(null, bookId);
+            for (long categoryId : categoryIds) {
+                removeFromRanking(categoryId, bookId);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            loaded = false;
+            soldByBook.clear();
+            categoriesByBook.clear();
+            rankingsByCategory.clear();
+            overallRanking.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void loaded() {
+        reload(bookSalesService.loadTotals());
+    }
+
+    @Scheduled(fixedDelayString = "${bestsellers.reload-interval:PT5M}",
+            initialDelayString = "${bestsellers.reload-interval:PT5M}")
+    public void reloadIfLoaded() {
+        lock.readLock().lock();
+        try {
+            if (!loaded) {
+                return;
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        reload(bookSalesService.loadTotals());
+    }
+
+    @EventListener
+    public void onBooksSold(BooksSoldEvent event) {
+        lock.writeLock().lock();
+        try {
+            if (!loaded) {
+                return;
+            }
+            event.getQuantities().forEach((bookId, quantity) -> {
+                long[] categoryIds = categoriesByBook.get(bookId);
+                if (categoryIds == null) {
+                    return;
+                }
+                long sold = soldByBook.merge(bookId, quantity, Long::sum);
+                overallRanking.offer(bookId, sold);
+                for (long categoryId : categoryIds) {
+                    ranking(categoryId).offer(bookId, sold);
+                }
+            });
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCategoryDeleted(CategoryDeletedEvent event) {
+        lock.writeLock().lock();
+        try {
+            rankingsByCategory.remove(event.getCategoryId());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the ids of the best selling books, overall for a null category, best first.
+     */
+    public List<Long> top(Long categoryId, int limit) {
+        lock.readLock().lock();
+        try {
+            Ranking ranking = categoryId == null
+                    ? overallRanking
+                    : rankingsByCategory.get(categoryId);
+            return ranking == null ? List.of() : ranking.top(limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void reload(Map<Long, Long> totals) {
+        lock.writeLock().lock();
+        try {
+            soldByBook.clear();
+            totals.forEach((bookId, sold) -> {
+                if (sold > 0 && categoriesByBook.containsKey(bookId)) {
+                    soldByBook.put(bookId, sold);
+                }
+            });
+            overallRanking.clear();
+            rankingsByCategory.clear();
+            soldByBook.forEach((bookId, sold) -> {
+                overallRanking.offer(bookId, sold);
+                for (long categoryId : categoriesByBook.get(bookId)) {
+                    ranking(categoryId).offer(bookId, sold);
+                }
+            });
+            loaded = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes the book from the ranking of the category (the overall one for null) and,
+     * when that left a full ranking short, recomputes it from all sold books.
+     */
+    private void removeFromRanking(Long categoryId, long bookId) {
+        Ranking ranking = categoryId == null ? overallRanking : rankingsByCategory.get(categoryId);
+        if (ranking == null) {
+            return;
+        }
+        boolean wasFull = ranking.isFull();
+        if (!ranking.remove(bookId) || !wasFull) {
+            return;
+        }
+        ranking.clear();
+        soldByBook.forEach((soldBookId, sold) -> {
+            if (categoryId == null || contains(categoriesByBook.get(soldBookId), categoryId)) {
+                ranking.offer(soldBookId, sold);
+            }
+        });
+    }
+
+    private Ranking ranking(long categoryId) {
+        return rankingsByCategory.computeIfAbsent(categoryId, id -> new Ranking());
+    }
+
+    private static boolean contains(long[] ids, long id) {
+        for (long candidate : ids) {
+            if (candidate == id) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static final class Ranking {
+        private static final Comparator<Entry> BEST_FIRST =
+                Comparator.comparingLong((Entry entry) -> entry.sold).reversed()
+                        .thenComparingLong(entry -> entry.bookId);
+
+        private final TreeSet<Entry> entries = new TreeSet<>(BEST_FIRST);
+        private final Map<Long, Entry> entriesByBook = new HashMap<>();
+
+        private void offer(long bookId, long sold) {
+            Entry entry = new Entry(bookId, sold);
+            Entry previous = entriesByBook.remove(bookId);
+            if (previous != null) {
+                entries.remove(previous);
+            } else if (isFull()) {
+                if (BEST_FIRST.compare(entry, entries.last()) > 0) {
+                    return;
+                }
+                entriesByBook.remove(entries.pollLast().bookId);
+            }
+            entries.add(entry);
+            entriesByBook.put(bookId, entry);
+        }
+
+        private boolean remove(long bookId) {
+            Entry entry = entriesByBook.remove(bookId);
+            return entry != null && entries.remove(entry);
+        }
+
+        private boolean isFull() {
+            return entries.size() >= CAPACITY;
+        }
+
+        private void clear() {
+            entries.clear();
+            entriesByBook.clear();
+        }
+
+        private List<Long> top(int limit) {
+            List<Long> bookIds = new ArrayList<>(Math.min(limit, entries.size()));
+            for (Entry entry : entries) {
+                if (bookIds.size() == limit) {
+                    break;
+                }
+                bookIds.add(entry.bookId);
+            }
+            return bookIds;
+        }
+    }
+
+    private static final class Entry {
+        private final long bookId;
+        private final long sold;
+
+        private Entry(long bookId, long sold) {
+            this.bookId = bookId;
+            this.sold = sold;
+        }
+    }
+}
@@ -0,0 +1,225 @@
+package com.bookstore.index;
+
+import com.bookstore.event.CategoryDeletedEvent;
+import com.bookstore.model.Book;
+import com.bookstore.model.Category;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import org.roaringbitmap.longlong.LongIterator;
+import org.roaringbitmap.longlong.Roaring64NavigableMap;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Columnar copy of the facet attributes of every book: price in cents and category ids,
+ * stored in arrays indexed by book id, so facet counts for a set of matching ids are
+ * computed in a single pass without touching the database. The rare ids outside the
+ * dense range (negative or huge) are kept in a side map.
+ */
+@Component
+public class BookFacetIndex implements BookIndex {
+    private static final long[] PRICE_BOUNDS_IN_CENTS = {1000, 2500, 5000, 10000};
+    private static final long NO_PRICE = -1;
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final long MAX_SLOT = 1 << 24;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private long[] pricesInCents = newPriceColumn(INITIAL_CAPACITY);
+    private long[][] categoryIds = new long[INITIAL_CAPACITY][];
+    private final Map<Long, Long> outOfRangePrices = new HashMap<>();
+    private final Map<Long, long[]> outOfRangeCategoryIds = new HashMap<>();
+    private long maxCategoryId;
+
+    @Override
+    public void index(Book book) {
+        long[] bookCategoryIds = book.getCategories()
+                .stream()
+                .map(Category::getId)
+                .mapToLong(Long::longValue)
+                .toArray();
+        lock.writeLock().lock();
+        try {
+            if (isInRange(book.getId())) {
+                int slot = book.getId().intValue();
+                ensureCapacity(slot + 1);
+                pricesInCents[slot] = toCents(book.getPrice());
+                categoryIds[slot] = bookCategoryIds;
+            } else {
+                outOfRangePrices.put(book.getId(), toCents(book.getPrice()));
+                outOfRangeCategoryIds.put(book.getId(), bookCategoryIds);
+            }
+            for (long categoryId : bookCategoryIds) {
+                maxCategoryId = Math.max(maxCategoryId, categoryId);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void remove(Long bookId) {
+        lock.writeLock().lock();
+        try {
+            if (!isInRange(bookId)) {
+                outOfRangePrices.remove(bookId);
+                outOfRangeCategoryIds.remove(bookId);
+            } else if (bookId < pricesInCents.length) {
+                pricesInCents[bookId.intValue()] = NO_PRICE;
+                categoryIds[bookId.intValue()] = null;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            pricesInCents = newPriceColumn(INITIAL_CAPACITY);
+            categoryIds = new long[INITIAL_CAPACITY][];
+            outOfRangePrices.clear();
+            outOfRangeCategoryIds.clear();
+            maxCategoryId = 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCategoryDeleted(CategoryDeletedEvent event) {
+        long deletedId = event.getCategoryId();
+        lock.writeLock().lock();
+        try {
+            for (int slot = 0; slot < categoryIds.length; slot++) {
+                categoryIds[slot] = withoutCategory(categoryIds[slot], deletedId);
+            }
+            outOfRangeCategoryIds.replaceAll((bookId, bookCategoryIds) ->
+                    withoutCategory(bookCategoryIds, deletedId));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Counts books per category and per price range over the given ids,
+     * or over every indexed book when {@code bookIds} is null.
+     */
+    public FacetCounts count(Roaring64NavigableMap bookIds) {
+        lock.readLock().lock();
+        try {
+            long[] categoryCounts = new long[(int) maxCategoryId + 1];
+            long[] priceRangeCounts = new long[PRICE_BOUNDS_IN_CENTS.length + 1];
+            if (bookIds == null) {
+                for (int slot = 0; slot < pricesInCents.length; slot++) {
+                    countBook(pricesInCents[slot], categoryIds[slot],
+                            categoryCounts, priceRangeCounts);
+                }
+                for (Long bookId : outOfRangePrices.keySet()) {
+                    countBook(outOfRangePrices.get(bookId), outOfRangeCategoryIds.get(bookId),
+                            categoryCounts, priceRangeCounts);
+                }
+            } else {
+                LongIterator iterator = bookIds.getLongIterator();
+                while (iterator.hasNext()) {
+                    long bookId = iterator.next();
+                    if (!isInRange(bookId)) {
+                        countBook(outOfRangePrices.getOrDefault(bookId, NO_PRICE),
+                                outOfRangeCategoryIds.get(bookId),
+                                categoryCounts, priceRangeCounts);
+                    } else if (bookId < pricesInCents.length) {
+                        countBook(pricesInCents[(int) bookId], categoryIds[(int) bookId],
+                                categoryCounts, priceRangeCounts);
+                    }
+                }
+            }
+            return new FacetCounts(toCategoryMap(categoryCounts),
+                    toPriceRangeMap(priceRangeCounts));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void countBook(long priceInCents, long[] bookCategoryIds,
+                       long[] categoryCounts, long[] priceRangeCounts) {
+        if (priceInCents == NO_PRICE) {
+            return;
+        }
+        int range = 0;
+        while (range < PRICE_BOUNDS_IN_CENTS.length
+                && priceInCents >= PRICE_BOUNDS_IN_CENTS[range]) {
+            range++;
+        }
+        priceRangeCounts[range]++;
+        for (long categoryId : bookCategoryIds) {
+            if (categoryId >= 0 && categoryId < categoryCounts.length) {
+                categoryCounts[(int) categoryId]++;
+            }
+        }
+    }
+
+    private Map<Long, Long> toCategoryMap(long[] categoryCounts) {
+        Map<Long, Long> categories = new LinkedHashMap<>();
+        for (int categoryId = 0; categoryId < categoryCounts.length; categoryId++) {
+            if (categoryCounts[categoryId] > 0) {
+                categories.put((long) categoryId, categoryCounts[categoryId]);
+            }
+        }
+        return categories;
+    }
+
+    private Map<String, Long> toPriceRangeMap(long[] priceRangeCounts) {
+        Map<String, Long> priceRanges = new LinkedHashMap<>();
+        long lowerBound = 0;
+        for (int range = 0; range < PRICE_BOUNDS_IN_CENTS.length; range++) {
+            priceRanges.put(toPrice(lowerBound) + "-" + toPrice(PRICE_BOUNDS_IN_CENTS[range]),
+                    priceRangeCounts[range]);
+            lowerBound = PRICE_BOUNDS_IN_CENTS[range];
+        }
+        priceRanges.put(toPrice(lowerBound) + "+", priceRangeCounts[PRICE_BOUNDS_IN_CENTS.length]);
+        return priceRanges;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= pricesInCents.length) {
+            return;
+        }
+        int newCapacity = Math.max(capacity, pricesInCents.length + (pricesInCents.length >> 1));
+        long[] newPrices = newPriceColumn(newCapacity);
+        System.arraycopy(pricesInCents, 0, newPrices, 0, pricesInCents.length);
+        pricesInCents = newPrices;
+        categoryIds = Arrays.copyOf(categoryIds, newCapacity);
+    }
+
+    private static long[] withoutCategory(long[] bookCategoryIds, long categoryId) {
+        if (bookCategoryIds == null
+                || Arrays.stream(bookCategoryIds).noneMatch(id -> id == categoryId)) {
+            return bookCategoryIds;
+        }
+        return Arrays.stream(bookCategoryIds).filter(id -> id != categoryId).toArray();
+    }
+
+    private static boolean isInRange(long bookId) {
+        return bookId >= 0 && bookId < MAX_SLOT;
+    }
+
+    private static long[] newPriceColumn(int capacity) {
+        long[] prices = new long[capacity];
+        Arrays.fill(prices, NO_PRICE);
+        return prices;
+    }
+
+    private static long toCents(BigDecimal price) {
+        return price.movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValueExact();
+    }
+
+    private static String toPrice(long cents) {
+        return BigDecimal.valueOf(cents, 2).stripTrailingZeros().toPlainString();
+    }
+}
@@ -0,0 +1,22 @@
+package com.bookstore.index;
+
+import com.bookstore.model.Book;
+
+/**
+ * An in-memory structure derived from the books table. Implementations are kept
+ * up to date by {@link BookIndexManager}, which feeds them every saved or deleted book
+ * and rebuilds them from the database on startup.
+ */
+public interface BookIndex {
+    void index(Book book);
+
+    void remove(Long bookId);
+
+    void clear();
+
+    /**
+     * Called once every book has been indexed by a full load.
+     */
+    default void loaded() {
+    }
+}
@@ -0,0 +1,72 @@
+package com.bookstore.index;
+
+import com.bookstore.event.BookDeletedEvent;
+import com.bookstore.event.BookSavedEvent;
+import com.bookstore.event.BooksUpdatedEvent;
+import com.bookstore.model.Book;
+import com.bookstore.repository.book.BookRepository;
+import java.util.List;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Loads every {@link BookIndex} from the database once the application is ready and
+ * then applies book changes to them incrementally, once the writing transaction has
+ * committed, so a rolled back write never reaches them. Until the first load completes
+ * {@link #isReady()} is false and callers must fall back to SQL.
+ */
+@RequiredArgsConstructor
+@Component
+public class BookIndexManager {
+    private static final int BATCH_SIZE = 500;
+
+    private final BookRepository bookRepository;
+    private final List<BookIndex> bookIndexes;
+    private volatile boolean ready;
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuild() {
+        ready = false;
+        bookIndexes.forEach(BookIndex::clear);
+        List<Long> ids = bookRepository.findIdsGreaterThan(Long.MIN_VALUE,
+                PageRequest.of(0, BATCH_SIZE));
+        while (!ids.isEmpty()) {
+            for (Book book : bookRepository.findAllByIdIn(ids)) {
+                bookIndexes.forEach(bookIndex -> bookIndex.index(book));
+            }
+            ids = bookRepository.findIdsGreaterThan(ids.get(ids.size() - 1),
+                    PageRequest.of(0, BATCH_SIZE));
+        }
+        bookIndexes.forEach(BookIndex::loaded);
+        ready = true;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onBookSaved(BookSavedEvent event) {
+        bookIndexes.forEach(bookIndex -> bookIndex.index(event.getBook()));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onBooksUpdated(BooksUpdatedEvent event) {
+        List<Long> ids = event.getBookIds();
+        for (int from = 0; from < ids.size(); from += BATCH_SIZE) {
+            List<Long> batch = ids.subList(from, Math.min(ids.size(), from + BATCH_SIZE));
+            for (Book book : bookRepository.findAllByIdIn(batch)) {
+                bookIndexes.forEach(bookIndex -> bookIndex.index(book));
+            }
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onBookDeleted(BookDeletedEvent event) {
+        bookIndexes.forEach(bookIndex -> bookIndex.remove(event.getBookId()));
+    }
+}
@@ -0,0 +1,244 @@
+package com.bookstore.index;
+
+import com.bookstore.model.Book;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+import org.roaringbitmap.longlong.LongIterator;
+import org.roaringbitmap.longlong.Roaring64NavigableMap;
+import org.springframework.stereotype.Component;
+
+/**
+ * Book ids ordered by price: a sorted {@code long[]} of prices in cents with a parallel
+ * {@code long[]} of book ids (ties ordered by id), so price ranges are two binary searches
+ * and "sort by price" pages are a walk over the arrays. Writes only touch a map and record
+ * the changed book; the next read merges the sorted changes into a copy of the arrays in
+ * a single pass instead of sorting the whole catalog again.
+ */
+@Component
+public class BookPriceIndex implements BookIndex {
+    private static final BigDecimal MIN_PRICE = BigDecimal.valueOf(Long.MIN_VALUE, 2);
+    private static final BigDecimal MAX_PRICE = BigDecimal.valueOf(Long.MAX_VALUE, 2);
+
+    private final Map<Long, Long> pricesByBook = new HashMap<>();
+    private final Roaring64NavigableMap changedIds = new Roaring64NavigableMap();
+    private volatile SortedPrices sortedPrices = SortedPrices.EMPTY;
+    private volatile boolean stale;
+
+    @Override
+    public synchronized void index(Book book) {
+        long cents = toCents(book.getPrice());
+        Long previous = pricesByBook.put(book.getId(), cents);
+        if (previous == null || previous != cents) {
+            changedIds.addLong(book.getId());
+            stale = true;
+        }
+    }
+
+    @Override
+    public synchronized void remove(Long bookId) {
+        if (pricesByBook.remove(bookId) != null) {
+            changedIds.addLong(bookId);
+            stale = true;
+        }
+    }
+
+    @Override
+    public synchronized void clear() {
+        pricesByBook.clear();
+        changedIds.clear();
+        sortedPrices = SortedPrices.EMPTY;
+        stale = false;
+    }
+
+    /**
+     * Returns a new bitmap of the books priced within {@code [min, max]}; bounds beyond
+     * what the index can hold match everything on that side.
+     */
+    public Roaring64NavigableMap range(BigDecimal min, BigDecimal max) {
+        SortedPrices sorted = sorted();
+        int from = sorted.lowerBound(toCents(min, RoundingMode.CEILING));
+        long maxCents = toCents(max, RoundingMode.FLOOR);
+        int to = maxCents == Long.MAX_VALUE ? sorted.size() : sorted.lowerBound(maxCents + 1);
+        long[] idsInRange = Arrays.copyOfRange(sorted.bookIds, from, Math.max(from, to));
+        Arrays.sort(idsInRange);
+        Roaring64NavigableMap bookIds = new Roaring64NavigableMap();
+        for (long bookId : idsInRange) {
+            bookIds.addLong(bookId);
+        }
+        return bookIds;
+    }
+
+    /**
+     * Returns up to {@code limit} ids of the given books, or of every indexed book when
+     * {@code bookIds} is null, in price order (ties by ascending id) after skipping
+     * {@code offset} of them.
+     */
+    public List<Long> sortedPage(Roaring64NavigableMap bookIds,
+                                 boolean ascending,
+                                 long offset,
+                                 int limit) {
+        SortedPrices sorted = sorted();
+        List<Long> page = new ArrayList<>(Math.min(limit, sorted.size()));
+        long skip = offset;
+        int group = ascending ? 0 : sorted.size();
+        while (page.size() < limit && (ascending ? group < sorted.size() : group > 0)) {
+            int groupStart = ascending ? group : sorted.lowerBound(sorted.prices[group - 1]);
+            int groupEnd = ascending ? sorted.lowerBound(sorted.prices[group] + 1) : group;
+            for (int i = groupStart; i < groupEnd && page.size() < limit; i++) {
+                long bookId = sorted.bookIds[i];
+                if (bookIds != null && !bookIds.contains(bookId)) {
+                    continue;
+                }
+                if (skip > 0) {
+                    skip--;
+                } else {
+                    page.add(bookId);
+                }
+            }
+            group = ascending ? groupEnd : groupStart;
+        }
+        return page;
+    }
+
+    private SortedPrices sorted() {
+        SortedPrices sorted = sortedPrices;
+        if (!stale) {
+            return sorted;
+        }
+        synchronized (this) {
+            if (stale) {
+                sortedPrices = sortedPrices.update(changedIds, pricesByBook);
+                changedIds.clear();
+                stale = false;
+            }
+            return sortedPrices;
+        }
+    }
+
+    private static long toCents(BigDecimal price) {
+        return toCents(price, RoundingMode.HALF_UP);
+    }
+
+    /**
+     * Converts the price to cents, clamped to the range of a long.
+     */
+    private static long toCents(BigDecimal price, RoundingMode roundingMode) {
+        if (price.compareTo(MIN_PRICE) <= 0) {
+            return Long.MIN_VALUE;
+        }
+        if (price.compareTo(MAX_PRICE) >= 0) {
+            return Long.MAX_VALUE;
+        }
+        return price.movePointRight(2).setScale(0, roundingMode).longValue();
+    }
+
+    private static final class SortedPrices {
+        private static final SortedPrices EMPTY = new SortedPrices(new long[0], new long[0]);
+
+        private final long[] prices;
+        private final long[] bookIds;
+
+        private SortedPrices(long[] prices, long[] bookIds) {
+            this.prices = prices;
+            this.bookIds = bookIds;
+        }
+
+        /**
+         * Returns a copy with the current prices of the changed books, merging their
+         * sorted entries with the unchanged ones.
+         */
+        private SortedPrices update(Roaring64NavigableMap changedIds,
+                                    Map<Long, Long> pricesByBook) {
+            SortedPrices changed = of(changedIds, pricesByBook);
+            int unchanged = 0;
+            for (long bookId : bookIds) {
+                if (!changedIds.contains(bookId)) {
+                    unchanged++;
+                }
+            }
+            long[] mergedPrices = new long[unchanged + changed.size()];
+            long[] mergedIds = new long[mergedPrices.length];
+            int next = 0;
+            int from = 0;
+            for (int i = 0; i < bookIds.length; i++) {
+                if (changedIds.contains(bookIds[i])) {
+                    continue;
+                }
+                while (from < changed.size() && isBefore(changed.prices[from],
+                        changed.bookIds[from], prices[i], bookIds[i])) {
+                    mergedPrices[next] = changed.prices[from];
+                    mergedIds[next++] = changed.bookIds[from++];
+                }
+                mergedPrices[next] = prices[i];
+                mergedIds[next++] = bookIds[i];
+            }
+            while (from < changed.size()) {
+                mergedPrices[next] = changed.prices[from];
+                mergedIds[next++] = changed.bookIds[from++];
+            }
+            return new SortedPrices(mergedPrices, mergedIds);
+        }
+
+        private static boolean isBefore(long price, long bookId, long otherPrice,
+                                        long otherBookId) {
+            return price < otherPrice || price == otherPrice && bookId < otherBookId;
+        }
+
+        private static SortedPrices of(Roaring64NavigableMap bookIds,
+                                       Map<Long, Long> pricesByBook) {
+            long[] unsortedIds = new long[bookIds.getIntCardinality()];
+            long[] unsortedPrices = new long[unsortedIds.length];
+            int index = 0;
+            LongIterator iterator = bookIds.getLongIterator();
+            while (iterator.hasNext()) {
+                long bookId = iterator.next();
+                Long price = pricesByBook.get(bookId);
+                if (price != null) {
+                    unsortedIds[index] = bookId;
+                    unsortedPrices[index++] = price;
+                }
+            }
+            int[] order = IntStream.range(0, index)
+                    .boxed()
+                    .sorted(Comparator.<Integer>comparingLong(i -> unsortedPrices[i])
+                            .thenComparingLong(i -> unsortedIds[i]))
+                    .mapToInt(Integer::intValue)
+                    .toArray();
+            long[] prices = new long[order.length];
+            long[] sortedIds = new long[order.length];
+            for (int i = 0; i < order.length; i++) {
+                prices[i] = unsortedPrices[order[i]];
+                sortedIds[i] = unsortedIds[order[i]];
+            }
+            return new SortedPrices(prices, sortedIds);
+        }
+
+        private int size() {
+            return prices.length;
+        }
+
+        /**
+         * Returns the first position whose price is not below {@code cents}.
+         */
+        private int lowerBound(long cents) {
+            int low = 0;
+            int high = prices.length;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (prices[middle] < cents) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low;
+        }
+    }
+}
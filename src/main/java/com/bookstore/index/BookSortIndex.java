@@ -0,0 +1,303 @@
+package com.bookstore.index;
+
+import com.bookstore.model.Book;
+import com.bookstore.validation.IsbnParser;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.IntStream;
+import org.roaringbitmap.longlong.LongIterator;
+import org.roaringbitmap.longlong.Roaring64NavigableMap;
+import org.springframework.stereotype.Component;
+
+/**
+ * Book ids ordered by title, author and ISBN, plus by canonical ISBN-13 for lookups: per
+ * column, a sorted {@code String[]} of case and accent folded values with a parallel
+ * {@code long[]} of book ids (ties ordered by id). Like {@link BookPriceIndex}, "sort by"
+ * pages over any set of matches are a walk over the arrays, and writes only touch a map
+ * and record the changed book; the column's next read merges the sorted changes into a
+ * copy of its arrays.
+ */
+@Component
+public class BookSortIndex implements BookIndex {
+    public static final String TITLE = "title";
+    public static final String AUTHOR = "author";
+    public static final String ISBN = "isbn";
+    public static final Set<String> SORT_PROPERTIES = Set.of(TITLE, AUTHOR, ISBN);
+    private static final String ISBN_13 = "isbn13";
+
+    private final Map<String, Column> columns = Map.of(
+            TITLE, new Column(),
+            AUTHOR, new Column(),
+            ISBN, new Column(),
+            ISBN_13, new Column());
+
+    @Override
+    public synchronized void index(Book book) {
+        columns.get(TITLE).put(book.getId(), book.getTitle());
+        columns.get(AUTHOR).put(book.getId(), book.getAuthor());
+        columns.get(ISBN).put(book.getId(), book.getIsbn());
+        columns.get(ISBN_13).put(book.getId(), IsbnParser.toIsbn13(book.getIsbn()));
+    }
+
+    @Override
+    public synchronized void remove(Long bookId) {
+        columns.values().forEach(column -> column.remove(bookId));
+    }
+
+    @Override
+    public synchronized void clear() {
+        columns.values().forEach(Column::clear);
+    }
+
+    /**
+     * Returns up to {@code limit} ids of the given books, or of every indexed book when
+     * {@code bookIds} is null, in the order of one of the {@link #SORT_PROPERTIES} (ties by
+     * ascending id) after skipping {@code offset} of them.
+     */
+    public List<Long> sortedPage(String property,
+                                 Roaring64NavigableMap bookIds,
+                                 boolean ascending,
+                                 long offset,
+                                 int limit) {
+        if (!SORT_PROPERTIES.contains(property)) {
+            throw new IllegalArgumentException("Books are not indexed by " + property);
+        }
+        SortedValues sorted = columns.get(property).sorted();
+        List<Long> page = new ArrayList<>(Math.min(limit, sorted.size()));
+        long skip = offset;
+        int group = ascending ? 0 : sorted.size();
+        while (page.size() < limit && (ascending ? group < sorted.size() : group > 0)) {
+            int groupStart = ascending ? group : sorted.lowerBound(sorted.values[group - 1]);
+            int groupEnd = ascending ? sorted.upperBound(sorted.values[group]) : group;
+            for (int i = groupStart; i < groupEnd && page.size() < limit; i++) {
+                long bookId = sorted.bookIds[i];
+                if (bookIds != null && !bookIds.contains(bookId)) {
+                    continue;
+                }
+                if (skip > 0) {
+                    skip--;
+                } else {
+                    page.add(bookId);
+                }
+            }
+            group = ascending ? groupEnd : groupStart;
+        }
+        return page;
+    }
+
+    /**
+     * Returns a new bitmap of the books matching any of the given ISBNs the way the
+     * ISBN search filter does: the ISBN as stored, or a complete or partial ISBN-10/13
+     * against the canonical ISBN-13.
+     */
+    public Roaring64NavigableMap matchIsbns(String[] isbns) {
+        SortedValues byIsbn = columns.get(ISBN).sorted();
+        SortedValues byIsbn13 = columns.get(ISBN_13).sorted();
+        Roaring64NavigableMap bookIds = new Roaring64NavigableMap();
+        for (String isbn : isbns) {
+            String folded = fold(isbn);
+            byIsbn.addRange(bookIds, byIsbn.lowerBound(folded), byIsbn.upperBound(folded));
+            String isbn13 = IsbnParser.toIsbn13(isbn);
+            String prefix = isbn13 == null ? IsbnParser.toIsbn13Prefix(isbn) : null;
+            if (isbn13 != null) {
+                byIsbn13.addRange(bookIds, byIsbn13.lowerBound(isbn13),
+                        byIsbn13.upperBound(isbn13));
+            } else if (prefix != null) {
+                int from = byIsbn13.lowerBound(prefix);
+                int to = from;
+                while (to < byIsbn13.size() && byIsbn13.values[to].startsWith(prefix)) {
+                    to++;
+                }
+                byIsbn13.addRange(bookIds, from, to);
+            }
+        }
+        return bookIds;
+    }
+
+    private static String fold(String value) {
+        return Tokenizer.foldAccents(value).toLowerCase(Locale.ROOT);
+    }
+
+    private static final class Column {
+        private final Map<Long, String> valuesByBook = new HashMap<>();
+        private final Roaring64NavigableMap changedIds = new Roaring64NavigableMap();
+        private volatile SortedValues sortedValues = SortedValues.EMPTY;
+        private volatile boolean stale;
+
+        private synchronized void put(Long bookId, String value) {
+            if (value == null) {
+                remove(bookId);
+            } else {
+                String folded = fold(value);
+                if (!folded.equals(valuesByBook.put(bookId, folded))) {
+                    changedIds.addLong(bookId);
+                    stale = true;
+                }
+            }
+        }
+
+        private synchronized void remove(Long bookId) {
+            if (valuesByBook.remove(bookId) != null) {
+                changedIds.addLong(bookId);
+                stale = true;
+            }
+        }
+
+        private synchronized void clear() {
+            valuesByBook.clear();
+            changedIds.clear();
+            sortedValues = SortedValues.EMPTY;
+            stale = false;
+        }
+
+        private SortedValues sorted() {
+            SortedValues sorted = sortedValues;
+            if (!stale) {
+                return sorted;
+            }
+            synchronized (this) {
+                if (stale) {
+                    sortedValues = sortedValues.update(changedIds, valuesByBook);
+                    changedIds.clear();
+                    stale = false;
+                }
+                return sortedValues;
+            }
+        }
+    }
+
+    private static final class SortedValues {
+        private static final SortedValues EMPTY = new SortedValues(new String[0], new long[0]);
+
+        private final String[] values;
+        private final long[] bookIds;
+
+        private SortedValues(String[] values, long[] bookIds) {
+            this.values = values;
+            this.bookIds = bookIds;
+        }
+
+        /**
+         * Returns a copy with the current values of the changed books, merging their
+         * sorted entries with the unchanged ones.
+         */
+        private SortedValues update(Roaring64NavigableMap changedIds,
+                                    Map<Long, String> valuesByBook) {
+            SortedValues changed = of(changedIds, valuesByBook);
+            int unchanged = 0;
+            for (long bookId : bookIds) {
+                if (!changedIds.contains(bookId)) {
+                    unchanged++;
+                }
+            }
+            String[] mergedValues = new String[unchanged + changed.size()];
+            long[] mergedIds = new long[mergedValues.length];
+            int next = 0;
+            int from = 0;
+            for (int i = 0; i < bookIds.length; i++) {
+                if (changedIds.contains(bookIds[i])) {
+                    continue;
+                }
+                while (from < changed.size() && isBefore(changed.values[from],
+                        changed.bookIds[from], values[i], bookIds[i])) {
+                    mergedValues[next] = changed.values[from];
+                    mergedIds[next++] = changed.bookIds[from++];
+                }
+                mergedValues[next] = values[i];
+                mergedIds[next++] = bookIds[i];
+            }
+            while (from < changed.size()) {
+                mergedValues[next] = changed.values[from];
+                mergedIds[next++] = changed.bookIds[from++];
+            }
+            return new SortedValues(mergedValues, mergedIds);
+        }
+
+        private static boolean isBefore(String value, long bookId, String otherValue,
+                                        long otherBookId) {
+            int comparison = value.compareTo(otherValue);
+            return comparison < 0 || comparison == 0 && bookId < otherBookId;
+        }
+
+        private static SortedValues of(Roaring64NavigableMap bookIds,
+                                       Map<Long, String> valuesByBook) {
+            long[] unsortedIds = new long[bookIds.getIntCardinality()];
+            String[] unsortedValues = new String[unsortedIds.length];
+            int index = 0;
+            LongIterator iterator = bookIds.getLongIterator();
+            while (iterator.hasNext()) {
+                long bookId = iterator.next();
+                String value = valuesByBook.get(bookId);
+                if (value != null) {
+                    unsortedIds[index] = bookId;
+                    unsortedValues[index++] = value;
+                }
+            }
+            int[] order = IntStream.range(0, index)
+                    .boxed()
+                    .sorted(Comparator.<Integer, String>comparing(i -> unsortedValues[i])
+                            .thenComparingLong(i -> unsortedIds[i]))
+                    .mapToInt(Integer::intValue)
+                    .toArray();
+            String[] values = new String[order.length];
+            long[] sortedIds = new long[order.length];
+            for (int i = 0; i < order.length; i++) {
+                values[i] = unsortedValues[order[i]];
+                sortedIds[i] = unsortedIds[order[i]];
+            }
+            return new SortedValues(values, sortedIds);
+        }
+
+        private int size() {
+            return values.length;
+        }
+
+        /**
+         * Returns the first position whose value is not below {@code value}.
+         */
+        private int lowerBound(String value) {
+            int low = 0;
+            int high = values.length;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (values[middle].compareTo(value) < 0) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low;
+        }
+
+        /**
+         * Returns the first position whose value is above {@code value}.
+         */
+        private int upperBound(String value) {
+            int low = 0;
+            int high = values.length;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (values[middle].compareTo(value) <= 0) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low;
+        }
+
+        private void addRange(Roaring64NavigableMap into, int from, int to) {
+            long[] idsInRange = Arrays.copyOfRange(bookIds, from, Math.max(from, to));
+            Arrays.sort(idsInRange);
+            for (long bookId : idsInRange) {
+                into.addLong(bookId);
+            }
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package com.bookstore.index;
+
+import com.bookstore.model.Book;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import org.springframework.stereotype.Component;
+
+/**
+ * Type-ahead over book titles and author names. Each normalised title and author is
+ * stored in a {@link WeightedRadixTrie} under every word start, so "pot" finds
+ * "Harry Potter" too, and weighted by the number of live books carrying it, so the
+ * most popular completions come first.
+ */
+@Component
+public class BookSuggestIndex implements BookIndex {
+    private static final int MAX_WORD_STARTS = 8;
+
+    private final WeightedRadixTrie<Term> trie = new WeightedRadixTrie<>(
+            Comparator.comparing(Term::getKey).thenComparing(Term::getType));
+    private final Map<Term, Long> bookCounts = new HashMap<>();
+    private final Map<Long, List<Term>> termsByBook = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    @Override
+    public void index(Book book) {
+        lock.writeLock().lock();
+        try {
+            removeBook(book.getId());
+            List<Term> terms = new ArrayList<>(2);
+            addTerm(terms, Suggestion.TITLE, book.getTitle());
+            addTerm(terms, Suggestion.AUTHOR, book.getAuthor());
+            for (Term term : terms) {
+                long count = bookCounts.merge(term, 1L, Long::sum);
+                term.forEachWordStart(key -> trie.put(key, term, count));
+            }
+            termsByBook.put(book.getId(), terms);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void remove(Long bookId) {
+        lock.writeLock().lock();
+        try {
+            removeBook(bookId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            trie.clear();
+            bookCounts.clear();
+            termsByBook.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns up to limit titles and authors having a word that starts with the
+     * normalised prefix, the ones shared by the most books first.
+     */
+    public List<Suggestion> suggest(String prefix, int limit) {
+        String key = normalize(prefix);
+        if (key.isEmpty()) {
+            return List.of();
+        }
+        lock.readLock().lock();
+        try {
+            return trie.topK(key, limit).stream()
+                    .map(term -> new Suggestion(term.getType(), term.getText(),
+                            bookCounts.getOrDefault(term, 0L)))
+                    .toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    static String normalize(String text) {
+        return String.join(" ", Tokenizer.tokenize(Tokenizer.foldAccents(text)));
+    }
+
+    private void addTerm(List<Term> terms, String type, String text) {
+        String key = normalize(text);
+        if (!key.isEmpty()) {
+            terms.add(new Term(type, key, text.strip()));
+        }
+    }
+
+    private void removeBook(Long bookId) {
+        List<Term> terms = termsByBook.remove(bookId);
+        if (terms == null) {
+            return;
+        }
+        for (Term term : terms) {
+            long count = bookCounts.merge(term, -1L, Long::sum);
+            if (count <= 0) {
+                bookCounts.remove(term);
+                term.forEachWordStart(key -> trie.remove(key, term));
+            } else {
+                term.forEachWordStart(key -> trie.put(key, term, count));
+            }
+        }
+    }
+
+    /**
+     * A normalised title or author; the display text is the one of the first book indexed.
+     */
+    private static final class Term {
+        private final String type;
+        private final String key;
+        private final String text;
+
+        private Term(String type, String key, String text) {
+            this.type = type;
+            this.key = key;
+            this.text = text;
+        }
+
+        String getType() {
+            return type;
+        }
+
+        String getKey() {
+            return key;
+        }
+
+        String getText() {
+            return text;
+        }
+
+        void forEachWordStart(Consumer<String> consumer) {
+            consumer.accept(key);
+            int wordStarts = 1;
+            int space = key.indexOf(' ');
+            while (space >= 0 && wordStarts < MAX_WORD_STARTS) {
+                consumer.accept(key.substring(space + 1));
+                wordStarts++;
+                space = key.indexOf(' ', space + 1);
+            }
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            Term term = (Term) o;
+            return type.equals(term.type) && key.equals(term.key);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(type, key);
+        }
+    }
+}
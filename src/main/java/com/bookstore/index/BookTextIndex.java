@@ -0,0 +1,169 @@
+package com.bookstore.index;
+
+import com.bookstore.model.Book;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import org.springframework.stereotype.Component;
+
+/**
+ * Inverted index over the tokenised title, author and description of every book,
+ * ranking matches with BM25. Title and author queries require every token of a value
+ * to occur in that field; free-text keywords match any token of any field, with title
+ * and author hits weighted above description hits. The last token of a value or of the
+ * keywords also matches longer words starting with it, so text still being typed finds
+ * "Title" from "Tit" as the database search does.
+ */
+@Component
+public class BookTextIndex implements BookIndex {
+    private static final double TITLE_WEIGHT = 3;
+    private static final double AUTHOR_WEIGHT = 2;
+    private static final double DESCRIPTION_WEIGHT = 1;
+
+    private final FieldIndex titles = new FieldIndex();
+    private final FieldIndex authors = new FieldIndex();
+    private final FieldIndex descriptions = new FieldIndex();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    @Override
+    public void index(Book book) {
+        lock.writeLock().lock();
+        try {
+            removeFromFields(book.getId());
+            titles.add(book.getId(), Tokenizer.tokenize(book.getTitle()));
+            authors.add(book.getId(), Tokenizer.tokenize(book.getAuthor()));
+            descriptions.add(book.getId(), Tokenizer.tokenize(book.getDescription()));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void remove(Long bookId) {
+        lock.writeLock().lock();
+        try {
+            removeFromFields(bookId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            titles.clear();
+            authors.clear();
+            descriptions.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the BM25 score of every book matching all the given criteria;
+     * null or empty criteria are ignored.
+     */
+    public Map<Long, Double> search(String[] titleValues, String[] authorValues, String keywords) {
+        lock.readLock().lock();
+        try {
+            Map<Long, Double> scores = null;
+            if (titleValues != null && titleValues.length > 0) {
+                scores = intersect(scores, matchAllTokens(titles, titleValues, TITLE_WEIGHT));
+            }
+            if (authorValues != null && authorValues.length > 0) {
+                scores = intersect(scores, matchAllTokens(authors, authorValues, AUTHOR_WEIGHT));
+            }
+            if (keywords != null && !keywords.isBlank()) {
+                scores = intersect(scores, matchAnyToken(keywords));
+            }
+            return scores == null ? new HashMap<>() : scores;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void removeFromFields(Long bookId) {
+        titles.remove(bookId);
+        authors.remove(bookId);
+        descriptions.remove(bookId);
+    }
+
+    private Map<Long, Double> matchAllTokens(FieldIndex field, String[] values, double weight) {
+        Map<Long, Double> scores = new HashMap<>();
+        for (String value : values) {
+            List<String> tokens = distinctTokens(value);
+            if (tokens.isEmpty()) {
+                continue;
+            }
+            String prefix = tokens.get(tokens.size() - 1);
+            List<String> words = tokens.subList(0, tokens.size() - 1);
+            Collection<Long> candidates = words.isEmpty()
+                    ? field.booksWithPrefix(prefix)
+                    : field.posting(words.stream()
+                            .min(Comparator.comparingInt(token -> field.posting(token).size()))
+                            .orElseThrow()).keySet();
+            for (Long bookId : candidates) {
+                double score = field.prefixScore(prefix, bookId);
+                if (score == 0) {
+                    continue;
+                }
+                for (String token : words) {
+                    double tokenScore = field.score(token, bookId);
+                    if (tokenScore == 0) {
+                        score = 0;
+                        break;
+                    }
+                    score += tokenScore;
+                }
+                if (score > 0) {
+                    scores.merge(bookId, weight * score, Math::max);
+                }
+            }
+        }
+        return scores;
+    }
+
+    private Map<Long, Double> matchAnyToken(String keywords) {
+        Map<Long, Double> scores = new HashMap<>();
+        List<String> tokens = distinctTokens(keywords);
+        for (int i = 0; i < tokens.size(); i++) {
+            boolean last = i == tokens.size() - 1;
+            addScores(scores, titles, tokens.get(i), last, TITLE_WEIGHT);
+            addScores(scores, authors, tokens.get(i), last, AUTHOR_WEIGHT);
+            addScores(scores, descriptions, tokens.get(i), last, DESCRIPTION_WEIGHT);
+        }
+        return scores;
+    }
+
+    private void addScores(Map<Long, Double> scores, FieldIndex field, String token,
+                           boolean prefix, double weight) {
+        if (prefix) {
+            for (Long bookId : field.booksWithPrefix(token)) {
+                scores.merge(bookId, weight * field.prefixScore(token, bookId), Double::sum);
+            }
+            return;
+        }
+        for (Long bookId : field.posting(token).keySet()) {
+            scores.merge(bookId, weight * field.score(token, bookId), Double::sum);
+        }
+    }
+
+    private Map<Long, Double> intersect(Map<Long, Double> current, Map<Long, Double> next) {
+        if (current == null) {
+            return next;
+        }
+        current.keySet().retainAll(next.keySet());
+        current.replaceAll((bookId, score) -> score + next.get(bookId));
+        return current;
+    }
+
+    private List<String> distinctTokens(String value) {
+        return List.copyOf(new LinkedHashSet<>(Tokenizer.tokenize(value)));
+    }
+}
@@ -0,0 +1,126 @@
+package com.bookstore.index;
+
+import com.bookstore.model.Book;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import org.springframework.stereotype.Component;
+
+/**
+ * Typo-tolerant counterpart of {@link BookTextIndex} over titles and authors: every query
+ * token matches the terms within a small edit distance of it, found through their
+ * trigrams, and books are ranked by how closely their terms match. Candidate generation
+ * never touches the database.
+ */
+@Component
+public class BookTrigramIndex implements BookIndex {
+    private static final double TITLE_WEIGHT = 3;
+    private static final double AUTHOR_WEIGHT = 2;
+
+    private final TrigramFieldIndex titles = new TrigramFieldIndex();
+    private final TrigramFieldIndex authors = new TrigramFieldIndex();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    @Override
+    public void index(Book book) {
+        lock.writeLock().lock();
+        try {
+            titles.remove(book.getId());
+            authors.remove(book.getId());
+            titles.add(book.getId(), tokenize(book.getTitle()));
+            authors.add(book.getId(), tokenize(book.getAuthor()));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void remove(Long bookId) {
+        lock.writeLock().lock();
+        try {
+            titles.remove(bookId);
+            authors.remove(bookId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            titles.clear();
+            authors.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Same contract as {@link BookTextIndex#search}: a title or author value needs every
+     * one of its tokens to approximately match that field, keywords may match any token
+     * of the title or the author.
+     */
+    public Map<Long, Double> search(String[] titleValues, String[] authorValues, String keywords) {
+        lock.readLock().lock();
+        try {
+            Map<Long, Double> scores = null;
+            if (titleValues != null && titleValues.length > 0) {
+                scores = intersect(scores, matchAllTokens(titles, titleValues, TITLE_WEIGHT));
+            }
+            if (authorValues != null && authorValues.length > 0) {
+                scores = intersect(scores, matchAllTokens(authors, authorValues, AUTHOR_WEIGHT));
+            }
+            if (keywords != null && !keywords.isBlank()) {
+                scores = intersect(scores, matchAnyToken(keywords));
+            }
+            return scores == null ? new HashMap<>() : scores;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private Map<Long, Double> matchAllTokens(TrigramFieldIndex field, String[] values,
+                                             double weight) {
+        Map<Long, Double> scores = new HashMap<>();
+        for (String value : values) {
+            Map<Long, Double> valueScores = null;
+            for (String token : tokenize(value)) {
+                valueScores = intersect(valueScores, field.match(token));
+            }
+            if (valueScores != null) {
+                valueScores.forEach((bookId, score) ->
+                        scores.merge(bookId, weight * score, Math::max));
+            }
+        }
+        return scores;
+    }
+
+    private Map<Long, Double> matchAnyToken(String keywords) {
+        Map<Long, Double> scores = new HashMap<>();
+        for (String token : tokenize(keywords)) {
+            titles.match(token).forEach((bookId, score) ->
+                    scores.merge(bookId, TITLE_WEIGHT * score, Double::sum));
+            authors.match(token).forEach((bookId, score) ->
+                    scores.merge(bookId, AUTHOR_WEIGHT * score, Double::sum));
+        }
+        return scores;
+    }
+
+    private Map<Long, Double> intersect(Map<Long, Double> current, Map<Long, Double> next) {
+        if (current == null) {
+            return next;
+        }
+        current.keySet().retainAll(next.keySet());
+        current.replaceAll((bookId, score) -> score + next.get(bookId));
+        return current;
+    }
+
+    private List<String> tokenize(String value) {
+        return List.copyOf(new LinkedHashSet<>(
+                Tokenizer.tokenize(Tokenizer.foldAccents(value))));
+    }
+}
@@ -0,0 +1,208 @@
+package com.bookstore.index;
+
+import com.bookstore.cache.CategoryCatalog;
+import com.bookstore.cache.CategoryTree;
+import com.bookstore.event.CategoryDeletedEvent;
+import com.bookstore.model.Book;
+import com.bookstore.model.Category;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import lombok.RequiredArgsConstructor;
+import org.roaringbitmap.longlong.Roaring64NavigableMap;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Compressed bitmap of book ids per category, mirroring books_categories, so that
+ * category filters are resolved with bitmap OR (any) / AND (all) instead of joins.
+ * A second bitmap per category holds the books of its whole subtree; it is maintained
+ * along with the first and rebuilt from it whenever the category tree changes.
+ */
+@RequiredArgsConstructor
+@Component
+public class CategoryBitmapIndex implements BookIndex {
+    private final CategoryCatalog categoryCatalog;
+    private final Map<Long, Roaring64NavigableMap> booksByCategory = new HashMap<>();
+    private final Map<Long, Roaring64NavigableMap> booksBySubtree = new HashMap<>();
+    private final Map<Long, long[]> categoriesByBook = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private CategoryTree subtreesTree;
+
+    @Override
+    public void index(Book book) {
+        long[] categoryIds = book.getCategories()
+                .stream()
+                .map(Category::getId)
+                .mapToLong(Long::longValue)
+                .toArray();
+        CategoryTree tree = categoryCatalog.tree();
+        lock.writeLock().lock();
+        try {
+            updateSubtrees(tree);
+            removeFromCategories(book.getId());
+            for (long categoryId : categoryIds) {
+                booksByCategory.computeIfAbsent(categoryId, id -> new Roaring64NavigableMap())
+                        .addLong(book.getId());
+                addToSubtrees(book.getId(), categoryId);
+            }
+            categoriesByBook.put(book.getId(), categoryIds);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void remove(Long bookId) {
+        CategoryTree tree = categoryCatalog.tree();
+        lock.writeLock().lock();
+        try {
+            updateSubtrees(tree);
+            removeFromCategories(bookId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            booksByCategory.clear();
+            booksBySubtree.clear();
+            categoriesByBook.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCategoryDeleted(CategoryDeletedEvent event) {
+        lock.writeLock().lock();
+        try {
+            booksByCategory.remove(event.getCategoryId());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns a new bitmap of the books in any (or, with {@code matchAll}, every one)
+     * of the given categories.
+     */
+    public Roaring64NavigableMap match(Collection<Long> categoryIds, boolean matchAll) {
+        lock.readLock().lock();
+        try {
+            Roaring64NavigableMap result = null;
+            for (Long categoryId : categoryIds) {
+                Roaring64NavigableMap books = booksByCategory.getOrDefault(categoryId,
+                        new Roaring64NavigableMap());
+                if (result == null) {
+                    result = new Roaring64NavigableMap();
+                    result.or(books);
+                } else if (matchAll) {
+                    result.and(books);
+                } else {
+                    result.or(books);
+                }
+            }
+            return result == null ? new Roaring64NavigableMap() : result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns a new bitmap of the books in the category or any of its descendants.
+     */
+    public Roaring64NavigableMap matchSubtree(Long categoryId) {
+        Roaring64NavigableMap result = new Roaring64NavigableMap();
+        readSubtrees(() -> {
+            Roaring64NavigableMap books = booksBySubtree.get(categoryId);
+            if (books != null) {
+                result.or(books);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Returns the number of distinct books in each of the given categories' subtrees.
+     */
+    public Map<Long, Long> countSubtrees(Collection<Long> categoryIds) {
+        Map<Long, Long> counts = new HashMap<>();
+        readSubtrees(() -> {
+            for (Long categoryId : categoryIds) {
+                Roaring64NavigableMap books = booksBySubtree.get(categoryId);
+                counts.put(categoryId, books == null ? 0L : books.getLongCardinality());
+            }
+        });
+        return counts;
+    }
+
+    private void readSubtrees(Runnable reader) {
+        CategoryTree tree = categoryCatalog.tree();
+        lock.readLock().lock();
+        try {
+            if (tree == subtreesTree) {
+                reader.run();
+                return;
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        lock.writeLock().lock();
+        try {
+            updateSubtrees(tree);
+            reader.run();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Rebuilds the subtree bitmaps from the per-category ones when the tree they were
+     * built for is no longer current. Must be called with the write lock held.
+     */
+    private void updateSubtrees(CategoryTree tree) {
+        if (tree == subtreesTree) {
+            return;
+        }
+        booksBySubtree.clear();
+        for (Map.Entry<Long, Roaring64NavigableMap> entry : booksByCategory.entrySet()) {
+            for (long ancestorId : tree.getAncestorAndSelfIds(entry.getKey())) {
+                booksBySubtree.computeIfAbsent(ancestorId, id -> new Roaring64NavigableMap())
+                        .or(entry.getValue());
+            }
+        }
+        subtreesTree = tree;
+    }
+
+    private void addToSubtrees(long bookId, long categoryId) {
+        for (long ancestorId : subtreesTree.getAncestorAndSelfIds(categoryId)) {
+            booksBySubtree.computeIfAbsent(ancestorId, id -> new Roaring64NavigableMap())
+                    .addLong(bookId);
+        }
+    }
+
+    private void removeFromCategories(Long bookId) {
+        long[] categoryIds = categoriesByBook.remove(bookId);
+        if (categoryIds == null) {
+            return;
+        }
+        for (long categoryId : categoryIds) {
+            Roaring64NavigableMap books = booksByCategory.get(categoryId);
+            if (books != null) {
+                books.removeLong(bookId);
+            }
+            for (long ancestorId : subtreesTree.getAncestorAndSelfIds(categoryId)) {
+                Roaring64NavigableMap subtreeBooks = booksBySubtree.get(ancestorId);
+                if (subtreeBooks != null) {
+                    subtreeBooks.removeLong(bookId);
+                }
+            }
+        }
+    }
+}
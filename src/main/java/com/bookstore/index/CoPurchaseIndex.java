@@ -0,0 +1,244 @@
+package com.bookstore.index;
+
+import com.bookstore.event.BookDeletedEvent;
+import com.bookstore.event.BooksSoldEvent;
+import com.bookstore.repository.orderitem.CoPurchaseRepository;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Sparse "customers also bought" graph: for every book, the books bought in the same
+ * orders weighted by the number of orders they shared, held in primitive
+ * {@link LongIntMap}s. It is rebuilt from order_items by a fork/join batch that counts
+ * chunks of streamed orders in parallel and merges the counts, then follows the orders
+ * placed here once they commit. A rebuild only reads orders up to the latest one when it
+ * started; orders placed after it and books deleted while it runs are replayed onto its
+ * result before it replaces the graph, so no order is counted twice. Orders placed on
+ * other nodes are picked up by the next rebuild.
+ *
+ * <p>Memory is bounded by the number of books, not of pairs: a book keeps at most
+ * {@link #EDGES_PER_BOOK} neighbours and its lowest weight edges are pruned whenever it
+ * grows half as large again. The rebuild prunes the same way with more room per book, so
+ * heavy edges survive while a book's count is still split across ranges of orders.
+ */
+@RequiredArgsConstructor
+@Component
+public class CoPurchaseIndex {
+    public static final int EDGES_PER_BOOK = 32;
+    public static final int MAX_BASKET_SIZE = 50;
+    private static final int REBUILD_EDGES_PER_BOOK = EDGES_PER_BOOK * 8;
+    private static final int BASKETS_PER_TASK = 10_000;
+    private static final int BASKETS_PER_CHUNK = BASKETS_PER_TASK * 10;
+
+    private final CoPurchaseRepository coPurchaseRepository;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private Map<Long, LongIntMap> edgesByBook = new HashMap<>();
+    private volatile boolean ready;
+    private Map<Long, long[]> pendingBaskets;
+    private List<Long> pendingDeletedIds;
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Loads the graph in the background, so startup doesn't wait for a scan of every
+     * order; until then related books are looked up in the database.
+     */
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildOnStartup() {
+        rebuild();
+    }
+
+    @Scheduled(fixedDelayString = "${recommendations.rebuild-interval:PT6H}",
+            initialDelayString = "${recommendations.rebuild-interval:PT6H}")
+    public synchronized void rebuild() {
+        lock.writeLock().lock();
+        try {
+            pendingBaskets = new LinkedHashMap<>();
+            pendingDeletedIds = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        try {
+            final long maxOrderId = coPurchaseRepository.findMaxOrderId();
+            AtomicReference<Map<Long, LongIntMap>> rebuilt = new AtomicReference<>(new HashMap<>());
+            coPurchaseRepository.findBaskets(maxOrderId, MAX_BASKET_SIZE, BASKETS_PER_CHUNK,
+                    baskets -> rebuilt.set(merge(rebuilt.get(), ForkJoinPool.commonPool()
+                            .invoke(new CountTask(baskets, 0, baskets.size())))));
+            rebuilt.get().values().forEach(edges -> edges.retainTop(EDGES_PER_BOOK));
+            lock.writeLock().lock();
+            try {
+                pendingBaskets.forEach((orderId, bookIds) -> {
+                    if (orderId > maxOrderId) {
+                        addBasket(rebuilt.get(), bookIds, EDGES_PER_BOOK);
+                    }
+                });
+                pendingDeletedIds.forEach(bookId -> removeBook(rebuilt.get(), bookId));
+                edgesByBook = rebuilt.get();
+                ready = true;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        } finally {
+            lock.writeLock().lock();
+            try {
+                pendingBaskets = null;
+                pendingDeletedIds = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBooksSold(BooksSoldEvent event) {
+        long[] bookIds = event.getQuantities()
+                .keySet()
+                .stream()
+                .mapToLong(Long::longValue)
+                .toArray();
+        if (bookIds.length < 2 || bookIds.length > MAX_BASKET_SIZE) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            addBasket(edgesByBook, bookIds, EDGES_PER_BOOK);
+            if (pendingBaskets != null) {
+                pendingBaskets.put(event.getOrderId(), bookIds);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookDeleted(BookDeletedEvent event) {
+        lock.writeLock().lock();
+        try {
+            removeBook(edgesByBook, event.getBookId());
+            if (pendingDeletedIds != null) {
+                pendingDeletedIds.add(event.getBookId());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the ids of the books most often bought together with the book, best first.
+     */
+    public List<Long> related(long bookId, int limit) {
+        Map<Long, Double> scores = new HashMap<>();
+        lock.readLock().lock();
+        try {
+            LongIntMap edges = edgesByBook.get(bookId);
+            if (edges == null) {
+                return List.of();
+            }
+            edges.forEach((neighbourId, weight) -> scores.put(neighbourId, (double) weight));
+        } finally {
+            lock.readLock().unlock();
+        }
+        return TopK.select(scores, limit);
+    }
+
+    private static void removeBook(Map<Long, LongIntMap> edgesByBook, Long bookId) {
+        LongIntMap edges = edgesByBook.remove(bookId);
+        if (edges != null) {
+            edges.forEach((neighbourId, weight) -> {
+                LongIntMap neighbourEdges = edgesByBook.get(neighbourId);
+                if (neighbourEdges != null) {
+                    neighbourEdges.remove(bookId);
+                }
+            });
+        }
+    }
+
+    /**
+     * Merges the counts of the smaller map into the larger one and returns it.
+     */
+    private static Map<Long, LongIntMap> merge(Map<Long, LongIntMap> first,
+                                               Map<Long, LongIntMap> second) {
+        Map<Long, LongIntMap> into = first.size() >= second.size() ? first : second;
+        Map<Long, LongIntMap> from = into == first ? second : first;
+        from.forEach((bookId, edges) -> {
+            if (into.putIfAbsent(bookId, edges) != null) {
+                edges.forEach((neighbourId, weight) -> addEdge(into, bookId, neighbourId,
+                        weight, REBUILD_EDGES_PER_BOOK));
+            }
+        });
+        return into;
+    }
+
+    private static void addBasket(Map<Long, LongIntMap> edgesByBook,
+                                  long[] bookIds,
+                                  int edgesPerBook) {
+        for (int i = 0; i < bookIds.length; i++) {
+            for (int j = i + 1; j < bookIds.length; j++) {
+                addEdge(edgesByBook, bookIds[i], bookIds[j], 1, edgesPerBook);
+                addEdge(edgesByBook, bookIds[j], bookIds[i], 1, edgesPerBook);
+            }
+        }
+    }
+
+    private static void addEdge(Map<Long, LongIntMap> edgesByBook,
+                                long bookId,
+                                long neighbourId,
+                                int weight,
+                                int edgesPerBook) {
+        LongIntMap edges = edgesByBook.computeIfAbsent(bookId, id -> new LongIntMap());
+        edges.add(neighbourId, weight);
+        if (edges.size() > edgesPerBook * 3 / 2) {
+            edges.retainTop(edgesPerBook);
+        }
+    }
+
+    /**
+     * Counts the pairs of a range of baskets, splitting ranges larger than
+     * {@link #BASKETS_PER_TASK} in two and merging the results.
+     */
+    private static final class CountTask extends RecursiveTask<Map<Long, LongIntMap>> {
+        private final List<long[]> baskets;
+        private final int from;
+        private final int to;
+
+        private CountTask(List<long[]> baskets, int from, int to) {
+            this.baskets = baskets;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Map<Long, LongIntMap> compute() {
+            if (to - from <= BASKETS_PER_TASK) {
+                Map<Long, LongIntMap> edgesByBook = new HashMap<>();
+                for (int i = from; i < to; i++) {
+                    addBasket(edgesByBook, baskets.get(i), REBUILD_EDGES_PER_BOOK);
+                }
+                return edgesByBook;
+            }
+            int middle = (from + to) >>> 1;
+            CountTask left = new CountTask(baskets, from, middle);
+            left.fork();
+            Map<Long, LongIntMap> right = new CountTask(baskets, middle, to).compute();
+            return merge(left.join(), right);
+        }
+    }
+}
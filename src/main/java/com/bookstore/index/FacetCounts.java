@@ -0,0 +1,10 @@
+package com.bookstore.index;
+
+import java.util.Map;
+import lombok.Value;
+
+@Value
+public class FacetCounts {
+    private final Map<Long, Long> categories;
+    private final Map<String, Long> priceRanges;
+}
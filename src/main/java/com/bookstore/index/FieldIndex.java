@@ -0,0 +1,113 @@
+package com.bookstore.index;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Postings of a single book field: term -> (book id -> term frequency), plus the
+ * field length of every book needed for BM25 length normalisation and the sorted terms
+ * needed for prefix lookups. Not thread-safe, {@link BookTextIndex} guards it.
+ */
+class FieldIndex {
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+
+    private final Map<String, Map<Long, Integer>> postings = new HashMap<>();
+    private final NavigableSet<String> sortedTerms = new TreeSet<>();
+    private final Map<Long, String[]> termsByBook = new HashMap<>();
+    private final Map<Long, Integer> lengths = new HashMap<>();
+    private long totalLength;
+
+    void add(Long bookId, List<String> tokens) {
+        if (tokens.isEmpty()) {
+            return;
+        }
+        Map<String, Integer> frequencies = new HashMap<>();
+        for (String token : tokens) {
+            frequencies.merge(token, 1, Integer::sum);
+        }
+        frequencies.forEach((term, frequency) -> postings
+                .computeIfAbsent(term, t -> {
+                    sortedTerms.add(t);
+                    return new HashMap<>();
+                })
+                .put(bookId, frequency));
+        termsByBook.put(bookId, frequencies.keySet().toArray(new String[0]));
+        lengths.put(bookId, tokens.size());
+        totalLength += tokens.size();
+    }
+
+    void remove(Long bookId) {
+        String[] terms = termsByBook.remove(bookId);
+        if (terms == null) {
+            return;
+        }
+        for (String term : terms) {
+            Map<Long, Integer> posting = postings.get(term);
+            posting.remove(bookId);
+            if (posting.isEmpty()) {
+                postings.remove(term);
+                sortedTerms.remove(term);
+            }
+        }
+        totalLength -= lengths.remove(bookId);
+    }
+
+    void clear() {
+        postings.clear();
+        sortedTerms.clear();
+        termsByBook.clear();
+        lengths.clear();
+        totalLength = 0;
+    }
+
+    Map<Long, Integer> posting(String term) {
+        return postings.getOrDefault(term, Map.of());
+    }
+
+    /**
+     * Returns the ids of the books having a term that starts with the prefix.
+     */
+    Set<Long> booksWithPrefix(String prefix) {
+        Set<Long> bookIds = new HashSet<>();
+        for (String term : sortedTerms.subSet(prefix, true, prefix + Character.MAX_VALUE, false)) {
+            bookIds.addAll(postings.get(term).keySet());
+        }
+        return bookIds;
+    }
+
+    /**
+     * Returns the best score of the book's terms that start with the prefix, or 0 when
+     * it has none.
+     */
+    double prefixScore(String prefix, Long bookId) {
+        String[] bookTerms = termsByBook.get(bookId);
+        double best = 0;
+        if (bookTerms != null) {
+            for (String term : bookTerms) {
+                if (term.startsWith(prefix)) {
+                    best = Math.max(best, score(term, bookId));
+                }
+            }
+        }
+        return best;
+    }
+
+    double score(String term, Long bookId) {
+        Map<Long, Integer> posting = posting(term);
+        Integer frequency = posting.get(bookId);
+        if (frequency == null) {
+            return 0;
+        }
+        double idf = Math.log(1 + (lengths.size() - posting.size() + 0.5)
+                / (posting.size() + 0.5));
+        double averageLength = (double) totalLength / lengths.size();
+        double lengthNorm = 1 - B + B * lengths.get(bookId) / averageLength;
+        return idf * frequency * (K1 + 1) / (frequency + K1 * lengthNorm);
+    }
+}
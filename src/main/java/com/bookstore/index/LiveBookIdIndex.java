@@ -0,0 +1,52 @@
+package com.bookstore.index;
+
+import com.bookstore.model.Book;
+import org.roaringbitmap.longlong.Roaring64NavigableMap;
+import org.springframework.stereotype.Component;
+
+/**
+ * Compressed bitmap of the ids of live (not soft-deleted) books, so lookups of ids that
+ * don't exist can skip loading whole books. It only answers for the id range
+ * {@code 1..maxLoadedId} covered by the last full load, and even there an id it lacks is
+ * only a hint: a book created on another node, or whose insert committed after a higher
+ * id was loaded, can sit in a gap, so callers confirm a miss against the database and
+ * {@link #add(long) add} the ids they find.
+ */
+@Component
+public class LiveBookIdIndex implements BookIndex {
+    private final Roaring64NavigableMap liveIds = new Roaring64NavigableMap(true);
+    private long maxLoadedId;
+
+    @Override
+    public synchronized void index(Book book) {
+        liveIds.addLong(book.getId());
+    }
+
+    public synchronized void add(long bookId) {
+        liveIds.addLong(bookId);
+    }
+
+    @Override
+    public synchronized void remove(Long bookId) {
+        liveIds.removeLong(bookId);
+    }
+
+    @Override
+    public synchronized void clear() {
+        liveIds.clear();
+        maxLoadedId = 0;
+    }
+
+    @Override
+    public synchronized void loaded() {
+        maxLoadedId = liveIds.isEmpty() ? 0 : liveIds.getReverseLongIterator().next();
+    }
+
+    /**
+     * Returns true when the book is missing from the loaded range, false when it exists
+     * or the index can't tell.
+     */
+    public synchronized boolean isAbsent(long bookId) {
+        return bookId > 0 && bookId <= maxLoadedId && !liveIds.contains(bookId);
+    }
+}
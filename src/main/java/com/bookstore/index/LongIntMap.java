@@ -0,0 +1,164 @@
+package com.bookstore.index;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * Open addressing hash map from long keys to int values held in two primitive arrays, so
+ * an entry costs 12 bytes of table instead of a map node and two boxed objects. Key 0
+ * marks a free slot and can't be stored; book ids are always positive.
+ */
+final class LongIntMap {
+    private static final int MIN_TABLE_SIZE = 4;
+
+    private long[] keys;
+    private int[] values;
+    private int size;
+
+    LongIntMap() {
+        this(MIN_TABLE_SIZE);
+    }
+
+    LongIntMap(int expectedSize) {
+        allocate(tableSize(expectedSize));
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Returns the value of the key, 0 when it is absent.
+     */
+    int get(long key) {
+        int slot = slot(key);
+        return keys[slot] == key ? values[slot] : 0;
+    }
+
+    /**
+     * Adds delta to the value of the key, inserting it when absent.
+     */
+    void add(long key, int delta) {
+        int slot = slot(key);
+        if (keys[slot] == key) {
+            values[slot] += delta;
+            return;
+        }
+        if (size + 1 > keys.length * 3 / 4) {
+            resize(tableSize(size + 1));
+            slot = slot(key);
+        }
+        keys[slot] = key;
+        values[slot] = delta;
+        size++;
+    }
+
+    /**
+     * Removes the key, shifting back the entries that probed past its slot so that
+     * lookups never need tombstones.
+     */
+    boolean remove(long key) {
+        int slot = slot(key);
+        if (keys[slot] != key) {
+            return false;
+        }
+        int mask = keys.length - 1;
+        int next = slot;
+        while (true) {
+            next = (next + 1) & mask;
+            if (keys[next] == 0) {
+                break;
+            }
+            int home = hash(keys[next]) & mask;
+            boolean homeOutsideGap = slot <= next
+                    ? home <= slot || home > next
+                    : home <= slot && home > next;
+            if (homeOutsideGap) {
+                keys[slot] = keys[next];
+                values[slot] = values[next];
+                slot = next;
+            }
+        }
+        keys[slot] = 0;
+        values[slot] = 0;
+        size--;
+        return true;
+    }
+
+    void forEach(EntryConsumer consumer) {
+        for (int slot = 0; slot < keys.length; slot++) {
+            if (keys[slot] != 0) {
+                consumer.accept(keys[slot], values[slot]);
+            }
+        }
+    }
+
+    /**
+     * Keeps only the count entries with the highest values, ties going to the lower key,
+     * and shrinks the table to fit them.
+     */
+    void retainTop(int count) {
+        if (size <= count) {
+            return;
+        }
+        Integer[] slots = new Integer[size];
+        int filled = 0;
+        for (int slot = 0; slot < keys.length; slot++) {
+            if (keys[slot] != 0) {
+                slots[filled++] = slot;
+            }
+        }
+        Arrays.sort(slots, Comparator.<Integer>comparingInt(slot -> values[slot]).reversed()
+                .thenComparingLong(slot -> keys[slot]));
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        allocate(tableSize(count));
+        for (int i = 0; i < count; i++) {
+            add(oldKeys[slots[i]], oldValues[slots[i]]);
+        }
+    }
+
+    private int slot(long key) {
+        int mask = keys.length - 1;
+        int slot = hash(key) & mask;
+        while (keys[slot] != 0 && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void resize(int tableSize) {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        allocate(tableSize);
+        for (int slot = 0; slot < oldKeys.length; slot++) {
+            if (oldKeys[slot] != 0) {
+                add(oldKeys[slot], oldValues[slot]);
+            }
+        }
+    }
+
+    private void allocate(int tableSize) {
+        keys = new long[tableSize];
+        values = new int[tableSize];
+        size = 0;
+    }
+
+    private static int tableSize(int expectedSize) {
+        int tableSize = MIN_TABLE_SIZE;
+        while (tableSize * 3 / 4 < expectedSize) {
+            tableSize <<= 1;
+        }
+        return tableSize;
+    }
+
+    private static int hash(long key) {
+        long mixed = key * 0x9E3779B97F4A7C15L;
+        return (int) (mixed ^ (mixed >>> 32));
+    }
+
+    @FunctionalInterface
+    interface EntryConsumer {
+        void accept(long key, int value);
+    }
+}
@@ -0,0 +1,13 @@
+package com.bookstore.index;
+
+import lombok.Value;
+
+@Value
+public class Suggestion {
+    public static final String TITLE = "title";
+    public static final String AUTHOR = "author";
+
+    private final String type;
+    private final String text;
+    private final long books;
+}
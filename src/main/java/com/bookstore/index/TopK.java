@@ -0,0 +1,43 @@
+package com.bookstore.index;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Selects the k best scored ids with a bounded min-heap, so ranking n matches costs
+ * O(n log k) time and O(k) memory instead of sorting every match.
+ */
+public final class TopK {
+    private static final Comparator<Map.Entry<Long, Double>> WORST_FIRST =
+            Map.Entry.<Long, Double>comparingByValue()
+                    .thenComparing(Map.Entry.<Long, Double>comparingByKey().reversed());
+
+    private TopK() {
+    }
+
+    public static List<Long> select(Map<Long, Double> scores, int k) {
+        if (k <= 0 || scores.isEmpty()) {
+            return List.of();
+        }
+        PriorityQueue<Map.Entry<Long, Double>> heap = new PriorityQueue<>(
+                Math.min(k, scores.size()) + 1, WORST_FIRST);
+        for (Map.Entry<Long, Double> entry : scores.entrySet()) {
+            if (heap.size() < k) {
+                heap.add(entry);
+            } else if (WORST_FIRST.compare(entry, heap.peek()) > 0) {
+                heap.poll();
+                heap.add(entry);
+            }
+        }
+        List<Long> best = new ArrayList<>(heap.size());
+        while (!heap.isEmpty()) {
+            best.add(heap.poll().getKey());
+        }
+        Collections.reverse(best);
+        return best;
+    }
+}
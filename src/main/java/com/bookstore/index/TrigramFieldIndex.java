@@ -0,0 +1,158 @@
+package com.bookstore.index;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Term dictionary of a single book field with a trigram index over the terms. A query
+ * token is expanded to the terms sharing enough padded trigrams with it, and each
+ * candidate is then verified with a bounded edit distance, so typos are tolerated
+ * without scanning the whole dictionary. Not thread-safe, {@link BookTrigramIndex}
+ * guards it.
+ */
+class TrigramFieldIndex {
+    private static final double MIN_SIMILARITY = 0.3;
+
+    private final Map<String, Set<Long>> booksByTerm = new HashMap<>();
+    private final Map<String, Set<String>> termsByTrigram = new HashMap<>();
+    private final Map<Long, String[]> termsByBook = new HashMap<>();
+
+    void add(Long bookId, List<String> tokens) {
+        if (tokens.isEmpty()) {
+            return;
+        }
+        Set<String> terms = new LinkedHashSet<>(tokens);
+        for (String term : terms) {
+            Set<Long> books = booksByTerm.computeIfAbsent(term, t -> new HashSet<>());
+            if (books.isEmpty()) {
+                for (String trigram : trigrams(term)) {
+                    termsByTrigram.computeIfAbsent(trigram, g -> new HashSet<>()).add(term);
+                }
+            }
+            books.add(bookId);
+        }
+        termsByBook.put(bookId, terms.toArray(new String[0]));
+    }
+
+    void remove(Long bookId) {
+        String[] terms = termsByBook.remove(bookId);
+        if (terms == null) {
+            return;
+        }
+        for (String term : terms) {
+            Set<Long> books = booksByTerm.get(term);
+            books.remove(bookId);
+            if (books.isEmpty()) {
+                booksByTerm.remove(term);
+                for (String trigram : trigrams(term)) {
+                    Set<String> trigramTerms = termsByTrigram.get(trigram);
+                    trigramTerms.remove(term);
+                    if (trigramTerms.isEmpty()) {
+                        termsByTrigram.remove(trigram);
+                    }
+                }
+            }
+        }
+    }
+
+    void clear() {
+        booksByTerm.clear();
+        termsByTrigram.clear();
+        termsByBook.clear();
+    }
+
+    /**
+     * Returns every book having a term close enough to the token, scored by the best
+     * trigram similarity (1 for an exact match).
+     */
+    Map<Long, Double> match(String token) {
+        Map<Long, Double> scores = new HashMap<>();
+        for (Map.Entry<String, Double> term : similarTerms(token).entrySet()) {
+            for (Long bookId : booksByTerm.get(term.getKey())) {
+                scores.merge(bookId, term.getValue(), Math::max);
+            }
+        }
+        return scores;
+    }
+
+    private Map<String, Double> similarTerms(String token) {
+        Map<String, Double> similar = new HashMap<>();
+        if (booksByTerm.containsKey(token)) {
+            similar.put(token, 1.0);
+        }
+        int maxEdits = maxEdits(token.length());
+        if (maxEdits == 0) {
+            return similar;
+        }
+        Set<String> tokenTrigrams = trigrams(token);
+        Map<String, Integer> sharedTrigrams = new HashMap<>();
+        for (String trigram : tokenTrigrams) {
+            for (String term : termsByTrigram.getOrDefault(trigram, Set.of())) {
+                sharedTrigrams.merge(term, 1, Integer::sum);
+            }
+        }
+        sharedTrigrams.forEach((term, shared) -> {
+            double similarity = (double) shared
+                    / (tokenTrigrams.size() + term.length() + 1 - shared);
+            if (similarity >= MIN_SIMILARITY
+                    && !term.equals(token)
+                    && Math.abs(term.length() - token.length()) <= maxEdits
+                    && editDistance(token, term, maxEdits) <= maxEdits) {
+                similar.put(term, similarity);
+            }
+        });
+        return similar;
+    }
+
+    /**
+     * Trigrams of the term padded with two leading blanks and one trailing blank,
+     * so short terms and word starts get trigrams of their own.
+     */
+    static Set<String> trigrams(String term) {
+        String padded = "  " + term + " ";
+        Set<String> trigrams = new HashSet<>();
+        for (int i = 0; i + 3 <= padded.length(); i++) {
+            trigrams.add(padded.substring(i, i + 3));
+        }
+        return trigrams;
+    }
+
+    static int maxEdits(int length) {
+        if (length <= 2) {
+            return 0;
+        }
+        return length <= 5 ? 1 : 2;
+    }
+
+    /**
+     * Levenshtein distance, giving up with max + 1 as soon as it must exceed max.
+     */
+    static int editDistance(String first, String second, int max) {
+        int[] previous = new int[second.length() + 1];
+        int[] current = new int[second.length() + 1];
+        for (int j = 0; j <= second.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= first.length(); i++) {
+            current[0] = i;
+            int rowMin = current[0];
+            for (int j = 1; j <= second.length(); j++) {
+                int substitution = first.charAt(i - 1) == second.charAt(j - 1) ? 0 : 1;
+                current[j] = Math.min(Math.min(current[j - 1] + 1, previous[j] + 1),
+                        previous[j - 1] + substitution);
+                rowMin = Math.min(rowMin, current[j]);
+            }
+            if (rowMin > max) {
+                return max + 1;
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return previous[second.length()];
+    }
+}
@@ -0,0 +1,213 @@
+package com.bookstore.index;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * Compressed prefix trie (radix tree) from string keys to weighted values. Every node
+ * keeps the highest weight found in its subtree, so a top-k query walks the prefix and
+ * then expands nodes best-first, stopping as soon as k values have been emitted instead
+ * of visiting the whole subtree. Not thread-safe; callers guard it with their own lock.
+ */
+class WeightedRadixTrie<V> {
+    private final Comparator<V> tieBreaker;
+    private Node<V> root = new Node<>("", null);
+
+    WeightedRadixTrie(Comparator<V> tieBreaker) {
+        this.tieBreaker = tieBreaker;
+    }
+
+    /**
+     * Stores the value under the key with the given weight, replacing its previous weight.
+     */
+    void put(String key, V value, long weight) {
+        Node<V> node = root;
+        int position = 0;
+        while (position < key.length()) {
+            Node<V> child = node.children.get(key.charAt(position));
+            if (child == null) {
+                child = new Node<>(key.substring(position), node);
+                node.children.put(child.label.charAt(0), child);
+                position = key.length();
+            } else {
+                int common = commonPrefixLength(child.label, key, position);
+                if (common < child.label.length()) {
+                    child = split(child, common);
+                }
+                position += common;
+            }
+            node = child;
+        }
+        node.values.put(value, weight);
+        refreshMaxWeights(node);
+    }
+
+    void remove(String key, V value) {
+        Node<V> node = find(key);
+        if (node == null || node.values.remove(value) == null) {
+            return;
+        }
+        while (node != root && node.values.isEmpty() && node.children.isEmpty()) {
+            node.parent.children.remove(node.label.charAt(0));
+            node = node.parent;
+        }
+        if (node != root && node.values.isEmpty() && node.children.size() == 1) {
+            Node<V> child = node.children.values().iterator().next();
+            child.label = node.label + child.label;
+            child.parent = node.parent;
+            node.parent.children.put(child.label.charAt(0), child);
+            node = child.parent;
+        }
+        refreshMaxWeights(node);
+    }
+
+    /**
+     * Returns up to k distinct values stored under keys starting with the prefix,
+     * heaviest first.
+     */
+    List<V> topK(String prefix, int k) {
+        Node<V> start = findPrefix(prefix);
+        if (start == null || k <= 0) {
+            return Collections.emptyList();
+        }
+        PriorityQueue<Candidate<V>> queue = new PriorityQueue<>(this::compare);
+        queue.add(new Candidate<>(start.maxWeight, start, null));
+        List<V> result = new ArrayList<>(k);
+        Set<V> seen = new HashSet<>();
+        while (!queue.isEmpty() && result.size() < k) {
+            Candidate<V> candidate = queue.poll();
+            if (candidate.node == null) {
+                if (seen.add(candidate.value)) {
+                    result.add(candidate.value);
+                }
+                continue;
+            }
+            candidate.node.values.forEach((value, weight) ->
+                    queue.add(new Candidate<>(weight, null, value)));
+            for (Node<V> child : candidate.node.children.values()) {
+                queue.add(new Candidate<>(child.maxWeight, child, null));
+            }
+        }
+        return result;
+    }
+
+    void clear() {
+        root = new Node<>("", null);
+    }
+
+    private Node<V> find(String key) {
+        Node<V> node = root;
+        int position = 0;
+        while (position < key.length()) {
+            node = node.children.get(key.charAt(position));
+            if (node == null || !key.startsWith(node.label, position)) {
+                return null;
+            }
+            position += node.label.length();
+        }
+        return node;
+    }
+
+    private Node<V> findPrefix(String prefix) {
+        Node<V> node = root;
+        int position = 0;
+        while (position < prefix.length()) {
+            node = node.children.get(prefix.charAt(position));
+            if (node == null) {
+                return null;
+            }
+            int common = commonPrefixLength(node.label, prefix, position);
+            if (position + common == prefix.length()) {
+                return node;
+            }
+            if (common < node.label.length()) {
+                return null;
+            }
+            position += common;
+        }
+        return node;
+    }
+
+    private Node<V> split(Node<V> node, int at) {
+        Node<V> middle = new Node<>(node.label.substring(0, at), node.parent);
+        middle.maxWeight = node.maxWeight;
+        node.parent.children.put(middle.label.charAt(0), middle);
+        node.label = node.label.substring(at);
+        node.parent = middle;
+        middle.children.put(node.label.charAt(0), node);
+        return middle;
+    }
+
+    private void refreshMaxWeights(Node<V> node) {
+        while (node != null) {
+            long maxWeight = 0;
+            for (long weight : node.values.values()) {
+                maxWeight = Math.max(maxWeight, weight);
+            }
+            for (Node<V> child : node.children.values()) {
+                maxWeight = Math.max(maxWeight, child.maxWeight);
+            }
+            if (maxWeight == node.maxWeight) {
+                return;
+            }
+            node.maxWeight = maxWeight;
+            node = node.parent;
+        }
+    }
+
+    private int commonPrefixLength(String label, String key, int offset) {
+        int length = Math.min(label.length(), key.length() - offset);
+        int i = 0;
+        while (i < length && label.charAt(i) == key.charAt(offset + i)) {
+            i++;
+        }
+        return i;
+    }
+
+    /**
+     * Heavier first; at equal weight values come before nodes, so equally weighted
+     * values are emitted without expanding the rest of the subtree.
+     */
+    private int compare(Candidate<V> first, Candidate<V> second) {
+        int byWeight = Long.compare(second.weight, first.weight);
+        if (byWeight != 0) {
+            return byWeight;
+        }
+        if (first.node == null && second.node == null) {
+            return tieBreaker.compare(first.value, second.value);
+        }
+        return first.node == null ? -1 : (second.node == null ? 1 : 0);
+    }
+
+    private static final class Node<V> {
+        private final Map<Character, Node<V>> children = new HashMap<>(4);
+        private final Map<V, Long> values = new HashMap<>(2);
+        private String label;
+        private Node<V> parent;
+        private long maxWeight;
+
+        private Node(String label, Node<V> parent) {
+            this.label = label;
+            this.parent = parent;
+        }
+    }
+
+    private static final class Candidate<V> {
+        private final long weight;
+        private final Node<V> node;
+        private final V value;
+
+        private Candidate(long weight, Node<V> node, V value) {
+            this.weight = weight;
+            this.node = node;
+            this.value = value;
+        }
+    }
+}
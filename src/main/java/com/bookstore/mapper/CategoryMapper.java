@@ -2,12 +2,22 @@ package com.bookstore.mapper;
 
 import com.bookstore.config.MapperConfig;
 import com.bookstore.dto.category.CategoryDto;
+import com.bookstore.dto.category.CategoryNodeDto;
 import com.bookstore.model.Category;
 import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
 
 @Mapper(config = MapperConfig.class)
 public interface CategoryMapper {
     CategoryDto toDto(Category category);
 
+    @Mapping(target = "childCount", ignore = true)
+    @Mapping(target = "bookCount", ignore = true)
+    CategoryNodeDto toNodeDto(Category category);
+
+    @Mapping(target = "id", ignore = true)
+    @Mapping(target = "path", ignore = true)
+    @Mapping(target = "deleted", ignore = true)
+    @Mapping(target = "version", ignore = true)
     Category toEntity(CategoryDto categoryDto);
 }
@@ -0,0 +1,73 @@
+package com.bookstore.migration;
+
+import com.bookstore.validation.IsbnParser;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import liquibase.change.custom.CustomTaskChange;
+import liquibase.database.Database;
+import liquibase.database.jvm.JdbcConnection;
+import liquibase.exception.CustomChangeException;
+import liquibase.exception.ValidationErrors;
+import liquibase.resource.ResourceAccessor;
+
+/**
+ * Fills {@code books.isbn13} for the existing rows with the canonical ISBN-13 of their
+ * {@code isbn}, in batched updates. Rows whose isbn is not a valid ISBN keep a null key.
+ */
+public class BackfillIsbn13Change implements CustomTaskChange {
+    private static final int BATCH_SIZE = 1000;
+
+    private int updated;
+
+    @Override
+    public void execute(Database database) throws CustomChangeException {
+        Connection connection = ((JdbcConnection) database.getConnection())
+                .getUnderlyingConnection();
+        try (Statement select = connection.createStatement();
+                ResultSet books = select.executeQuery("SELECT id, isbn FROM books");
+                PreparedStatement update = connection.prepareStatement(
+                        "UPDATE books SET isbn13 = ? WHERE id = ?")) {
+            int batched = 0;
+            while (books.next()) {
+                String isbn13 = IsbnParser.toIsbn13(books.getString(2));
+                if (isbn13 == null) {
+                    continue;
+                }
+                update.setString(1, isbn13);
+                update.setLong(2, books.getLong(1));
+                update.addBatch();
+                updated++;
+                if (++batched == BATCH_SIZE) {
+                    update.executeBatch();
+                    batched = 0;
+                }
+            }
+            if (batched > 0) {
+                update.executeBatch();
+            }
+        } catch (SQLException e) {
+            throw new CustomChangeException("Can't backfill books.isbn13", e);
+        }
+    }
+
+    @Override
+    public String getConfirmationMessage() {
+        return "Filled isbn13 of " + updated + " books";
+    }
+
+    @Override
+    public void setUp() {
+    }
+
+    @Override
+    public void setFileOpener(ResourceAccessor resourceAccessor) {
+    }
+
+    @Override
+    public ValidationErrors validate(Database database) {
+        return new ValidationErrors();
+    }
+}
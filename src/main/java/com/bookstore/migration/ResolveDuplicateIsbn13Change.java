@@ -0,0 +1,79 @@
+package com.bookstore.migration;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import liquibase.Scope;
+import liquibase.change.custom.CustomTaskChange;
+import liquibase.database.Database;
+import liquibase.database.jvm.JdbcConnection;
+import liquibase.exception.CustomChangeException;
+import liquibase.exception.ValidationErrors;
+import liquibase.resource.ResourceAccessor;
+
+/**
+ * Clears {@code books.isbn13} on the rows that share it with another row before the column
+ * becomes unique, e.g. the ISBN-10 and ISBN-13 spellings of one book that both passed the
+ * unique constraint on the raw {@code isbn}. The key stays on the live row with the lowest
+ * id (or the lowest id when all are deleted); the other ids are logged so they can be
+ * merged by hand, and their raw isbn is kept.
+ */
+public class ResolveDuplicateIsbn13Change implements CustomTaskChange {
+    private static final String SELECT_DUPLICATES = "SELECT id, isbn13 FROM books "
+            + "WHERE isbn13 IN (SELECT isbn13 FROM books WHERE isbn13 IS NOT NULL "
+            + "GROUP BY isbn13 HAVING COUNT(*) > 1) "
+            + "ORDER BY isbn13, is_deleted, id";
+
+    private final List<Long> clearedIds = new ArrayList<>();
+
+    @Override
+    public void execute(Database database) throws CustomChangeException {
+        Connection connection = ((JdbcConnection) database.getConnection())
+                .getUnderlyingConnection();
+        try (Statement select = connection.createStatement();
+                ResultSet books = select.executeQuery(SELECT_DUPLICATES);
+                PreparedStatement update = connection.prepareStatement(
+                        "UPDATE books SET isbn13 = NULL WHERE id = ?")) {
+            String keptIsbn13 = null;
+            while (books.next()) {
+                String isbn13 = books.getString(2);
+                if (isbn13.equals(keptIsbn13)) {
+                    update.setLong(1, books.getLong(1));
+                    update.addBatch();
+                    clearedIds.add(books.getLong(1));
+                } else {
+                    keptIsbn13 = isbn13;
+                }
+            }
+            if (!clearedIds.isEmpty()) {
+                update.executeBatch();
+                Scope.getCurrentScope().getLog(getClass()).warning(
+                        "Cleared the duplicate isbn13 of books " + clearedIds);
+            }
+        } catch (SQLException e) {
+            throw new CustomChangeException("Can't resolve duplicate books.isbn13", e);
+        }
+    }
+
+    @Override
+    public String getConfirmationMessage() {
+        return "Cleared the duplicate isbn13 of " + clearedIds.size() + " books";
+    }
+
+    @Override
+    public void setUp() {
+    }
+
+    @Override
+    public void setFileOpener(ResourceAccessor resourceAccessor) {
+    }
+
+    @Override
+    public ValidationErrors validate(Database database) {
+        return new ValidationErrors();
+    }
+}
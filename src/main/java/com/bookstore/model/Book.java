@@ -1,5 +1,6 @@
 package com.bookstore.model;
 
+import com.bookstore.validation.IsbnParser;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
@@ -8,10 +9,14 @@ import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.JoinTable;
 import jakarta.persistence.ManyToMany;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import java.math.BigDecimal;
 import java.util.HashSet;
 import java.util.Set;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.experimental.Accessors;
@@ -22,7 +27,8 @@ import org.hibernate.annotations.Where;
 @Getter
 @Setter
 @Entity
-@SQLDelete(sql = "UPDATE books SET is_deleted = true WHERE id=?")
+@SQLDelete(sql = "UPDATE books SET is_deleted = true, version = version + 1 "
+        + "WHERE id=? AND version=?")
 @Where(clause = "is_deleted=false")
 @Table(name = "books")
 public class Book {
@@ -36,6 +42,9 @@ public class Book {
     @Column(nullable = false,
             unique = true)
     private String isbn;
+    @Column(unique = true)
+    @Setter(AccessLevel.NONE)
+    private String isbn13;
     @Column(nullable = false)
     private BigDecimal price;
     private String description;
@@ -50,4 +59,12 @@ public class Book {
     private Set<Category> categories = new HashSet<>();
     @Column(name = "is_deleted", nullable = false)
     private boolean isDeleted = false;
+    @Version
+    private Long version;
+
+    @PrePersist
+    @PreUpdate
+    private void canonicalizeIsbn() {
+        isbn13 = IsbnParser.toIsbn13(isbn);
+    }
 }
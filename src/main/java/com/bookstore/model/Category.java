@@ -6,6 +6,7 @@ import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
 import lombok.Setter;
@@ -18,16 +19,37 @@ import org.hibernate.annotations.Where;
 @Setter
 @EqualsAndHashCode
 @Entity
-@SQLDelete(sql = "UPDATE categories SET is_deleted=true WHERE id=?")
+@SQLDelete(sql = "UPDATE categories SET is_deleted=true, version = version + 1 "
+        + "WHERE id=? AND version=?")
 @Where(clause = "is_deleted=false")
 @Table(name = "categories")
 public class Category {
+    public static final String ROOT_PATH = "/";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
     @Column(nullable = false, unique = true)
     private String name;
     private String description;
+    @Column(name = "parent_id")
+    private Long parentId;
+    /**
+     * Ids of the ancestors from the root down, e.g. {@code /1/5/} for a child of 5 under 1,
+     * so a whole subtree is found with one prefix match on the indexed column.
+     */
+    @Column(nullable = false)
+    private String path = ROOT_PATH;
     @Column(name = "is_deleted", nullable = false)
     private boolean isDeleted = false;
+    @Version
+    @EqualsAndHashCode.Exclude
+    private Long version;
+
+    /**
+     * Returns the path shared by every descendant of this category.
+     */
+    public String descendantsPath() {
+        return path + id + ROOT_PATH;
+    }
 }
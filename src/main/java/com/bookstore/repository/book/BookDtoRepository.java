@@ -0,0 +1,25 @@
+package com.bookstore.repository.book;
+
+import com.bookstore.dto.book.BookDto;
+import com.bookstore.dto.book.BookDtoWithoutCategoryIds;
+import com.bookstore.dto.book.BookFields;
+import com.bookstore.model.Book;
+import java.util.Collection;
+import java.util.List;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+
+/**
+ * Read-only book queries that build DTOs straight from selected columns, without
+ * loading managed entities into the persistence context or mapping them afterwards.
+ * Only the requested fields are selected; the others are left null.
+ */
+public interface BookDtoRepository {
+    List<BookDto> findDtos(Specification<Book> specification,
+                           Pageable pageable,
+                           BookFields fields);
+
+    List<BookDto> findDtosByIdIn(Collection<Long> ids, BookFields fields);
+
+    List<BookDtoWithoutCategoryIds> findDtosWithoutCategoryIdsByIdIn(Collection<Long> ids);
+}
@@ -0,0 +1,193 @@
+package com.bookstore.repository.book;
+
+import com.bookstore.dto.book.BookDto;
+import com.bookstore.dto.book.BookDtoWithoutCategoryIds;
+import com.bookstore.dto.book.BookFields;
+import com.bookstore.model.Book;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+
+/**
+ * Selects book columns as tuples and fills the DTOs by hand. Lookups by id use fixed JPQL,
+ * whose translation Hibernate caches, and fold the category ids in from the same rows.
+ * Filtered pages can't join categories without breaking LIMIT, so their category ids are
+ * read by one follow-up query per page instead of one collection per book.
+ */
+@RequiredArgsConstructor
+public class BookDtoRepositoryImpl implements BookDtoRepository {
+    private static final int MAX_IDS_IN_QUERY = 1000;
+    private static final String VERSION = "version";
+    private static final Map<String, BiConsumer<BookDto, Object>> SETTERS = Map.of(
+            BookFields.ID, (book, value) -> book.setId((Long) value),
+            "title", (book, value) -> book.setTitle((String) value),
+            "author", (book, value) -> book.setAuthor((String) value),
+            "isbn", (book, value) -> book.setIsbn((String) value),
+            "price", (book, value) -> book.setPrice((BigDecimal) value),
+            "description", (book, value) -> book.setDescription((String) value),
+            "coverImage", (book, value) -> book.setCoverImage((String) value),
+            VERSION, (book, value) -> book.setVersion((Long) value));
+    private static final List<String> ALL_COLUMNS = columnsOf(BookFields.ALL);
+    private static final String SELECT_BOOKS = "SELECT b.id, b.title, b.author, b.isbn, "
+            + "b.price, b.description, b.coverImage FROM Book b WHERE b.id IN :ids";
+    private static final String SELECT_CATEGORY_IDS = "SELECT b.id, c.id FROM Book b "
+            + "JOIN b.categories c WHERE b.id IN :ids AND c.isDeleted = false";
+
+    private final EntityManager entityManager;
+
+    @Override
+    public List<BookDto> findDtos(Specification<Book> specification,
+                                  Pageable pageable,
+                                  BookFields fields) {
+        List<String> columns = fields.isAll() ? ALL_COLUMNS : columnsOf(fields);
+        TypedQuery<Tuple> query = createQuery(specification, pageable, columns);
+        if (pageable.isPaged()) {
+            query.setFirstResult((int) pageable.getOffset());
+            query.setMaxResults(pageable.getPageSize());
+        }
+        List<BookDto> books = query.getResultList()
+                .stream()
+                .map(tuple -> toDto(tuple, columns, fields))
+                .toList();
+        if (fields.includes(BookFields.CATEGORY_IDS)) {
+            fillCategoryIds(books);
+        }
+        return books;
+    }
+
+    @Override
+    public List<BookDto> findDtosByIdIn(Collection<Long> ids, BookFields fields) {
+        List<String> columns = fields.isAll() ? ALL_COLUMNS : columnsOf(fields);
+        boolean withCategories = fields.includes(BookFields.CATEGORY_IDS);
+        String select = "SELECT b." + String.join(", b.", columns) + (withCategories
+                ? ", c.id FROM Book b LEFT JOIN b.categories c ON c.isDeleted = false"
+                : " FROM Book b")
+                + " WHERE b.id IN :ids";
+        Map<Long, BookDto> booksById = new LinkedHashMap<>();
+        for (List<Long> chunk : chunks(ids)) {
+            List<Tuple> rows = entityManager.createQuery(select, Tuple.class)
+                    .setParameter("ids", chunk)
+                    .getResultList();
+            for (Tuple row : rows) {
+                BookDto book = booksById.computeIfAbsent(row.get(0, Long.class),
+                        id -> toDto(row, columns, fields));
+                Long categoryId = withCategories ? row.get(columns.size(), Long.class) : null;
+                if (categoryId != null) {
+                    book.getCategoryIds().add(categoryId);
+                }
+            }
+        }
+        return new ArrayList<>(booksById.values());
+    }
+
+    @Override
+    public List<BookDtoWithoutCategoryIds> findDtosWithoutCategoryIdsByIdIn(
+            Collection<Long> ids) {
+        List<BookDtoWithoutCategoryIds> books = new ArrayList<>(ids.size());
+        for (List<Long> chunk : chunks(ids)) {
+            entityManager.createQuery(SELECT_BOOKS, Tuple.class)
+                    .setParameter("ids", chunk)
+                    .getResultList()
+                    .forEach(row -> books.add(new BookDtoWithoutCategoryIds()
+                            .setId(row.get(0, Long.class))
+                            .setTitle(row.get(1, String.class))
+                            .setAuthor(row.get(2, String.class))
+                            .setIsbn(row.get(3, String.class))
+                            .setPrice(row.get(4, BigDecimal.class))
+                            .setDescription(row.get(5, String.class))
+                            .setCoverImage(row.get(6, String.class))));
+        }
+        return books;
+    }
+
+    /**
+     * Returns the book columns backing the requested fields, plus the version
+     * when the whole book is requested, since it is what ETags are built from.
+     */
+    private static List<String> columnsOf(BookFields fields) {
+        List<String> columns = new ArrayList<>();
+        for (String name : BookFields.NAMES) {
+            if (fields.includes(name) && SETTERS.containsKey(name)) {
+                columns.add(name);
+            }
+        }
+        if (fields.isAll()) {
+            columns.add(VERSION);
+        }
+        return columns;
+    }
+
+    private TypedQuery<Tuple> createQuery(Specification<Book> specification,
+                                          Pageable pageable,
+                                          List<String> columns) {
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = criteriaBuilder.createTupleQuery();
+        Root<Book> root = query.from(Book.class);
+        List<Selection<?>> selections = new ArrayList<>(columns.size());
+        columns.forEach(column -> selections.add(root.get(column)));
+        query.multiselect(selections);
+        Predicate predicate = specification == null
+                ? null
+                : specification.toPredicate(root, query, criteriaBuilder);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        if (pageable.getSort().isSorted()) {
+            query.orderBy(QueryUtils.toOrders(pageable.getSort(), root, criteriaBuilder));
+        }
+        return entityManager.createQuery(query);
+    }
+
+    private BookDto toDto(Tuple tuple, List<String> columns, BookFields fields) {
+        BookDto book = new BookDto();
+        for (int i = 0; i < columns.size(); i++) {
+            SETTERS.get(columns.get(i)).accept(book, tuple.get(i));
+        }
+        if (fields.includes(BookFields.CATEGORY_IDS)) {
+            book.setCategoryIds(new HashSet<>());
+        }
+        return book;
+    }
+
+    private void fillCategoryIds(List<BookDto> books) {
+        Map<Long, BookDto> booksById = new HashMap<>();
+        books.forEach(book -> booksById.put(book.getId(), book));
+        for (List<Long> chunk : chunks(booksById.keySet())) {
+            List<Tuple> rows = entityManager.createQuery(SELECT_CATEGORY_IDS, Tuple.class)
+                    .setParameter("ids", chunk)
+                    .getResultList();
+            for (Tuple row : rows) {
+                booksById.get(row.get(0, Long.class))
+                        .getCategoryIds()
+                        .add(row.get(1, Long.class));
+            }
+        }
+    }
+
+    private List<List<Long>> chunks(Collection<Long> ids) {
+        List<Long> list = List.copyOf(ids);
+        List<List<Long>> chunks = new ArrayList<>();
+        for (int from = 0; from < list.size(); from += MAX_IDS_IN_QUERY) {
+            chunks.add(list.subList(from, Math.min(from + MAX_IDS_IN_QUERY, list.size())));
+        }
+        return chunks;
+    }
+}
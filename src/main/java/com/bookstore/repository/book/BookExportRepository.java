@@ -0,0 +1,89 @@
+package com.bookstore.repository.book;
+
+import com.bookstore.dto.book.BookDto;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.HashSet;
+import java.util.function.Consumer;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Reads the whole catalog through one forward-only, read-only JDBC cursor, handing
+ * books to the caller one at a time so memory use does not grow with the catalog.
+ * With MySQL the fetch size only takes effect with {@code useCursorFetch=true}.
+ */
+@RequiredArgsConstructor
+@Repository
+public class BookExportRepository {
+    private static final String SELECT_BOOKS_WITH_CATEGORIES =
+            "SELECT b.id, b.title, b.author, b.isbn, b.price, b.description, b.cover_image, "
+                    + "c.id AS category_id "
+                    + "FROM books b "
+                    + "LEFT JOIN books_categories bc ON bc.book_id = b.id "
+                    + "LEFT JOIN categories c ON c.id = bc.category_id AND c.is_deleted = false "
+                    + "WHERE b.is_deleted = false "
+                    + "ORDER BY b.id";
+
+    private final JdbcTemplate jdbcTemplate;
+    @Value("${export.books.fetch-size:1000}")
+    private int fetchSize;
+
+    public void forEachBook(Consumer<BookDto> consumer) {
+        BookRowCallbackHandler rowCallbackHandler = new BookRowCallbackHandler(consumer);
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(
+                    SELECT_BOOKS_WITH_CATEGORIES,
+                    ResultSet.TYPE_FORWARD_ONLY,
+                    ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(fetchSize);
+            return statement;
+        }, rowCallbackHandler);
+        rowCallbackHandler.flush();
+    }
+
+    /**
+     * Folds the (book, category) rows of one book, which arrive consecutively
+     * thanks to the ORDER BY, into a single BookDto.
+     */
+    private static class BookRowCallbackHandler implements RowCallbackHandler {
+        private final Consumer<BookDto> consumer;
+        private BookDto current;
+
+        BookRowCallbackHandler(Consumer<BookDto> consumer) {
+            this.consumer = consumer;
+        }
+
+        @Override
+        public void processRow(ResultSet resultSet) throws SQLException {
+            long id = resultSet.getLong("id");
+            if (current == null || current.getId() != id) {
+                flush();
+                current = new BookDto()
+                        .setId(id)
+                        .setTitle(resultSet.getString("title"))
+                        .setAuthor(resultSet.getString("author"))
+                        .setIsbn(resultSet.getString("isbn"))
+                        .setPrice(resultSet.getBigDecimal("price"))
+                        .setDescription(resultSet.getString("description"))
+                        .setCoverImage(resultSet.getString("cover_image"))
+                        .setCategoryIds(new HashSet<>());
+            }
+            long categoryId = resultSet.getLong("category_id");
+            if (!resultSet.wasNull()) {
+                current.getCategoryIds().add(categoryId);
+            }
+        }
+
+        void flush() {
+            if (current != null) {
+                consumer.accept(current);
+                current = null;
+            }
+        }
+    }
+}
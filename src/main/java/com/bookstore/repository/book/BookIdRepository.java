@@ -0,0 +1,16 @@
+package com.bookstore.repository.book;
+
+import com.bookstore.model.Book;
+import java.util.List;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+
+public interface BookIdRepository {
+    List<Long> findIds(Specification<Book> specification, Pageable pageable);
+
+    /**
+     * Returns the positions of up to limit books following the keyset, in its order,
+     * reading only their ids and sort keys.
+     */
+    List<BookKeyset> findKeysets(BookKeyset keyset, int limit);
+}
@@ -0,0 +1,96 @@
+package com.bookstore.repository.book;
+
+import com.bookstore.model.Book;
+import com.bookstore.validation.IsbnParser;
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Writes imported books with one multi-row INSERT per chunk into {@code books} and one
+ * into {@code books_categories}, instead of a round trip (and a persistence-context entry)
+ * per book and per link.
+ */
+@RequiredArgsConstructor
+@Repository
+public class BookImportRepository {
+    private static final String INSERT_BOOKS = "INSERT INTO books "
+            + "(title, author, isbn, isbn13, price, description, cover_image, is_deleted) VALUES ";
+    private static final String BOOK_VALUES = "(?, ?, ?, ?, ?, ?, ?, false)";
+    private static final String INSERT_BOOKS_CATEGORIES =
+            "INSERT INTO books_categories (book_id, category_id) VALUES ";
+    private static final String BOOK_CATEGORY_VALUES = "(?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Returns the canonical ISBN-13s among the given ones that are already taken,
+     * soft-deleted books included, looked up on the {@code isbn13} index.
+     */
+    public List<String> findExistingIsbn13s(Collection<String> isbn13s) {
+        if (isbn13s.isEmpty()) {
+            return Collections.emptyList();
+        }
+        String sql = "SELECT isbn13 FROM books WHERE isbn13 IN ("
+                + String.join(", ", Collections.nCopies(isbn13s.size(), "?")) + ")";
+        return jdbcTemplate.queryForList(sql, String.class, isbn13s.toArray());
+    }
+
+    /**
+     * Inserts the books in one statement and returns their generated ids in insertion order.
+     */
+    public List<Long> insertBooks(List<Book> books) {
+        String sql = INSERT_BOOKS
+                + String.join(", ", Collections.nCopies(books.size(), BOOK_VALUES));
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.update(connection -> {
+            PreparedStatement statement = connection.prepareStatement(sql, new String[] {"id"});
+            int index = 1;
+            for (Book book : books) {
+                statement.setString(index++, book.getTitle());
+                statement.setString(index++, book.getAuthor());
+                statement.setString(index++, book.getIsbn());
+                statement.setString(index++, IsbnParser.toIsbn13(book.getIsbn()));
+                statement.setBigDecimal(index++, book.getPrice());
+                statement.setString(index++, book.getDescription());
+                statement.setString(index++, book.getCoverImage());
+            }
+            return statement;
+        }, keyHolder);
+        List<Long> ids = new ArrayList<>(books.size());
+        for (Map<String, Object> keys : keyHolder.getKeyList()) {
+            ids.add(((Number) keys.values().iterator().next()).longValue());
+        }
+        if (ids.size() != books.size()) {
+            throw new IllegalStateException("Expected " + books.size()
+                    + " generated book ids but the database returned " + ids.size());
+        }
+        return ids;
+    }
+
+    /**
+     * Inserts (book id, category id) links in one statement.
+     */
+    public void insertBookCategories(List<long[]> links) {
+        if (links.isEmpty()) {
+            return;
+        }
+        String sql = INSERT_BOOKS_CATEGORIES
+                + String.join(", ", Collections.nCopies(links.size(), BOOK_CATEGORY_VALUES));
+        Object[] args = new Object[links.size() * 2];
+        int index = 0;
+        for (long[] link : links) {
+            args[index++] = link[0];
+            args[index++] = link[1];
+        }
+        jdbcTemplate.update(sql, args);
+    }
+}
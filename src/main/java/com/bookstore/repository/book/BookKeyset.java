@@ -0,0 +1,142 @@
+package com.bookstore.repository.book;
+
+import com.bookstore.exception.InvalidParameterException;
+import com.bookstore.model.Book;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Predicate;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.Set;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+/**
+ * Position of a keyset (seek) scroll over books: the sort property, its direction and
+ * the (sort value, id) pair of the last book already returned to the client.
+ * It travels as an opaque URL-safe cursor, so the next slice is a range scan
+ * on (sort key, id) instead of an OFFSET.
+ */
+public final class BookKeyset {
+    private static final String VERSION = "v1";
+    private static final String SEPARATOR = "|";
+    private static final String ID = "id";
+    private static final String TITLE = "title";
+    private static final String PRICE = "price";
+    private static final Set<String> SORT_PROPERTIES = Set.of(ID, TITLE, PRICE);
+
+    private final String property;
+    private final Sort.Direction direction;
+    private final Long lastId;
+    private final String lastValue;
+
+    private BookKeyset(String property, Sort.Direction direction, Long lastId, String lastValue) {
+        this.property = property;
+        this.direction = direction;
+        this.lastId = lastId;
+        this.lastValue = lastValue;
+    }
+
+    public static BookKeyset first(Sort sort) {
+        if (sort.isUnsorted()) {
+            return new BookKeyset(ID, Sort.Direction.ASC, null, null);
+        }
+        List<Sort.Order> orders = sort.toList();
+        if (orders.size() != 1 || !SORT_PROPERTIES.contains(orders.get(0).getProperty())) {
+            throw new InvalidParameterException(
+                    "Cursor pagination supports sorting by one of: " + SORT_PROPERTIES);
+        }
+        Sort.Order order = orders.get(0);
+        return new BookKeyset(order.getProperty(), order.getDirection(), null, null);
+    }
+
+    public static BookKeyset decode(String cursor) {
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor),
+                    StandardCharsets.UTF_8);
+            String[] parts = decoded.split("\\" + SEPARATOR, 5);
+            if (parts.length != 5
+                    || !VERSION.equals(parts[0])
+                    || !SORT_PROPERTIES.contains(parts[1])) {
+                throw new InvalidParameterException("Invalid cursor: " + cursor);
+            }
+            String value = PRICE.equals(parts[1])
+                    ? new BigDecimal(parts[4]).toPlainString()
+                    : parts[4];
+            return new BookKeyset(parts[1], Sort.Direction.fromString(parts[2]),
+                    Long.valueOf(parts[3]), value);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidParameterException("Invalid cursor: " + cursor, e);
+        }
+    }
+
+    /**
+     * Returns the position right after the book with the given id and sort key value,
+     * which is ignored when sorting by id.
+     */
+    public BookKeyset after(Long id, Object value) {
+        String lastValue = "";
+        if (TITLE.equals(property)) {
+            lastValue = (String) value;
+        } else if (PRICE.equals(property)) {
+            lastValue = ((BigDecimal) value).toPlainString();
+        }
+        return new BookKeyset(property, direction, id, lastValue);
+    }
+
+    public String getProperty() {
+        return property;
+    }
+
+    public Long getLastId() {
+        return lastId;
+    }
+
+    public String encode() {
+        String raw = String.join(SEPARATOR,
+                VERSION, property, direction.name(), String.valueOf(lastId), lastValue);
+        return Base64.getUrlEncoder()
+                .withoutPadding()
+                .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public Sort toSort() {
+        Sort sort = Sort.by(direction, property);
+        return ID.equals(property) ? sort : sort.and(Sort.by(direction, ID));
+    }
+
+    public Specification<Book> toSpecification() {
+        if (lastId == null) {
+            return Specification.where(null);
+        }
+        return (root, query, criteriaBuilder) -> {
+            Predicate idAfter = isAfter(criteriaBuilder, root.get(ID), lastId);
+            if (TITLE.equals(property)) {
+                return seek(criteriaBuilder, root.get(TITLE), lastValue, idAfter);
+            }
+            if (PRICE.equals(property)) {
+                return seek(criteriaBuilder, root.get(PRICE), new BigDecimal(lastValue), idAfter);
+            }
+            return idAfter;
+        };
+    }
+
+    private <Y extends Comparable<? super Y>> Predicate seek(CriteriaBuilder criteriaBuilder,
+                                                             Expression<Y> key,
+                                                             Y value,
+                                                             Predicate idAfter) {
+        return criteriaBuilder.or(
+                isAfter(criteriaBuilder, key, value),
+                criteriaBuilder.and(criteriaBuilder.equal(key, value), idAfter));
+    }
+
+    private <Y extends Comparable<? super Y>> Predicate isAfter(CriteriaBuilder criteriaBuilder,
+                                                                Expression<Y> key,
+                                                                Y value) {
+        return direction.isAscending()
+                ? criteriaBuilder.greaterThan(key, value)
+                : criteriaBuilder.lessThan(key, value);
+    }
+}
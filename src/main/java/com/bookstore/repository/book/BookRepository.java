@@ -1,6 +1,8 @@
 package com.bookstore.repository.book;
 
 import com.bookstore.model.Book;
+import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import org.springframework.data.domain.Page;
@@ -9,13 +11,44 @@ import org.springframework.data.jpa.domain.Specification;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
 
 public interface BookRepository extends JpaRepository<Book, Long>,
-        JpaSpecificationExecutor<Book> {
-    @Query("FROM Book b JOIN FETCH b.categories c "
+        JpaSpecificationExecutor<Book>, BookIdRepository, BookDtoRepository {
+    @Query("SELECT b.id FROM Book b WHERE b.id > :id ORDER BY b.id")
+    List<Long> findIdsGreaterThan(Long id, Pageable pageable);
+
+    @Query("SELECT b.id FROM Book b WHERE b.id IN :ids")
+    List<Long> findIdsByIdIn(Collection<Long> ids);
+
+    /**
+     * Returns the ids of the books with the canonical ISBN-13, soft-deleted ones included,
+     * since the unique index on the column covers them too.
+     */
+    @Query(value = "SELECT id FROM books WHERE isbn13 = :isbn13", nativeQuery = true)
+    List<Long> findIdsByIsbn13(String isbn13);
+
+    @Query("SELECT b.id FROM Book b JOIN b.categories c "
             + "WHERE c.id = :categoryId")
-    List<Book> findAllByCategoryId(Long categoryId, Pageable pageable);
+    List<Long> findIdsByCategoryId(Long categoryId, Pageable pageable);
+
+    @Query("SELECT b.id FROM Book b WHERE EXISTS (SELECT c.id FROM b.categories c "
+            + "WHERE c.isDeleted = false "
+            + "AND (c.id = :categoryId OR c.path LIKE CONCAT(:descendantsPath, '%')))")
+    List<Long> findIdsByCategorySubtree(Long categoryId,
+                                        String descendantsPath,
+                                        Pageable pageable);
+
+    @Transactional
+    @Modifying
+    @Query(value = "UPDATE books SET price = GREATEST(ROUND(price * :factor + :amount, 2), 0), "
+            + "version = version + 1 WHERE id IN (:ids)", nativeQuery = true)
+    int updatePrices(Collection<Long> ids, BigDecimal factor, BigDecimal amount);
+
+    @EntityGraph(attributePaths = "categories")
+    List<Book> findAllByIdIn(Collection<Long> ids);
 
     @EntityGraph(attributePaths = "categories")
     Optional<Book> findById(Long id);
@@ -4,6 +4,7 @@ import com.bookstore.dto.book.BookSearchParametersDto;
 import com.bookstore.model.Book;
 import com.bookstore.repository.SpecificationBuilder;
 import com.bookstore.repository.SpecificationProviderManager;
+import java.util.Arrays;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Component;
@@ -36,6 +37,19 @@ public class BookSpecificationBuilder implements SpecificationBuilder<Book> {
                     .getSpecificationProvider("isbn")
                     .getSpecification(searchParameters.isbns()));
         }
+        if (searchParameters.q() != null && !searchParameters.q().isBlank()) {
+            spec = spec.and(bookSpecificationProviderManager
+                    .getSpecificationProvider("q")
+                    .getSpecification(new String[]{searchParameters.q()}));
+        }
+        if (searchParameters.hasCategories()) {
+            String key = searchParameters.matchAllCategories() ? "allCategories" : "anyCategory";
+            spec = spec.and(bookSpecificationProviderManager
+                    .getSpecificationProvider(key)
+                    .getSpecification(Arrays.stream(searchParameters.categoryIds())
+                            .map(String::valueOf)
+                            .toArray(String[]::new)));
+        }
         return spec;
     }
 }
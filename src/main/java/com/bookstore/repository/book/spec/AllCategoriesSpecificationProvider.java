@@ -0,0 +1,34 @@
+package com.bookstore.repository.book.spec;
+
+import com.bookstore.model.Book;
+import com.bookstore.model.Category;
+import com.bookstore.repository.SpecificationProvider;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Subquery;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Component;
+
+@Component
+public class AllCategoriesSpecificationProvider implements SpecificationProvider<Book> {
+    @Override
+    public String getKey() {
+        return "allCategories";
+    }
+
+    public Specification<Book> getSpecification(String[] params) {
+        return (root, query, criteriaBuilder) -> {
+            Predicate[] predicates = new Predicate[params.length];
+            for (int i = 0; i < params.length; i++) {
+                Subquery<Long> bookIds = query.subquery(Long.class);
+                Root<Book> book = bookIds.from(Book.class);
+                Join<Book, Category> category = book.join("categories");
+                bookIds.select(book.get("id"))
+                        .where(criteriaBuilder.equal(category.get("id"), Long.valueOf(params[i])));
+                predicates[i] = root.get("id").in(bookIds);
+            }
+            return criteriaBuilder.and(predicates);
+        };
+    }
+}
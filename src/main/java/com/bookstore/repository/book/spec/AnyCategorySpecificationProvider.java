@@ -0,0 +1,32 @@
+package com.bookstore.repository.book.spec;
+
+import com.bookstore.model.Book;
+import com.bookstore.model.Category;
+import com.bookstore.repository.SpecificationProvider;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Subquery;
+import java.util.Arrays;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Component;
+
+@Component
+public class AnyCategorySpecificationProvider implements SpecificationProvider<Book> {
+    @Override
+    public String getKey() {
+        return "anyCategory";
+    }
+
+    public Specification<Book> getSpecification(String[] params) {
+        return (root, query, criteriaBuilder) -> {
+            Subquery<Long> bookIds = query.subquery(Long.class);
+            Root<Book> book = bookIds.from(Book.class);
+            Join<Book, Category> category = book.join("categories");
+            bookIds.select(book.get("id"))
+                    .where(category.get("id").in(Arrays.stream(params)
+                            .map(Long::valueOf)
+                            .toList()));
+            return root.get("id").in(bookIds);
+        };
+    }
+}
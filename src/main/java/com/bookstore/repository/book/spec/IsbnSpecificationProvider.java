@@ -2,18 +2,44 @@ package com.bookstore.repository.book.spec;
 
 import com.bookstore.model.Book;
 import com.bookstore.repository.SpecificationProvider;
+import com.bookstore.validation.IsbnParser;
+import jakarta.persistence.criteria.Predicate;
+import java.util.Arrays;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Component;
 
+/**
+ * Matches books by any of the given ISBNs in whatever form they are typed (ISBN-10 or
+ * ISBN-13, with or without hyphens) through the indexed canonical {@code isbn13} column:
+ * a complete ISBN is an equality seek and a partial one a prefix range scan, instead of
+ * a {@code LIKE '%...%'} over every row.
+ */
 @Component
 public class IsbnSpecificationProvider implements SpecificationProvider<Book> {
+    private static final String ISBN = "isbn";
+    private static final String ISBN_13 = "isbn13";
+
     @Override
     public String getKey() {
-        return "isbn";
+        return ISBN;
     }
 
     public Specification<Book> getSpecification(String[] params) {
-        return (root, query, criteriaBuilder) ->
-                criteriaBuilder.like(root.get("isbn"), "%" + params[0] + "%");
+        return (root, query, criteriaBuilder) -> criteriaBuilder.or(Arrays.stream(params)
+                .map(param -> {
+                    Predicate exact = criteriaBuilder.equal(root.get(ISBN), param);
+                    String isbn13 = IsbnParser.toIsbn13(param);
+                    if (isbn13 != null) {
+                        return criteriaBuilder.or(exact,
+                                criteriaBuilder.equal(root.get(ISBN_13), isbn13));
+                    }
+                    String prefix = IsbnParser.toIsbn13Prefix(param);
+                    if (prefix != null) {
+                        return criteriaBuilder.or(exact,
+                                criteriaBuilder.like(root.get(ISBN_13), prefix + "%"));
+                    }
+                    return exact;
+                })
+                .toArray(Predicate[]::new));
     }
 }
@@ -0,0 +1,36 @@
+package com.bookstore.repository.book.spec;
+
+import com.bookstore.model.Book;
+import com.bookstore.repository.SpecificationProvider;
+import jakarta.persistence.criteria.Predicate;
+import java.util.ArrayList;
+import java.util.List;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Component;
+
+@Component
+public class KeywordSpecificationProvider implements SpecificationProvider<Book> {
+    @Override
+    public String getKey() {
+        return "q";
+    }
+
+    public Specification<Book> getSpecification(String[] params) {
+        return (root, query, criteriaBuilder) -> {
+            List<Predicate> predicates = new ArrayList<>();
+            for (String keyword : params[0].toLowerCase().split("\\s+")) {
+                if (keyword.isEmpty()) {
+                    continue;
+                }
+                String pattern = "%" + keyword + "%";
+                predicates.add(criteriaBuilder.like(criteriaBuilder.lower(root.get("title")),
+                        pattern));
+                predicates.add(criteriaBuilder.like(criteriaBuilder.lower(root.get("author")),
+                        pattern));
+                predicates.add(criteriaBuilder.like(
+                        criteriaBuilder.lower(root.get("description")), pattern));
+            }
+            return criteriaBuilder.or(predicates.toArray(new Predicate[0]));
+        };
+    }
+}
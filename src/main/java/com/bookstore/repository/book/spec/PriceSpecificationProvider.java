@@ -1,7 +1,9 @@
 package com.bookstore.repository.book.spec;
 
+import com.bookstore.exception.InvalidParameterException;
 import com.bookstore.model.Book;
 import com.bookstore.repository.SpecificationProvider;
+import java.math.BigDecimal;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Component;
 
@@ -13,7 +15,29 @@ public class PriceSpecificationProvider implements SpecificationProvider<Book> {
     }
 
     public Specification<Book> getSpecification(String[] params) {
+        BigDecimal[] range = parseRange(params);
         return (root, query, criteriaBuilder) ->
-                criteriaBuilder.between(root.get("price"), params[0], params[1]);
+                criteriaBuilder.between(root.get("price"), range[0], range[1]);
+    }
+
+    /**
+     * Parses {@code prices=min,max} into its two inclusive bounds.
+     */
+    public static BigDecimal[] parseRange(String[] params) {
+        if (params.length != 2) {
+            throw new InvalidParameterException("Price filter must be 'min,max'");
+        }
+        try {
+            BigDecimal min = new BigDecimal(params[0].trim());
+            BigDecimal max = new BigDecimal(params[1].trim());
+            if (min.compareTo(max) > 0) {
+                throw new InvalidParameterException(
+                        "Minimum price " + min + " is greater than maximum price " + max);
+            }
+            return new BigDecimal[] {min, max};
+        } catch (NumberFormatException e) {
+            throw new InvalidParameterException("Invalid price filter: "
+                    + String.join(",", params), e);
+        }
     }
 }
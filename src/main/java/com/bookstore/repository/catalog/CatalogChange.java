@@ -0,0 +1,22 @@
+package com.bookstore.repository.catalog;
+
+import java.time.LocalDateTime;
+import lombok.Value;
+
+/**
+ * One row of the catalog change log: a book or category that was saved, or soft deleted
+ * when {@code deleted} is set, at a position of the catalog's change sequence.
+ */
+@Value
+public class CatalogChange {
+    private final long sequenceNumber;
+    private final EntityType entityType;
+    private final long entityId;
+    private final boolean deleted;
+    private final LocalDateTime changedAt;
+
+    public enum EntityType {
+        BOOK,
+        CATEGORY
+    }
+}
@@ -0,0 +1,58 @@
+package com.bookstore.repository.catalog;
+
+import java.util.ArrayList;
+import java.util.List;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Append-only log of catalog changes keyed by their sequence number, so a client catching
+ * up reads a primary key range scan from its last position instead of the whole catalog.
+ */
+@RequiredArgsConstructor
+@Repository
+public class CatalogChangeRepository {
+    private static final int BATCH_SIZE = 500;
+    private static final String INSERT_CHANGE = "INSERT INTO catalog_changes "
+            + "(sequence_number, entity_type, entity_id, deleted) VALUES (?, ?, ?, ?)";
+    private static final String SELECT_CHANGES_AFTER = "SELECT sequence_number, entity_type, "
+            + "entity_id, deleted, changed_at FROM catalog_changes "
+            + "WHERE sequence_number > ? ORDER BY sequence_number LIMIT ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Logs a change of each entity, numbered consecutively from firstSequenceNumber.
+     */
+    public void addChanges(long firstSequenceNumber,
+                           CatalogChange.EntityType entityType,
+                           List<Long> entityIds,
+                           boolean deleted) {
+        List<long[]> rows = new ArrayList<>(entityIds.size());
+        for (Long entityId : entityIds) {
+            rows.add(new long[] {firstSequenceNumber + rows.size(), entityId});
+        }
+        jdbcTemplate.batchUpdate(INSERT_CHANGE, rows, BATCH_SIZE,
+                (statement, row) -> {
+                    statement.setLong(1, row[0]);
+                    statement.setString(2, entityType.name());
+                    statement.setLong(3, row[1]);
+                    statement.setBoolean(4, deleted);
+                });
+    }
+
+    /**
+     * Returns up to limit changes with a sequence number above the given one, in order.
+     */
+    public List<CatalogChange> findAfter(long sequenceNumber, int limit) {
+        return jdbcTemplate.query(SELECT_CHANGES_AFTER,
+                (resultSet, rowNum) -> new CatalogChange(
+                        resultSet.getLong(1),
+                        CatalogChange.EntityType.valueOf(resultSet.getString(2)),
+                        resultSet.getLong(3),
+                        resultSet.getBoolean(4),
+                        resultSet.getTimestamp(5).toLocalDateTime()),
+                sequenceNumber, limit);
+    }
+}
@@ -0,0 +1,33 @@
+package com.bookstore.repository.catalog;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Single-row counter shared by every node, bumped on each change to books or categories.
+ */
+@RequiredArgsConstructor
+@Repository
+public class CatalogVersionRepository {
+    private static final String SELECT_VERSION = "SELECT version FROM catalog_version WHERE id = 1";
+    private static final String INCREMENT_VERSION =
+            "UPDATE catalog_version SET version = version + ? WHERE id = 1";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public long getVersion() {
+        Long version = jdbcTemplate.queryForObject(SELECT_VERSION, Long.class);
+        return version == null ? 0 : version;
+    }
+
+    /**
+     * Adds count to the version and returns the new value. Must run in a transaction: the
+     * row lock taken by the update holds other callers back until commit, so the value
+     * read back is this caller's own.
+     */
+    public long increment(int count) {
+        jdbcTemplate.update(INCREMENT_VERSION, count);
+        return getVersion();
+    }
+}
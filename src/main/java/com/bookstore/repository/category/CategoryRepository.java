@@ -1,12 +1,54 @@
 package com.bookstore.repository.category;
 
 import com.bookstore.model.Category;
+import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
 
 public interface CategoryRepository extends JpaRepository<Category, Long> {
     Set<Category> findByIdIn(Set<Long> categoryIds);
 
     Optional<Category> findCategoryByName(String name);
+
+    boolean existsByParentId(Long parentId);
+
+    /**
+     * Returns the ids of the live books filed directly under the category.
+     */
+    @Query(value = "SELECT bc.book_id FROM books_categories bc "
+            + "JOIN books b ON b.id = bc.book_id "
+            + "WHERE bc.category_id = :categoryId AND b.is_deleted = false", nativeQuery = true)
+    List<Long> findBookIds(Long categoryId);
+
+    /**
+     * Bumps the version of the live books filed directly under the category, so their
+     * ETags change along with their category ids.
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "UPDATE books SET version = version + 1 WHERE is_deleted = false "
+            + "AND id IN (SELECT book_id FROM books_categories WHERE category_id = :categoryId)",
+            nativeQuery = true)
+    int touchBooks(Long categoryId);
+
+    /**
+     * Returns the ids of the live categories whose path starts with {@code path}.
+     */
+    @Query(value = "SELECT id FROM categories "
+            + "WHERE path LIKE CONCAT(:path, '%') AND is_deleted = false", nativeQuery = true)
+    List<Long> findIdsByPathPrefix(String path);
+
+    /**
+     * Moves every category whose path starts with {@code oldPath} to {@code newPath}.
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "UPDATE categories SET path = CONCAT(:newPath, "
+            + "SUBSTRING(path, CHAR_LENGTH(:oldPath) + 1)), version = version + 1 "
+            + "WHERE path LIKE CONCAT(:oldPath, '%')", nativeQuery = true)
+    int updateDescendantPaths(String oldPath, String newPath);
 }
@@ -0,0 +1,134 @@
+package com.bookstore.repository.orderitem;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Books bought together, read straight from order_items: the baskets of every order up to
+ * a given one for a batch rebuild, or the co-purchases of one book when no in-memory graph
+ * is loaded yet.
+ * Items of deleted orders and deleted books are ignored.
+ */
+@RequiredArgsConstructor
+@Repository
+public class CoPurchaseRepository {
+    private static final int FETCH_SIZE = 1000;
+    private static final String SELECT_ORDER_BOOKS = "SELECT oi.order_id, oi.book_id "
+            + "FROM order_items oi "
+            + "JOIN orders o ON o.id = oi.order_id AND o.is_deleted = false "
+            + "JOIN books b ON b.id = oi.book_id AND b.is_deleted = false "
+            + "WHERE oi.order_id <= ? "
+            + "ORDER BY oi.order_id, oi.book_id";
+    private static final String SELECT_MAX_ORDER_ID = "SELECT COALESCE(MAX(id), 0) FROM orders";
+    private static final String SELECT_RELATED_BOOK_IDS = "SELECT other.book_id "
+            + "FROM order_items item "
+            + "JOIN orders o ON o.id = item.order_id AND o.is_deleted = false "
+            + "JOIN order_items other ON other.order_id = item.order_id "
+            + "AND other.book_id <> item.book_id "
+            + "JOIN books b ON b.id = other.book_id AND b.is_deleted = false "
+            + "WHERE item.book_id = ? "
+            + "GROUP BY other.book_id "
+            + "ORDER BY COUNT(DISTINCT other.order_id) DESC, other.book_id LIMIT ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Returns the id of the latest order, or 0 when there is none.
+     */
+    public long findMaxOrderId() {
+        return jdbcTemplate.queryForObject(SELECT_MAX_ORDER_ID, Long.class);
+    }
+
+    /**
+     * Streams the distinct book ids of every order up to maxOrderId that has between 2 and
+     * maxSize of them, each sorted, to the consumer in chunks of up to chunkSize baskets;
+     * smaller orders have no pairs and larger ones are bulk buys.
+     */
+    public void findBaskets(long maxOrderId,
+                            int maxSize,
+                            int chunkSize,
+                            Consumer<List<long[]>> chunkConsumer) {
+        BasketRowCallbackHandler rowCallbackHandler =
+                new BasketRowCallbackHandler(maxSize, chunkSize, chunkConsumer);
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(
+                    SELECT_ORDER_BOOKS,
+                    ResultSet.TYPE_FORWARD_ONLY,
+                    ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(FETCH_SIZE);
+            statement.setLong(1, maxOrderId);
+            return statement;
+        }, rowCallbackHandler);
+        rowCallbackHandler.flush();
+        rowCallbackHandler.flushChunk();
+    }
+
+    /**
+     * Returns the ids of the live books bought in most orders together with the book.
+     */
+    public List<Long> findRelatedBookIds(Long bookId, int limit) {
+        return jdbcTemplate.queryForList(SELECT_RELATED_BOOK_IDS, Long.class, bookId, limit);
+    }
+
+    /**
+     * Folds the (order, book) rows of one order, which arrive consecutively and sorted
+     * thanks to the ORDER BY, into a basket.
+     */
+    private static class BasketRowCallbackHandler implements RowCallbackHandler {
+        private final int maxSize;
+        private final int chunkSize;
+        private final Consumer<List<long[]>> chunkConsumer;
+        private final long[] bookIds;
+        private List<long[]> baskets = new ArrayList<>();
+        private long orderId;
+        private int size;
+
+        BasketRowCallbackHandler(int maxSize,
+                                 int chunkSize,
+                                 Consumer<List<long[]>> chunkConsumer) {
+            this.maxSize = maxSize;
+            this.chunkSize = chunkSize;
+            this.chunkConsumer = chunkConsumer;
+            this.bookIds = new long[maxSize + 1];
+        }
+
+        @Override
+        public void processRow(ResultSet resultSet) throws SQLException {
+            long rowOrderId = resultSet.getLong(1);
+            long bookId = resultSet.getLong(2);
+            if (rowOrderId != orderId) {
+                flush();
+                orderId = rowOrderId;
+            }
+            if (size <= maxSize && (size == 0 || bookIds[size - 1] != bookId)) {
+                bookIds[size++] = bookId;
+            }
+        }
+
+        void flush() {
+            if (size >= 2 && size <= maxSize) {
+                baskets.add(Arrays.copyOf(bookIds, size));
+                if (baskets.size() == chunkSize) {
+                    flushChunk();
+                }
+            }
+            size = 0;
+        }
+
+        void flushChunk() {
+            if (!baskets.isEmpty()) {
+                chunkConsumer.accept(baskets);
+                baskets = new ArrayList<>();
+            }
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.bookstore.repository.sales;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Running number of copies sold per book, written in batches of increments so placing
+ * an order never waits for it.
+ */
+@RequiredArgsConstructor
+@Repository
+public class BookSalesRepository {
+    private static final int BATCH_SIZE = 500;
+    private static final String ADD_SALES = "INSERT INTO book_sales (book_id, sold) "
+            + "VALUES (?, ?) ON DUPLICATE KEY UPDATE sold = sold + VALUES(sold)";
+    private static final String SELECT_SALES = "SELECT book_id, sold FROM book_sales";
+    private static final String SELECT_TOP_BOOK_IDS = "SELECT s.book_id FROM book_sales s "
+            + "JOIN books b ON b.id = s.book_id AND b.is_deleted = false "
+            + "WHERE s.sold > 0 ORDER BY s.sold DESC, s.book_id LIMIT ?";
+    private static final String SELECT_TOP_BOOK_IDS_IN_CATEGORY = "SELECT s.book_id "
+            + "FROM book_sales s "
+            + "JOIN books b ON b.id = s.book_id AND b.is_deleted = false "
+            + "JOIN books_categories bc ON bc.book_id = s.book_id AND bc.category_id = ? "
+            + "WHERE s.sold > 0 ORDER BY s.sold DESC, s.book_id LIMIT ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Adds the given number of copies to each book's total.
+     */
+    public void addSales(Map<Long, Long> sales) {
+        jdbcTemplate.batchUpdate(ADD_SALES, new ArrayList<>(sales.entrySet()), BATCH_SIZE,
+                (statement, entry) -> {
+                    statement.setLong(1, entry.getKey());
+                    statement.setLong(2, entry.getValue());
+                });
+    }
+
+    public Map<Long, Long> findAll() {
+        Map<Long, Long> sales = new HashMap<>();
+        jdbcTemplate.query(SELECT_SALES,
+                resultSet -> {
+                    sales.put(resultSet.getLong(1), resultSet.getLong(2));
+                });
+        return sales;
+    }
+
+    /**
+     * Returns the ids of the best selling live books, overall or in one category.
+     */
+    public List<Long> findTopBookIds(Long categoryId, int limit) {
+        if (categoryId == null) {
+            return jdbcTemplate.queryForList(SELECT_TOP_BOOK_IDS, Long.class, limit);
+        }
+        return jdbcTemplate.queryForList(SELECT_TOP_BOOK_IDS_IN_CATEGORY, Long.class,
+                categoryId, limit);
+    }
+}
@@ -0,0 +1,9 @@
+package com.bookstore.service;
+
+import com.bookstore.dto.book.BookImportResultDto;
+import java.io.InputStream;
+import org.springframework.http.MediaType;
+
+public interface BookImportService {
+    BookImportResultDto importBooks(InputStream inputStream, MediaType contentType);
+}
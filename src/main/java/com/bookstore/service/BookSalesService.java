@@ -0,0 +1,16 @@
+package com.bookstore.service;
+
+import com.bookstore.model.OrderItem;
+import java.util.Collection;
+import java.util.Map;
+
+public interface BookSalesService {
+    void recordSales(Long orderId, Collection<OrderItem> orderItems);
+
+    /**
+     * Returns the number of copies sold per book, including the sales not flushed yet.
+     */
+    Map<Long, Long> loadTotals();
+
+    void flush();
+}
@@ -1,24 +1,66 @@
 package com.bookstore.service;
 
+import com.bookstore.dto.book.BookBatchResultDto;
+import com.bookstore.dto.book.BookCursorPageDto;
 import com.bookstore.dto.book.BookDto;
 import com.bookstore.dto.book.BookDtoWithoutCategoryIds;
+import com.bookstore.dto.book.BookFields;
+import com.bookstore.dto.book.BookPriceUpdateRequestDto;
+import com.bookstore.dto.book.BookPriceUpdateResultDto;
 import com.bookstore.dto.book.BookSearchParametersDto;
+import com.bookstore.dto.book.BookSearchResultDto;
+import com.bookstore.dto.book.BookSuggestionDto;
 import com.bookstore.dto.book.CreateBookRequestDto;
+import java.io.OutputStream;
 import java.util.List;
+import java.util.Set;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 
 public interface BookService {
     BookDto createBook(CreateBookRequestDto bookRequestDto);
 
     BookDto getBookById(Long id);
 
-    List<BookDto> getAll(Pageable pageable);
+    BookBatchResultDto getBooksByIds(List<Long> ids);
+
+    List<BookDto> getAll(Pageable pageable, BookFields fields);
+
+    BookCursorPageDto getAllAfter(String cursor, int size, Sort sort, BookFields fields);
 
     BookDto updateBook(Long id, CreateBookRequestDto bookRequestDto);
 
     void deleteBookById(Long id);
 
-    List<BookDto> searchBooks(BookSearchParametersDto searchParameters, Pageable pageable);
+    BookPriceUpdateResultDto updatePrices(BookSearchParametersDto searchParameters,
+                                          BookPriceUpdateRequestDto priceUpdateRequestDto);
+
+    List<BookDto> searchBooks(BookSearchParametersDto searchParameters,
+                              Pageable pageable,
+                              BookFields fields);
+
+    BookSearchResultDto searchBooksWithFacets(BookSearchParametersDto searchParameters,
+                                              Set<String> facets,
+                                              Pageable pageable);
+
+    List<BookSuggestionDto> suggest(String prefix, int limit);
+
+    /**
+     * Returns the best selling books, overall or in one category, best first.
+     */
+    List<BookDto> getBestsellers(Long categoryId, int limit);
+
+    /**
+     * Returns the books most often bought in the same orders as the book, best first.
+     */
+    List<BookDto> getRelatedBooks(Long id, int limit);
+
+    void exportBooks(OutputStream outputStream);
 
     List<BookDtoWithoutCategoryIds> findAllByCategoryId(Long categoryId, Pageable pageable);
+
+    /**
+     * Returns the books in the category or any of its descendants, each book once.
+     */
+    List<BookDtoWithoutCategoryIds> findAllInCategorySubtree(Long categoryId, Pageable pageable);
 }
@@ -0,0 +1,11 @@
+package com.bookstore.service;
+
+import com.bookstore.dto.catalog.CatalogChangePageDto;
+
+public interface CatalogChangeService {
+    /**
+     * Returns the books and categories changed after the given token (from the start of
+     * the log when blank), each once in the order of its latest change.
+     */
+    CatalogChangePageDto getChanges(String since, int limit);
+}
@@ -0,0 +1,5 @@
+package com.bookstore.service;
+
+public interface CatalogVersionService {
+    long getVersion();
+}
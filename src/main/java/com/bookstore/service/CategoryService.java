@@ -1,6 +1,7 @@
 package com.bookstore.service;
 
 import com.bookstore.dto.category.CategoryDto;
+import com.bookstore.dto.category.CategoryNodeDto;
 import java.util.List;
 import org.springframework.data.domain.Pageable;
 
@@ -9,6 +10,12 @@ public interface CategoryService {
 
     CategoryDto getById(Long id);
 
+    /**
+     * Returns the direct children of the category, or the root categories for null,
+     * with the number of books in each child's subtree.
+     */
+    List<CategoryNodeDto> findChildren(Long parentId);
+
     CategoryDto save(CategoryDto categoryDto);
 
     CategoryDto update(Long id, CategoryDto categoryDto);
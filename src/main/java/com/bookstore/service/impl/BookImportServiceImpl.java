@@ -0,0 +1,235 @@
+package com.bookstore.service.impl;
+
+import com.bookstore.cache.CategoryCatalog;
+import com.bookstore.dto.book.BookImportErrorDto;
+import com.bookstore.dto.book.BookImportResultDto;
+import com.bookstore.dto.book.CreateBookRequestDto;
+import com.bookstore.event.BooksUpdatedEvent;
+import com.bookstore.exception.InvalidParameterException;
+import com.bookstore.importer.BookImportRow;
+import com.bookstore.importer.BookRowReader;
+import com.bookstore.importer.CsvBookRowReader;
+import com.bookstore.importer.NdjsonBookRowReader;
+import com.bookstore.mapper.BookMapper;
+import com.bookstore.model.Book;
+import com.bookstore.model.Category;
+import com.bookstore.repository.book.BookImportRepository;
+import com.bookstore.service.BookImportService;
+import com.bookstore.validation.IsbnParser;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Imports books chunk by chunk while the feed is still being read: every chunk resolves
+ * its categories from the in-memory catalog and its taken ISBNs with one query, and is
+ * written with two multi-row INSERTs in its own transaction, so a bad chunk never rolls
+ * back the chunks before it.
+ */
+@Slf4j
+@RequiredArgsConstructor
+@Service
+public class BookImportServiceImpl implements BookImportService {
+    private static final MediaType TEXT_CSV = MediaType.valueOf("text/csv");
+    private static final int MAX_CHUNK_SIZE = 5000;
+    private static final int MAX_REPORTED_ERRORS = 1000;
+
+    private final BookImportRepository bookImportRepository;
+    private final CategoryCatalog categoryCatalog;
+    private final BookMapper bookMapper;
+    private final Validator validator;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ObjectMapper objectMapper;
+    @Value("${import.books.chunk-size:500}")
+    private int chunkSize;
+
+    @Override
+    public BookImportResultDto importBooks(InputStream inputStream, MediaType contentType) {
+        final long startedAt = System.nanoTime();
+        int size = Math.max(1, Math.min(chunkSize, MAX_CHUNK_SIZE));
+        ImportReport report = new ImportReport();
+        try {
+            BookRowReader rowReader = createRowReader(inputStream, contentType);
+            List<BookImportRow> chunk = new ArrayList<>(size);
+            BookImportRow row = rowReader.next();
+            while (row != null) {
+                if (row.getError() != null) {
+                    report.fail(row.getRowNumber(), row.getError());
+                } else {
+                    chunk.add(row);
+                }
+                if (chunk.size() == size) {
+                    importChunk(chunk, report);
+                    chunk.clear();
+                }
+                row = rowReader.next();
+            }
+            if (!chunk.isEmpty()) {
+                importChunk(chunk, report);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Can't read the import feed", e);
+        }
+        report.errors.sort(Comparator.comparingLong(BookImportErrorDto::getRow));
+        long elapsedNanos = Math.max(1, System.nanoTime() - startedAt);
+        long booksPerSecond = report.imported * 1_000_000_000L / elapsedNanos;
+        log.info("Imported {} books ({} rows failed) in {} ms, {} books/s",
+                report.imported, report.failed, elapsedNanos / 1_000_000, booksPerSecond);
+        return new BookImportResultDto()
+                .setImported(report.imported)
+                .setFailed(report.failed)
+                .setErrors(report.errors)
+                .setElapsedMillis(elapsedNanos / 1_000_000)
+                .setBooksPerSecond(booksPerSecond);
+    }
+
+    private BookRowReader createRowReader(InputStream inputStream, MediaType contentType)
+            throws IOException {
+        Charset charset = contentType.getCharset() == null
+                ? StandardCharsets.UTF_8
+                : contentType.getCharset();
+        Reader reader = new InputStreamReader(inputStream, charset);
+        if (TEXT_CSV.isCompatibleWith(contentType)) {
+            return new CsvBookRowReader(reader);
+        }
+        if (MediaType.APPLICATION_NDJSON.isCompatibleWith(contentType)) {
+            return new NdjsonBookRowReader(reader, objectMapper.reader());
+        }
+        throw new InvalidParameterException("Unsupported import content type: " + contentType);
+    }
+
+    private void importChunk(List<BookImportRow> chunk, ImportReport report) {
+        List<BookImportRow> rows = validate(chunk, report);
+        rows = rejectTakenIsbns(rows, report);
+        Map<Long, Category> categories = resolveCategories(rows);
+        List<BookImportRow> accepted = new ArrayList<>(rows.size());
+        List<Book> books = new ArrayList<>(rows.size());
+        for (BookImportRow row : rows) {
+            CreateBookRequestDto bookRequestDto = row.getBook();
+            Set<Long> unknownCategoryIds = new HashSet<>(bookRequestDto.getCategoryIds());
+            unknownCategoryIds.removeAll(categories.keySet());
+            if (!unknownCategoryIds.isEmpty()) {
+                report.fail(row.getRowNumber(), "Unknown category ids " + unknownCategoryIds);
+                continue;
+            }
+            Book book = bookMapper.toBookModel(bookRequestDto);
+            book.setCategories(bookRequestDto.getCategoryIds().stream()
+                    .map(categories::get)
+                    .collect(Collectors.toSet()));
+            accepted.add(row);
+            books.add(book);
+        }
+        if (books.isEmpty()) {
+            return;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                insert(books);
+                eventPublisher.publishEvent(new BooksUpdatedEvent(books.stream()
+                        .map(Book::getId)
+                        .toList()));
+            });
+        } catch (DataAccessException e) {
+            log.warn("Import chunk of {} books rejected", books.size(), e);
+            accepted.forEach(row -> report.fail(row.getRowNumber(),
+                    "Chunk rejected by the database: " + e.getMostSpecificCause().getMessage()));
+            return;
+        }
+        report.imported += books.size();
+    }
+
+    private void insert(List<Book> books) {
+        List<Long> ids = bookImportRepository.insertBooks(books);
+        List<long[]> links = new ArrayList<>();
+        for (int i = 0; i < books.size(); i++) {
+            Book book = books.get(i).setId(ids.get(i));
+            for (Category category : book.getCategories()) {
+                links.add(new long[] {book.getId(), category.getId()});
+            }
+        }
+        bookImportRepository.insertBookCategories(links);
+    }
+
+    private List<BookImportRow> validate(List<BookImportRow> chunk, ImportReport report) {
+        List<BookImportRow> valid = new ArrayList<>(chunk.size());
+        for (BookImportRow row : chunk) {
+            Set<ConstraintViolation<CreateBookRequestDto>> violations =
+                    validator.validate(row.getBook());
+            if (violations.isEmpty()) {
+                valid.add(row);
+            } else {
+                report.fail(row.getRowNumber(), violations.stream()
+                        .map(violation -> violation.getPropertyPath() + " "
+                                + violation.getMessage())
+                        .sorted()
+                        .collect(Collectors.joining(", ")));
+            }
+        }
+        return valid;
+    }
+
+    private List<BookImportRow> rejectTakenIsbns(List<BookImportRow> rows, ImportReport report) {
+        Set<String> takenIsbn13s = new HashSet<>(bookImportRepository.findExistingIsbn13s(
+                rows.stream()
+                        .map(row -> IsbnParser.toIsbn13(row.getBook().getIsbn()))
+                        .collect(Collectors.toSet())));
+        List<BookImportRow> available = new ArrayList<>(rows.size());
+        for (BookImportRow row : rows) {
+            String isbn = row.getBook().getIsbn();
+            if (takenIsbn13s.add(IsbnParser.toIsbn13(isbn))) {
+                available.add(row);
+            } else {
+                report.fail(row.getRowNumber(), "Duplicate isbn " + isbn);
+            }
+        }
+        return available;
+    }
+
+    private Map<Long, Category> resolveCategories(List<BookImportRow> rows) {
+        Set<Long> categoryIds = rows.stream()
+                .flatMap(row -> row.getBook().getCategoryIds().stream())
+                .collect(Collectors.toSet());
+        if (categoryIds.isEmpty()) {
+            return Map.of();
+        }
+        return categoryCatalog.findByIdIn(categoryIds).stream()
+                .collect(Collectors.toMap(Category::getId, Function.identity()));
+    }
+
+    private static class ImportReport {
+        private final List<BookImportErrorDto> errors = new ArrayList<>();
+        private long imported;
+        private long failed;
+
+        void fail(long row, String message) {
+            failed++;
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(new BookImportErrorDto().setRow(row).setMessage(message));
+            }
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.bookstore.service.impl;
+
+import com.bookstore.event.BooksSoldEvent;
+import com.bookstore.model.OrderItem;
+import com.bookstore.repository.sales.BookSalesRepository;
+import com.bookstore.service.BookSalesService;
+import jakarta.annotation.PreDestroy;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Counts copies sold per book in striped {@link LongAdder}s, so concurrent orders of the
+ * same book never contend on a row lock, and adds what was sold since the last flush to
+ * book_sales in one batch. Counters only ever grow; the part already written is tracked
+ * separately instead of resetting them, so no concurrent sale is lost by a flush. A flush
+ * writes all of its batches in one transaction, so a failed one leaves nothing behind for
+ * its retry to count twice.
+ */
+@Slf4j
+@RequiredArgsConstructor
+@Service
+public class BookSalesServiceImpl implements BookSalesService {
+    private final BookSalesRepository bookSalesRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final ConcurrentMap<Long, LongAdder> sales = new ConcurrentHashMap<>();
+    private final Map<Long, Long> flushedSales = new HashMap<>();
+
+    @Override
+    public void recordSales(Long orderId, Collection<OrderItem> orderItems) {
+        Map<Long, Long> quantities = new HashMap<>();
+        for (OrderItem orderItem : orderItems) {
+            quantities.merge(orderItem.getBook().getId(), (long) orderItem.getQuantity(),
+                    Long::sum);
+        }
+        quantities.forEach((bookId, quantity) ->
+                sales.computeIfAbsent(bookId, id -> new LongAdder()).add(quantity));
+        eventPublisher.publishEvent(new BooksSoldEvent(orderId, quantities));
+    }
+
+    @Override
+    public synchronized Map<Long, Long> loadTotals() {
+        Map<Long, Long> totals = bookSalesRepository.findAll();
+        unflushedSales().forEach((bookId, quantity) -> totals.merge(bookId, quantity, Long::sum));
+        return totals;
+    }
+
+    @Override
+    @PreDestroy
+    @Scheduled(fixedDelayString = "${bestsellers.flush-interval:PT10S}")
+    public synchronized void flush() {
+        Map<Long, Long> unflushedSales = unflushedSales();
+        if (unflushedSales.isEmpty()) {
+            return;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status ->
+                    bookSalesRepository.addSales(unflushedSales));
+        } catch (DataAccessException | TransactionException e) {
+            log.warn("Sales of {} books not flushed, retrying later", unflushedSales.size(), e);
+            return;
+        }
+        unflushedSales.forEach((bookId, quantity) ->
+                flushedSales.merge(bookId, quantity, Long::sum));
+    }
+
+    private Map<Long, Long> unflushedSales() {
+        Map<Long, Long> unflushedSales = new HashMap<>();
+        sales.forEach((bookId, counter) -> {
+            long quantity = counter.sum() - flushedSales.getOrDefault(bookId, 0L);
+            if (quantity > 0) {
+                unflushedSales.put(bookId, quantity);
+            }
+        });
+        return unflushedSales;
+    }
+}
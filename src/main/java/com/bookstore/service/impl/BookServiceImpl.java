@@ -1,62 +1,215 @@
 package com.bookstore.service.impl;
 
+import com.bookstore.cache.BookSearchCache;
+import com.bookstore.cache.BookSearchKey;
+import com.bookstore.cache.CategoryCatalog;
+import com.bookstore.config.CacheConfig;
+import com.bookstore.dto.book.BookBatchResultDto;
+import com.bookstore.dto.book.BookCursorPageDto;
 import com.bookstore.dto.book.BookDto;
 import com.bookstore.dto.book.BookDtoWithoutCategoryIds;
+import com.bookstore.dto.book.BookFields;
+import com.bookstore.dto.book.BookPriceUpdateRequestDto;
+import com.bookstore.dto.book.BookPriceUpdateResultDto;
 import com.bookstore.dto.book.BookSearchParametersDto;
+import com.bookstore.dto.book.BookSearchResultDto;
+import com.bookstore.dto.book.BookSuggestionDto;
 import com.bookstore.dto.book.CreateBookRequestDto;
+import com.bookstore.dto.book.FacetCountDto;
+import com.bookstore.event.BookDeletedEvent;
+import com.bookstore.event.BookSavedEvent;
+import com.bookstore.event.BooksUpdatedEvent;
+import com.bookstore.exception.BookNotFoundException;
+import com.bookstore.exception.CategoryNotFoundException;
+import com.bookstore.exception.DuplicateIsbnException;
 import com.bookstore.exception.EntityNotFoundException;
+import com.bookstore.exception.InvalidParameterException;
+import com.bookstore.index.BestsellerIndex;
+import com.bookstore.index.BookFacetIndex;
+import com.bookstore.index.BookIndexManager;
+import com.bookstore.index.BookPriceIndex;
+import com.bookstore.index.BookSortIndex;
+import com.bookstore.index.BookSuggestIndex;
+import com.bookstore.index.BookTextIndex;
+import com.bookstore.index.BookTrigramIndex;
+import com.bookstore.index.CategoryBitmapIndex;
+import com.bookstore.index.CoPurchaseIndex;
+import com.bookstore.index.FacetCounts;
+import com.bookstore.index.LiveBookIdIndex;
+import com.bookstore.index.TopK;
 import com.bookstore.mapper.BookMapper;
 import com.bookstore.model.Book;
 import com.bookstore.model.Category;
+import com.bookstore.repository.book.BookExportRepository;
+import com.bookstore.repository.book.BookKeyset;
 import com.bookstore.repository.book.BookRepository;
 import com.bookstore.repository.book.BookSpecificationBuilder;
+import com.bookstore.repository.book.spec.PriceSpecificationProvider;
 import com.bookstore.repository.category.CategoryRepository;
+import com.bookstore.repository.orderitem.CoPurchaseRepository;
+import com.bookstore.repository.sales.BookSalesRepository;
 import com.bookstore.service.BookService;
+import com.bookstore.validation.IsbnParser;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.util.MinimalPrettyPrinter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jakarta.transaction.Transactional;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
 import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 import lombok.RequiredArgsConstructor;
+import org.roaringbitmap.longlong.LongIterator;
+import org.roaringbitmap.longlong.Roaring64NavigableMap;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.CachePut;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 
 @RequiredArgsConstructor
 @Service
 public class BookServiceImpl implements BookService {
+    private static final int MAX_CURSOR_PAGE_SIZE = 100;
+    private static final int MAX_IDS_IN_QUERY = 1000;
+    private static final int PRICE_UPDATE_CHUNK_SIZE = 1000;
+    private static final int MAX_SUGGESTIONS = 20;
+    private static final BigDecimal MIN_PERCENTAGE = BigDecimal.valueOf(-100);
+    private static final String CATEGORY_FACET = "category";
+    private static final String PRICE_FACET = "price";
+    private static final String PRICE_SORT = "price";
+    private static final String ID_SORT = "id";
+    private static final List<String> INDEXED_SORTS = List.of(ID_SORT, PRICE_SORT,
+            BookSortIndex.TITLE, BookSortIndex.AUTHOR, BookSortIndex.ISBN);
+    private static final Set<String> FACETS = Set.of(CATEGORY_FACET, PRICE_FACET);
+
     private final BookRepository bookRepository;
+    private final CategoryCatalog categoryCatalog;
     private final CategoryRepository categoryRepository;
     private final BookMapper bookMapper;
     private final BookSpecificationBuilder bookSpecificationBuilder;
+    private final BookIndexManager bookIndexManager;
+    private final BookTextIndex bookTextIndex;
+    private final CategoryBitmapIndex categoryBitmapIndex;
+    private final BookFacetIndex bookFacetIndex;
+    private final BookSuggestIndex bookSuggestIndex;
+    private final BookTrigramIndex bookTrigramIndex;
+    private final BookPriceIndex bookPriceIndex;
+    private final BookSortIndex bookSortIndex;
+    private final BestsellerIndex bestsellerIndex;
+    private final CoPurchaseIndex coPurchaseIndex;
+    private final LiveBookIdIndex liveBookIdIndex;
+    private final ApplicationEventPublisher eventPublisher;
+    private final BookExportRepository bookExportRepository;
+    private final BookSalesRepository bookSalesRepository;
+    private final CoPurchaseRepository coPurchaseRepository;
+    private final ObjectMapper objectMapper;
+    private final BookSearchCache bookSearchCache;
+    private final CacheManager cacheManager;
+    private final TransactionTemplate transactionTemplate;
 
     @Override
+    @Transactional
     public BookDto createBook(CreateBookRequestDto bookRequestDto) {
-        Set<Category> categories = categoryRepository.findByIdIn(bookRequestDto.getCategoryIds());
+        checkIsbnFree(bookRequestDto.getIsbn(), null);
+        Set<Category> categories = findCategories(bookRequestDto.getCategoryIds());
         Book book = bookMapper.toBookModel(bookRequestDto);
         book.setCategories(categories);
-        return bookMapper.toDto(bookRepository.save(book));
+        Book savedBook = bookRepository.save(book);
+        eventPublisher.publishEvent(new BookSavedEvent(savedBook));
+        return bookMapper.toDto(savedBook);
     }
 
     @Override
+    @Cacheable(cacheNames = CacheConfig.BOOKS_CACHE)
     public BookDto getBookById(Long id) {
+        if (withoutAbsent(List.of(id)).isEmpty()) {
+            throw new BookNotFoundException(id);
+        }
         return bookRepository.findById(id)
                 .map(bookMapper::toDto)
                 .orElseThrow(() ->
                         new EntityNotFoundException("No book in DB by id: " + id));
     }
 
+    /**
+     * Returns the requested books in the requested order, once each, taking them from the
+     * books cache where possible and loading the rest with one query per chunk of ids.
+     * Ids missing from the live id index are only checked for existence.
+     */
     @Override
-    public List<BookDto> getAll(Pageable pageable) {
-        return bookRepository.findAll(pageable)
-                .stream()
-                .map(bookMapper::toDto)
-                .toList();
+    public BookBatchResultDto getBooksByIds(List<Long> ids) {
+        List<Long> distinctIds = ids.stream().distinct().toList();
+        if (distinctIds.size() > MAX_IDS_IN_QUERY) {
+            throw new InvalidParameterException(
+                    "At most " + MAX_IDS_IN_QUERY + " books can be requested at once");
+        }
+        List<BookDto> books = findCachedBooks(withoutAbsent(distinctIds));
+        Set<Long> foundIds = books.stream()
+                .map(BookDto::getId)
+                .collect(Collectors.toSet());
+        return new BookBatchResultDto()
+                .setContent(books)
+                .setMissingIds(distinctIds.stream()
+                        .filter(id -> !foundIds.contains(id))
+                        .toList());
+    }
+
+    @Override
+    public List<BookDto> getAll(Pageable pageable, BookFields fields) {
+        return bookRepository.findDtos(null, withIdTiebreaker(pageable), fields);
+    }
+
+    @Override
+    public BookCursorPageDto getAllAfter(String cursor, int size, Sort sort, BookFields fields) {
+        if (size < 1 || size > MAX_CURSOR_PAGE_SIZE) {
+            throw new InvalidParameterException(
+                    "Page size must be between 1 and " + MAX_CURSOR_PAGE_SIZE);
+        }
+        BookKeyset keyset = cursor == null || cursor.isBlank()
+                ? BookKeyset.first(sort)
+                : BookKeyset.decode(cursor);
+        List<BookKeyset> slice = bookRepository.findKeysets(keyset, size + 1);
+        boolean hasNext = slice.size() > size;
+        List<BookKeyset> positions = hasNext ? slice.subList(0, size) : slice;
+        List<BookDto> content = findDtosInOrder(positions.stream()
+                .map(BookKeyset::getLastId)
+                .toList(), fields);
+        return new BookCursorPageDto()
+                .setContent(content)
+                .setNextCursor(hasNext ? positions.get(size - 1).encode() : null);
     }
 
     @Override
+    @CachePut(cacheNames = CacheConfig.BOOKS_CACHE, key = "#id")
+    @Transactional
     public BookDto updateBook(Long id, CreateBookRequestDto bookRequestDto) {
-        Set<Category> categories = categoryRepository.findByIdIn(bookRequestDto.getCategoryIds());
         Book bookFromDb = bookRepository.findById(id)
                 .orElseThrow(() ->
                         new EntityNotFoundException("No book in DB by id: " + id));
+        checkIsbnFree(bookRequestDto.getIsbn(), id);
+        Set<Category> categories = findCategories(bookRequestDto.getCategoryIds());
         bookFromDb.setTitle(bookRequestDto.getTitle());
         bookFromDb.setAuthor(bookRequestDto.getAuthor());
         bookFromDb.setPrice(bookRequestDto.getPrice());
@@ -64,35 +217,534 @@ public class BookServiceImpl implements BookService {
         bookFromDb.setDescription(bookRequestDto.getDescription());
         bookFromDb.setCoverImage(bookRequestDto.getCoverImage());
         bookFromDb.setCategories(categories);
-        return bookMapper.toDto(bookRepository.save(bookFromDb));
+        Book savedBook = bookRepository.saveAndFlush(bookFromDb);
+        eventPublisher.publishEvent(new BookSavedEvent(savedBook));
+        return bookMapper.toDto(savedBook);
     }
 
     @Override
+    @CacheEvict(cacheNames = CacheConfig.BOOKS_CACHE)
+    @Transactional
     public void deleteBookById(Long id) {
         if (bookRepository.findById(id).isEmpty()) {
             throw new EntityNotFoundException("Can't delete a book from DB with id: " + id);
         }
         bookRepository.deleteById(id);
+        eventPublisher.publishEvent(new BookDeletedEvent(id));
+    }
+
+    /**
+     * Reprices every book matching the filter with one UPDATE per chunk of ids, each in its
+     * own short transaction that also announces the chunk. The ids are resolved up front by
+     * the same indexes as search, so the books repriced are exactly the ones the same search
+     * returns. Until the indexes are loaded, chunks are taken by id keyset rather than
+     * offset, so books whose new price no longer matches a price filter are neither skipped
+     * nor repriced twice.
+     */
+    @Override
+    @CacheEvict(cacheNames = CacheConfig.BOOKS_CACHE, allEntries = true)
+    public BookPriceUpdateResultDto updatePrices(BookSearchParametersDto searchParameters,
+                                                 BookPriceUpdateRequestDto priceUpdateRequestDto) {
+        validateCategoryMatch(searchParameters);
+        if (!searchParameters.hasText()
+                && !searchParameters.hasCategories()
+                && !searchParameters.hasFilters()) {
+            throw new InvalidParameterException("Bulk price update needs at least one filter");
+        }
+        BigDecimal factor = BigDecimal.ONE;
+        BigDecimal amount = priceUpdateRequestDto.getValue();
+        if (priceUpdateRequestDto.getType() == BookPriceUpdateRequestDto.Type.PERCENTAGE) {
+            if (amount.compareTo(MIN_PERCENTAGE) < 0) {
+                throw new InvalidParameterException("Percentage can't be lower than -100");
+            }
+            factor = BigDecimal.ONE.add(amount.movePointLeft(2));
+            amount = BigDecimal.ZERO;
+        }
+        long updated = 0;
+        if (bookIndexManager.isReady()) {
+            Roaring64NavigableMap matches = findMatchingIds(searchParameters,
+                    scoreText(searchParameters));
+            List<Long> ids = new ArrayList<>(PRICE_UPDATE_CHUNK_SIZE);
+            LongIterator iterator = matches.getLongIterator();
+            while (iterator.hasNext()) {
+                ids.add(iterator.next());
+                if (ids.size() == PRICE_UPDATE_CHUNK_SIZE || !iterator.hasNext()) {
+                    updated += updatePrices(ids, factor, amount);
+                    ids = new ArrayList<>(PRICE_UPDATE_CHUNK_SIZE);
+                }
+            }
+        } else {
+            Specification<Book> bookSpecification =
+                    bookSpecificationBuilder.build(searchParameters);
+            Pageable chunk = PageRequest.of(0, PRICE_UPDATE_CHUNK_SIZE, Sort.by("id"));
+            List<Long> ids = bookRepository.findIds(bookSpecification, chunk);
+            while (!ids.isEmpty()) {
+                updated += updatePrices(ids, factor, amount);
+                ids = bookRepository.findIds(
+                        bookSpecification.and(idGreaterThan(ids.get(ids.size() - 1))), chunk);
+            }
+        }
+        return new BookPriceUpdateResultDto().setUpdated(updated);
+    }
+
+    private int updatePrices(List<Long> ids, BigDecimal factor, BigDecimal amount) {
+        Integer updated = transactionTemplate.execute(status -> {
+            int count = bookRepository.updatePrices(ids, factor, amount);
+            eventPublisher.publishEvent(new BooksUpdatedEvent(ids));
+            return count;
+        });
+        return updated == null ? 0 : updated;
+    }
+
+    @Override
+    public List<BookDto> searchBooks(BookSearchParametersDto searchParameters,
+                                     Pageable pageable,
+                                     BookFields fields) {
+        validateCategoryMatch(searchParameters);
+        BookSearchKey searchKey = bookSearchCache.keyOf(searchParameters, pageable);
+        Optional<List<Long>> cachedIds = bookSearchCache.find(searchKey);
+        if (cachedIds.isPresent()) {
+            return findCachedBooks(cachedIds.get());
+        }
+        List<BookDto> books;
+        if ((searchParameters.hasText()
+                || searchParameters.hasCategories()
+                || searchParameters.hasPriceRange())
+                && bookIndexManager.isReady()) {
+            books = searchBooksByIndexes(searchParameters, pageable, fields);
+        } else {
+            Specification<Book> bookSpecification =
+                    bookSpecificationBuilder.build(searchParameters);
+            books = bookRepository.findDtos(bookSpecification, withIdTiebreaker(pageable),
+                    fields);
+        }
+        bookSearchCache.put(searchKey, books.stream().map(BookDto::getId).toList());
+        return books;
+    }
+
+    @Override
+    public BookSearchResultDto searchBooksWithFacets(BookSearchParametersDto searchParameters,
+                                                     Set<String> facets,
+                                                     Pageable pageable) {
+        if (!FACETS.containsAll(facets)) {
+            throw new InvalidParameterException("Supported facets are: " + FACETS);
+        }
+        if (!bookIndexManager.isReady()) {
+            return new BookSearchResultDto()
+                    .setContent(searchBooks(searchParameters, pageable, BookFields.ALL))
+                    .setFacets(Map.of());
+        }
+        validateCategoryMatch(searchParameters);
+        Map<Long, Double> scores = scoreText(searchParameters);
+        Roaring64NavigableMap matches = findMatchingIds(searchParameters, scores);
+        List<BookDto> content = matches == null
+                ? searchBooks(searchParameters, pageable, BookFields.ALL)
+                : findPage(matches, scores, pageable, BookFields.ALL);
+        return new BookSearchResultDto()
+                .setContent(content)
+                .setFacets(toFacetDtos(bookFacetIndex.count(matches), facets));
     }
 
     @Override
-    public List<BookDto> searchBooks(BookSearchParametersDto searchParameters, Pageable pageable) {
-        Specification<Book> bookSpecification = bookSpecificationBuilder.build(searchParameters);
-        return bookRepository.findAll(bookSpecification, pageable)
+    public List<BookSuggestionDto> suggest(String prefix, int limit) {
+        if (limit < 1 || limit > MAX_SUGGESTIONS) {
+            throw new InvalidParameterException(
+                    "Limit must be between 1 and " + MAX_SUGGESTIONS);
+        }
+        return bookSuggestIndex.suggest(prefix, limit)
                 .stream()
-                .map(bookMapper::toDto)
+                .map(suggestion -> new BookSuggestionDto()
+                        .setType(suggestion.getType())
+                        .setText(suggestion.getText())
+                        .setBooks(suggestion.getBooks()))
                 .toList();
     }
 
+    @Override
+    public List<BookDto> getBestsellers(Long categoryId, int limit) {
+        if (limit < 1 || limit > BestsellerIndex.CAPACITY) {
+            throw new InvalidParameterException(
+                    "Limit must be between 1 and " + BestsellerIndex.CAPACITY);
+        }
+        if (categoryId != null && categoryCatalog.findById(categoryId).isEmpty()) {
+            throw new EntityNotFoundException("Can't find a category in DB by id: " + categoryId);
+        }
+        List<Long> bookIds = bookIndexManager.isReady()
+                ? bestsellerIndex.top(categoryId, limit)
+                : bookSalesRepository.findTopBookIds(categoryId, limit);
+        return findCachedBooks(bookIds);
+    }
+
+    @Override
+    public List<BookDto> getRelatedBooks(Long id, int limit) {
+        if (limit < 1 || limit > CoPurchaseIndex.EDGES_PER_BOOK) {
+            throw new InvalidParameterException(
+                    "Limit must be between 1 and " + CoPurchaseIndex.EDGES_PER_BOOK);
+        }
+        if (withoutAbsent(List.of(id)).isEmpty()) {
+            throw new BookNotFoundException(id);
+        }
+        List<Long> bookIds = coPurchaseIndex.isReady()
+                ? coPurchaseIndex.related(id, limit)
+                : coPurchaseRepository.findRelatedBookIds(id, limit);
+        return findCachedBooks(withoutAbsent(bookIds));
+    }
+
+    @Override
+    public void exportBooks(OutputStream outputStream) {
+        ObjectWriter writer = objectMapper.writerFor(BookDto.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+            generator.setPrettyPrinter(new MinimalPrettyPrinter(""));
+            bookExportRepository.forEachBook(bookDto -> {
+                try {
+                    writer.writeValue(generator, bookDto);
+                    generator.writeRaw('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException("Can't write book " + bookDto.getId(), e);
+                }
+            });
+        } catch (IOException e) {
+            throw new UncheckedIOException("Can't export books", e);
+        }
+    }
+
     @Override
     public List<BookDtoWithoutCategoryIds> findAllByCategoryId(Long categoryId, Pageable pageable) {
-        Category categoryFromDb = categoryRepository.findById(categoryId)
+        Category category = categoryCatalog.findById(categoryId)
+                .orElseThrow(() -> new EntityNotFoundException(
+                        "Can't find a category in DB by id: " + categoryId)
+                );
+        List<Long> bookIds = bookRepository.findIdsByCategoryId(category.getId(),
+                withIdTiebreaker(pageable));
+        return inIdOrder(bookIds,
+                bookRepository.findDtosWithoutCategoryIdsByIdIn(bookIds),
+                BookDtoWithoutCategoryIds::getId);
+    }
+
+    @Override
+    public List<BookDtoWithoutCategoryIds> findAllInCategorySubtree(Long categoryId,
+                                                                    Pageable pageable) {
+        Category category = categoryCatalog.findById(categoryId)
                 .orElseThrow(() -> new EntityNotFoundException(
                         "Can't find a category in DB by id: " + categoryId)
                 );
-        return bookRepository.findAllByCategoryId(categoryFromDb.getId(), pageable)
+        List<Long> bookIds;
+        if (bookIndexManager.isReady()) {
+            Roaring64NavigableMap matches = categoryBitmapIndex.matchSubtree(categoryId);
+            if (matches.isEmpty()) {
+                return List.of();
+            }
+            bookIds = pageable.getSort().isSorted()
+                    ? sortPage(matches, pageable)
+                    : idPage(matches, pageable);
+        } else {
+            bookIds = bookRepository.findIdsByCategorySubtree(categoryId,
+                    category.descendantsPath(), withIdTiebreaker(pageable));
+        }
+        if (bookIds.isEmpty()) {
+            return List.of();
+        }
+        return inIdOrder(bookIds,
+                bookRepository.findDtosWithoutCategoryIdsByIdIn(bookIds),
+                BookDtoWithoutCategoryIds::getId);
+    }
+
+    private List<BookDto> searchBooksByIndexes(BookSearchParametersDto searchParameters,
+                                               Pageable pageable,
+                                               BookFields fields) {
+        Map<Long, Double> scores = scoreText(searchParameters);
+        return findPage(findMatchingIds(searchParameters, scores), scores, pageable, fields);
+    }
+
+    private Map<Long, Double> scoreText(BookSearchParametersDto searchParameters) {
+        if (!searchParameters.hasText()) {
+            return null;
+        }
+        if (searchParameters.isFuzzy()) {
+            return bookTrigramIndex.search(searchParameters.titles(),
+                    searchParameters.authors(), searchParameters.q());
+        }
+        return bookTextIndex.search(searchParameters.titles(),
+                searchParameters.authors(), searchParameters.q());
+    }
+
+    /**
+     * Returns the ids of all books matching the search parameters,
+     * or null when there are no criteria at all.
+     */
+    private Roaring64NavigableMap findMatchingIds(BookSearchParametersDto searchParameters,
+                                                  Map<Long, Double> scores) {
+        Roaring64NavigableMap matches = null;
+        if (scores != null) {
+            matches = new Roaring64NavigableMap();
+            scores.keySet().forEach(matches::addLong);
+        }
+        if (searchParameters.hasCategories()) {
+            Roaring64NavigableMap categoryMatches = categoryBitmapIndex.match(
+                    List.of(searchParameters.categoryIds()),
+                    searchParameters.matchAllCategories());
+            if (matches == null) {
+                matches = categoryMatches;
+            } else {
+                matches.and(categoryMatches);
+            }
+        }
+        if (searchParameters.hasPriceRange()) {
+            BigDecimal[] range = PriceSpecificationProvider.parseRange(searchParameters.prices());
+            Roaring64NavigableMap priceMatches = bookPriceIndex.range(range[0], range[1]);
+            if (matches == null) {
+                matches = priceMatches;
+            } else {
+                matches.and(priceMatches);
+            }
+        }
+        if (!searchParameters.hasIsbns() || (matches != null && matches.isEmpty())) {
+            return matches;
+        }
+        Roaring64NavigableMap isbnMatches = bookSortIndex.matchIsbns(searchParameters.isbns());
+        if (matches == null) {
+            return isbnMatches;
+        }
+        matches.and(isbnMatches);
+        return matches;
+    }
+
+    private List<BookDto> findPage(Roaring64NavigableMap matches,
+                                   Map<Long, Double> scores,
+                                   Pageable pageable,
+                                   BookFields fields) {
+        List<Long> ids;
+        if (matches.isEmpty()) {
+            ids = List.of();
+        } else if (pageable.getSort().isSorted()) {
+            ids = sortPage(matches, pageable);
+        } else if (scores != null) {
+            scores.keySet().removeIf(id -> !matches.contains(id));
+            ids = rankPage(scores, pageable);
+        } else {
+            ids = idPage(matches, pageable);
+        }
+        return findDtosInOrder(ids, fields);
+    }
+
+    private Map<String, List<FacetCountDto>> toFacetDtos(FacetCounts counts, Set<String> facets) {
+        Map<String, List<FacetCountDto>> facetDtos = new LinkedHashMap<>();
+        if (facets.contains(CATEGORY_FACET)) {
+            facetDtos.put(CATEGORY_FACET, counts.getCategories()
+                    .entrySet()
+                    .stream()
+                    .sorted(Map.Entry.<Long, Long>comparingByValue().reversed()
+                            .thenComparing(Map.Entry.comparingByKey()))
+                    .map(entry -> new FacetCountDto()
+                            .setValue(String.valueOf(entry.getKey()))
+                            .setCount(entry.getValue()))
+                    .toList());
+        }
+        if (facets.contains(PRICE_FACET)) {
+            facetDtos.put(PRICE_FACET, counts.getPriceRanges()
+                    .entrySet()
+                    .stream()
+                    .map(entry -> new FacetCountDto()
+                            .setValue(entry.getKey())
+                            .setCount(entry.getValue()))
+                    .toList());
+        }
+        return facetDtos;
+    }
+
+    private List<Long> sortPage(Roaring64NavigableMap matches, Pageable pageable) {
+        List<Sort.Order> orders = pageable.getSort().toList();
+        if (orders.size() == 2
+                && ID_SORT.equals(orders.get(1).getProperty())
+                && orders.get(1).isAscending()) {
+            orders = orders.subList(0, 1);
+        }
+        long offset = pageable.isPaged() ? pageable.getOffset() : 0;
+        int limit = pageable.isPaged() ? pageable.getPageSize() : Integer.MAX_VALUE;
+        if (orders.size() == 1) {
+            Sort.Order order = orders.get(0);
+            if (PRICE_SORT.equals(order.getProperty())) {
+                return bookPriceIndex.sortedPage(matches, order.isAscending(), offset, limit);
+            }
+            if (ID_SORT.equals(order.getProperty())) {
+                return idPage(matches, order.isAscending(), offset, limit);
+            }
+            if (BookSortIndex.SORT_PROPERTIES.contains(order.getProperty())) {
+                return bookSortIndex.sortedPage(order.getProperty(), matches,
+                        order.isAscending(), offset, limit);
+            }
+        }
+        if (matches.getLongCardinality() > MAX_IDS_IN_QUERY) {
+            throw new InvalidParameterException("Searches matching more than "
+                    + MAX_IDS_IN_QUERY + " books can only be sorted by one of: "
+                    + INDEXED_SORTS);
+        }
+        return bookRepository.findIds(idIn(toList(matches)), withIdTiebreaker(pageable));
+    }
+
+    private List<Long> idPage(Roaring64NavigableMap matches, Pageable pageable) {
+        return pageable.isPaged()
+                ? idPage(matches, true, pageable.getOffset(), pageable.getPageSize())
+                : idPage(matches, true, 0, Integer.MAX_VALUE);
+    }
+
+    private List<Long> idPage(Roaring64NavigableMap matches,
+                              boolean ascending,
+                              long offset,
+                              int limit) {
+        List<Long> ids = new ArrayList<>();
+        LongIterator iterator = ascending
+                ? matches.getLongIterator()
+                : matches.getReverseLongIterator();
+        long skip = offset;
+        while (iterator.hasNext() && ids.size() < limit) {
+            long id = iterator.next();
+            if (skip > 0) {
+                skip--;
+            } else {
+                ids.add(id);
+            }
+        }
+        return ids;
+    }
+
+    private List<Long> toList(Roaring64NavigableMap ids) {
+        List<Long> list = new ArrayList<>((int) ids.getLongCardinality());
+        ids.forEach(list::add);
+        return list;
+    }
+
+    /**
+     * Refuses an ISBN that another book already has in its canonical ISBN-13 form, e.g.
+     * the ISBN-10 or hyphenated spelling of a stored one. ISBNs that don't parse are left
+     * to the unique constraint on the raw column.
+     */
+    private void checkIsbnFree(String isbn, Long bookId) {
+        String isbn13 = IsbnParser.toIsbn13(isbn);
+        if (isbn13 != null && bookRepository.findIdsByIsbn13(isbn13)
                 .stream()
-                .map(bookMapper::toDtoWithoutCategories)
+                .anyMatch(id -> !id.equals(bookId))) {
+            throw new DuplicateIsbnException(isbn);
+        }
+    }
+
+    /**
+     * Resolves the categories of a book from the category catalog, falling back to the
+     * database for ids its snapshot doesn't know yet, e.g. created on another node since
+     * its last reload, so a category is never dropped silently.
+     */
+    private Set<Category> findCategories(Set<Long> categoryIds) {
+        Set<Category> categories = categoryCatalog.findByIdIn(categoryIds);
+        if (categories.size() == categoryIds.size()) {
+            return categories;
+        }
+        Set<Long> missingIds = new HashSet<>(categoryIds);
+        categories.forEach(category -> missingIds.remove(category.getId()));
+        for (Category category : categoryRepository.findAllById(missingIds)) {
+            categories.add(category);
+            missingIds.remove(category.getId());
+        }
+        if (!missingIds.isEmpty()) {
+            throw new CategoryNotFoundException(missingIds.iterator().next());
+        }
+        return categories;
+    }
+
+    private void validateCategoryMatch(BookSearchParametersDto searchParameters) {
+        String categoryMatch = searchParameters.categoryMatch();
+        if (categoryMatch != null
+                && !BookSearchParametersDto.MATCH_ANY.equalsIgnoreCase(categoryMatch)
+                && !BookSearchParametersDto.MATCH_ALL.equalsIgnoreCase(categoryMatch)) {
+            throw new InvalidParameterException("categoryMatch must be '"
+                    + BookSearchParametersDto.MATCH_ANY + "' or '"
+                    + BookSearchParametersDto.MATCH_ALL + "'");
+        }
+    }
+
+    private List<Long> rankPage(Map<Long, Double> scores, Pageable pageable) {
+        if (pageable.isUnpaged()) {
+            return TopK.select(scores, scores.size());
+        }
+        long end = Math.min(scores.size(), pageable.getOffset() + pageable.getPageSize());
+        List<Long> ranked = TopK.select(scores, (int) end);
+        return ranked.subList((int) Math.min(pageable.getOffset(), end), ranked.size());
+    }
+
+    private Specification<Book> idIn(Collection<Long> ids) {
+        return (root, query, criteriaBuilder) -> root.get("id").in(ids);
+    }
+
+    private Specification<Book> idGreaterThan(Long id) {
+        return (root, query, criteriaBuilder) -> criteriaBuilder.greaterThan(root.get("id"), id);
+    }
+
+    private List<BookDto> findDtosInOrder(List<Long> ids, BookFields fields) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        return inIdOrder(ids, bookRepository.findDtosByIdIn(ids, fields), BookDto::getId);
+    }
+
+    private <T> List<T> inIdOrder(List<Long> ids, List<T> books, Function<T, Long> idOf) {
+        Map<Long, T> booksById = books.stream()
+                .collect(Collectors.toMap(idOf, Function.identity()));
+        return ids.stream()
+                .map(booksById::get)
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    /**
+     * Drops the ids of books that don't exist. The live id index is only a hint, so the ids
+     * it lacks are confirmed with one id query and those found are added to it.
+     */
+    private List<Long> withoutAbsent(List<Long> ids) {
+        Set<Long> misses = ids.stream()
+                .filter(liveBookIdIndex::isAbsent)
+                .collect(Collectors.toSet());
+        if (misses.isEmpty()) {
+            return ids;
+        }
+        Set<Long> found = new HashSet<>(bookRepository.findIdsByIdIn(misses));
+        found.forEach(liveBookIdIndex::add);
+        return ids.stream()
+                .filter(id -> !misses.contains(id) || found.contains(id))
                 .toList();
     }
+
+    /**
+     * Returns the given books in order, from the books cache, loading only the ones
+     * missing from it with a single query.
+     */
+    private List<BookDto> findCachedBooks(List<Long> ids) {
+        Cache booksCache = cacheManager.getCache(CacheConfig.BOOKS_CACHE);
+        Map<Long, BookDto> booksById = new HashMap<>();
+        List<Long> missingIds = new ArrayList<>();
+        for (Long id : ids) {
+            BookDto bookDto = booksCache.get(id, BookDto.class);
+            if (bookDto == null) {
+                missingIds.add(id);
+            } else {
+                booksById.put(id, bookDto);
+            }
+        }
+        for (BookDto bookDto : findDtosInOrder(missingIds, BookFields.ALL)) {
+            booksCache.put(bookDto.getId(), bookDto);
+            booksById.put(bookDto.getId(), bookDto);
+        }
+        return ids.stream()
+                .map(booksById::get)
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    private Pageable withIdTiebreaker(Pageable pageable) {
+        if (pageable.isUnpaged()) {
+            return pageable;
+        }
+        return PageRequest.of(pageable.getPageNumber(),
+                pageable.getPageSize(),
+                pageable.getSort().and(Sort.by("id")));
+    }
 }
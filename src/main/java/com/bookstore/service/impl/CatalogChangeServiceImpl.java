@@ -0,0 +1,197 @@
+package com.bookstore.service.impl;
+
+import com.bookstore.cache.CategoryCatalog;
+import com.bookstore.dto.book.BookDto;
+import com.bookstore.dto.catalog.CatalogChangeDto;
+import com.bookstore.dto.catalog.CatalogChangePageDto;
+import com.bookstore.dto.category.CategoryDto;
+import com.bookstore.event.BookDeletedEvent;
+import com.bookstore.event.BookSavedEvent;
+import com.bookstore.event.BooksUpdatedEvent;
+import com.bookstore.event.CategoriesMovedEvent;
+import com.bookstore.event.CategoryDeletedEvent;
+import com.bookstore.event.CategorySavedEvent;
+import com.bookstore.exception.InvalidParameterException;
+import com.bookstore.mapper.CategoryMapper;
+import com.bookstore.model.Category;
+import com.bookstore.repository.catalog.CatalogChange;
+import com.bookstore.repository.catalog.CatalogChangeRepository;
+import com.bookstore.repository.catalog.CatalogVersionRepository;
+import com.bookstore.service.BookService;
+import com.bookstore.service.CatalogChangeService;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Change feed of the catalog. Every book and category save or soft delete is logged under
+ * the next numbers of the catalog version, so the version a client saw in a list ETag is
+ * also a token to sync from. Numbers are taken and logged just before the write commits,
+ * in its transaction, so a change is logged exactly when it is committed; the lock on the
+ * version row makes concurrent writers commit in sequence order, so a reader never moves
+ * past a number whose change has yet to appear. A change published outside a transaction
+ * is still logged, in a transaction of its own.
+ */
+@RequiredArgsConstructor
+@Service
+public class CatalogChangeServiceImpl implements CatalogChangeService {
+    private static final int MAX_LIMIT = 1000;
+
+    private final CatalogChangeRepository catalogChangeRepository;
+    private final CatalogVersionRepository catalogVersionRepository;
+    private final BookService bookService;
+    private final CategoryCatalog categoryCatalog;
+    private final CategoryMapper categoryMapper;
+    private final TransactionTemplate transactionTemplate;
+
+    @Override
+    public CatalogChangePageDto getChanges(String since, int limit) {
+        if (limit < 1 || limit > MAX_LIMIT) {
+            throw new InvalidParameterException("Limit must be between 1 and " + MAX_LIMIT);
+        }
+        long sequenceNumber = parseToken(since);
+        List<CatalogChange> changes = catalogChangeRepository.findAfter(sequenceNumber,
+                limit + 1);
+        boolean hasMore = changes.size() > limit;
+        if (hasMore) {
+            changes = changes.subList(0, limit);
+        }
+        Map<CatalogChange.EntityType, Map<Long, CatalogChange>> latestChanges =
+                new EnumMap<>(CatalogChange.EntityType.class);
+        for (CatalogChange change : changes) {
+            latestChanges.computeIfAbsent(change.getEntityType(), type -> new LinkedHashMap<>())
+                    .put(change.getEntityId(), change);
+        }
+        Map<Long, BookDto> books = findBooks(latestChanges.getOrDefault(
+                CatalogChange.EntityType.BOOK, Map.of()));
+        Map<Long, CategoryDto> categories = findCategories(latestChanges.getOrDefault(
+                CatalogChange.EntityType.CATEGORY, Map.of()));
+        List<CatalogChangeDto> content = latestChanges.values()
+                .stream()
+                .flatMap(changesById -> changesById.values().stream())
+                .sorted(Comparator.comparingLong(CatalogChange::getSequenceNumber))
+                .map(change -> toDto(change, books, categories))
+                .toList();
+        return new CatalogChangePageDto()
+                .setContent(content)
+                .setNextToken(String.valueOf(changes.isEmpty()
+                        ? sequenceNumber
+                        : changes.get(changes.size() - 1).getSequenceNumber()))
+                .setHasMore(hasMore);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    public void onBookSaved(BookSavedEvent event) {
+        addChanges(CatalogChange.EntityType.BOOK, List.of(event.getBook().getId()), false);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    public void onBooksUpdated(BooksUpdatedEvent event) {
+        addChanges(CatalogChange.EntityType.BOOK, event.getBookIds(), false);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    public void onBookDeleted(BookDeletedEvent event) {
+        addChanges(CatalogChange.EntityType.BOOK, List.of(event.getBookId()), true);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    public void onCategorySaved(CategorySavedEvent event) {
+        addChanges(CatalogChange.EntityType.CATEGORY, List.of(event.getCategory().getId()),
+                false);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    public void onCategoriesMoved(CategoriesMovedEvent event) {
+        addChanges(CatalogChange.EntityType.CATEGORY, event.getCategoryIds(), false);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    public void onCategoryDeleted(CategoryDeletedEvent event) {
+        addChanges(CatalogChange.EntityType.CATEGORY, List.of(event.getCategoryId()), true);
+    }
+
+    private void addChanges(CatalogChange.EntityType entityType,
+                            List<Long> entityIds,
+                            boolean deleted) {
+        transactionTemplate.executeWithoutResult(status -> {
+            long lastSequenceNumber = catalogVersionRepository.increment(entityIds.size());
+            catalogChangeRepository.addChanges(lastSequenceNumber - entityIds.size() + 1,
+                    entityType, entityIds, deleted);
+        });
+    }
+
+    private Map<Long, BookDto> findBooks(Map<Long, CatalogChange> changesById) {
+        List<Long> savedIds = savedIds(changesById);
+        if (savedIds.isEmpty()) {
+            return Map.of();
+        }
+        return bookService.getBooksByIds(savedIds)
+                .getContent()
+                .stream()
+                .collect(Collectors.toMap(BookDto::getId, Function.identity()));
+    }
+
+    private Map<Long, CategoryDto> findCategories(Map<Long, CatalogChange> changesById) {
+        return categoryCatalog.findByIdIn(savedIds(changesById))
+                .stream()
+                .collect(Collectors.toMap(Category::getId, categoryMapper::toDto));
+    }
+
+    private static List<Long> savedIds(Map<Long, CatalogChange> changesById) {
+        List<Long> ids = new ArrayList<>();
+        changesById.forEach((id, change) -> {
+            if (!change.isDeleted()) {
+                ids.add(id);
+            }
+        });
+        return ids;
+    }
+
+    /**
+     * Maps a change with the current state of its entity; one that is gone by now, e.g.
+     * deleted by a change further on in the log, is returned as a tombstone already.
+     */
+    private static CatalogChangeDto toDto(CatalogChange change,
+                                          Map<Long, BookDto> books,
+                                          Map<Long, CategoryDto> categories) {
+        BookDto book = books.get(change.getEntityId());
+        CategoryDto category = categories.get(change.getEntityId());
+        boolean isBook = change.getEntityType() == CatalogChange.EntityType.BOOK;
+        boolean deleted = change.isDeleted() || (isBook ? book == null : category == null);
+        return new CatalogChangeDto()
+                .setSequenceNumber(change.getSequenceNumber())
+                .setType(change.getEntityType())
+                .setId(change.getEntityId())
+                .setDeleted(deleted)
+                .setChangedAt(change.getChangedAt())
+                .setBook(isBook && !deleted ? book : null)
+                .setCategory(!isBook && !deleted ? category : null);
+    }
+
+    private static long parseToken(String since) {
+        if (since == null || since.isBlank()) {
+            return 0;
+        }
+        long sequenceNumber;
+        try {
+            sequenceNumber = Long.parseLong(since);
+        } catch (NumberFormatException e) {
+            throw new InvalidParameterException("Invalid change token: " + since);
+        }
+        if (sequenceNumber < 0) {
+            throw new InvalidParameterException("Invalid change token: " + since);
+        }
+        return sequenceNumber;
+    }
+}
@@ -0,0 +1,23 @@
+package com.bookstore.service.impl;
+
+import com.bookstore.repository.catalog.CatalogVersionRepository;
+import com.bookstore.service.CatalogVersionService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+/**
+ * Version of the catalog as a whole, used as the ETag of list pages: any change to a book
+ * or a category bumps it, so a page can be answered with 304 after a primary key read
+ * instead of a query, the mapper and serialisation. The version moves with the change
+ * log, which {@link CatalogChangeServiceImpl} numbers from it.
+ */
+@RequiredArgsConstructor
+@Service
+public class CatalogVersionServiceImpl implements CatalogVersionService {
+    private final CatalogVersionRepository catalogVersionRepository;
+
+    @Override
+    public long getVersion() {
+        return catalogVersionRepository.getVersion();
+    }
+}
@@ -1,67 +1,188 @@
 package com.bookstore.service.impl;
 
+import com.bookstore.cache.CategoryCatalog;
+import com.bookstore.cache.CategoryTree;
+import com.bookstore.config.CacheConfig;
 import com.bookstore.dto.category.CategoryDto;
+import com.bookstore.dto.category.CategoryNodeDto;
+import com.bookstore.event.BooksUpdatedEvent;
+import com.bookstore.event.CategoriesMovedEvent;
+import com.bookstore.event.CategoryDeletedEvent;
+import com.bookstore.event.CategorySavedEvent;
 import com.bookstore.exception.DataBaseConflictException;
 import com.bookstore.exception.EntityNotFoundException;
+import com.bookstore.exception.InvalidParameterException;
+import com.bookstore.index.BookIndexManager;
+import com.bookstore.index.CategoryBitmapIndex;
 import com.bookstore.mapper.CategoryMapper;
 import com.bookstore.model.Category;
 import com.bookstore.repository.category.CategoryRepository;
 import com.bookstore.service.CategoryService;
+import jakarta.transaction.Transactional;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Stream;
 import lombok.RequiredArgsConstructor;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Component;
 
 @RequiredArgsConstructor
 @Component
 public class CategoryServiceImpl implements CategoryService {
+    private static final Map<String, Comparator<Category>> SORTS = Map.of(
+            "id", Comparator.comparing(Category::getId),
+            "name", Comparator.comparing(Category::getName),
+            "description", Comparator.comparing(Category::getDescription,
+                    Comparator.nullsFirst(Comparator.naturalOrder())));
+
     private final CategoryRepository categoryRepository;
+    private final CategoryCatalog categoryCatalog;
     private final CategoryMapper categoryMapper;
+    private final ApplicationEventPublisher eventPublisher;
+    private final BookIndexManager bookIndexManager;
+    private final CategoryBitmapIndex categoryBitmapIndex;
 
     @Override
     public List<CategoryDto> findAll(Pageable pageable) {
-        return categoryRepository.findAll(pageable)
-                .stream()
-                .map(categoryMapper::toDto)
-                .toList();
+        Stream<Category> categories = categoryCatalog.findAll().stream();
+        if (pageable.getSort().isSorted()) {
+            categories = categories.sorted(toComparator(pageable.getSort()));
+        }
+        if (pageable.isPaged()) {
+            categories = categories.skip(pageable.getOffset()).limit(pageable.getPageSize());
+        }
+        return categories.map(categoryMapper::toDto).toList();
     }
 
     @Override
     public CategoryDto getById(Long id) {
-        return categoryRepository.findById(id)
+        return categoryCatalog.findById(id)
                 .map(categoryMapper::toDto)
                 .orElseThrow(() ->
                         new EntityNotFoundException("Can't find a category in DB by id: " + id));
     }
 
     @Override
+    public List<CategoryNodeDto> findChildren(Long parentId) {
+        CategoryTree tree = categoryCatalog.tree();
+        if (parentId != null && !tree.contains(parentId)) {
+            throw new EntityNotFoundException("Can't find a category in DB by id: " + parentId);
+        }
+        List<Long> childIds = tree.getChildIds(parentId);
+        Map<Long, Long> bookCounts = bookIndexManager.isReady()
+                ? categoryBitmapIndex.countSubtrees(childIds)
+                : Map.of();
+        return categoryCatalog.findByIdIn(childIds)
+                .stream()
+                .map(category -> categoryMapper.toNodeDto(category)
+                        .setChildCount(tree.getChildIds(category.getId()).size())
+                        .setBookCount(bookCounts.get(category.getId())))
+                .toList();
+    }
+
+    @Override
+    @Transactional
     public CategoryDto save(CategoryDto categoryDto) {
-        if (categoryRepository.findCategoryByName(categoryDto.getName()).isPresent()) {
+        if (categoryCatalog.findByName(categoryDto.getName()).isPresent()) {
             throw new DataBaseConflictException(
                     "Category with name -" + categoryDto.getName() + "- already exists."
             );
         }
-        Category category = categoryMapper.toEntity(categoryDto);
-        return categoryMapper.toDto(categoryRepository.save(category));
+        Category category = categoryMapper.toEntity(categoryDto)
+                .setPath(pathUnder(categoryDto.getParentId()));
+        Category savedCategory = categoryRepository.save(category);
+        eventPublisher.publishEvent(new CategorySavedEvent(savedCategory));
+        return categoryMapper.toDto(savedCategory);
     }
 
     @Override
+    @Transactional
     public CategoryDto update(Long id, CategoryDto categoryDto) {
         Category category = categoryRepository.findById(id)
                 .orElseThrow(() ->
                         new EntityNotFoundException("Can't find a category in DB by id: " + id));
         category.setName(categoryDto.getName());
         category.setDescription(categoryDto.getDescription());
-        return categoryMapper.toDto(categoryRepository.save(category));
+        boolean moved = categoryDto.isParentIdPresent()
+                && !Objects.equals(category.getParentId(), categoryDto.getParentId());
+        Category savedCategory = moved
+                ? move(category, categoryDto.getParentId())
+                : categoryRepository.saveAndFlush(category);
+        eventPublisher.publishEvent(new CategorySavedEvent(savedCategory));
+        return categoryMapper.toDto(savedCategory);
     }
 
     @Override
+    @CacheEvict(cacheNames = CacheConfig.BOOKS_CACHE, allEntries = true)
+    @Transactional
     public void deleteById(Long id) {
         if (categoryRepository.findById(id).isEmpty()) {
             throw new EntityNotFoundException(
                     "Can't delete a category from DB with id: " + id
             );
         }
+        if (categoryRepository.existsByParentId(id)) {
+            throw new DataBaseConflictException(
+                    "Category with id " + id + " has subcategories and can't be deleted"
+            );
+        }
+        List<Long> bookIds = categoryRepository.findBookIds(id);
         categoryRepository.deleteById(id);
+        eventPublisher.publishEvent(new CategoryDeletedEvent(id));
+        if (!bookIds.isEmpty()) {
+            categoryRepository.touchBooks(id);
+            eventPublisher.publishEvent(new BooksUpdatedEvent(bookIds));
+        }
+    }
+
+    /**
+     * Saves the category under its new parent and rewrites the paths of all of its
+     * descendants, within the transaction of {@link #update}, publishing the descendants
+     * as moved too.
+     */
+    private Category move(Category category, Long parentId) {
+        if (parentId != null && categoryCatalog.tree().isInSubtree(parentId, category.getId())) {
+            throw new InvalidParameterException(
+                    "A category can't be moved under itself or its subcategories");
+        }
+        String oldDescendantsPath = category.descendantsPath();
+        category.setParentId(parentId).setPath(pathUnder(parentId));
+        List<Long> descendantIds = categoryRepository.findIdsByPathPrefix(oldDescendantsPath);
+        Category savedCategory = categoryRepository.save(category);
+        categoryRepository.updateDescendantPaths(oldDescendantsPath,
+                savedCategory.descendantsPath());
+        if (!descendantIds.isEmpty()) {
+            eventPublisher.publishEvent(new CategoriesMovedEvent(descendantIds));
+        }
+        return savedCategory;
+    }
+
+    private String pathUnder(Long parentId) {
+        if (parentId == null) {
+            return Category.ROOT_PATH;
+        }
+        return categoryCatalog.findById(parentId)
+                .map(Category::descendantsPath)
+                .orElseThrow(() -> new EntityNotFoundException(
+                        "Can't find a parent category in DB by id: " + parentId));
+    }
+
+    private Comparator<Category> toComparator(Sort sort) {
+        Comparator<Category> comparator = null;
+        for (Sort.Order order : sort) {
+            Comparator<Category> property = SORTS.get(order.getProperty());
+            if (property == null) {
+                throw new InvalidParameterException(
+                        "Categories can be sorted by: " + SORTS.keySet());
+            }
+            property = order.isAscending() ? property : property.reversed();
+            comparator = comparator == null ? property : comparator.thenComparing(property);
+        }
+        return comparator;
     }
 }
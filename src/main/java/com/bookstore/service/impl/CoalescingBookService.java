@@ -0,0 +1,131 @@
+package com.bookstore.service.impl;
+
+import com.bookstore.cache.BookSearchKey;
+import com.bookstore.cache.SingleFlight;
+import com.bookstore.dto.book.BookBatchResultDto;
+import com.bookstore.dto.book.BookCursorPageDto;
+import com.bookstore.dto.book.BookDto;
+import com.bookstore.dto.book.BookDtoWithoutCategoryIds;
+import com.bookstore.dto.book.BookFields;
+import com.bookstore.dto.book.BookPriceUpdateRequestDto;
+import com.bookstore.dto.book.BookPriceUpdateResultDto;
+import com.bookstore.dto.book.BookSearchParametersDto;
+import com.bookstore.dto.book.BookSearchResultDto;
+import com.bookstore.dto.book.BookSuggestionDto;
+import com.bookstore.dto.book.CreateBookRequestDto;
+import com.bookstore.service.BookService;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.Set;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.annotation.Primary;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+
+/**
+ * Sits in front of {@link BookServiceImpl} and lets concurrent identical book lookups and
+ * searches share one in-flight call, so a burst of requests for the same hot book on a
+ * cold cache costs one database round trip instead of one per request. Everything else
+ * is passed through.
+ */
+@Primary
+@Service
+public class CoalescingBookService implements BookService {
+    private final BookService bookService;
+    private final SingleFlight<Long, BookDto> bookFlights = new SingleFlight<>();
+    private final SingleFlight<List<Object>, List<BookDto>> searchFlights =
+            new SingleFlight<>();
+
+    public CoalescingBookService(@Qualifier("bookServiceImpl") BookService bookService) {
+        this.bookService = bookService;
+    }
+
+    @Override
+    public BookDto createBook(CreateBookRequestDto bookRequestDto) {
+        return bookService.createBook(bookRequestDto);
+    }
+
+    @Override
+    public BookDto getBookById(Long id) {
+        return bookFlights.execute(id, () -> bookService.getBookById(id));
+    }
+
+    @Override
+    public BookBatchResultDto getBooksByIds(List<Long> ids) {
+        return bookService.getBooksByIds(ids);
+    }
+
+    @Override
+    public List<BookDto> getAll(Pageable pageable, BookFields fields) {
+        return bookService.getAll(pageable, fields);
+    }
+
+    @Override
+    public BookCursorPageDto getAllAfter(String cursor, int size, Sort sort, BookFields fields) {
+        return bookService.getAllAfter(cursor, size, sort, fields);
+    }
+
+    @Override
+    public BookDto updateBook(Long id, CreateBookRequestDto bookRequestDto) {
+        return bookService.updateBook(id, bookRequestDto);
+    }
+
+    @Override
+    public void deleteBookById(Long id) {
+        bookService.deleteBookById(id);
+    }
+
+    @Override
+    public BookPriceUpdateResultDto updatePrices(BookSearchParametersDto searchParameters,
+                                                 BookPriceUpdateRequestDto priceUpdateRequestDto) {
+        return bookService.updatePrices(searchParameters, priceUpdateRequestDto);
+    }
+
+    @Override
+    public List<BookDto> searchBooks(BookSearchParametersDto searchParameters,
+                                     Pageable pageable,
+                                     BookFields fields) {
+        return searchFlights.execute(List.of(BookSearchKey.of(searchParameters, pageable), fields),
+                () -> bookService.searchBooks(searchParameters, pageable, fields));
+    }
+
+    @Override
+    public BookSearchResultDto searchBooksWithFacets(BookSearchParametersDto searchParameters,
+                                                     Set<String> facets,
+                                                     Pageable pageable) {
+        return bookService.searchBooksWithFacets(searchParameters, facets, pageable);
+    }
+
+    @Override
+    public List<BookSuggestionDto> suggest(String prefix, int limit) {
+        return bookService.suggest(prefix, limit);
+    }
+
+    @Override
+    public List<BookDto> getBestsellers(Long categoryId, int limit) {
+        return bookService.getBestsellers(categoryId, limit);
+    }
+
+    @Override
+    public List<BookDto> getRelatedBooks(Long id, int limit) {
+        return bookService.getRelatedBooks(id, limit);
+    }
+
+    @Override
+    public void exportBooks(OutputStream outputStream) {
+        bookService.exportBooks(outputStream);
+    }
+
+    @Override
+    public List<BookDtoWithoutCategoryIds> findAllByCategoryId(Long categoryId,
+                                                               Pageable pageable) {
+        return bookService.findAllByCategoryId(categoryId, pageable);
+    }
+
+    @Override
+    public List<BookDtoWithoutCategoryIds> findAllInCategorySubtree(Long categoryId,
+                                                                    Pageable pageable) {
+        return bookService.findAllInCategorySubtree(categoryId, pageable);
+    }
+}
@@ -12,8 +12,10 @@ import com.bookstore.model.OrderItem;
 import com.bookstore.model.ShoppingCart;
 import com.bookstore.repository.order.OrderRepository;
 import com.bookstore.repository.orderitem.OrderItemRepository;
+import com.bookstore.service.BookSalesService;
 import com.bookstore.service.OrderService;
 import com.bookstore.service.ShoppingCartService;
+import jakarta.transaction.Transactional;
 import java.util.List;
 import java.util.Set;
 import java.util.stream.Collectors;
@@ -29,8 +31,10 @@ public class OrderServiceImpl implements OrderService {
     private final OrderMapper orderMapper;
     private final OrderItemMapper orderItemMapper;
     private final OrderItemRepository orderItemRepository;
+    private final BookSalesService bookSalesService;
 
     @Override
+    @Transactional
     public OrderResponseDto placeOrder(Long userId, OrderCreateDto orderCreateDto) {
         ShoppingCart shoppingCart = shoppingCartService.getShoppingCartByUserId(userId);
         Order newOrder = orderMapper.shoppingCartToOrder(shoppingCart);
@@ -42,6 +46,7 @@ public class OrderServiceImpl implements OrderService {
         Set<OrderItem> orderItemSet = getOrderItemsFromCart(shoppingCart);
         setOrderForOrderItems(orderItemSet, savedOrder);
         savedOrder.setOrderItems(saveOrderItems(orderItemSet));
+        bookSalesService.recordSales(savedOrder.getId(), savedOrder.getOrderItems());
         shoppingCartService.cleanShoppingCart(shoppingCart);
         return orderMapper.toDto(savedOrder);
     }
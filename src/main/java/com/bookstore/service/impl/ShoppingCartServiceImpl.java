@@ -3,7 +3,9 @@ package com.bookstore.service.impl;
 import com.bookstore.dto.cartitem.CartItemCreateDto;
 import com.bookstore.dto.cartitem.CartItemUpdateDto;
 import com.bookstore.dto.shoppingcart.ShoppingCartDto;
+import com.bookstore.exception.BookNotFoundException;
 import com.bookstore.exception.EntityNotFoundException;
+import com.bookstore.index.LiveBookIdIndex;
 import com.bookstore.mapper.CartItemMapper;
 import com.bookstore.mapper.ShoppingCartMapper;
 import com.bookstore.model.Book;
@@ -28,6 +30,7 @@ public class ShoppingCartServiceImpl implements ShoppingCartService {
     private final CartItemMapper cartItemMapper;
     private final CartItemRepository cartItemRepository;
     private final BookRepository bookRepository;
+    private final LiveBookIdIndex liveBookIdIndex;
 
     @Override
     public List<ShoppingCartDto> findAll(Pageable pageable) {
@@ -42,8 +45,20 @@ public class ShoppingCartServiceImpl implements ShoppingCartService {
         return shoppingCartMapper.toDto(getShoppingCartByUserId(id));
     }
 
+    /**
+     * Adds a book to the cart. A book missing from the live id index is confirmed with an
+     * id query first, since the index may not know a book created on another node or
+     * committed out of id order yet, and is added to the index when found.
+     */
     @Override
     public ShoppingCartDto saveBookToTheCart(Long userId, CartItemCreateDto cartItemCreateDto) {
+        Long bookId = cartItemCreateDto.getBookId();
+        if (liveBookIdIndex.isAbsent(bookId)) {
+            if (bookRepository.findIdsByIdIn(List.of(bookId)).isEmpty()) {
+                throw new BookNotFoundException(bookId);
+            }
+            liveBookIdIndex.add(bookId);
+        }
         ShoppingCart shoppingCart = getShoppingCartByUserId(userId);
         Book book = bookRepository.findById(cartItemCreateDto.getBookId()).orElseThrow(() ->
                 new EntityNotFoundException(
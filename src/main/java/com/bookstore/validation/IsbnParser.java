@@ -0,0 +1,115 @@
+package com.bookstore.validation;
+
+/**
+ * Parses ISBN-10 and ISBN-13 in a single pass over the characters, without regular
+ * expressions or intermediate strings: hyphens and spaces are skipped, the checksum is
+ * accumulated while reading and the result is the canonical ISBN-13 as a number.
+ */
+public final class IsbnParser {
+    public static final long INVALID = -1;
+
+    private static final long ISBN_10_PREFIX = 978_000_000_000L;
+    private static final long ISBN_13_PREFIX_DIVISOR = 10_000_000_000L;
+    private static final String BOOKLAND_978 = "978";
+    private static final String BOOKLAND_979 = "979";
+    private static final int ISBN_10_LENGTH = 10;
+    private static final int ISBN_13_LENGTH = 13;
+
+    private IsbnParser() {
+    }
+
+    /**
+     * Returns the canonical ISBN-13 of a valid ISBN-10 or ISBN-13 as a number,
+     * or {@link #INVALID}.
+     */
+    public static long parseIsbn13(CharSequence text) {
+        if (text == null) {
+            return INVALID;
+        }
+        long digits = 0;
+        int count = 0;
+        int isbn10Sum = 0;
+        int isbn13Sum = 0;
+        boolean checkX = false;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c >= '0' && c <= '9' && !checkX && count < ISBN_13_LENGTH) {
+                int digit = c - '0';
+                count++;
+                digits = digits * 10 + digit;
+                isbn10Sum += (ISBN_10_LENGTH + 1 - count) * digit;
+                isbn13Sum += (count % 2 == 1 ? 1 : 3) * digit;
+            } else if ((c == 'X' || c == 'x') && count == ISBN_10_LENGTH - 1) {
+                count++;
+                checkX = true;
+                isbn10Sum += 10;
+            } else if (c != '-' && c != ' ') {
+                return INVALID;
+            }
+        }
+        if (count == ISBN_10_LENGTH) {
+            if (isbn10Sum % 11 != 0) {
+                return INVALID;
+            }
+            long withoutCheckDigit = ISBN_10_PREFIX + (checkX ? digits : digits / 10);
+            return withoutCheckDigit * 10 + isbn13CheckDigit(withoutCheckDigit);
+        }
+        if (count == ISBN_13_LENGTH && isbn13Sum % 10 == 0) {
+            long prefix = digits / ISBN_13_PREFIX_DIVISOR;
+            return prefix == 978 || prefix == 979 ? digits : INVALID;
+        }
+        return INVALID;
+    }
+
+    public static boolean isValid(CharSequence text) {
+        return parseIsbn13(text) != INVALID;
+    }
+
+    /**
+     * Returns the canonical ISBN-13 of a valid ISBN-10 or ISBN-13, or null.
+     */
+    public static String toIsbn13(CharSequence text) {
+        long isbn13 = parseIsbn13(text);
+        return isbn13 == INVALID ? null : Long.toString(isbn13);
+    }
+
+    /**
+     * Returns the ISBN-13 prefix matching the beginning of an ISBN typed so far, or null
+     * when it contains anything but digits and separators. Digits not starting with the
+     * 978/979 prefix are taken as the beginning of an ISBN-10.
+     */
+    public static String toIsbn13Prefix(CharSequence text) {
+        if (text == null) {
+            return null;
+        }
+        StringBuilder digits = new StringBuilder(ISBN_13_LENGTH);
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c >= '0' && c <= '9') {
+                digits.append(c);
+            } else if (c != '-' && c != ' ') {
+                return null;
+            }
+        }
+        if (digits.length() == 0 || digits.length() > ISBN_13_LENGTH) {
+            return null;
+        }
+        String prefix = digits.toString();
+        if (BOOKLAND_978.startsWith(prefix) || BOOKLAND_979.startsWith(prefix)
+                || prefix.startsWith(BOOKLAND_978) || prefix.startsWith(BOOKLAND_979)) {
+            return prefix;
+        }
+        return prefix.length() < ISBN_10_LENGTH ? BOOKLAND_978 + prefix : null;
+    }
+
+    private static long isbn13CheckDigit(long withoutCheckDigit) {
+        long remaining = withoutCheckDigit;
+        int sum = 0;
+        for (int position = 0; position < ISBN_13_LENGTH - 1; position++) {
+            int digit = (int) (remaining % 10);
+            sum += (position % 2 == 0 ? 3 : 1) * digit;
+            remaining /= 10;
+        }
+        return (10 - sum % 10) % 10;
+    }
+}
@@ -2,13 +2,10 @@ package com.bookstore.validation;
 
 import jakarta.validation.ConstraintValidator;
 import jakarta.validation.ConstraintValidatorContext;
-import java.util.regex.Pattern;
 
 public class IsbnValidator implements ConstraintValidator<Isbn, String> {
-    private static final String PATTERN_OF_ISBN = "\\d+";
-
     @Override
     public boolean isValid(String isbn, ConstraintValidatorContext constraintValidatorContext) {
-        return isbn != null && Pattern.compile(PATTERN_OF_ISBN).matcher(isbn).matches();
+        return IsbnParser.isValid(isbn);
     }
 }
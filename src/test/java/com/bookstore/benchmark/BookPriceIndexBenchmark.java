@@ -0,0 +1,130 @@
+package com.bookstore.benchmark;
+
+import com.bookstore.index.BookPriceIndex;
+import com.bookstore.model.Book;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.roaringbitmap.longlong.Roaring64NavigableMap;
+
+/**
+ * Compares price range filters and "sort by price" pages answered by {@link BookPriceIndex}
+ * with the SQL they replace, run against an in-memory H2 books table without a price
+ * index, as in the schema. Run {@link #main} from the test classpath.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BookPriceIndexBenchmark {
+    private static final BigDecimal MIN_PRICE = new BigDecimal("40");
+    private static final BigDecimal MAX_PRICE = new BigDecimal("50");
+    private static final int PAGE_OFFSET = 1000;
+    private static final int PAGE_SIZE = 20;
+
+    @Param({"100000"})
+    private int books;
+
+    private Connection connection;
+    private PreparedStatement rangeQuery;
+    private PreparedStatement pageQuery;
+    private BookPriceIndex bookPriceIndex;
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(BookPriceIndexBenchmark.class.getSimpleName())
+                .build())
+                .run();
+    }
+
+    @Setup
+    public void setUp() throws SQLException {
+        connection = DriverManager.getConnection(
+                "jdbc:h2:mem:price-benchmark;OPTIMIZE_REUSE_RESULTS=FALSE");
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE books (id BIGINT PRIMARY KEY, "
+                    + "price DECIMAL(19, 2) NOT NULL)");
+        }
+        bookPriceIndex = new BookPriceIndex();
+        Random random = new Random(42);
+        try (PreparedStatement insert = connection.prepareStatement(
+                "INSERT INTO books (id, price) VALUES (?, ?)")) {
+            for (long id = 1; id <= books; id++) {
+                BigDecimal price = BigDecimal.valueOf(100 + random.nextInt(20_000), 2);
+                insert.setLong(1, id);
+                insert.setBigDecimal(2, price);
+                insert.addBatch();
+                bookPriceIndex.index(new Book().setId(id).setPrice(price));
+            }
+            insert.executeBatch();
+        }
+        rangeQuery = connection.prepareStatement(
+                "SELECT id FROM books WHERE price BETWEEN ? AND ?");
+        pageQuery = connection.prepareStatement(
+                "SELECT id FROM books ORDER BY price DESC, id LIMIT ? OFFSET ?");
+    }
+
+    @TearDown
+    public void tearDown() throws SQLException {
+        connection.close();
+    }
+
+    @Benchmark
+    public List<Long> sqlRange() throws SQLException {
+        rangeQuery.setBigDecimal(1, MIN_PRICE);
+        rangeQuery.setBigDecimal(2, MAX_PRICE);
+        return readIds(rangeQuery);
+    }
+
+    @Benchmark
+    public Roaring64NavigableMap indexRange() {
+        return bookPriceIndex.range(MIN_PRICE, MAX_PRICE);
+    }
+
+    @Benchmark
+    public List<Long> sqlSortedPage() throws SQLException {
+        pageQuery.setInt(1, PAGE_SIZE);
+        pageQuery.setInt(2, PAGE_OFFSET);
+        return readIds(pageQuery);
+    }
+
+    @Benchmark
+    public List<Long> indexSortedPage() {
+        return bookPriceIndex.sortedPage(null, false, PAGE_OFFSET, PAGE_SIZE);
+    }
+
+    private List<Long> readIds(PreparedStatement query) throws SQLException {
+        List<Long> ids = new ArrayList<>();
+        try (ResultSet resultSet = query.executeQuery()) {
+            while (resultSet.next()) {
+                ids.add(resultSet.getLong(1));
+            }
+        }
+        return ids;
+    }
+}
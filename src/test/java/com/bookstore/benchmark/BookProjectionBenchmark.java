@@ -0,0 +1,150 @@
+package com.bookstore.benchmark;
+
+import com.bookstore.dto.book.BookDto;
+import com.bookstore.dto.book.BookFields;
+import com.bookstore.mapper.BookMapper;
+import com.bookstore.mapper.impl.BookMapperImpl;
+import com.bookstore.model.Book;
+import com.bookstore.model.Category;
+import com.bookstore.repository.book.BookDtoRepositoryImpl;
+import jakarta.persistence.EntityManager;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+import org.hibernate.SessionFactory;
+import org.hibernate.cfg.Configuration;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compares reading a page of books as managed entities with their categories and mapping
+ * them with MapStruct against the tuple projection of {@link BookDtoRepositoryImpl}, each
+ * in a fresh persistence context, against an in-memory H2 database. Run {@link #main} from
+ * the test classpath; add {@code -prof gc} to the JMH arguments to compare allocation.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BookProjectionBenchmark {
+    private static final String JDBC_URL =
+            "jdbc:h2:mem:projection-benchmark;DB_CLOSE_DELAY=-1;OPTIMIZE_REUSE_RESULTS=FALSE";
+    private static final int CATEGORIES = 20;
+    private static final int CATEGORIES_PER_BOOK = 2;
+
+    @Param({"10000"})
+    private int books;
+    @Param({"20", "100"})
+    private int pageSize;
+
+    private SessionFactory sessionFactory;
+    private BookMapper bookMapper;
+    private List<Long> pageIds;
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(BookProjectionBenchmark.class.getSimpleName())
+                .build())
+                .run();
+    }
+
+    @Setup
+    public void setUp() throws SQLException {
+        sessionFactory = new Configuration()
+                .addAnnotatedClass(Book.class)
+                .addAnnotatedClass(Category.class)
+                .setProperty("hibernate.connection.url", JDBC_URL)
+                .setProperty("hibernate.hbm2ddl.auto", "create")
+                .buildSessionFactory();
+        bookMapper = new BookMapperImpl();
+        Random random = new Random(42);
+        try (Connection connection = DriverManager.getConnection(JDBC_URL)) {
+            try (PreparedStatement insert = connection.prepareStatement(
+                    "INSERT INTO categories (id, name, is_deleted, version) "
+                            + "VALUES (?, ?, false, 0)")) {
+                for (long id = 1; id <= CATEGORIES; id++) {
+                    insert.setLong(1, id);
+                    insert.setString(2, "Category " + id);
+                    insert.addBatch();
+                }
+                insert.executeBatch();
+            }
+            try (PreparedStatement insertBook = connection.prepareStatement(
+                    "INSERT INTO books (id, title, author, isbn, price, description, "
+                            + "is_deleted, version) VALUES (?, ?, ?, ?, ?, ?, false, 0)");
+                    PreparedStatement insertCategory = connection.prepareStatement(
+                            "INSERT INTO books_categories (book_id, category_id) "
+                                    + "VALUES (?, ?)")) {
+                for (long id = 1; id <= books; id++) {
+                    insertBook.setLong(1, id);
+                    insertBook.setString(2, "Title " + id);
+                    insertBook.setString(3, "Author " + random.nextInt(1000));
+                    insertBook.setString(4, String.valueOf(id));
+                    insertBook.setBigDecimal(5, BigDecimal.valueOf(random.nextInt(20_000), 2));
+                    insertBook.setString(6, "Description of book " + id);
+                    insertBook.addBatch();
+                    for (int i = 0; i < CATEGORIES_PER_BOOK; i++) {
+                        insertCategory.setLong(1, id);
+                        insertCategory.setLong(2, (id + i * 7) % CATEGORIES + 1);
+                        insertCategory.addBatch();
+                    }
+                }
+                insertBook.executeBatch();
+                insertCategory.executeBatch();
+            }
+        }
+        pageIds = LongStream.rangeClosed(books / 2, books / 2 + pageSize - 1).boxed().toList();
+    }
+
+    @TearDown
+    public void tearDown() {
+        sessionFactory.close();
+    }
+
+    @Benchmark
+    public List<BookDto> entities() {
+        EntityManager entityManager = sessionFactory.createEntityManager();
+        try {
+            return entityManager.createQuery("SELECT DISTINCT b FROM Book b "
+                            + "LEFT JOIN FETCH b.categories WHERE b.id IN :ids", Book.class)
+                    .setParameter("ids", pageIds)
+                    .getResultList()
+                    .stream()
+                    .map(bookMapper::toDto)
+                    .toList();
+        } finally {
+            entityManager.close();
+        }
+    }
+
+    @Benchmark
+    public List<BookDto> projection() {
+        EntityManager entityManager = sessionFactory.createEntityManager();
+        try {
+            return new BookDtoRepositoryImpl(entityManager).findDtosByIdIn(pageIds, BookFields.ALL);
+        } finally {
+            entityManager.close();
+        }
+    }
+}
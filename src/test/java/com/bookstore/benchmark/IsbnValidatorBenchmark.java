@@ -0,0 +1,55 @@
+package com.bookstore.benchmark;
+
+import com.bookstore.validation.IsbnParser;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compares the previous validator, which compiled a regular expression on every call,
+ * with the single-pass {@link IsbnParser}. Run {@link #main} from the test classpath.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class IsbnValidatorBenchmark {
+    @Param({"9780306406157", "978-0-306-40615-7", "0-306-40615-2"})
+    private String isbn;
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(IsbnValidatorBenchmark.class.getSimpleName())
+                .build())
+                .run();
+    }
+
+    @Benchmark
+    public boolean regex() {
+        return Pattern.compile("\\d+").matcher(isbn).matches();
+    }
+
+    @Benchmark
+    public boolean parser() {
+        return IsbnParser.isValid(isbn);
+    }
+
+    @Benchmark
+    public long canonical() {
+        return IsbnParser.parseIsbn13(isbn);
+    }
+}
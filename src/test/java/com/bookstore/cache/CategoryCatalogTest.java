@@ -0,0 +1,87 @@
+package com.bookstore.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.bookstore.event.CategoryDeletedEvent;
+import com.bookstore.event.CategorySavedEvent;
+import com.bookstore.model.Category;
+import com.bookstore.repository.catalog.CatalogVersionRepository;
+import com.bookstore.repository.category.CategoryRepository;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class CategoryCatalogTest {
+    @Mock
+    private CategoryRepository categoryRepository;
+    @Mock
+    private CatalogVersionRepository catalogVersionRepository;
+    @InjectMocks
+    private CategoryCatalog categoryCatalog;
+
+    @BeforeEach
+    void setUp() {
+        when(catalogVersionRepository.getVersion()).thenReturn(1L);
+        when(categoryRepository.findAll()).thenReturn(List.of(
+                getCategory(2L, "History"), getCategory(1L, "Fantasy")));
+        categoryCatalog.reload();
+    }
+
+    @Test
+    @DisplayName("Lookups are served from the snapshot as detached copies")
+    void findById_LoadedCategory_ReturnsCopy() {
+        Category first = categoryCatalog.findById(1L).orElseThrow();
+        first.setName("Changed");
+
+        assertEquals("Fantasy", categoryCatalog.findById(1L).orElseThrow().getName());
+        assertNotSame(first, categoryCatalog.findById(1L).orElseThrow());
+        assertEquals(List.of(1L, 2L), categoryCatalog.findAll().stream()
+                .map(Category::getId)
+                .toList());
+        assertEquals(1, categoryCatalog.findByIdIn(List.of(2L, 3L)).size());
+        verify(categoryRepository, times(1)).findAll();
+    }
+
+    @Test
+    @DisplayName("Saved and deleted categories are swapped into the snapshot")
+    void onCategoryEvents_SavedAndDeleted_UpdatesSnapshot() {
+        categoryCatalog.onCategorySaved(new CategorySavedEvent(getCategory(3L, "Science")));
+        categoryCatalog.onCategorySaved(new CategorySavedEvent(getCategory(1L, "Fiction")));
+        categoryCatalog.onCategoryDeleted(new CategoryDeletedEvent(2L));
+
+        assertEquals(List.of("Fiction", "Science"), categoryCatalog.findAll().stream()
+                .map(Category::getName)
+                .toList());
+        assertTrue(categoryCatalog.findByName("Fantasy").isEmpty());
+        assertTrue(categoryCatalog.findByName("Science").isPresent());
+    }
+
+    @Test
+    @DisplayName("The snapshot is reloaded only when the catalog version moved")
+    void reloadIfChanged_VersionMoved_ReloadsOnce() {
+        categoryCatalog.reloadIfChanged();
+        when(catalogVersionRepository.getVersion()).thenReturn(2L);
+        categoryCatalog.reloadIfChanged();
+        categoryCatalog.reloadIfChanged();
+
+        verify(categoryRepository, times(2)).findAll();
+    }
+
+    private Category getCategory(Long id, String name) {
+        return new Category()
+                .setId(id)
+                .setName(name)
+                .setVersion(0L);
+    }
+}
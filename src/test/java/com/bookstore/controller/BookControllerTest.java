@@ -1,35 +1,76 @@
 package com.bookstore.controller;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
+import com.bookstore.cache.CategoryCatalog;
+import com.bookstore.config.CacheConfig;
+import com.bookstore.dto.book.BookBatchRequestDto;
+import com.bookstore.dto.book.BookBatchResultDto;
+import com.bookstore.dto.book.BookCursorPageDto;
 import com.bookstore.dto.book.BookDto;
+import com.bookstore.dto.book.BookImportErrorDto;
+import com.bookstore.dto.book.BookImportResultDto;
+import com.bookstore.dto.book.BookPriceUpdateRequestDto;
+import com.bookstore.dto.book.BookPriceUpdateResultDto;
+import com.bookstore.dto.book.BookSearchResultDto;
+import com.bookstore.dto.book.BookSuggestionDto;
 import com.bookstore.dto.book.CreateBookRequestDto;
+import com.bookstore.dto.book.FacetCountDto;
+import com.bookstore.dto.catalog.CatalogChangeDto;
+import com.bookstore.dto.catalog.CatalogChangePageDto;
+import com.bookstore.index.BookIndexManager;
+import com.bookstore.index.CoPurchaseIndex;
+import com.bookstore.model.Book;
+import com.bookstore.model.OrderItem;
+import com.bookstore.repository.catalog.CatalogChange;
+import com.bookstore.repository.orderitem.CoPurchaseRepository;
+import com.bookstore.service.BookSalesService;
+import com.bookstore.service.CatalogVersionService;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.InputStreamReader;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.sql.Connection;
 import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashSet;
 import java.util.List;
+import java.util.zip.GZIPInputStream;
 import javax.sql.DataSource;
 import lombok.SneakyThrows;
 import org.apache.commons.lang3.builder.EqualsBuilder;
 import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
 import org.springframework.core.io.ClassPathResource;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.datasource.init.ScriptUtils;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.context.jdbc.Sql;
@@ -43,6 +84,24 @@ class BookControllerTest {
     protected static MockMvc mockMvc;
     @Autowired
     private ObjectMapper objectMapper;
+    @Autowired
+    private CategoryCatalog categoryCatalog;
+    @Autowired
+    private BookIndexManager bookIndexManager;
+    @Autowired
+    private CacheManager cacheManager;
+    @Autowired
+    private MeterRegistry meterRegistry;
+    @Autowired
+    private BookSalesService bookSalesService;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private CoPurchaseIndex coPurchaseIndex;
+    @Autowired
+    private CoPurchaseRepository coPurchaseRepository;
+    @Autowired
+    private CatalogVersionService catalogVersionService;
 
     @BeforeAll
     static void beforeAll(
@@ -61,6 +120,16 @@ class BookControllerTest {
                     new ClassPathResource("database/books-controller/add-three-default-books.sql")
             );
         }
+        applicationContext.getBean(BookIndexManager.class).rebuild();
+    }
+
+    /**
+     * Categories are inserted and removed with SQL scripts behind the catalog's back, so
+     * every test starts from a catalog reloaded after its own scripts ran.
+     */
+    @BeforeEach
+    void reloadCategoryCatalog() {
+        categoryCatalog.reload();
     }
 
     @AfterAll
@@ -115,6 +184,99 @@ class BookControllerTest {
         assertEquals(expected, Arrays.stream(actual).toList());
     }
 
+    @WithMockUser(username = "user", roles = {"USER"})
+    @Test
+    @DisplayName("Batch lookup keeps the requested order, reports missing ids and uses the cache")
+    void getBooksByIds_MixedIds_ShouldReturnBooksInOrderAndMissingIds() throws Exception {
+        //Given
+        cacheManager.getCache(CacheConfig.BOOKS_CACHE).clear();
+        final double hitsBefore = cacheGets(CacheConfig.BOOKS_CACHE, "hit");
+
+        //When
+        MvcResult result = mockMvc.perform(get("/api/books").param("ids", "3,999999,2,3"))
+                .andExpect(status().isOk())
+                .andReturn();
+        MvcResult postResult = mockMvc.perform(post("/api/books/batch")
+                        .content(objectMapper.writeValueAsString(
+                                new BookBatchRequestDto().setIds(List.of(2L, 3L))))
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        //Then
+        BookBatchResultDto actual = objectMapper.readValue(
+                result.getResponse().getContentAsString(), BookBatchResultDto.class);
+        assertEquals(List.of(3L, 2L), actual.getContent().stream().map(BookDto::getId).toList());
+        assertEquals(List.of(999999L), actual.getMissingIds());
+        BookBatchResultDto cached = objectMapper.readValue(
+                postResult.getResponse().getContentAsString(), BookBatchResultDto.class);
+        assertEquals(List.of(2L, 3L), cached.getContent().stream().map(BookDto::getId).toList());
+        assertEquals(hitsBefore + 2, cacheGets(CacheConfig.BOOKS_CACHE, "hit"));
+    }
+
+    @WithMockUser(username = "user", roles = {"USER"})
+    @Test
+    @DisplayName("List and search return only the requested fields")
+    void getAll_Fields_ShouldReturnOnlyRequestedProperties() throws Exception {
+        //When
+        MvcResult listResult = mockMvc.perform(get("/api/books")
+                        .param("fields", "title,price"))
+                .andExpect(status().isOk())
+                .andReturn();
+        MvcResult searchResult = mockMvc.perform(get("/api/books/search")
+                        .param("isbns", "12345")
+                        .param("fields", "categoryIds"))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        //Then
+        JsonNode books = objectMapper.readTree(listResult.getResponse().getContentAsString());
+        assertTrue(books.size() > 0);
+        for (JsonNode book : books) {
+            assertEquals(List.of("id", "title", "price"), fieldNames(book));
+        }
+        JsonNode found = objectMapper.readTree(searchResult.getResponse().getContentAsString());
+        assertEquals(1, found.size());
+        assertEquals(List.of("id", "categoryIds"), fieldNames(found.get(0)));
+        mockMvc.perform(get("/api/books").param("fields", "title,secret"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @WithMockUser(username = "user", roles = {"USER", "ADMIN"})
+    @Test
+    @DisplayName("Walking all cursors returns the same books as offset pagination")
+    void getAllAfter_SortedByPrice_ShouldReturnSameBooksAsOffsetPagination() throws Exception {
+        //Given
+        MvcResult offsetResult = mockMvc.perform(get("/api/books?sort=price,desc&sort=id,desc")
+                .contentType(MediaType.APPLICATION_JSON)
+                )
+                .andExpect(status().isOk())
+                .andReturn();
+        List<BookDto> expected = Arrays.asList(objectMapper.readValue(
+                offsetResult.getResponse().getContentAsByteArray(), BookDto[].class));
+
+        //When
+        List<BookDto> actual = new ArrayList<>();
+        String cursor = "";
+        do {
+            MvcResult result = mockMvc.perform(get("/api/books")
+                    .param("after", cursor)
+                    .param("size", "1")
+                    .param("sort", "price,desc")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    )
+                    .andExpect(status().isOk())
+                    .andReturn();
+            BookCursorPageDto page = objectMapper.readValue(
+                    result.getResponse().getContentAsByteArray(), BookCursorPageDto.class);
+            actual.addAll(page.getContent());
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+
+        //Then
+        assertEquals(expected, actual);
+    }
+
     @WithMockUser(username = "user", roles = {"USER", "ADMIN"})
     @Test
     @DisplayName("Get book by specific id")
@@ -146,6 +308,7 @@ class BookControllerTest {
                 .setIsbn("123").setPrice(BigDecimal.valueOf(49.95))
                 .setDescription("Test Description").setCoverImage("Cover Image")
                 .setCategoryIds(new HashSet<>()));
+        bookIndexManager.rebuild();
 
         //When
         MvcResult result = mockMvc.perform(get("/api/books/search?prices=40,50")
@@ -161,6 +324,336 @@ class BookControllerTest {
         assertEquals(expected, Arrays.stream(actual).toList());
     }
 
+    @WithMockUser(username = "user", roles = {"USER"})
+    @Test
+    @DisplayName("searchBooks() method pages a price range in price order")
+    void searchBooks_PriceRangeSortedByPrice_ShouldReturnBooksInPriceOrder() throws Exception {
+        //Given
+        bookIndexManager.rebuild();
+
+        //When
+        List<Long> descending = searchBookIds("/api/books/search?prices=10,100&sort=price,desc");
+        List<Long> secondPage = searchBookIds(
+                "/api/books/search?prices=10,100&sort=price,desc&page=1&size=1");
+
+        //Then
+        assertEquals(List.of(2L, 3L), descending.stream()
+                .filter(id -> id == 2L || id == 3L)
+                .toList());
+        assertEquals(List.of(descending.get(1)), secondPage);
+        mockMvc.perform(get("/api/books/search?prices=abc,10"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @WithMockUser(username = "user", roles = {"USER"})
+    @Test
+    @DisplayName("searchBooks() method matches title and description tokens through the index")
+    void searchBooks_TextParameters_ShouldReturnMatchingBooks() throws Exception {
+        //Given
+        BookDto expected = new BookDto().setId(2L).setTitle("Test Title1").setAuthor("Test Author1")
+                .setIsbn("1234").setPrice(BigDecimal.valueOf(99.99))
+                .setDescription("Test Description1").setCoverImage("Cover Image1")
+                .setCategoryIds(new HashSet<>());
+
+        //When
+        MvcResult byTitle = mockMvc.perform(get("/api/books/search?titles=TITLE1"))
+                .andExpect(status().isOk())
+                .andReturn();
+        MvcResult byKeywords = mockMvc.perform(get("/api/books/search?q=description1 unknown"))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        //Then
+        assertEquals(List.of(expected), List.of(objectMapper.readValue(
+                byTitle.getResponse().getContentAsString(), BookDto[].class)));
+        assertEquals(List.of(expected), List.of(objectMapper.readValue(
+                byKeywords.getResponse().getContentAsString(), BookDto[].class)));
+    }
+
+    @WithMockUser(username = "user", roles = {"USER"})
+    @Test
+    @DisplayName("searchBooks() method tolerates typos in fuzzy mode")
+    void searchBooks_FuzzyMisspelledAuthor_ShouldRankClosestBookFirst() throws Exception {
+        //Given
+        bookIndexManager.rebuild();
+
+        //When
+        List<Long> exact = searchBookIds("/api/books/search?authors=Test Authr1");
+        List<Long> fuzzy = searchBookIds("/api/books/search?authors=Test Authr1&fuzzy=true");
+
+        //Then
+        assertTrue(exact.isEmpty());
+        assertEquals(2L, fuzzy.get(0));
+    }
+
+    @WithMockUser(username = "user", roles = {"USER"})
+    @Test
+    @DisplayName("searchBooks() method filters by any or all of the given categories")
+    @Sql(scripts = {
+            "classpath:database/categories/add-three-default-categories.sql",
+            "classpath:database/books-controller/add-categories-to-default-books.sql"
+            }, executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+    @Sql(scripts = {
+            "classpath:database/books_categories/remove-all-from-books-categories.sql",
+            "classpath:database/categories/remove-all-from-categories.sql"
+            }, executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+    void searchBooks_CategoryIds_ShouldReturnBooksInCategories() throws Exception {
+        //Given
+        bookIndexManager.rebuild();
+
+        //When
+        List<Long> anyCategory = searchBookIds("/api/books/search?categoryIds=1,2");
+        List<Long> allCategories = searchBookIds(
+                "/api/books/search?categoryIds=1,2&categoryMatch=all");
+        List<Long> categoryAndPrice = searchBookIds(
+                "/api/books/search?categoryIds=1&prices=40,50");
+
+        //Then
+        assertEquals(List.of(1L, 2L), anyCategory);
+        assertEquals(List.of(2L), allCategories);
+        assertEquals(List.of(1L), categoryAndPrice);
+        mockMvc.perform(get("/api/books/search?categoryIds=1&categoryMatch=some"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @WithMockUser(username = "user", roles = {"USER"})
+    @Test
+    @DisplayName("searchBooksWithFacets() method counts categories and prices of all matches")
+    @Sql(scripts = {
+            "classpath:database/categories/add-three-default-categories.sql",
+            "classpath:database/books-controller/add-categories-to-default-books.sql"
+            }, executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+    @Sql(scripts = {
+            "classpath:database/books_categories/remove-all-from-books-categories.sql",
+            "classpath:database/categories/remove-all-from-categories.sql"
+            }, executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+    void searchBooksWithFacets_CategoryFilter_ShouldReturnFacetCounts() throws Exception {
+        //Given
+        bookIndexManager.rebuild();
+
+        //When
+        MvcResult result = mockMvc.perform(
+                        get("/api/books/search?categoryIds=1&size=1&facets=category,price"))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        //Then
+        BookSearchResultDto actual = objectMapper.readValue(
+                result.getResponse().getContentAsString(), BookSearchResultDto.class);
+        assertEquals(List.of(1L), actual.getContent().stream().map(BookDto::getId).toList());
+        assertEquals(List.of(new FacetCountDto().setValue("1").setCount(2),
+                new FacetCountDto().setValue("2").setCount(1)),
+                actual.getFacets().get("category"));
+        assertEquals(List.of(0L, 0L, 1L, 1L, 0L), actual.getFacets().get("price")
+                .stream()
+                .map(FacetCountDto::getCount)
+                .toList());
+    }
+
+    @WithMockUser(username = "user", roles = {"USER"})
+    @Test
+    @DisplayName("suggest() completes title and author prefixes")
+    void suggest_Prefix_ShouldReturnMatchingTitlesAndAuthors() throws Exception {
+        //Given
+        bookIndexManager.rebuild();
+
+        //When
+        MvcResult result = mockMvc.perform(get("/api/books/suggest").param("q", "test title2"))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        //Then
+        BookSuggestionDto[] actual = objectMapper.readValue(
+                result.getResponse().getContentAsString(), BookSuggestionDto[].class);
+        assertEquals(List.of(new BookSuggestionDto()
+                        .setType("title")
+                        .setText("Test Title2")
+                        .setBooks(1)),
+                Arrays.asList(actual));
+        mockMvc.perform(get("/api/books/suggest?q=test&limit=0"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @WithMockUser(username = "admin", roles = {"ADMIN"})
+    @Test
+    @DisplayName("exportBooks() streams every book as gzip-compressed NDJSON")
+    void exportBooks_GzipAccepted_ShouldStreamAllBooksAsNdjson() throws Exception {
+        //When
+        MvcResult asyncResult = mockMvc.perform(get("/api/books/export")
+                        .header(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        MvcResult result = mockMvc.perform(asyncDispatch(asyncResult))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                .andReturn();
+
+        //Then
+        List<String> lines;
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                new GZIPInputStream(new ByteArrayInputStream(
+                        result.getResponse().getContentAsByteArray())),
+                StandardCharsets.UTF_8))) {
+            lines = reader.lines().toList();
+        }
+        List<Long> actual = new ArrayList<>();
+        for (String line : lines) {
+            actual.add(objectMapper.readValue(line, BookDto.class).getId());
+        }
+        assertEquals(List.of(1L, 2L, 3L), actual);
+    }
+
+    @WithMockUser(username = "user", roles = {"USER"})
+    @Test
+    @DisplayName("exportBooks() is only available to admins")
+    void exportBooks_NotAdmin_ShouldReturnForbidden() throws Exception {
+        mockMvc.perform(get("/api/books/export"))
+                .andExpect(status().isForbidden());
+    }
+
+    @WithMockUser(username = "admin", roles = {"USER", "ADMIN"})
+    @Test
+    @DisplayName("importBooks() imports valid CSV rows and reports the others per row")
+    @Sql(scripts = {
+            "classpath:database/categories/add-three-default-categories.sql"
+            }, executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+    @Sql(scripts = {
+            "classpath:database/books-controller/delete-imported-books.sql",
+            "classpath:database/categories/remove-all-from-categories.sql"
+            }, executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+    void importBooks_CsvWithInvalidRows_ShouldImportValidRowsAndReportErrors() throws Exception {
+        //Given
+        String csv = "title,author,isbn,price,categoryIds,description\r\n"
+                + "Imported One,Importer,9780000000019,12.50,1;2,\"Plain, with comma\"\r\n"
+                + "Imported Two,Importer,9780000000020,5,,\r\n"
+                + "Imported Three,Importer,0-00-000001-9,5,,\r\n"
+                + "Imported Four,Importer,9780000000040,5,99,\r\n"
+                + "Imported Five,Importer,9780000000057,abc,,\r\n"
+                + "Imported Six,Importer,9780000000064,7,,\"Quoted \"\"multi\"\"\nline\"\r\n";
+
+        //When
+        MvcResult result = mockMvc.perform(post("/api/books/import")
+                        .content(csv)
+                        .contentType("text/csv"))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        //Then
+        BookImportResultDto actual = objectMapper.readValue(
+                result.getResponse().getContentAsString(), BookImportResultDto.class);
+        assertEquals(2, actual.getImported());
+        assertEquals(4, actual.getFailed());
+        assertEquals(List.of(2L, 3L, 4L, 5L), actual.getErrors().stream()
+                .map(BookImportErrorDto::getRow)
+                .toList());
+        List<BookDto> imported = Arrays.asList(objectMapper.readValue(mockMvc.perform(
+                        get("/api/books/search?authors=Importer&sort=isbn"))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString(), BookDto[].class));
+        assertEquals(List.of("9780000000019", "9780000000064"),
+                imported.stream().map(BookDto::getIsbn).toList());
+        assertEquals(new HashSet<>(List.of(1L, 2L)), imported.get(0).getCategoryIds());
+        assertEquals("Plain, with comma", imported.get(0).getDescription());
+        assertEquals("Quoted \"multi\"\nline", imported.get(1).getDescription());
+    }
+
+    @WithMockUser(username = "admin", roles = {"ADMIN"})
+    @Test
+    @DisplayName("importBooks() reports malformed NDJSON lines by line number")
+    @Sql(scripts = {
+            "classpath:database/books-controller/delete-imported-books.sql"
+            }, executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+    void importBooks_NdjsonWithMalformedLine_ShouldReportLine() throws Exception {
+        //Given
+        String ndjson = "{\"title\":\"Imported Json\",\"author\":\"Importer\","
+                + "\"isbn\":\"9780000000101\",\"price\":3,\"categoryIds\":[]}\n"
+                + "\n"
+                + "{\"title\":\n";
+
+        //When
+        MvcResult result = mockMvc.perform(post("/api/books/import")
+                        .content(ndjson)
+                        .contentType(MediaType.APPLICATION_NDJSON))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        //Then
+        BookImportResultDto actual = objectMapper.readValue(
+                result.getResponse().getContentAsString(), BookImportResultDto.class);
+        assertEquals(1, actual.getImported());
+        assertEquals(1, actual.getFailed());
+        assertEquals(3L, actual.getErrors().get(0).getRow());
+    }
+
+    @WithMockUser(username = "admin", roles = {"USER", "ADMIN"})
+    @Test
+    @DisplayName("search() matches ISBNs by canonical form and by prefix")
+    @Sql(scripts = {
+            "classpath:database/books-controller/delete-imported-books.sql"
+            }, executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+    void search_IsbnInAnyForm_ShouldMatchCanonicalIsbn() throws Exception {
+        //Given
+        String ndjson = "{\"title\":\"Imported Ten\",\"author\":\"Importer\","
+                + "\"isbn\":\"978-0-306-40615-7\",\"price\":3,\"categoryIds\":[]}\n"
+                + "{\"title\":\"Imported Eleven\",\"author\":\"Importer\","
+                + "\"isbn\":\"123456789X\",\"price\":3,\"categoryIds\":[]}\n";
+        mockMvc.perform(post("/api/books/import")
+                        .content(ndjson)
+                        .contentType(MediaType.APPLICATION_NDJSON))
+                .andExpect(status().isOk());
+
+        //When
+        List<String> byIsbn10 = searchTitles("0-306-40615-2");
+        List<String> byIsbn13 = searchTitles("9781234567897");
+        final List<String> byPrefix = searchTitles("978-0-306");
+        final List<String> byIsbn10Prefix = searchTitles("1-234567");
+
+        //Then
+        assertEquals(List.of("Imported Ten"), byIsbn10);
+        assertEquals(List.of("Imported Eleven"), byIsbn13);
+        assertEquals(List.of("Imported Ten"), byPrefix);
+        assertEquals(List.of("Imported Eleven"), byIsbn10Prefix);
+    }
+
+    @WithMockUser(username = "admin", roles = {"USER", "ADMIN"})
+    @Test
+    @DisplayName("updatePrices() reprices only the books matching the filter")
+    @Sql(scripts = {
+            "classpath:database/books-controller/insert-test-book-to-books.sql"
+            }, executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+    @Sql(scripts = {
+            "classpath:database/books-controller/delete-test-book-by-id.sql"
+            }, executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+    void updatePrices_PercentageForAuthor_ShouldRepriceMatchingBooks() throws Exception {
+        //Given
+        Long bookId = -100L;
+        bookIndexManager.rebuild();
+        mockMvc.perform(get("/api/books/" + bookId)).andExpect(status().isOk());
+        BookPriceUpdateRequestDto requestDto = new BookPriceUpdateRequestDto()
+                .setType(BookPriceUpdateRequestDto.Type.PERCENTAGE)
+                .setValue(new BigDecimal("-25"));
+
+        //When
+        MvcResult result = mockMvc.perform(patch("/api/books/prices?authors=Tester")
+                        .content(objectMapper.writeValueAsString(requestDto))
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        //Then
+        BookPriceUpdateResultDto actual = objectMapper.readValue(
+                result.getResponse().getContentAsString(), BookPriceUpdateResultDto.class);
+        assertEquals(1, actual.getUpdated());
+        BookDto updated = objectMapper.readValue(mockMvc.perform(get("/api/books/" + bookId))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString(), BookDto.class);
+        assertEquals(0, new BigDecimal("7.50").compareTo(updated.getPrice()));
+    }
+
     @WithMockUser(username = "admin", roles = {"ADMIN"})
     @Test
     @DisplayName("Create a new Book")
@@ -175,7 +668,7 @@ class BookControllerTest {
                 .setDescription("Test Description")
                 .setCoverImage("coverImage")
                 .setAuthor("Tester")
-                .setIsbn("793473")
+                .setIsbn("978-1-4619-1234-7")
                 .setCategoryIds(new HashSet<>());
 
         String jsonRequest = objectMapper.writeValueAsString(createBookRequestDto);
@@ -206,6 +699,311 @@ class BookControllerTest {
         EqualsBuilder.reflectionEquals(expected, actual, "id");
     }
 
+    @WithMockUser(username = "admin", roles = {"ADMIN"})
+    @Test
+    @DisplayName("Creating a book in an unknown category returns 404")
+    void createBook_UnknownCategory_ShouldReturnNotFound() throws Exception {
+        //Given
+        CreateBookRequestDto createBookRequestDto = new CreateBookRequestDto()
+                .setTitle("Test Book")
+                .setPrice(BigDecimal.TEN)
+                .setAuthor("Tester")
+                .setIsbn("978-1-4619-1234-7")
+                .setCategoryIds(new HashSet<>(List.of(999L)));
+
+        //When
+        mockMvc.perform(post("/api/books")
+                        .content(objectMapper.writeValueAsString(createBookRequestDto))
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isNotFound());
+    }
+
+    @WithMockUser(username = "admin", roles = {"ADMIN"})
+    @Test
+    @DisplayName("Creating a book with the ISBN-10 of an existing ISBN-13 returns 409")
+    @Sql(scripts = {
+            "classpath:database/books-controller/delete-test-book-from-books.sql"
+            }, executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+    void createBook_DuplicateCanonicalIsbn_ShouldReturnConflict() throws Exception {
+        //Given
+        CreateBookRequestDto createBookRequestDto = new CreateBookRequestDto()
+                .setTitle("Test Book")
+                .setPrice(BigDecimal.TEN)
+                .setAuthor("Tester")
+                .setIsbn("978-1-4619-1234-7")
+                .setCategoryIds(new HashSet<>());
+        mockMvc.perform(post("/api/books")
+                        .content(objectMapper.writeValueAsString(createBookRequestDto))
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isCreated());
+
+        //When
+        mockMvc.perform(post("/api/books")
+                        .content(objectMapper.writeValueAsString(
+                                createBookRequestDto.setIsbn("1-4619-1234-2")))
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isConflict());
+    }
+
+    @WithMockUser(username = "admin", roles = {"USER", "ADMIN"})
+    @Test
+    @DisplayName("getBookById() serves repeated reads from the cache until the book is updated")
+    @Sql(scripts = {
+            "classpath:database/books-controller/insert-test-book-to-books.sql"
+            }, executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+    @Sql(scripts = {
+            "classpath:database/books-controller/delete-test-book-from-books.sql"
+            }, executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+    void getBookById_RepeatedReads_ShouldBeServedFromCache() throws Exception {
+        //Given
+        Long bookId = -100L;
+        cacheManager.getCache(CacheConfig.BOOKS_CACHE).clear();
+        final double hitsBefore = cacheGets(CacheConfig.BOOKS_CACHE, "hit");
+        CreateBookRequestDto updateRequestDto = new CreateBookRequestDto()
+                .setTitle("Test Book")
+                .setPrice(BigDecimal.TEN)
+                .setDescription("Updated Description")
+                .setCoverImage("coverImage")
+                .setAuthor("Tester")
+                .setIsbn("9780306406157")
+                .setCategoryIds(new HashSet<>());
+
+        //When
+        mockMvc.perform(get("/api/books/" + bookId)).andExpect(status().isOk());
+        mockMvc.perform(get("/api/books/" + bookId)).andExpect(status().isOk());
+        mockMvc.perform(put("/api/books/" + bookId)
+                        .content(objectMapper.writeValueAsString(updateRequestDto))
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isAccepted());
+        MvcResult result = mockMvc.perform(get("/api/books/" + bookId))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        //Then
+        BookDto actual = objectMapper.readValue(result.getResponse().getContentAsString(),
+                BookDto.class);
+        assertEquals("Updated Description", actual.getDescription());
+        assertEquals(hitsBefore + 2, cacheGets(CacheConfig.BOOKS_CACHE, "hit"));
+    }
+
+    @WithMockUser(username = "admin", roles = {"USER", "ADMIN"})
+    @Test
+    @DisplayName("searchBooks() serves equivalent searches from the cache until a book changes")
+    @Sql(scripts = {
+            "classpath:database/books-controller/insert-test-book-to-books.sql"
+            }, executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+    @Sql(scripts = {
+            "classpath:database/books-controller/delete-test-book-by-id.sql"
+            }, executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+    void searchBooks_RepeatedSearch_ShouldBeServedFromCacheUntilCatalogChanges()
+            throws Exception {
+        //Given
+        Long bookId = -100L;
+        cacheManager.getCache(CacheConfig.BOOK_SEARCH_CACHE).clear();
+        final double hitsBefore = cacheGets(CacheConfig.BOOK_SEARCH_CACHE, "hit");
+        CreateBookRequestDto updateRequestDto = new CreateBookRequestDto()
+                .setTitle("Test Book")
+                .setPrice(BigDecimal.TEN)
+                .setAuthor("Tester")
+                .setIsbn("9780306406157")
+                .setCategoryIds(new HashSet<>());
+
+        //When
+        List<Long> first = searchBookIds("/api/books/search?isbns=459473");
+        List<Long> second = searchBookIds("/api/books/search?isbns=459473,459473");
+        final double hitsAfterRepeat = cacheGets(CacheConfig.BOOK_SEARCH_CACHE, "hit");
+        mockMvc.perform(put("/api/books/" + bookId)
+                        .content(objectMapper.writeValueAsString(updateRequestDto))
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isAccepted());
+        final List<Long> afterUpdate = searchBookIds("/api/books/search?isbns=459473");
+
+        //Then
+        assertEquals(List.of(bookId), first);
+        assertEquals(first, second);
+        assertEquals(hitsBefore + 1, hitsAfterRepeat);
+        assertEquals(hitsAfterRepeat, cacheGets(CacheConfig.BOOK_SEARCH_CACHE, "hit"));
+        assertTrue(afterUpdate.isEmpty());
+        assertTrue(meterRegistry.get("cache.hit.ratio")
+                .tag("cache", CacheConfig.BOOK_SEARCH_CACHE)
+                .gauge()
+                .value() > 0);
+    }
+
+    @WithMockUser(username = "admin", roles = {"USER", "ADMIN"})
+    @Test
+    @DisplayName("getBookById() answers 304 while the book version is unchanged")
+    @Sql(scripts = {
+            "classpath:database/books-controller/insert-test-book-to-books.sql"
+            }, executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+    @Sql(scripts = {
+            "classpath:database/books-controller/delete-test-book-by-id.sql"
+            }, executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+    void getBookById_IfNoneMatchCurrentETag_ShouldReturnNotModifiedUntilUpdate()
+            throws Exception {
+        //Given
+        Long bookId = -100L;
+        cacheManager.getCache(CacheConfig.BOOKS_CACHE).clear();
+        String etag = mockMvc.perform(get("/api/books/" + bookId))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getHeader(HttpHeaders.ETAG);
+        assertNotNull(etag);
+        CreateBookRequestDto updateRequestDto = new CreateBookRequestDto()
+                .setTitle("Test Book")
+                .setPrice(BigDecimal.ONE)
+                .setAuthor("Tester")
+                .setIsbn("9780306406157")
+                .setCategoryIds(new HashSet<>());
+
+        //When
+        mockMvc.perform(get("/api/books/" + bookId).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+        mockMvc.perform(put("/api/books/" + bookId)
+                        .content(objectMapper.writeValueAsString(updateRequestDto))
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isAccepted());
+
+        //Then
+        MvcResult result = mockMvc.perform(get("/api/books/" + bookId)
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andReturn();
+        assertNotEquals(etag, result.getResponse().getHeader(HttpHeaders.ETAG));
+    }
+
+    @WithMockUser(username = "user", roles = {"USER"})
+    @Test
+    @DisplayName("getAll() answers 304 while the catalog version is unchanged")
+    void getAll_IfNoneMatchCurrentETag_ShouldReturnNotModified() throws Exception {
+        String etag = mockMvc.perform(get("/api/books"))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(get("/api/books").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+    }
+
+    @WithMockUser(username = "user", roles = {"USER"})
+    @Test
+    @DisplayName("getBestsellers() ranks sold books from memory and flushes the sales")
+    @Sql(scripts = {
+            "classpath:database/categories/add-three-default-categories.sql",
+            "classpath:database/books-controller/add-categories-to-default-books.sql"
+            }, executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+    @Sql(scripts = {
+            "classpath:database/books-controller/delete-from-book-sales.sql",
+            "classpath:database/books_categories/remove-all-from-books-categories.sql",
+            "classpath:database/categories/remove-all-from-categories.sql"
+            }, executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+    void getBestsellers_SoldBooks_ShouldReturnBestSellingFirst() throws Exception {
+        //Given
+        bookIndexManager.rebuild();
+        bookSalesService.recordSales(1L, List.of(getOrderItem(3L, 2), getOrderItem(2L, 2)));
+        bookSalesService.recordSales(2L, List.of(getOrderItem(3L, 3)));
+
+        //When
+        List<Long> overall = searchBookIds("/api/books/bestsellers");
+        List<Long> inCategory = searchBookIds("/api/books/bestsellers?categoryId=1");
+        bookSalesService.flush();
+
+        //Then
+        assertEquals(List.of(3L, 2L), overall);
+        assertEquals(List.of(2L), inCategory);
+        assertEquals(5L, jdbcTemplate.queryForObject(
+                "SELECT sold FROM book_sales WHERE book_id = 3", Long.class));
+        assertEquals(List.of(3L), searchBookIds("/api/books/bestsellers?limit=1"));
+        mockMvc.perform(get("/api/books/bestsellers?categoryId=999"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/books/bestsellers?limit=0"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @WithMockUser(username = "user", roles = {"USER"})
+    @Test
+    @DisplayName("getRelatedBooks() returns the books bought in the same orders")
+    @Sql(scripts = {
+            "classpath:database/orders/add-orders-for-related-books.sql"
+            }, executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+    @Sql(scripts = {
+            "classpath:database/orders/delete-orders-for-related-books.sql"
+            }, executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+    void getRelatedBooks_BooksBoughtTogether_ShouldReturnCoPurchasedBooks() throws Exception {
+        //Given
+        coPurchaseIndex.rebuild();
+
+        //When
+        List<Long> related = searchBookIds("/api/books/2/related");
+        List<Long> relatedBack = searchBookIds("/api/books/3/related?limit=1");
+
+        //Then
+        assertEquals(List.of(3L), related);
+        assertEquals(List.of(2L), relatedBack);
+        assertEquals(List.of(3L), coPurchaseRepository.findRelatedBookIds(2L, 10));
+        mockMvc.perform(get("/api/books/2/related?limit=0"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @WithMockUser(username = "admin", roles = {"USER", "ADMIN"})
+    @Test
+    @DisplayName("getChanges() returns each book changed since the token once, deleted ones "
+            + "as tombstones")
+    @Sql(scripts = {
+            "classpath:database/books-controller/delete-test-book-from-books.sql"
+            }, executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+    void getChanges_BookSavedThenDeleted_ShouldReturnLatestChangeSinceToken() throws Exception {
+        //Given
+        final String since = String.valueOf(catalogVersionService.getVersion());
+        CreateBookRequestDto requestDto = new CreateBookRequestDto()
+                .setTitle("Test Book")
+                .setPrice(BigDecimal.TEN)
+                .setDescription("Test Description")
+                .setCoverImage("coverImage")
+                .setAuthor("Tester")
+                .setIsbn("978-3-16-148410-0")
+                .setCategoryIds(new HashSet<>());
+        BookDto created = objectMapper.readValue(mockMvc.perform(post("/api/books")
+                        .content(objectMapper.writeValueAsString(requestDto))
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isCreated())
+                .andReturn()
+                .getResponse()
+                .getContentAsString(), BookDto.class);
+        mockMvc.perform(put("/api/books/" + created.getId())
+                        .content(objectMapper.writeValueAsString(
+                                requestDto.setDescription("Changed Description")))
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isAccepted());
+
+        //When
+        CatalogChangePageDto saved = getChanges("/api/books/changes?since=" + since);
+        mockMvc.perform(delete("/api/books/" + created.getId()))
+                .andExpect(status().isOk());
+        CatalogChangePageDto deleted = getChanges(
+                "/api/books/changes?since=" + saved.getNextToken());
+        final CatalogChangePageDto unchanged = getChanges(
+                "/api/books/changes?limit=1&since=" + deleted.getNextToken());
+
+        //Then
+        assertEquals(1, saved.getContent().size());
+        CatalogChangeDto change = saved.getContent().get(0);
+        assertEquals(CatalogChange.EntityType.BOOK, change.getType());
+        assertEquals(created.getId(), change.getId());
+        assertEquals("Changed Description", change.getBook().getDescription());
+        assertEquals(String.valueOf(Long.parseLong(since) + 2), saved.getNextToken());
+        assertEquals(1, deleted.getContent().size());
+        assertTrue(deleted.getContent().get(0).isDeleted());
+        assertNull(deleted.getContent().get(0).getBook());
+        assertTrue(unchanged.getContent().isEmpty());
+        assertEquals(deleted.getNextToken(), unchanged.getNextToken());
+        mockMvc.perform(get("/api/books/changes?since=abc"))
+                .andExpect(status().isBadRequest());
+    }
+
     @WithMockUser(username = "admin", roles = {"ADMIN"})
     @Test
     @DisplayName("Update book")
@@ -226,7 +1024,7 @@ class BookControllerTest {
                 .setDescription("Test Description")
                 .setCoverImage("coverImage")
                 .setAuthor("Tester")
-                .setIsbn("459473")
+                .setIsbn("9780306406157")
                 .setCategoryIds(new HashSet<>());
 
         BookDto expected = new BookDto()
@@ -290,4 +1088,53 @@ class BookControllerTest {
                 .setDescription("Test Description").setCoverImage("Cover Image")
                 .setCategoryIds(new HashSet<>());
     }
+
+    private List<Long> searchBookIds(String url) throws Exception {
+        MvcResult result = mockMvc.perform(get(url))
+                .andExpect(status().isOk())
+                .andReturn();
+        return Arrays.stream(objectMapper.readValue(result.getResponse().getContentAsString(),
+                        BookDto[].class))
+                .map(BookDto::getId)
+                .toList();
+    }
+
+    private CatalogChangePageDto getChanges(String url) throws Exception {
+        return objectMapper.readValue(mockMvc.perform(get(url))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString(), CatalogChangePageDto.class);
+    }
+
+    private OrderItem getOrderItem(Long bookId, int quantity) {
+        OrderItem orderItem = new OrderItem();
+        orderItem.setBook(new Book().setId(bookId));
+        orderItem.setQuantity(quantity);
+        return orderItem;
+    }
+
+    private double cacheGets(String cache, String result) {
+        return meterRegistry.get("cache.gets")
+                .tag("cache", cache)
+                .tag("result", result)
+                .functionCounter()
+                .count();
+    }
+
+    private List<String> fieldNames(JsonNode book) {
+        List<String> names = new ArrayList<>();
+        book.fieldNames().forEachRemaining(names::add);
+        return names;
+    }
+
+    private List<String> searchTitles(String isbn) throws Exception {
+        BookDto[] books = objectMapper.readValue(mockMvc.perform(get("/api/books/search")
+                        .param("isbns", isbn))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString(), BookDto[].class);
+        return Arrays.stream(books).map(BookDto::getTitle).toList();
+    }
 }
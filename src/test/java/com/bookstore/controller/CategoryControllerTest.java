@@ -2,15 +2,24 @@ package com.bookstore.controller;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
+import com.bookstore.cache.CategoryCatalog;
 import com.bookstore.dto.book.BookDtoWithoutCategoryIds;
+import com.bookstore.dto.catalog.CatalogChangeDto;
+import com.bookstore.dto.catalog.CatalogChangePageDto;
 import com.bookstore.dto.category.CategoryDto;
+import com.bookstore.dto.category.CategoryNodeDto;
+import com.bookstore.index.BookIndexManager;
+import com.bookstore.repository.catalog.CatalogChange;
+import com.bookstore.service.CatalogVersionService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import java.math.BigDecimal;
 import java.sql.Connection;
@@ -23,12 +32,15 @@ import lombok.SneakyThrows;
 import org.apache.commons.lang3.builder.EqualsBuilder;
 import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.core.io.ClassPathResource;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.datasource.init.ScriptUtils;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.context.jdbc.Sql;
@@ -42,6 +54,14 @@ class CategoryControllerTest {
     protected static MockMvc mockMvc;
     @Autowired
     private ObjectMapper objectMapper;
+    @Autowired
+    private CategoryCatalog categoryCatalog;
+    @Autowired
+    private BookIndexManager bookIndexManager;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private CatalogVersionService catalogVersionService;
 
     @BeforeAll
     static void beforeAll(
@@ -62,6 +82,15 @@ class CategoryControllerTest {
         }
     }
 
+    /**
+     * Categories are inserted and removed with SQL scripts behind the catalog's back, so
+     * every test starts from a catalog reloaded after its own scripts ran.
+     */
+    @BeforeEach
+    void reloadCategoryCatalog() {
+        categoryCatalog.reload();
+    }
+
     @AfterAll
     static void afterAll(
             @Autowired DataSource dataSource
@@ -133,6 +162,37 @@ class CategoryControllerTest {
         assertEquals(expected, Arrays.stream(actual).toList());
     }
 
+    @WithMockUser(username = "admin", roles = {"USER", "ADMIN"})
+    @Test
+    @DisplayName("getAll() answers 304 until a category changes")
+    @Sql(scripts = {
+            "classpath:database/categories/remove-category-from-categories-table.sql"
+            }, executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+    void getAll_IfNoneMatchCurrentETag_ShouldReturnNotModifiedUntilChange() throws Exception {
+        //Given
+        String etag = mockMvc.perform(get("/api/categories"))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getHeader(HttpHeaders.ETAG);
+        assertNotNull(etag);
+
+        //When
+        mockMvc.perform(get("/api/categories").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+        mockMvc.perform(post("/api/categories")
+                        .content(objectMapper.writeValueAsString(new CategoryDto()
+                                .setName("Test Category")
+                                .setDescription("Test Category Description")))
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isCreated());
+
+        //Then
+        mockMvc.perform(get("/api/categories").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk());
+    }
+
     @WithMockUser(username = "user", roles = {"USER", "ADMIN"})
     @Test
     @DisplayName("Get category by specific id")
@@ -225,12 +285,27 @@ class CategoryControllerTest {
                 .andReturn();
     }
 
-    @WithMockUser(username = "admin", roles = {"ADMIN"})
+    @WithMockUser(username = "admin", roles = {"USER", "ADMIN"})
     @Test
-    @DisplayName("Delete a category from db")
+    @DisplayName("Delete a category from db, log its books as changed and change their ETags")
+    @Sql(scripts = {
+            "classpath:database/books-controller/add-three-default-books.sql",
+            "classpath:database/books_categories/add-books-for-category.sql"
+            }, executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+    @Sql(scripts = {
+            "classpath:database/books_categories/remove-all-from-books-categories.sql",
+            "classpath:database/books-controller/delete-from-books.sql"
+            }, executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
     void deleteCategory_ValidId_ShouldDeleteCategoryFromDb() throws Exception {
         //Given
         Long categoryId = 1L;
+        bookIndexManager.rebuild();
+        final long since = catalogVersionService.getVersion();
+        final String etag = mockMvc.perform(get("/api/books/1"))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getHeader(HttpHeaders.ETAG);
 
         //When
         MvcResult result = mockMvc.perform(delete("/api/categories/" + categoryId)
@@ -238,6 +313,30 @@ class CategoryControllerTest {
                 )
                 .andExpect(status().isOk())
                 .andReturn();
+        mockMvc.perform(get("/api/books/1").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk());
+        CatalogChangePageDto changes = objectMapper.readValue(mockMvc.perform(
+                        get("/api/books/changes?since=" + since))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString(), CatalogChangePageDto.class);
+
+        //Then
+        assertEquals(List.of(CatalogChange.EntityType.CATEGORY, CatalogChange.EntityType.BOOK,
+                        CatalogChange.EntityType.BOOK, CatalogChange.EntityType.BOOK),
+                changes.getContent().stream().map(CatalogChangeDto::getType).toList());
+        assertTrue(changes.getContent().get(0).isDeleted());
+        assertEquals(List.of(1L, 2L, 3L), changes.getContent()
+                .stream()
+                .skip(1)
+                .map(CatalogChangeDto::getId)
+                .sorted()
+                .toList());
+        assertTrue(changes.getContent()
+                .stream()
+                .skip(1)
+                .noneMatch(change -> change.getBook().getCategoryIds().contains(categoryId)));
     }
 
     @WithMockUser(username = "admin", roles = {"ADMIN"})
@@ -301,4 +400,115 @@ class CategoryControllerTest {
         assertEquals(expected.size(), actual.length);
         assertEquals(expected, Arrays.stream(actual).toList());
     }
+
+    @WithMockUser(username = "user", roles = {"USER"})
+    @Test
+    @DisplayName("Browse the category tree with subtree book counts and books")
+    @Sql(scripts = {
+            "classpath:database/books-controller/add-three-default-books.sql",
+            "classpath:database/categories/add-category-tree.sql",
+            "classpath:database/books_categories/add-books-for-category-tree.sql"
+            }, executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+    @Sql(scripts = {
+            "classpath:database/books_categories/remove-all-from-books-categories.sql",
+            "classpath:database/books-controller/delete-from-books.sql",
+            "classpath:database/categories/remove-category-tree.sql"
+            }, executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+    void getChildren_NestedCategories_ShouldReturnSubtreeCounts() throws Exception {
+        //Given
+        bookIndexManager.rebuild();
+
+        //When
+        CategoryNodeDto[] roots = objectMapper.readValue(mockMvc.perform(
+                        get("/api/categories/roots"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsByteArray(), CategoryNodeDto[].class);
+        CategoryNodeDto[] children = objectMapper.readValue(mockMvc.perform(
+                        get("/api/categories/12/children"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsByteArray(), CategoryNodeDto[].class);
+        BookDtoWithoutCategoryIds[] subtreeBooks = objectMapper.readValue(mockMvc.perform(
+                        get("/api/categories/12/books").param("includeSubcategories", "true"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsByteArray(),
+                BookDtoWithoutCategoryIds[].class);
+
+        //Then
+        assertEquals(List.of(new CategoryNodeDto().setId(11L).setName("Fiction")
+                        .setDescription("Fiction books").setChildCount(1).setBookCount(3L)),
+                Arrays.stream(roots).filter(root -> root.getId() == 11L).toList());
+        assertEquals(List.of(new CategoryNodeDto().setId(13L).setName("Space Opera")
+                        .setDescription("Space opera").setParentId(12L).setBookCount(2L)),
+                List.of(children));
+        assertEquals(List.of(2L, 3L), Arrays.stream(subtreeBooks)
+                .map(BookDtoWithoutCategoryIds::getId)
+                .toList());
+        mockMvc.perform(get("/api/categories/-1/children"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @WithMockUser(username = "admin", roles = {"USER", "ADMIN"})
+    @Test
+    @DisplayName("Moving a category moves its whole subtree and logs every moved category")
+    @Sql(scripts = "classpath:database/categories/add-category-tree.sql",
+            executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+    @Sql(scripts = "classpath:database/categories/remove-category-tree.sql",
+            executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+    void updateCategory_NewParent_ShouldMoveSubtree() throws Exception {
+        //Given
+        CategoryDto toRoot = new CategoryDto().setName("Sci-Fi").setDescription("Science fiction")
+                .setParentId(null);
+        CategoryDto underOwnChild = new CategoryDto().setName("Sci-Fi")
+                .setDescription("Science fiction").setParentId(13L);
+
+        //When
+        mockMvc.perform(put("/api/categories/12")
+                        .content(objectMapper.writeValueAsString(underOwnChild))
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
+        final long since = catalogVersionService.getVersion();
+        mockMvc.perform(put("/api/categories/12")
+                        .content(objectMapper.writeValueAsString(toRoot))
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isAccepted());
+        CatalogChangePageDto changes = objectMapper.readValue(mockMvc.perform(
+                        get("/api/books/changes?since=" + since))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString(), CatalogChangePageDto.class);
+
+        //Then
+        assertEquals(List.of(12L, 13L), changes.getContent()
+                .stream()
+                .filter(change -> change.getType() == CatalogChange.EntityType.CATEGORY)
+                .map(CatalogChangeDto::getId)
+                .sorted()
+                .toList());
+        assertEquals("/12/", jdbcTemplate.queryForObject(
+                "SELECT path FROM categories WHERE id = 13", String.class));
+        assertEquals(List.of(), categoryCatalog.tree().getChildIds(11L));
+        assertEquals(List.of(13L), categoryCatalog.tree().getChildIds(12L));
+        assertTrue(categoryCatalog.tree().getChildIds(null).contains(12L));
+    }
+
+    @WithMockUser(username = "admin", roles = {"ADMIN"})
+    @Test
+    @DisplayName("Updating a category without a parentId leaves it where it is")
+    @Sql(scripts = "classpath:database/categories/add-category-tree.sql",
+            executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+    @Sql(scripts = "classpath:database/categories/remove-category-tree.sql",
+            executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+    void updateCategory_NoParentId_ShouldKeepParent() throws Exception {
+        //When
+        mockMvc.perform(put("/api/categories/13")
+                        .content("{\"name\":\"Space Opera\",\"description\":\"Epic\"}")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isAccepted());
+
+        //Then
+        assertEquals("/11/12/", jdbcTemplate.queryForObject(
+                "SELECT path FROM categories WHERE id = 13", String.class));
+        assertEquals(List.of(13L), categoryCatalog.tree().getChildIds(12L));
+    }
 }
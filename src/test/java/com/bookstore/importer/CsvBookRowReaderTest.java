@@ -0,0 +1,66 @@
+package com.bookstore.importer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.bookstore.exception.InvalidParameterException;
+import java.io.IOException;
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.util.Set;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class CsvBookRowReaderTest {
+    @Test
+    @DisplayName("Maps columns by header name and splits category ids on ';'")
+    void next_ReorderedHeader_MapsColumnsByName() throws IOException {
+        CsvBookRowReader reader = new CsvBookRowReader(new StringReader(
+                "ISBN,Price,Title,Author,categoryIds\n111,9.50,Title,Author,1; 2\n"));
+
+        BookImportRow actual = reader.next();
+
+        assertEquals(1, actual.getRowNumber());
+        assertEquals("111", actual.getBook().getIsbn());
+        assertEquals(new BigDecimal("9.50"), actual.getBook().getPrice());
+        assertEquals("Title", actual.getBook().getTitle());
+        assertEquals(Set.of(1L, 2L), actual.getBook().getCategoryIds());
+        assertNull(reader.next());
+    }
+
+    @Test
+    @DisplayName("Keeps commas, doubled quotes and line breaks inside quoted fields")
+    void next_QuotedFields_UnescapesQuotes() throws IOException {
+        CsvBookRowReader reader = new CsvBookRowReader(new StringReader(
+                "title,author,isbn,price\r\n\"A, \"\"B\"\"\r\nC\",Author,111,1\r\n\r\n"));
+
+        BookImportRow actual = reader.next();
+
+        assertEquals("A, \"B\"\r\nC", actual.getBook().getTitle());
+        assertEquals("Author", actual.getBook().getAuthor());
+        assertNull(reader.next());
+    }
+
+    @Test
+    @DisplayName("Reports a malformed number as a row error and carries on")
+    void next_MalformedPrice_ReturnsRowError() throws IOException {
+        CsvBookRowReader reader = new CsvBookRowReader(new StringReader(
+                "title,author,isbn,price\nA,B,111,ten\nC,D,222,1\n"));
+
+        BookImportRow invalid = reader.next();
+        BookImportRow valid = reader.next();
+
+        assertNull(invalid.getBook());
+        assertEquals(1, invalid.getRowNumber());
+        assertEquals("222", valid.getBook().getIsbn());
+        assertEquals(2, valid.getRowNumber());
+    }
+
+    @Test
+    @DisplayName("Rejects a header without the required columns")
+    void constructor_MissingColumns_ThrowsException() {
+        assertThrows(InvalidParameterException.class,
+                () -> new CsvBookRowReader(new StringReader("title,author\nA,B\n")));
+    }
+}
@@ -0,0 +1,81 @@
+package com.bookstore.index;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.when;
+
+import com.bookstore.event.BooksSoldEvent;
+import com.bookstore.model.Book;
+import com.bookstore.model.Category;
+import com.bookstore.service.BookSalesService;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class BestsellerIndexTest {
+    @Mock
+    private BookSalesService bookSalesService;
+    private BestsellerIndex bestsellerIndex;
+
+    @BeforeEach
+    void setUp() {
+        bestsellerIndex = new BestsellerIndex(bookSalesService);
+    }
+
+    @Test
+    @DisplayName("Loaded totals and new sales rank books overall and per category")
+    void onBooksSold_LoadedTotals_RanksBestFirst() {
+        bestsellerIndex.index(getBook(1L, 1L));
+        bestsellerIndex.index(getBook(2L, 1L, 2L));
+        bestsellerIndex.index(getBook(3L, 2L));
+        when(bookSalesService.loadTotals()).thenReturn(new HashMap<>(Map.of(1L, 5L, 2L, 3L)));
+        bestsellerIndex.loaded();
+
+        bestsellerIndex.onBooksSold(new BooksSoldEvent(1L, Map.of(2L, 4L, 3L, 1L)));
+
+        assertEquals(List.of(2L, 1L, 3L), bestsellerIndex.top(null, 10));
+        assertEquals(List.of(2L, 1L), bestsellerIndex.top(1L, 10));
+        assertEquals(List.of(2L), bestsellerIndex.top(2L, 1));
+        assertTrue(bestsellerIndex.top(3L, 10).isEmpty());
+    }
+
+    @Test
+    @DisplayName("A book leaving a full ranking lets the next best book in")
+    void index_BookLeavesFullRanking_RecomputesRanking() {
+        Map<Long, Long> totals = new HashMap<>();
+        for (long id = 1; id <= BestsellerIndex.CAPACITY + 1; id++) {
+            bestsellerIndex.index(getBook(id, 1L));
+            totals.put(id, id);
+        }
+        when(bookSalesService.loadTotals()).thenReturn(totals);
+        bestsellerIndex.loaded();
+        assertEquals(BestsellerIndex.CAPACITY + 1L, bestsellerIndex.top(1L, 1).get(0));
+        assertTrue(!bestsellerIndex.top(1L, BestsellerIndex.CAPACITY).contains(1L));
+
+        bestsellerIndex.index(getBook(BestsellerIndex.CAPACITY + 1L, 2L));
+        bestsellerIndex.remove((long) BestsellerIndex.CAPACITY);
+
+        List<Long> top = bestsellerIndex.top(1L, BestsellerIndex.CAPACITY);
+        assertEquals(BestsellerIndex.CAPACITY - 1, top.size());
+        assertEquals(BestsellerIndex.CAPACITY - 1L, top.get(0));
+        assertEquals(1L, top.get(top.size() - 1));
+        assertEquals(List.of(BestsellerIndex.CAPACITY + 1L), bestsellerIndex.top(2L, 10));
+    }
+
+    private Book getBook(Long id, Long... categoryIds) {
+        return new Book()
+                .setId(id)
+                .setCategories(new HashSet<>(Arrays.stream(categoryIds)
+                        .map(categoryId -> new Category().setId(categoryId))
+                        .toList()));
+    }
+}
@@ -0,0 +1,70 @@
+package com.bookstore.index;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.bookstore.event.CategoryDeletedEvent;
+import com.bookstore.model.Book;
+import com.bookstore.model.Category;
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.roaringbitmap.longlong.Roaring64NavigableMap;
+
+class BookFacetIndexTest {
+    private BookFacetIndex bookFacetIndex;
+
+    @BeforeEach
+    void setUp() {
+        bookFacetIndex = new BookFacetIndex();
+        bookFacetIndex.index(getBook(1L, "9.99", 1L));
+        bookFacetIndex.index(getBook(2L, "10", 1L, 2L));
+        bookFacetIndex.index(getBook(3L, "120.50", 2L));
+        bookFacetIndex.index(getBook(2000L, "30", 3L));
+    }
+
+    @Test
+    @DisplayName("Counts categories and price ranges of the given books only")
+    void count_MatchingIds_CountsOnlyMatchingBooks() {
+        FacetCounts actual = bookFacetIndex.count(Roaring64NavigableMap.bitmapOf(1L, 2L, 7L));
+
+        assertEquals(Map.of(1L, 2L, 2L, 1L), actual.getCategories());
+        assertEquals(priceRanges(1, 1, 0, 0, 0), actual.getPriceRanges());
+    }
+
+    @Test
+    @DisplayName("Counts every indexed book, including out of range ids, when no ids are given")
+    void count_NoIds_CountsWholeCatalog() {
+        bookFacetIndex.index(getBook(-5L, "60", 2L, 3L));
+        bookFacetIndex.remove(1L);
+        bookFacetIndex.onCategoryDeleted(new CategoryDeletedEvent(2L));
+
+        FacetCounts actual = bookFacetIndex.count(null);
+
+        assertEquals(Map.of(1L, 1L, 3L, 2L), actual.getCategories());
+        assertEquals(priceRanges(0, 1, 1, 1, 1), actual.getPriceRanges());
+    }
+
+    private Map<String, Long> priceRanges(long... counts) {
+        Map<String, Long> priceRanges = new LinkedHashMap<>();
+        priceRanges.put("0-10", counts[0]);
+        priceRanges.put("10-25", counts[1]);
+        priceRanges.put("25-50", counts[2]);
+        priceRanges.put("50-100", counts[3]);
+        priceRanges.put("100+", counts[4]);
+        return priceRanges;
+    }
+
+    private Book getBook(Long id, String price, Long... categoryIds) {
+        return new Book()
+                .setId(id)
+                .setPrice(new BigDecimal(price))
+                .setCategories(new HashSet<>(Arrays.stream(categoryIds)
+                        .map(categoryId -> new Category().setId(categoryId))
+                        .toList()));
+    }
+}
@@ -0,0 +1,86 @@
+package com.bookstore.index;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.bookstore.model.Book;
+import java.math.BigDecimal;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.roaringbitmap.longlong.Roaring64NavigableMap;
+
+class BookPriceIndexTest {
+    private BookPriceIndex bookPriceIndex;
+
+    @BeforeEach
+    void setUp() {
+        bookPriceIndex = new BookPriceIndex();
+        bookPriceIndex.index(getBook(1L, "49.95"));
+        bookPriceIndex.index(getBook(2L, "99.99"));
+        bookPriceIndex.index(getBook(3L, "10.49"));
+        bookPriceIndex.index(getBook(4L, "10.49"));
+        bookPriceIndex.index(getBook(-100L, "10"));
+    }
+
+    @Test
+    @DisplayName("Price ranges include both bounds")
+    void range_Bounds_ReturnsBooksWithinInclusiveRange() {
+        assertEquals(Roaring64NavigableMap.bitmapOf(1L, 3L, 4L), bookPriceIndex.range(
+                new BigDecimal("10.49"), new BigDecimal("49.95")));
+        assertEquals(Roaring64NavigableMap.bitmapOf(-100L), bookPriceIndex.range(
+                BigDecimal.ZERO, new BigDecimal("10.485")));
+        assertTrue(bookPriceIndex.range(new BigDecimal("50"), new BigDecimal("99.98")).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Bounds too large for cents are clamped instead of failing")
+    void range_HugeBounds_MatchesEverythingOnThatSide() {
+        assertEquals(Roaring64NavigableMap.bitmapOf(1L, 2L, 3L, 4L, -100L), bookPriceIndex.range(
+                new BigDecimal("-1e30"), new BigDecimal("1e30")));
+        assertEquals(Roaring64NavigableMap.bitmapOf(2L), bookPriceIndex.range(
+                new BigDecimal("99.99"), new BigDecimal("1e999999999")));
+        assertTrue(bookPriceIndex.range(new BigDecimal("1e30"), new BigDecimal("1e31")).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Pages follow price order with ties broken by ascending id")
+    void sortedPage_BothDirections_BreaksTiesById() {
+        assertEquals(List.of(-100L, 3L, 4L, 1L, 2L),
+                bookPriceIndex.sortedPage(null, true, 0, 10));
+        assertEquals(List.of(2L, 1L, 3L, 4L, -100L),
+                bookPriceIndex.sortedPage(null, false, 0, 10));
+        assertEquals(List.of(3L, 4L), bookPriceIndex.sortedPage(null, false, 2, 2));
+        Roaring64NavigableMap matches = Roaring64NavigableMap.bitmapOf(1L, 4L, 2L);
+        assertEquals(List.of(1L, 4L), bookPriceIndex.sortedPage(matches, false, 1, 10));
+    }
+
+    @Test
+    @DisplayName("Repriced and removed books move or leave the order")
+    void index_RepricedAndRemovedBooks_UpdatesOrder() {
+        bookPriceIndex.index(getBook(2L, "1"));
+        bookPriceIndex.remove(4L);
+
+        assertEquals(List.of(2L, -100L, 3L, 1L), bookPriceIndex.sortedPage(null, true, 0, 10));
+    }
+
+    @Test
+    @DisplayName("Changes made after a read are merged into the existing order")
+    void index_ChangesAfterRead_MergesIntoOrder() {
+        bookPriceIndex.sortedPage(null, true, 0, 10);
+        bookPriceIndex.index(getBook(5L, "10.49"));
+        bookPriceIndex.index(getBook(-100L, "200"));
+        bookPriceIndex.index(getBook(1L, "49.95"));
+        bookPriceIndex.remove(3L);
+
+        assertEquals(List.of(4L, 5L, 1L, 2L, -100L),
+                bookPriceIndex.sortedPage(null, true, 0, 10));
+        assertEquals(Roaring64NavigableMap.bitmapOf(4L, 5L), bookPriceIndex.range(
+                BigDecimal.ZERO, new BigDecimal("10.49")));
+    }
+
+    private Book getBook(Long id, String price) {
+        return new Book().setId(id).setPrice(new BigDecimal(price));
+    }
+}
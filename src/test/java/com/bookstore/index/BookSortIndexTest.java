@@ -0,0 +1,83 @@
+package com.bookstore.index;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.bookstore.model.Book;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.roaringbitmap.longlong.Roaring64NavigableMap;
+
+class BookSortIndexTest {
+    private BookSortIndex bookSortIndex;
+
+    @BeforeEach
+    void setUp() {
+        bookSortIndex = new BookSortIndex();
+        bookSortIndex.index(getBook(1L, "Émile", "Rousseau", "0-306-40615-2"));
+        bookSortIndex.index(getBook(2L, "dune", "Herbert", "9780441172719"));
+        bookSortIndex.index(getBook(3L, "Dune", "Herbert", "9780441013593"));
+        bookSortIndex.index(getBook(4L, "Anathem", "Stephenson", "9780061474095"));
+    }
+
+    @Test
+    @DisplayName("Pages follow the folded value order with ties broken by ascending id")
+    void sortedPage_BothDirections_BreaksTiesById() {
+        assertEquals(List.of(4L, 2L, 3L, 1L),
+                bookSortIndex.sortedPage(BookSortIndex.TITLE, null, true, 0, 10));
+        assertEquals(List.of(1L, 2L, 3L, 4L),
+                bookSortIndex.sortedPage(BookSortIndex.TITLE, null, false, 0, 10));
+        Roaring64NavigableMap matches = Roaring64NavigableMap.bitmapOf(1L, 3L, 4L);
+        assertEquals(List.of(3L, 1L),
+                bookSortIndex.sortedPage(BookSortIndex.AUTHOR, matches, true, 0, 2));
+        assertEquals(List.of(1L),
+                bookSortIndex.sortedPage(BookSortIndex.AUTHOR, matches, false, 1, 1));
+    }
+
+    @Test
+    @DisplayName("ISBNs match as stored or as complete and partial canonical ISBN-13s")
+    void matchIsbns_AnyForm_MatchesCanonicalIsbn13() {
+        assertEquals(Roaring64NavigableMap.bitmapOf(1L),
+                bookSortIndex.matchIsbns(new String[] {"9780306406157"}));
+        assertEquals(Roaring64NavigableMap.bitmapOf(2L, 3L),
+                bookSortIndex.matchIsbns(new String[] {"978-0-441"}));
+        assertEquals(Roaring64NavigableMap.bitmapOf(1L, 4L),
+                bookSortIndex.matchIsbns(new String[] {"0-306-40615-2", "9780061474095"}));
+        assertTrue(bookSortIndex.matchIsbns(new String[] {"9781111111111"}).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Retitled and removed books move or leave the order")
+    void index_RetitledAndRemovedBooks_UpdatesOrder() {
+        bookSortIndex.index(getBook(1L, "A", "Rousseau", "0-306-40615-2"));
+        bookSortIndex.remove(3L);
+
+        assertEquals(List.of(1L, 4L, 2L),
+                bookSortIndex.sortedPage(BookSortIndex.TITLE, null, true, 0, 10));
+        assertTrue(bookSortIndex.matchIsbns(new String[] {"9780441013593"}).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Changes made after a read are merged into the existing order")
+    void index_ChangesAfterRead_MergesIntoOrder() {
+        bookSortIndex.sortedPage(BookSortIndex.TITLE, null, true, 0, 10);
+        bookSortIndex.index(getBook(5L, "Dune", "Herbert", null));
+        bookSortIndex.index(getBook(4L, "Zodiac", "Stephenson", "9780061474095"));
+        bookSortIndex.remove(2L);
+
+        assertEquals(List.of(3L, 5L, 1L, 4L),
+                bookSortIndex.sortedPage(BookSortIndex.TITLE, null, true, 0, 10));
+        assertEquals(List.of(3L, 5L, 1L, 4L),
+                bookSortIndex.sortedPage(BookSortIndex.AUTHOR, null, true, 0, 10));
+    }
+
+    private Book getBook(Long id, String title, String author, String isbn) {
+        return new Book()
+                .setId(id)
+                .setTitle(title)
+                .setAuthor(author)
+                .setIsbn(isbn);
+    }
+}
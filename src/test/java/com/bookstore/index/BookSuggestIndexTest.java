@@ -0,0 +1,74 @@
+package com.bookstore.index;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.bookstore.model.Book;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class BookSuggestIndexTest {
+    private BookSuggestIndex bookSuggestIndex;
+
+    @BeforeEach
+    void setUp() {
+        bookSuggestIndex = new BookSuggestIndex();
+        bookSuggestIndex.index(getBook(1L, "The Hobbit", "J. R. R. Tolkien"));
+        bookSuggestIndex.index(getBook(2L, "The Lord of the Rings", "J. R. R. Tolkien"));
+        bookSuggestIndex.index(getBook(3L, "The Silmarillion", "J. R. R. Tolkien"));
+        bookSuggestIndex.index(getBook(4L, "Tales of Earthsea", "Ursula Le Guin"));
+        bookSuggestIndex.index(getBook(5L, "Cien años de soledad", "Gabriel García Márquez"));
+    }
+
+    @Test
+    @DisplayName("Completes any word start, the author of most books first")
+    void suggest_Prefix_RanksByNumberOfBooks() {
+        List<Suggestion> actual = bookSuggestIndex.suggest("T", 3);
+
+        assertEquals(new Suggestion(Suggestion.AUTHOR, "J. R. R. Tolkien", 3), actual.get(0));
+        assertEquals(3, actual.size());
+        assertEquals(List.of("Tales of Earthsea", "The Hobbit"), bookSuggestIndex.suggest("t", 3)
+                .stream()
+                .skip(1)
+                .map(Suggestion::getText)
+                .toList());
+    }
+
+    @Test
+    @DisplayName("Ignores case, accents and punctuation and matches inside titles")
+    void suggest_NormalisedPrefix_MatchesLaterWords() {
+        assertEquals(List.of("Gabriel García Márquez"), texts("garcia marq"));
+        assertEquals(List.of("Cien años de soledad"), texts("ANOS de s"));
+        assertEquals(List.of("The Lord of the Rings"), texts("rin"));
+        assertTrue(texts("rings x").isEmpty());
+    }
+
+    @Test
+    @DisplayName("Updated and removed books are reflected immediately")
+    void index_UpdateAndRemove_UpdatesWeightsAndTerms() {
+        bookSuggestIndex.index(getBook(3L, "The Silmarillion", "Christopher Tolkien"));
+        bookSuggestIndex.remove(1L);
+
+        assertEquals(List.of(new Suggestion(Suggestion.AUTHOR, "Christopher Tolkien", 1),
+                        new Suggestion(Suggestion.AUTHOR, "J. R. R. Tolkien", 1)),
+                bookSuggestIndex.suggest("tolk", 5));
+        assertTrue(texts("hob").isEmpty());
+        assertEquals(List.of("The Lord of the Rings", "The Silmarillion"), texts("the"));
+    }
+
+    private List<String> texts(String prefix) {
+        return bookSuggestIndex.suggest(prefix, 10)
+                .stream()
+                .map(Suggestion::getText)
+                .toList();
+    }
+
+    private Book getBook(Long id, String title, String author) {
+        return new Book()
+                .setId(id)
+                .setTitle(title)
+                .setAuthor(author);
+    }
+}
@@ -0,0 +1,83 @@
+package com.bookstore.index;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.bookstore.model.Book;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class BookTextIndexTest {
+    private BookTextIndex bookTextIndex;
+
+    @BeforeEach
+    void setUp() {
+        bookTextIndex = new BookTextIndex();
+        bookTextIndex.index(getBook(1L, "The Hobbit", "J. R. R. Tolkien",
+                "A hobbit goes on an adventure with dwarves"));
+        bookTextIndex.index(getBook(2L, "The Lord of the Rings", "J. R. R. Tolkien",
+                "The sequel to The Hobbit"));
+        bookTextIndex.index(getBook(3L, "Dune", "Frank Herbert",
+                "Politics, religion and a desert planet"));
+    }
+
+    @Test
+    @DisplayName("Title values match books containing every token of the value")
+    void search_TitleValue_MatchesBooksWithAllTokensInTitle() {
+        Map<Long, Double> actual = bookTextIndex.search(new String[]{"lord rings"}, null, null);
+
+        assertEquals(List.of(2L), List.copyOf(actual.keySet()));
+    }
+
+    @Test
+    @DisplayName("Keywords rank title matches above description matches")
+    void search_Keywords_RanksTitleMatchFirst() {
+        Map<Long, Double> actual = bookTextIndex.search(null, null, "Hobbit");
+
+        assertEquals(List.of(1L, 2L), TopK.select(actual, 10));
+    }
+
+    @Test
+    @DisplayName("The last token of a value or of the keywords matches as a prefix")
+    void search_PartialLastToken_MatchesWordsStartingWithIt() {
+        assertThat(bookTextIndex.search(new String[]{"lord ri"}, null, null))
+                .containsOnlyKeys(2L);
+        assertThat(bookTextIndex.search(new String[]{"lo rings"}, null, null)).isEmpty();
+        assertThat(bookTextIndex.search(new String[]{"lord x"}, null, null)).isEmpty();
+        assertThat(bookTextIndex.search(null, new String[]{"tolk"}, null))
+                .containsOnlyKeys(1L, 2L);
+        assertThat(bookTextIndex.search(null, null, "desert pla")).containsOnlyKeys(3L);
+    }
+
+    @Test
+    @DisplayName("All criteria must match")
+    void search_TitleAndAuthor_IntersectsMatches() {
+        Map<Long, Double> actual = bookTextIndex.search(new String[]{"dune"},
+                new String[]{"tolkien"}, null);
+
+        assertTrue(actual.isEmpty());
+    }
+
+    @Test
+    @DisplayName("Updated and removed books are reflected immediately")
+    void index_UpdateAndRemove_ReplacesPreviousTokens() {
+        bookTextIndex.index(getBook(3L, "Dune Messiah", "Frank Herbert", null));
+        bookTextIndex.remove(1L);
+
+        assertThat(bookTextIndex.search(null, null, "hobbit")).containsOnlyKeys(2L);
+        assertThat(bookTextIndex.search(null, null, "desert")).isEmpty();
+        assertThat(bookTextIndex.search(new String[]{"messiah"}, null, null)).containsOnlyKeys(3L);
+    }
+
+    private Book getBook(Long id, String title, String author, String description) {
+        return new Book()
+                .setId(id)
+                .setTitle(title)
+                .setAuthor(author)
+                .setDescription(description);
+    }
+}
@@ -0,0 +1,67 @@
+package com.bookstore.index;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.bookstore.model.Book;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class BookTrigramIndexTest {
+    private BookTrigramIndex bookTrigramIndex;
+
+    @BeforeEach
+    void setUp() {
+        bookTrigramIndex = new BookTrigramIndex();
+        bookTrigramIndex.index(getBook(1L, "The Hobbit", "J. R. R. Tolkien"));
+        bookTrigramIndex.index(getBook(2L, "Dune", "Frank Herbert"));
+        bookTrigramIndex.index(getBook(3L, "Children of Dune", "Frank Herbert"));
+        bookTrigramIndex.index(getBook(4L, "Cien años de soledad", "Gabriel García Márquez"));
+    }
+
+    @Test
+    @DisplayName("Misspelled author names match within the allowed edit distance")
+    void search_MisspelledAuthor_MatchesAuthor() {
+        assertThat(bookTrigramIndex.search(null, new String[]{"Tolkein"}, null))
+                .containsOnlyKeys(1L);
+        assertThat(bookTrigramIndex.search(null, new String[]{"frank herbrt"}, null))
+                .containsOnlyKeys(2L, 3L);
+        assertThat(bookTrigramIndex.search(null, new String[]{"garsia marques"}, null))
+                .containsOnlyKeys(4L);
+        assertTrue(bookTrigramIndex.search(null, new String[]{"Tolstoy"}, null).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Exact matches rank above approximate ones")
+    void search_Keywords_RanksCloserMatchFirst() {
+        bookTrigramIndex.index(getBook(5L, "Dunes", "Someone Else"));
+
+        assertEquals(List.of(2L, 3L, 5L),
+                TopK.select(bookTrigramIndex.search(null, null, "dune"), 10));
+    }
+
+    @Test
+    @DisplayName("Removed books no longer match")
+    void remove_IndexedBook_NoLongerMatches() {
+        bookTrigramIndex.remove(1L);
+
+        assertTrue(bookTrigramIndex.search(new String[]{"hobit"}, null, null).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Edit distance stops early once the bound is exceeded")
+    void editDistance_BeyondMax_ReturnsMaxPlusOne() {
+        assertEquals(2, TrigramFieldIndex.editDistance("tolkein", "tolkien", 2));
+        assertEquals(3, TrigramFieldIndex.editDistance("abcdef", "uvwxyz", 2));
+    }
+
+    private Book getBook(Long id, String title, String author) {
+        return new Book()
+                .setId(id)
+                .setTitle(title)
+                .setAuthor(author);
+    }
+}
@@ -0,0 +1,99 @@
+package com.bookstore.index;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.when;
+
+import com.bookstore.cache.CategoryCatalog;
+import com.bookstore.cache.CategoryTree;
+import com.bookstore.event.CategoryDeletedEvent;
+import com.bookstore.model.Book;
+import com.bookstore.model.Category;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class CategoryBitmapIndexTest {
+    @Mock
+    private CategoryCatalog categoryCatalog;
+    private CategoryBitmapIndex categoryBitmapIndex;
+
+    @BeforeEach
+    void setUp() {
+        when(categoryCatalog.tree()).thenReturn(getTree(
+                getCategory(1L, null), getCategory(2L, 1L), getCategory(3L, null)));
+        categoryBitmapIndex = new CategoryBitmapIndex(categoryCatalog);
+        categoryBitmapIndex.index(getBook(1L, 1L));
+        categoryBitmapIndex.index(getBook(2L, 1L, 2L));
+        categoryBitmapIndex.index(getBook(3L, 2L, 3L));
+    }
+
+    @Test
+    @DisplayName("Any semantics return books of at least one category")
+    void match_AnyCategory_ReturnsUnion() {
+        assertArrayEquals(new long[]{1L, 2L, 3L},
+                categoryBitmapIndex.match(List.of(1L, 2L), false).toArray());
+    }
+
+    @Test
+    @DisplayName("All semantics return books of every category")
+    void match_AllCategories_ReturnsIntersection() {
+        assertArrayEquals(new long[]{2L},
+                categoryBitmapIndex.match(List.of(1L, 2L), true).toArray());
+        assertTrue(categoryBitmapIndex.match(List.of(1L, 3L), true).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Re-indexed, removed books and deleted categories leave the bitmaps")
+    void index_UpdateRemoveAndDeleteCategory_UpdatesBitmaps() {
+        categoryBitmapIndex.index(getBook(1L, 2L));
+        categoryBitmapIndex.remove(3L);
+        categoryBitmapIndex.onCategoryDeleted(new CategoryDeletedEvent(1L));
+
+        assertArrayEquals(new long[]{1L, 2L},
+                categoryBitmapIndex.match(List.of(2L), false).toArray());
+        assertTrue(categoryBitmapIndex.match(List.of(1L, 3L), false).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Subtrees hold each of their books once and follow moves of the tree")
+    void matchSubtree_TreeChanges_FollowsTree() {
+        assertArrayEquals(new long[]{1L, 2L, 3L},
+                categoryBitmapIndex.matchSubtree(1L).toArray());
+        assertEquals(Map.of(1L, 3L, 2L, 2L, 3L, 1L),
+                categoryBitmapIndex.countSubtrees(List.of(1L, 2L, 3L)));
+
+        when(categoryCatalog.tree()).thenReturn(getTree(
+                getCategory(1L, null), getCategory(2L, 3L), getCategory(3L, null)));
+        categoryBitmapIndex.remove(1L);
+
+        assertArrayEquals(new long[]{2L}, categoryBitmapIndex.matchSubtree(1L).toArray());
+        assertArrayEquals(new long[]{2L, 3L}, categoryBitmapIndex.matchSubtree(3L).toArray());
+        assertEquals(Map.of(2L, 2L, 4L, 0L), categoryBitmapIndex.countSubtrees(List.of(2L, 4L)));
+    }
+
+    private CategoryTree getTree(Category... categories) {
+        return CategoryTree.of(List.of(categories));
+    }
+
+    private Category getCategory(Long id, Long parentId) {
+        return new Category().setId(id).setParentId(parentId);
+    }
+
+    private Book getBook(Long id, Long... categoryIds) {
+        return new Book()
+                .setId(id)
+                .setCategories(new HashSet<>(Arrays.stream(categoryIds)
+                        .map(categoryId -> new Category().setId(categoryId))
+                        .toList()));
+    }
+}
@@ -0,0 +1,141 @@
+package com.bookstore.index;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.when;
+
+import com.bookstore.event.BookDeletedEvent;
+import com.bookstore.event.BooksSoldEvent;
+import com.bookstore.repository.orderitem.CoPurchaseRepository;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class CoPurchaseIndexTest {
+    @Mock
+    private CoPurchaseRepository coPurchaseRepository;
+    @InjectMocks
+    private CoPurchaseIndex coPurchaseIndex;
+
+    @Test
+    @DisplayName("The batch rebuild merges the pair counts of all ranges of orders")
+    void rebuild_ManyBaskets_CountsCoPurchases() {
+        List<long[]> baskets = new ArrayList<>();
+        for (int i = 0; i < 25_000; i++) {
+            baskets.add(new long[] {1L, 2L});
+        }
+        for (int i = 0; i < 3; i++) {
+            baskets.add(new long[] {1L, 3L, 4L});
+        }
+        stubBaskets(baskets.subList(0, 20_000), baskets.subList(20_000, baskets.size()));
+
+        coPurchaseIndex.rebuild();
+
+        assertTrue(coPurchaseIndex.isReady());
+        assertEquals(List.of(2L, 3L, 4L), coPurchaseIndex.related(1L, 10));
+        assertEquals(List.of(1L, 4L), coPurchaseIndex.related(3L, 10));
+        assertEquals(List.of(1L), coPurchaseIndex.related(2L, 10));
+        assertTrue(coPurchaseIndex.related(5L, 10).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Orders placed and books deleted during a rebuild survive its swap")
+    void rebuild_ChangesWhileCounting_ReplaysThem() {
+        doAnswer(invocation -> {
+            invocation.<Consumer<List<long[]>>>getArgument(3)
+                    .accept(List.of(new long[] {1L, 2L}, new long[] {3L, 4L}));
+            coPurchaseIndex.onBooksSold(new BooksSoldEvent(101L, Map.of(1L, 1L, 5L, 1L)));
+            coPurchaseIndex.onBookDeleted(new BookDeletedEvent(4L));
+            return null;
+        }).when(coPurchaseRepository)
+                .findBaskets(anyLong(), eq(CoPurchaseIndex.MAX_BASKET_SIZE), anyInt(), any());
+
+        coPurchaseIndex.rebuild();
+
+        assertEquals(List.of(2L, 5L), coPurchaseIndex.related(1L, 10));
+        assertTrue(coPurchaseIndex.related(3L, 10).isEmpty());
+        assertTrue(coPurchaseIndex.related(4L, 10).isEmpty());
+
+        coPurchaseIndex.onBooksSold(new BooksSoldEvent(102L, Map.of(1L, 1L, 6L, 1L)));
+        stubBaskets(List.of(new long[] {1L, 2L}));
+
+        coPurchaseIndex.rebuild();
+
+        assertEquals(List.of(2L), coPurchaseIndex.related(1L, 10));
+    }
+
+    @Test
+    @DisplayName("Orders already read by a rebuild are not replayed onto its result")
+    void rebuild_OrdersUpToMaxOrderId_CountsThemOnce() {
+        when(coPurchaseRepository.findMaxOrderId()).thenReturn(10L);
+        doAnswer(invocation -> {
+            assertEquals(10L, invocation.<Long>getArgument(0));
+            coPurchaseIndex.onBooksSold(new BooksSoldEvent(10L, Map.of(1L, 1L, 3L, 1L)));
+            coPurchaseIndex.onBooksSold(new BooksSoldEvent(11L, Map.of(1L, 1L, 2L, 1L)));
+            invocation.<Consumer<List<long[]>>>getArgument(3)
+                    .accept(List.of(new long[] {1L, 3L}));
+            return null;
+        }).when(coPurchaseRepository)
+                .findBaskets(anyLong(), eq(CoPurchaseIndex.MAX_BASKET_SIZE), anyInt(), any());
+
+        coPurchaseIndex.rebuild();
+
+        assertEquals(List.of(2L, 3L), coPurchaseIndex.related(1L, 10));
+    }
+
+    @Test
+    @DisplayName("Placed orders add edges and a book keeps only its heaviest ones")
+    void onBooksSold_ManyNeighbours_PrunesLowWeightEdges() {
+        for (int i = 0; i < 3; i++) {
+            coPurchaseIndex.onBooksSold(new BooksSoldEvent(103L + i, Map.of(1L, 1L, 2L, 4L)));
+        }
+        coPurchaseIndex.onBooksSold(new BooksSoldEvent(106L, Map.of(1L, 1L)));
+        for (long bookId = 100; bookId < 100 + CoPurchaseIndex.EDGES_PER_BOOK * 2; bookId++) {
+            coPurchaseIndex.onBooksSold(new BooksSoldEvent(bookId, Map.of(1L, 1L, bookId, 1L)));
+        }
+
+        List<Long> related = coPurchaseIndex.related(1L, CoPurchaseIndex.EDGES_PER_BOOK);
+        assertEquals(2L, related.get(0));
+        assertTrue(related.size() <= CoPurchaseIndex.EDGES_PER_BOOK);
+        assertEquals(List.of(1L), coPurchaseIndex.related(2L, 10));
+    }
+
+    @Test
+    @DisplayName("A deleted book disappears from the graph and from its neighbours")
+    void onBookDeleted_BookWithNeighbours_RemovesEdges() {
+        coPurchaseIndex.onBooksSold(new BooksSoldEvent(106L, Map.of(1L, 1L, 2L, 1L)));
+        coPurchaseIndex.onBooksSold(new BooksSoldEvent(107L, Map.of(2L, 1L, 3L, 1L)));
+        coPurchaseIndex.onBooksSold(new BooksSoldEvent(108L, Map.of(1L, 1L, 3L, 1L)));
+
+        coPurchaseIndex.onBookDeleted(new BookDeletedEvent(2L));
+
+        assertTrue(coPurchaseIndex.related(2L, 10).isEmpty());
+        assertEquals(List.of(3L), coPurchaseIndex.related(1L, 10));
+        assertEquals(List.of(1L), coPurchaseIndex.related(3L, 10));
+    }
+
+    @SafeVarargs
+    private void stubBaskets(List<long[]>... chunks) {
+        doAnswer(invocation -> {
+            Consumer<List<long[]>> chunkConsumer = invocation.getArgument(3);
+            for (List<long[]> chunk : chunks) {
+                chunkConsumer.accept(chunk);
+            }
+            return null;
+        }).when(coPurchaseRepository)
+                .findBaskets(anyLong(), eq(CoPurchaseIndex.MAX_BASKET_SIZE), anyInt(), any());
+    }
+}
@@ -0,0 +1,53 @@
+package com.bookstore.index;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.bookstore.model.Book;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class LiveBookIdIndexTest {
+    private LiveBookIdIndex liveBookIdIndex;
+
+    @BeforeEach
+    void setUp() {
+        liveBookIdIndex = new LiveBookIdIndex();
+        liveBookIdIndex.index(new Book().setId(1L));
+        liveBookIdIndex.index(new Book().setId(3L));
+        liveBookIdIndex.index(new Book().setId(5L));
+        liveBookIdIndex.loaded();
+    }
+
+    @Test
+    @DisplayName("Only gaps within the loaded id range are reported absent")
+    void isAbsent_LoadedRange_AnswersOnlyWithinRange() {
+        assertFalse(liveBookIdIndex.isAbsent(1L));
+        assertTrue(liveBookIdIndex.isAbsent(2L));
+        assertTrue(liveBookIdIndex.isAbsent(4L));
+        assertFalse(liveBookIdIndex.isAbsent(6L));
+        assertFalse(liveBookIdIndex.isAbsent(0L));
+        assertFalse(liveBookIdIndex.isAbsent(-100L));
+    }
+
+    @Test
+    @DisplayName("Deleted books become absent and new books are known")
+    void remove_DeletedBook_IsAbsent() {
+        liveBookIdIndex.remove(3L);
+        liveBookIdIndex.index(new Book().setId(7L));
+        liveBookIdIndex.add(4L);
+
+        assertTrue(liveBookIdIndex.isAbsent(3L));
+        assertFalse(liveBookIdIndex.isAbsent(7L));
+        assertFalse(liveBookIdIndex.isAbsent(4L));
+    }
+
+    @Test
+    @DisplayName("A cleared index reports nothing absent until the next load")
+    void clear_BeforeLoad_ReportsNothingAbsent() {
+        liveBookIdIndex.clear();
+
+        assertFalse(liveBookIdIndex.isAbsent(2L));
+    }
+}
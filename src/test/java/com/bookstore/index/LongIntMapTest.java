@@ -0,0 +1,53 @@
+package com.bookstore.index;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class LongIntMapTest {
+    @Test
+    @DisplayName("Adds and removes behave like a HashMap across resizes and probe chains")
+    void addAndRemove_RandomKeys_MatchesHashMap() {
+        LongIntMap map = new LongIntMap();
+        Map<Long, Integer> expected = new HashMap<>();
+        Random random = new Random(42);
+        for (int i = 0; i < 20_000; i++) {
+            long key = 1 + random.nextInt(500);
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.remove(key) != null, map.remove(key));
+            } else {
+                map.add(key, 2);
+                expected.merge(key, 2, Integer::sum);
+            }
+        }
+
+        assertEquals(expected.size(), map.size());
+        Map<Long, Integer> actual = new HashMap<>();
+        map.forEach(actual::put);
+        assertEquals(expected, actual);
+        assertFalse(map.remove(1_000L));
+    }
+
+    @Test
+    @DisplayName("retainTop() keeps the highest values, ties going to the lower key")
+    void retainTop_MoreEntries_KeepsHighestValues() {
+        LongIntMap map = new LongIntMap();
+        for (long key = 1; key <= 10; key++) {
+            map.add(key, key <= 5 ? 1 : (int) key);
+        }
+
+        map.retainTop(7);
+
+        assertEquals(7, map.size());
+        assertEquals(10, map.get(10L));
+        assertEquals(6, map.get(6L));
+        assertEquals(1, map.get(1L));
+        assertEquals(1, map.get(2L));
+        assertEquals(0, map.get(3L));
+    }
+}
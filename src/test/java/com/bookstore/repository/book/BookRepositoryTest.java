@@ -2,15 +2,25 @@ package com.bookstore.repository.book;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
+import com.bookstore.dto.book.BookDto;
+import com.bookstore.dto.book.BookFields;
 import com.bookstore.model.Book;
+import com.bookstore.model.Category;
 import com.bookstore.repository.category.CategoryRepository;
+import java.math.BigDecimal;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import org.hibernate.engine.spi.SessionImplementor;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.test.context.jdbc.Sql;
 
 @DataJpaTest
@@ -20,6 +30,8 @@ class BookRepositoryTest {
     private BookRepository bookRepository;
     @Autowired
     private CategoryRepository categoryRepository;
+    @Autowired
+    private TestEntityManager testEntityManager;
 
     @Test
     @DisplayName("Find all books by category id")
@@ -38,9 +50,92 @@ class BookRepositoryTest {
             "classpath:database/categories/remove-category-from-categories-table.sql"
             }, executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
     void findAllByCategoryId_ValidCategoryId_ReturnsValidBooksList() {
-        List<Book> actual = bookRepository.findAllByCategoryId(1L,
+        List<Long> bookIds = bookRepository.findIdsByCategoryId(1L,
                 PageRequest.of(0,10));
+        List<Book> actual = bookRepository.findAllByIdIn(bookIds);
 
         assertEquals(1, actual.size());
+        assertEquals(1, actual.get(0).getCategories().size());
+    }
+
+    @Test
+    @DisplayName("Loading a page of a category keeps the same footprint for any category size")
+    void findIdsByCategoryId_SmallAndLargeCategory_LoadsOnlyRequestedPage() {
+        Category smallCategory = persistCategoryWithBooks("Small category", 5);
+        Category largeCategory = persistCategoryWithBooks("Large category", 60);
+        Pageable pageable = PageRequest.of(1, 2, Sort.by("id"));
+
+        int smallCategoryEntities = countEntitiesLoadedForPage(smallCategory.getId(), pageable);
+        int largeCategoryEntities = countEntitiesLoadedForPage(largeCategory.getId(), pageable);
+
+        assertEquals(3, smallCategoryEntities);
+        assertEquals(smallCategoryEntities, largeCategoryEntities);
+    }
+
+    @Test
+    @DisplayName("Book DTOs carry their category ids without loading entities")
+    void findDtosByIdIn_BooksInCategory_ReturnsCategoryIdsWithoutManagedEntities() {
+        Category category = persistCategoryWithBooks("Projected category", 3);
+        testEntityManager.clear();
+        List<Long> bookIds = bookRepository.findIdsByCategoryId(category.getId(),
+                PageRequest.of(0, 10, Sort.by("id")));
+
+        List<BookDto> books = bookRepository.findDtosByIdIn(bookIds, BookFields.ALL);
+
+        assertEquals(3, books.size());
+        books.forEach(book -> assertEquals(Set.of(category.getId()), book.getCategoryIds()));
+        assertEquals(0, testEntityManager.getEntityManager()
+                .unwrap(SessionImplementor.class)
+                .getPersistenceContext()
+                .getNumberOfManagedEntities());
+    }
+
+    @Test
+    @DisplayName("Books of a category subtree are found by path, each book once")
+    void findIdsByCategorySubtree_NestedCategories_ReturnsDistinctBooks() {
+        Category parent = persistCategoryWithBooks("Parent category", 2);
+        Category child = categoryRepository.save(new Category()
+                .setName("Child category")
+                .setParentId(parent.getId())
+                .setPath(parent.descendantsPath()));
+        persistCategoryWithBooks("Other category", 1);
+        testEntityManager.persist(new Book()
+                .setTitle("In both").setAuthor("Author").setIsbn("both").setPrice(BigDecimal.TEN)
+                .setCategories(new HashSet<>(Set.of(parent, child))));
+        testEntityManager.persist(new Book()
+                .setTitle("In child").setAuthor("Author").setIsbn("child").setPrice(BigDecimal.TEN)
+                .setCategories(new HashSet<>(Set.of(child))));
+        testEntityManager.flush();
+        Pageable pageable = PageRequest.of(0, 10, Sort.by("id"));
+
+        assertEquals(4, bookRepository.findIdsByCategorySubtree(parent.getId(),
+                parent.descendantsPath(), pageable).size());
+        assertEquals(2, bookRepository.findIdsByCategorySubtree(child.getId(),
+                child.descendantsPath(), pageable).size());
+    }
+
+    private int countEntitiesLoadedForPage(Long categoryId, Pageable pageable) {
+        testEntityManager.clear();
+        List<Long> bookIds = bookRepository.findIdsByCategoryId(categoryId, pageable);
+        List<Book> books = bookRepository.findAllByIdIn(bookIds);
+        assertEquals(pageable.getPageSize(), books.size());
+        return testEntityManager.getEntityManager()
+                .unwrap(SessionImplementor.class)
+                .getPersistenceContext()
+                .getNumberOfManagedEntities();
+    }
+
+    private Category persistCategoryWithBooks(String name, int numberOfBooks) {
+        Category category = categoryRepository.save(new Category().setName(name));
+        for (int i = 0; i < numberOfBooks; i++) {
+            testEntityManager.persist(new Book()
+                    .setTitle(name + " book " + i)
+                    .setAuthor("Author " + i)
+                    .setIsbn(name + "-" + i)
+                    .setPrice(BigDecimal.TEN)
+                    .setCategories(new HashSet<>(Set.of(category))));
+        }
+        testEntityManager.flush();
+        return category;
     }
 }
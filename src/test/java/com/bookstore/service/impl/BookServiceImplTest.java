@@ -3,52 +3,102 @@ package com.bookstore.service.impl;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
 
+import com.bookstore.cache.BookSearchCache;
+import com.bookstore.cache.CategoryCatalog;
+import com.bookstore.dto.book.BookCursorPageDto;
 import com.bookstore.dto.book.BookDto;
 import com.bookstore.dto.book.BookDtoWithoutCategoryIds;
+import com.bookstore.dto.book.BookFields;
+import com.bookstore.dto.book.BookPriceUpdateRequestDto;
+import com.bookstore.dto.book.BookPriceUpdateResultDto;
 import com.bookstore.dto.book.BookSearchParametersDto;
+import com.bookstore.dto.book.BookSearchResultDto;
 import com.bookstore.dto.book.CreateBookRequestDto;
+import com.bookstore.dto.book.FacetCountDto;
+import com.bookstore.event.BookSavedEvent;
+import com.bookstore.event.BooksUpdatedEvent;
+import com.bookstore.exception.BookNotFoundException;
+import com.bookstore.exception.CategoryNotFoundException;
+import com.bookstore.exception.DuplicateIsbnException;
 import com.bookstore.exception.EntityNotFoundException;
+import com.bookstore.exception.InvalidParameterException;
+import com.bookstore.index.BookFacetIndex;
+import com.bookstore.index.BookIndexManager;
+import com.bookstore.index.BookSortIndex;
+import com.bookstore.index.BookTextIndex;
+import com.bookstore.index.CategoryBitmapIndex;
+import com.bookstore.index.FacetCounts;
+import com.bookstore.index.LiveBookIdIndex;
 import com.bookstore.mapper.BookMapper;
 import com.bookstore.model.Book;
 import com.bookstore.model.Category;
+import com.bookstore.repository.book.BookKeyset;
 import com.bookstore.repository.book.BookRepository;
 import com.bookstore.repository.book.BookSpecificationBuilder;
 import com.bookstore.repository.category.CategoryRepository;
 import java.math.BigDecimal;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Collectors;
+import java.util.stream.LongStream;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
+import org.roaringbitmap.longlong.Roaring64NavigableMap;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
 
 @ExtendWith(MockitoExtension.class)
 class BookServiceImplTest {
     @Mock
     private BookRepository bookRepository;
     @Mock
+    private CategoryCatalog categoryCatalog;
+    @Mock
     private CategoryRepository categoryRepository;
     @Mock
     private BookMapper bookMapper;
     @Mock
     private BookSpecificationBuilder bookSpecificationBuilder;
+    @Mock
+    private BookIndexManager bookIndexManager;
+    @Mock
+    private BookTextIndex bookTextIndex;
+    @Mock
+    private CategoryBitmapIndex categoryBitmapIndex;
+    @Mock
+    private BookFacetIndex bookFacetIndex;
+    @Mock
+    private BookSortIndex bookSortIndex;
+    @Mock
+    private LiveBookIdIndex liveBookIdIndex;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+    @Mock
+    private BookSearchCache bookSearchCache;
+    @Mock
+    private TransactionTemplate transactionTemplate;
     @InjectMocks
     private BookServiceImpl bookService;
 
@@ -73,10 +123,79 @@ class BookServiceImplTest {
         assertThat(savedBookDto).isEqualTo(bookDto);
         verify(bookMapper, times(1)).toBookModel(requestDto);
         verify(bookRepository, times(1)).save(book);
+        verify(eventPublisher, times(1)).publishEvent(any(BookSavedEvent.class));
         verify(bookMapper, times(1)).toDto(book);
         verifyNoMoreInteractions(bookRepository, bookMapper);
     }
 
+    @Test
+    @DisplayName("Verify createBook() loads categories the catalog doesn't know yet from the DB")
+    public void createBook_CategoryMissingFromCatalog_LoadsCategoryFromDb() {
+        //Given
+        CreateBookRequestDto requestDto = getCreateBookRequestDto()
+                .setCategoryIds(new HashSet<>(List.of(5L)));
+        Book book = getBookByCreateDto(requestDto);
+        Category category = new Category().setId(5L);
+
+        when(categoryRepository.findAllById(Set.of(5L))).thenReturn(List.of(category));
+        when(bookMapper.toBookModel(requestDto)).thenReturn(book);
+        when(bookRepository.save(book)).thenReturn(book);
+
+        //When
+        bookService.createBook(requestDto);
+
+        //Then
+        assertEquals(Set.of(category), book.getCategories());
+    }
+
+    @Test
+    @DisplayName("Verify createBook() rejects categories missing from the catalog and the DB")
+    public void createBook_UnknownCategory_ThrowsCategoryNotFoundException() {
+        //Given
+        CreateBookRequestDto requestDto = getCreateBookRequestDto()
+                .setCategoryIds(new HashSet<>(List.of(5L)));
+
+        //When
+        assertThrows(CategoryNotFoundException.class, () -> bookService.createBook(requestDto));
+
+        //Then
+        verifyNoMoreInteractions(bookRepository, eventPublisher);
+    }
+
+    @Test
+    @DisplayName("Verify updateBook() rejects an ISBN another book has as its ISBN-13")
+    public void updateBook_IsbnOfAnotherBook_ThrowsDuplicateIsbnException() {
+        //Given
+        CreateBookRequestDto requestDto = getCreateBookRequestDto().setIsbn("1-4619-1234-2");
+
+        when(bookRepository.findById(1L)).thenReturn(Optional.of(getBook()));
+        when(bookRepository.findIdsByIsbn13("9781461912347")).thenReturn(List.of(1L, 2L));
+
+        //When
+        assertThrows(DuplicateIsbnException.class,
+                () -> bookService.updateBook(1L, requestDto));
+
+        //Then
+        verify(bookRepository, never()).saveAndFlush(any());
+        verifyNoMoreInteractions(eventPublisher);
+    }
+
+    @Test
+    @DisplayName("Verify updateBook() reports a missing book before a taken ISBN")
+    public void updateBook_MissingBookWithTakenIsbn_ThrowsEntityNotFoundException() {
+        //Given
+        CreateBookRequestDto requestDto = getCreateBookRequestDto().setIsbn("1-4619-1234-2");
+
+        when(bookRepository.findById(1L)).thenReturn(Optional.empty());
+
+        //When
+        assertThrows(EntityNotFoundException.class,
+                () -> bookService.updateBook(1L, requestDto));
+
+        //Then
+        verify(bookRepository, never()).findIdsByIsbn13(any());
+    }
+
     @Test
     @DisplayName("Verify getAll() method works")
     public void getAll_ValidPageable_ReturnsAllBooks() {
@@ -86,24 +205,53 @@ class BookServiceImplTest {
         BookDto bookDto = getBookDtoByBook(book);
 
         Pageable pageable = PageRequest.of(0,10);
-        List<Book> books = List.of(book);
-        Page<Book> bookPage = new PageImpl<>(books, pageable, books.size());
+        Pageable pageableWithTiebreaker = PageRequest.of(0, 10, Sort.by("id"));
 
-        when(bookRepository.findAll(pageable)).thenReturn(bookPage);
-        when(bookMapper.toDto(book)).thenReturn(bookDto);
+        when(bookRepository.findDtos(null, pageableWithTiebreaker, BookFields.ALL))
+                .thenReturn(List.of(bookDto));
 
         //When
-        List<BookDto> bookDtos = bookService.getAll(pageable);
+        List<BookDto> bookDtos = bookService.getAll(pageable, BookFields.ALL);
 
         //Then
         assertThat(bookDtos).hasSize(1);
         assertThat(bookDtos.get(0)).isEqualTo(bookDto);
 
-        verify(bookRepository, times(1)).findAll(pageable);
-        verify(bookMapper, times(1)).toDto(book);
+        verify(bookRepository, times(1)).findDtos(null, pageableWithTiebreaker, BookFields.ALL);
         verifyNoMoreInteractions(bookRepository, bookMapper);
     }
 
+    @Test
+    @DisplayName("Verify getAllAfter() returns a slice and a next cursor when more books remain")
+    public void getAllAfter_MoreBooksThanSize_ReturnsSliceWithNextCursor() {
+        //Given
+        Book book = getBook();
+        BookDto bookDto = getBookDtoByBook(book);
+        BookKeyset first = BookKeyset.first(Sort.unsorted());
+
+        when(bookRepository.findKeysets(any(BookKeyset.class), eq(2)))
+                .thenReturn(List.of(first.after(book.getId(), null), first.after(2L, null)));
+        when(bookRepository.findDtosByIdIn(List.of(book.getId()), BookFields.ALL))
+                .thenReturn(List.of(bookDto));
+
+        //When
+        BookCursorPageDto actual = bookService.getAllAfter("", 1, Sort.unsorted(), BookFields.ALL);
+
+        //Then
+        assertEquals(List.of(bookDto), actual.getContent());
+        assertEquals(book.getId(), BookKeyset.decode(actual.getNextCursor()).getLastId());
+        verify(bookRepository, times(1)).findDtosByIdIn(List.of(book.getId()), BookFields.ALL);
+    }
+
+    @Test
+    @DisplayName("Verify the InvalidParameterException was thrown when cursor is malformed")
+    public void getAllAfter_MalformedCursor_ThrowsInvalidParameterException() {
+        assertThrows(InvalidParameterException.class,
+                () -> bookService.getAllAfter("not-a-cursor", 10, Sort.unsorted(),
+                        BookFields.ALL));
+        verifyNoMoreInteractions(bookRepository);
+    }
+
     @Test
     @DisplayName("Verify getBookById() method works")
     public void getBookById_ValidId_ReturnsValidBookDto() {
@@ -148,6 +296,43 @@ class BookServiceImplTest {
         verifyNoMoreInteractions(bookRepository);
     }
 
+    @Test
+    @DisplayName("Verify getBookById() confirms a live id index miss in the DB")
+    public void getBookById_MissingFromIndex_ConfirmsInDb() {
+        //Given
+        Book book = getBook();
+        BookDto expected = getBookDtoByBook(book);
+
+        when(liveBookIdIndex.isAbsent(book.getId())).thenReturn(true);
+        when(bookRepository.findIdsByIdIn(Set.of(book.getId())))
+                .thenReturn(List.of(book.getId()));
+        when(bookRepository.findById(book.getId())).thenReturn(Optional.of(book));
+        when(bookMapper.toDto(book)).thenReturn(expected);
+
+        //When
+        BookDto actual = bookService.getBookById(book.getId());
+
+        //Then
+        assertEquals(expected, actual);
+        verify(liveBookIdIndex, times(1)).add(book.getId());
+    }
+
+    @Test
+    @DisplayName("Verify getBookById() throws when a live id index miss isn't in the DB")
+    public void getBookById_AbsentFromIndexAndDb_ThrowsBookNotFoundException() {
+        //Given
+        Long bookId = 2L;
+
+        when(liveBookIdIndex.isAbsent(bookId)).thenReturn(true);
+        when(bookRepository.findIdsByIdIn(Set.of(bookId))).thenReturn(List.of());
+
+        //When
+        assertThrows(BookNotFoundException.class, () -> bookService.getBookById(bookId));
+
+        //Then
+        verify(bookRepository, never()).findById(bookId);
+    }
+
     @Test
     @DisplayName("Verify updateBook() method works")
     public void updateBook_ValidBookId_ReturnsValidBookDto() {
@@ -159,7 +344,7 @@ class BookServiceImplTest {
         BookDto expected = getBookDtoByBook(book);
 
         when(bookRepository.findById(anyLong())).thenReturn(Optional.of(book));
-        when(bookRepository.save(book)).thenReturn(book);
+        when(bookRepository.saveAndFlush(book)).thenReturn(book);
         when(bookMapper.toDto(book)).thenReturn(expected);
 
         //When
@@ -168,7 +353,7 @@ class BookServiceImplTest {
         //Then
         assertEquals(expected, actual);
         verify(bookRepository, times(1)).findById(anyLong());
-        verify(bookRepository, times(1)).save(book);
+        verify(bookRepository, times(1)).saveAndFlush(book);
         verify(bookMapper, times(1)).toDto(book);
         verifyNoMoreInteractions(bookRepository, bookMapper);
     }
@@ -243,31 +428,146 @@ class BookServiceImplTest {
         String[] parameters = new String[0];
         Specification<Book> specification = Specification.where(null);
         BookSearchParametersDto bookSearchParametersDto =
-                new BookSearchParametersDto(parameters, parameters, parameters, parameters);
+                new BookSearchParametersDto(parameters, parameters, parameters, parameters,
+                        null, null, null, null);
 
         Book book = getBook();
-        List<Book> books = List.of(book);
         BookDto bookDto = getBookDtoByBook(book);
         List<BookDto> expected = List.of(bookDto);
 
         Pageable pageable = PageRequest.of(0, 10);
-        Page<Book> bookPage = new PageImpl<>(books, pageable, books.size());
+        Pageable pageableWithTiebreaker = PageRequest.of(0, 10, Sort.by("id"));
 
         when(bookSpecificationBuilder.build(bookSearchParametersDto)).thenReturn(specification);
-        when(bookRepository.findAll(specification, pageable)).thenReturn(bookPage);
-        when(bookMapper.toDto(book)).thenReturn(bookDto);
+        when(bookRepository.findDtos(specification, pageableWithTiebreaker,
+                BookFields.ALL)).thenReturn(expected);
 
         //When
-        List<BookDto> actual = bookService.searchBooks(bookSearchParametersDto, pageable);
+        List<BookDto> actual = bookService.searchBooks(bookSearchParametersDto, pageable,
+                BookFields.ALL);
 
         //Then
         assertThat(actual).isEqualTo(expected);
         verify(bookSpecificationBuilder, times(1)).build(bookSearchParametersDto);
-        verify(bookRepository, times(1)).findAll(specification, pageable);
-        verify(bookMapper, times(1)).toDto(book);
+        verify(bookRepository, times(1)).findDtos(specification, pageableWithTiebreaker,
+                BookFields.ALL);
         verifyNoMoreInteractions(bookSpecificationBuilder, bookRepository, bookMapper);
     }
 
+    @Test
+    @DisplayName("Verify searchBooks() ranks text matches with the text index")
+    void searchBooks_TitleParameter_ReturnsBooksRankedByScore() {
+        //Given
+        String[] titles = {"test"};
+        BookSearchParametersDto searchParameters =
+                new BookSearchParametersDto(titles, null, null, null, null, null, null,
+                        null);
+        Book book = getBook();
+        Book betterBook = getBook().setId(2L);
+        BookDto bookDto = getBookDtoByBook(book);
+        BookDto betterBookDto = getBookDtoByBook(betterBook);
+
+        when(bookIndexManager.isReady()).thenReturn(true);
+        when(bookTextIndex.search(titles, null, null))
+                .thenReturn(new HashMap<>(Map.of(1L, 1.5, 2L, 3.0)));
+        when(bookRepository.findDtosByIdIn(List.of(2L, 1L), BookFields.ALL))
+                .thenReturn(List.of(bookDto, betterBookDto));
+
+        //When
+        List<BookDto> actual = bookService.searchBooks(searchParameters, PageRequest.of(0, 10),
+                BookFields.ALL);
+
+        //Then
+        assertEquals(List.of(betterBookDto, bookDto), actual);
+    }
+
+    @Test
+    @DisplayName("Verify searchBooks() pages category matches from the category bitmaps")
+    void searchBooks_AllCategories_ReturnsRequestedPageOfBitmapMatches() {
+        //Given
+        Long[] categoryIds = {1L, 2L};
+        BookSearchParametersDto searchParameters = new BookSearchParametersDto(
+                null, null, null, null, null, categoryIds, "all", null);
+        Roaring64NavigableMap matches = Roaring64NavigableMap.bitmapOf(3L, 5L, 8L);
+        Book book = getBook().setId(5L);
+        BookDto bookDto = getBookDtoByBook(book);
+
+        when(bookIndexManager.isReady()).thenReturn(true);
+        when(categoryBitmapIndex.match(List.of(categoryIds), true)).thenReturn(matches);
+        when(bookRepository.findDtosByIdIn(List.of(5L), BookFields.ALL))
+                .thenReturn(List.of(bookDto));
+
+        //When
+        List<BookDto> actual = bookService.searchBooks(searchParameters, PageRequest.of(1, 1),
+                BookFields.ALL);
+
+        //Then
+        assertEquals(List.of(bookDto), actual);
+        verifyNoMoreInteractions(bookSpecificationBuilder, bookTextIndex);
+    }
+
+    @Test
+    @DisplayName("Verify searchBooks() sorts many matches from the sort index, not the catalog")
+    void searchBooks_SortedByTitle_PagesFromSortIndex() {
+        //Given
+        Long[] categoryIds = {1L};
+        final BookSearchParametersDto searchParameters = new BookSearchParametersDto(
+                null, null, null, null, null, categoryIds, null, null);
+        Roaring64NavigableMap matches = new Roaring64NavigableMap();
+        matches.add(1L, 5_001L);
+        Book book = getBook().setId(7L);
+        BookDto bookDto = getBookDtoByBook(book);
+
+        when(bookIndexManager.isReady()).thenReturn(true);
+        when(categoryBitmapIndex.match(List.of(categoryIds), false)).thenReturn(matches);
+        when(bookSortIndex.sortedPage(BookSortIndex.TITLE, matches, false, 20, 10))
+                .thenReturn(List.of(7L));
+        when(bookRepository.findDtosByIdIn(List.of(7L), BookFields.ALL))
+                .thenReturn(List.of(bookDto));
+
+        //When
+        List<BookDto> actual = bookService.searchBooks(searchParameters,
+                PageRequest.of(2, 10, Sort.by(Sort.Direction.DESC, "title")), BookFields.ALL);
+
+        //Then
+        assertEquals(List.of(bookDto), actual);
+        verify(bookRepository, never()).findIds(any(), any(Pageable.class));
+    }
+
+    @Test
+    @DisplayName("Verify searchBooksWithFacets() counts facets over all category matches")
+    void searchBooksWithFacets_CategoryFacet_CountsAllMatches() {
+        //Given
+        Long[] categoryIds = {1L};
+        BookSearchParametersDto searchParameters = new BookSearchParametersDto(
+                null, null, null, null, null, categoryIds, null, null);
+        Roaring64NavigableMap matches = Roaring64NavigableMap.bitmapOf(3L, 5L);
+        FacetCounts counts = new FacetCounts(Map.of(1L, 2L), Map.of("0-10", 2L));
+
+        when(bookIndexManager.isReady()).thenReturn(true);
+        when(categoryBitmapIndex.match(List.of(categoryIds), false)).thenReturn(matches);
+        when(bookFacetIndex.count(matches)).thenReturn(counts);
+
+        //When
+        BookSearchResultDto actual = bookService.searchBooksWithFacets(searchParameters,
+                Set.of("category"), PageRequest.of(5, 10));
+
+        //Then
+        assertEquals(List.of(), actual.getContent());
+        assertEquals(Map.of("category", List.of(new FacetCountDto().setValue("1").setCount(2))),
+                actual.getFacets());
+    }
+
+    @Test
+    @DisplayName("Verify searchBooksWithFacets() rejects unknown facets")
+    void searchBooksWithFacets_UnknownFacet_ThrowsInvalidParameterException() {
+        BookSearchParametersDto searchParameters = new BookSearchParametersDto(
+                null, null, null, null, null, null, null, null);
+
+        assertThrows(InvalidParameterException.class, () -> bookService.searchBooksWithFacets(
+                searchParameters, Set.of("author"), PageRequest.of(0, 10)));
+    }
+
     @Test
     @DisplayName("Verify findAllByCategoryId() method works")
     public void findAllByCategoryId_ValidCategoryId_ReturnsValidBookDtosWithoutCategoryIds() {
@@ -281,13 +581,16 @@ class BookServiceImplTest {
                 getBookDtoByBookWithoutCategoryIds(book);
 
         Pageable pageable = PageRequest.of(0, 10);
-        List<Book> books = List.of(book);
         List<BookDtoWithoutCategoryIds> bookDtoWithoutCategoryIdsList =
                 List.of(bookDtoWithoutCategoryIds);
 
-        when(categoryRepository.findById(anyLong())).thenReturn(Optional.of(category));
-        when(bookRepository.findAllByCategoryId(anyLong(), eq(pageable))).thenReturn(books);
-        when(bookMapper.toDtoWithoutCategories(book)).thenReturn(bookDtoWithoutCategoryIds);
+        Pageable pageableWithTiebreaker = PageRequest.of(0, 10, Sort.by("id"));
+
+        when(categoryCatalog.findById(anyLong())).thenReturn(Optional.of(category));
+        when(bookRepository.findIdsByCategoryId(anyLong(), eq(pageableWithTiebreaker)))
+                .thenReturn(List.of(book.getId()));
+        when(bookRepository.findDtosWithoutCategoryIdsByIdIn(List.of(book.getId())))
+                .thenReturn(bookDtoWithoutCategoryIdsList);
 
         // When
         List<BookDtoWithoutCategoryIds> actual =
@@ -296,10 +599,96 @@ class BookServiceImplTest {
         // Then
         List<BookDtoWithoutCategoryIds> expected = List.copyOf(bookDtoWithoutCategoryIdsList);
         assertEquals(expected, actual);
-        verify(categoryRepository, times(1)).findById(anyLong());
-        verify(bookRepository, times(1)).findAllByCategoryId(anyLong(), eq(pageable));
-        verify(bookMapper, times(1)).toDtoWithoutCategories(book);
-        verifyNoMoreInteractions(categoryRepository, bookRepository, bookMapper);
+        verify(categoryCatalog, times(1)).findById(anyLong());
+        verify(bookRepository, times(1))
+                .findIdsByCategoryId(anyLong(), eq(pageableWithTiebreaker));
+        verify(bookRepository, times(1))
+                .findDtosWithoutCategoryIdsByIdIn(List.of(book.getId()));
+        verifyNoMoreInteractions(categoryCatalog, bookRepository, bookMapper);
+    }
+
+    @Test
+    @DisplayName("Verify updatePrices() reprices the books search matches chunk by chunk")
+    public void updatePrices_IndexesReady_UpdatesSearchMatchesInChunks() {
+        //Given
+        Long[] categoryIds = {1L};
+        final BookSearchParametersDto searchParameters = new BookSearchParametersDto(
+                null, null, null, null, null, categoryIds, null, null);
+        Roaring64NavigableMap matches = new Roaring64NavigableMap();
+        matches.add(1L, 1_501L);
+        List<Long> firstChunk = LongStream.rangeClosed(1, 1000).boxed().toList();
+        List<Long> secondChunk = LongStream.rangeClosed(1001, 1500).boxed().toList();
+        BookPriceUpdateRequestDto requestDto = new BookPriceUpdateRequestDto()
+                .setType(BookPriceUpdateRequestDto.Type.ABSOLUTE)
+                .setValue(BigDecimal.ONE);
+
+        when(bookIndexManager.isReady()).thenReturn(true);
+        when(categoryBitmapIndex.match(List.of(categoryIds), false)).thenReturn(matches);
+        when(transactionTemplate.execute(any())).thenAnswer(invocation -> invocation
+                .<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        when(bookRepository.updatePrices(firstChunk, BigDecimal.ONE, BigDecimal.ONE))
+                .thenReturn(1000);
+        when(bookRepository.updatePrices(secondChunk, BigDecimal.ONE, BigDecimal.ONE))
+                .thenReturn(500);
+
+        //When
+        BookPriceUpdateResultDto actual = bookService.updatePrices(searchParameters, requestDto);
+
+        //Then
+        assertEquals(1500, actual.getUpdated());
+        verify(eventPublisher, times(1)).publishEvent(new BooksUpdatedEvent(firstChunk));
+        verify(eventPublisher, times(1)).publishEvent(new BooksUpdatedEvent(secondChunk));
+        verifyNoMoreInteractions(bookSpecificationBuilder);
+    }
+
+    @Test
+    @DisplayName("Verify updatePrices() updates matching books chunk by chunk")
+    public void updatePrices_PercentageChange_UpdatesEveryChunkAndPublishesOneEvent() {
+        //Given
+        BookSearchParametersDto searchParameters = new BookSearchParametersDto(
+                null, new String[]{"Author"}, null, null, null, null, null, null);
+        Specification<Book> bookSpecification = (root, query, criteriaBuilder) -> null;
+        Pageable chunk = PageRequest.of(0, 1000, Sort.by("id"));
+        BookPriceUpdateRequestDto requestDto = new BookPriceUpdateRequestDto()
+                .setType(BookPriceUpdateRequestDto.Type.PERCENTAGE)
+                .setValue(BigDecimal.TEN);
+        BigDecimal factor = new BigDecimal("1.10");
+
+        when(bookSpecificationBuilder.build(searchParameters)).thenReturn(bookSpecification);
+        when(transactionTemplate.execute(any())).thenAnswer(invocation -> invocation
+                .<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        when(bookRepository.findIds(any(Specification.class), eq(chunk)))
+                .thenReturn(List.of(1L, 2L), List.of(5L), List.of());
+        when(bookRepository.updatePrices(List.of(1L, 2L), factor, BigDecimal.ZERO))
+                .thenReturn(2);
+        when(bookRepository.updatePrices(List.of(5L), factor, BigDecimal.ZERO)).thenReturn(1);
+
+        //When
+        BookPriceUpdateResultDto actual = bookService.updatePrices(searchParameters, requestDto);
+
+        //Then
+        assertEquals(3, actual.getUpdated());
+        verify(eventPublisher, times(1)).publishEvent(new BooksUpdatedEvent(List.of(1L, 2L)));
+        verify(eventPublisher, times(1)).publishEvent(new BooksUpdatedEvent(List.of(5L)));
+        verifyNoMoreInteractions(eventPublisher);
+    }
+
+    @Test
+    @DisplayName("Verify updatePrices() refuses to reprice the whole catalog without a filter")
+    public void updatePrices_NoFilter_ThrowsInvalidParameterException() {
+        //Given
+        BookSearchParametersDto searchParameters = new BookSearchParametersDto(
+                null, null, null, null, null, null, null, null);
+        BookPriceUpdateRequestDto requestDto = new BookPriceUpdateRequestDto()
+                .setType(BookPriceUpdateRequestDto.Type.ABSOLUTE)
+                .setValue(BigDecimal.ONE);
+
+        //When
+        assertThrows(InvalidParameterException.class,
+                () -> bookService.updatePrices(searchParameters, requestDto));
+
+        //Then
+        verifyNoMoreInteractions(bookRepository, eventPublisher);
     }
 
     @Test
@@ -310,7 +699,7 @@ class BookServiceImplTest {
 
         Pageable pageable = PageRequest.of(0,10);
 
-        when(categoryRepository.findById(categoryId)).thenReturn(Optional.empty());
+        when(categoryCatalog.findById(categoryId)).thenReturn(Optional.empty());
 
         //When
         EntityNotFoundException exception = assertThrows(EntityNotFoundException.class,
@@ -322,8 +711,8 @@ class BookServiceImplTest {
 
         assertEquals(EntityNotFoundException.class, exception.getClass());
         assertThat(actual).isEqualTo(expected);
-        verify(categoryRepository, times(1)).findById(categoryId);
-        verifyNoMoreInteractions(categoryRepository);
+        verify(categoryCatalog, times(1)).findById(categoryId);
+        verifyNoMoreInteractions(categoryCatalog);
     }
 
     private BookDtoWithoutCategoryIds getBookDtoByBookWithoutCategoryIds(Book book) {
@@ -3,37 +3,57 @@ package com.bookstore.service.impl;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
 
+import com.bookstore.cache.CategoryCatalog;
+import com.bookstore.cache.CategoryTree;
 import com.bookstore.dto.category.CategoryDto;
+import com.bookstore.dto.category.CategoryNodeDto;
+import com.bookstore.event.BooksUpdatedEvent;
+import com.bookstore.event.CategoryDeletedEvent;
 import com.bookstore.exception.DataBaseConflictException;
 import com.bookstore.exception.EntityNotFoundException;
+import com.bookstore.exception.InvalidParameterException;
+import com.bookstore.index.BookIndexManager;
+import com.bookstore.index.CategoryBitmapIndex;
 import com.bookstore.mapper.CategoryMapper;
 import com.bookstore.model.Category;
 import com.bookstore.repository.category.CategoryRepository;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 
 @ExtendWith(MockitoExtension.class)
 class CategoryServiceImplTest {
     @Mock
     private CategoryRepository categoryRepository;
     @Mock
+    private CategoryCatalog categoryCatalog;
+    @Mock
     private CategoryMapper categoryMapper;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+    @Mock
+    private BookIndexManager bookIndexManager;
+    @Mock
+    private CategoryBitmapIndex categoryBitmapIndex;
     @InjectMocks
     private CategoryServiceImpl categoryService;
 
@@ -49,9 +69,7 @@ class CategoryServiceImplTest {
         CategoryDto categoryDto = getCategoryDtoFromCategory(category);
         List<CategoryDto> expected = List.of(categoryDto);
 
-        Page<Category> categoryPage = new PageImpl<>(categories, pageable, categories.size());
-
-        when(categoryRepository.findAll(pageable)).thenReturn(categoryPage);
+        when(categoryCatalog.findAll()).thenReturn(categories);
         when(categoryMapper.toDto(category)).thenReturn(categoryDto);
 
         //When
@@ -61,9 +79,41 @@ class CategoryServiceImplTest {
         assertEquals(expected.size(), actual.size());
         assertThat(actual.get(0)).isEqualTo(categoryDto);
 
-        verify(categoryRepository, times(1)).findAll(pageable);
+        verify(categoryCatalog, times(1)).findAll();
         verify(categoryMapper, times(1)).toDto(category);
-        verifyNoMoreInteractions(categoryRepository, categoryMapper);
+        verifyNoMoreInteractions(categoryCatalog, categoryMapper);
+    }
+
+    @Test
+    @DisplayName("Verify findAll() sorts and pages the catalog snapshot")
+    void findAll_SortedSecondPage_ReturnsSortedSlice() {
+        //Given
+        Pageable pageable = PageRequest.of(1, 1, Sort.by(Sort.Direction.DESC, "name"));
+        Category fantasy = getCategory().setId(1L).setName("Fantasy");
+        Category history = getCategory().setId(2L).setName("History");
+        Category science = getCategory().setId(3L).setName("Science");
+        CategoryDto expected = getCategoryDtoFromCategory(history);
+
+        when(categoryCatalog.findAll()).thenReturn(List.of(fantasy, history, science));
+        when(categoryMapper.toDto(history)).thenReturn(expected);
+
+        //When
+        List<CategoryDto> actual = categoryService.findAll(pageable);
+
+        //Then
+        assertEquals(List.of(expected), actual);
+        verifyNoMoreInteractions(categoryRepository);
+    }
+
+    @Test
+    @DisplayName("Verify findAll() rejects sorting by an unknown property")
+    void findAll_UnknownSortProperty_ThrowsInvalidParameterException() {
+        //Given
+        Pageable pageable = PageRequest.of(0, 10, Sort.by("version"));
+        when(categoryCatalog.findAll()).thenReturn(List.of(getCategory(), getCategory()));
+
+        //When
+        assertThrows(InvalidParameterException.class, () -> categoryService.findAll(pageable));
     }
 
     @Test
@@ -74,7 +124,7 @@ class CategoryServiceImplTest {
 
         CategoryDto expected = getCategoryDtoFromCategory(category);
 
-        when(categoryRepository.findById(anyLong())).thenReturn(Optional.of(category));
+        when(categoryCatalog.findById(anyLong())).thenReturn(Optional.of(category));
         when(categoryMapper.toDto(category)).thenReturn(expected);
 
         //When
@@ -83,9 +133,9 @@ class CategoryServiceImplTest {
         //Then
         assertEquals(expected, actual);
 
-        verify(categoryRepository, times(1)).findById(anyLong());
+        verify(categoryCatalog, times(1)).findById(anyLong());
         verify(categoryMapper, times(1)).toDto(category);
-        verifyNoMoreInteractions(categoryRepository, categoryMapper);
+        verifyNoMoreInteractions(categoryCatalog, categoryMapper);
     }
 
     @Test
@@ -95,7 +145,7 @@ class CategoryServiceImplTest {
         Long categoryId = -1L;
         String expected = "Can't find a category in DB by id: " + categoryId;
 
-        when(categoryRepository.findById(categoryId)).thenReturn(Optional.empty());
+        when(categoryCatalog.findById(categoryId)).thenReturn(Optional.empty());
 
         //When
         EntityNotFoundException exception = assertThrows(EntityNotFoundException.class,
@@ -105,8 +155,8 @@ class CategoryServiceImplTest {
         String actual = exception.getMessage();
         assertEquals(EntityNotFoundException.class, exception.getClass());
         assertEquals(expected, actual);
-        verify(categoryRepository, times(1)).findById(categoryId);
-        verifyNoMoreInteractions(categoryRepository);
+        verify(categoryCatalog, times(1)).findById(categoryId);
+        verifyNoMoreInteractions(categoryCatalog);
     }
 
     @Test
@@ -127,7 +177,7 @@ class CategoryServiceImplTest {
 
         //Then
         assertEquals(expected, actual);
-        verify(categoryRepository, times(1)).findCategoryByName(requestDto.getName());
+        verify(categoryCatalog, times(1)).findByName(requestDto.getName());
         verify(categoryMapper, times(1)).toEntity(requestDto);
         verify(categoryRepository, times(1)).save(category);
         verify(categoryMapper, times(1)).toDto(category);
@@ -141,7 +191,7 @@ class CategoryServiceImplTest {
 
         String expected = "Category with name -" + requestDto.getName() + "- already exists.";
 
-        when(categoryRepository.findCategoryByName(requestDto.getName()))
+        when(categoryCatalog.findByName(requestDto.getName()))
                 .thenReturn(Optional.of(new Category()));
 
         //When
@@ -153,8 +203,8 @@ class CategoryServiceImplTest {
 
         assertEquals(DataBaseConflictException.class, exception.getClass());
         assertEquals(expected, actual);
-        verify(categoryRepository, times(1)).findCategoryByName(requestDto.getName());
-        verifyNoMoreInteractions(categoryRepository);
+        verify(categoryCatalog, times(1)).findByName(requestDto.getName());
+        verifyNoMoreInteractions(categoryCatalog, categoryRepository);
     }
 
     @Test
@@ -168,7 +218,7 @@ class CategoryServiceImplTest {
         CategoryDto expected = getCategoryDtoFromCategory(category);
 
         when(categoryRepository.findById(anyLong())).thenReturn(Optional.of(category));
-        when(categoryRepository.save(category)).thenReturn(category);
+        when(categoryRepository.saveAndFlush(category)).thenReturn(category);
         when(categoryMapper.toDto(category)).thenReturn(expected);
 
         //When
@@ -177,7 +227,7 @@ class CategoryServiceImplTest {
         //Then
         assertEquals(expected, actual);
         verify(categoryRepository, times(1)).findById(anyLong());
-        verify(categoryRepository, times(1)).save(category);
+        verify(categoryRepository, times(1)).saveAndFlush(category);
         verify(categoryMapper, times(1)).toDto(category);
         verifyNoMoreInteractions(categoryRepository, categoryMapper);
     }
@@ -213,6 +263,8 @@ class CategoryServiceImplTest {
         Long categoryId = 1L;
 
         when(categoryRepository.findById(categoryId)).thenReturn(Optional.of(new Category()));
+        when(categoryRepository.existsByParentId(categoryId)).thenReturn(false);
+        when(categoryRepository.findBookIds(categoryId)).thenReturn(List.of(4L, 7L));
 
         //When
         categoryService.deleteById(categoryId);
@@ -220,9 +272,32 @@ class CategoryServiceImplTest {
         //Then
         verify(categoryRepository, times(1)).findById(categoryId);
         verify(categoryRepository, times(1)).deleteById(categoryId);
+        verify(eventPublisher, times(1)).publishEvent(new CategoryDeletedEvent(categoryId));
+        verify(eventPublisher, times(1)).publishEvent(new BooksUpdatedEvent(List.of(4L, 7L)));
+        verify(categoryRepository, times(1)).existsByParentId(categoryId);
+        verify(categoryRepository, times(1)).findBookIds(categoryId);
+        verify(categoryRepository, times(1)).touchBooks(categoryId);
         verifyNoMoreInteractions(categoryRepository);
     }
 
+    @Test
+    @DisplayName("Verify deleteById() refuses a category with subcategories in the DB")
+    void deleteById_WithSubcategories_ThrowsDataBaseConflictException() {
+        //Given
+        Long categoryId = 1L;
+
+        when(categoryRepository.findById(categoryId)).thenReturn(Optional.of(new Category()));
+        when(categoryRepository.existsByParentId(categoryId)).thenReturn(true);
+
+        //When
+        assertThrows(DataBaseConflictException.class,
+                () -> categoryService.deleteById(categoryId));
+
+        //Then
+        verify(categoryRepository, never()).deleteById(categoryId);
+        verifyNoMoreInteractions(eventPublisher);
+    }
+
     @Test
     @DisplayName("Verify deleteById() method throws EntityNotFoundException with invalid id")
     void deleteById_InvalidId_ThrowsEntityNotFoundException() {
@@ -246,6 +321,69 @@ class CategoryServiceImplTest {
         verifyNoMoreInteractions(categoryRepository);
     }
 
+    @Test
+    @DisplayName("Verify findChildren() returns children with their subtree book counts")
+    void findChildren_ValidParentId_ReturnsNodesWithCounts() {
+        //Given
+        Category parent = getCategory();
+        Category child = getCategory().setId(2L).setName("Child").setParentId(1L);
+        Category grandchild = getCategory().setId(3L).setName("Grandchild").setParentId(2L);
+        CategoryNodeDto childNode = new CategoryNodeDto().setId(2L).setName("Child");
+
+        when(categoryCatalog.tree()).thenReturn(
+                CategoryTree.of(List.of(parent, child, grandchild)));
+        when(categoryCatalog.findByIdIn(List.of(2L))).thenReturn(Set.of(child));
+        when(bookIndexManager.isReady()).thenReturn(true);
+        when(categoryBitmapIndex.countSubtrees(List.of(2L))).thenReturn(Map.of(2L, 5L));
+        when(categoryMapper.toNodeDto(child)).thenReturn(childNode);
+
+        //When
+        List<CategoryNodeDto> actual = categoryService.findChildren(1L);
+
+        //Then
+        assertEquals(List.of(new CategoryNodeDto().setId(2L).setName("Child")
+                .setChildCount(1).setBookCount(5L)), actual);
+        verifyNoMoreInteractions(categoryRepository);
+    }
+
+    @Test
+    @DisplayName("Verify update() without a parentId keeps the category under its parent")
+    void update_NoParentId_KeepsParent() {
+        //Given
+        Category category = getCategory().setId(2L).setParentId(1L);
+        CategoryDto requestDto = getCategoryRequestDto();
+
+        when(categoryRepository.findById(2L)).thenReturn(Optional.of(category));
+        when(categoryRepository.saveAndFlush(category)).thenReturn(category);
+
+        //When
+        categoryService.update(2L, requestDto);
+
+        //Then
+        assertEquals(1L, category.getParentId());
+        verify(categoryRepository, never()).updateDescendantPaths(any(), any());
+    }
+
+    @Test
+    @DisplayName("Verify update() rejects moving a category under its own subcategory")
+    void update_ParentInOwnSubtree_ThrowsInvalidParameterException() {
+        //Given
+        Category parent = getCategory();
+        Category child = getCategory().setId(2L).setName("Child").setParentId(1L);
+        CategoryDto requestDto = getCategoryRequestDto().setParentId(2L);
+
+        when(categoryRepository.findById(1L)).thenReturn(Optional.of(parent));
+        when(categoryCatalog.tree()).thenReturn(CategoryTree.of(List.of(parent, child)));
+
+        //When
+        assertThrows(InvalidParameterException.class,
+                () -> categoryService.update(1L, requestDto));
+
+        //Then
+        verify(categoryRepository, times(1)).findById(1L);
+        verifyNoMoreInteractions(categoryRepository);
+    }
+
     private Category getCategory() {
         return new Category()
                 .setId(1L)
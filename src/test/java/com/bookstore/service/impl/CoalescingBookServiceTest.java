@@ -0,0 +1,141 @@
+package com.bookstore.service.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.bookstore.dto.book.BookDto;
+import com.bookstore.dto.book.BookFields;
+import com.bookstore.dto.book.BookSearchParametersDto;
+import com.bookstore.exception.EntityNotFoundException;
+import com.bookstore.service.BookService;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
+@ExtendWith(MockitoExtension.class)
+class CoalescingBookServiceTest {
+    private static final int CALLERS = 50;
+
+    @Mock
+    private BookService bookService;
+    private CoalescingBookService coalescingBookService;
+    private ExecutorService executor;
+
+    @BeforeEach
+    void setUp() {
+        coalescingBookService = new CoalescingBookService(bookService);
+        executor = Executors.newFixedThreadPool(CALLERS);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("Concurrent lookups of the same book share one call")
+    void getBookById_ConcurrentCallers_CallsDelegateOnce() throws Exception {
+        //Given
+        BookDto bookDto = new BookDto().setId(1L).setTitle("Hot Book");
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger calls = new AtomicInteger();
+        when(bookService.getBookById(1L)).thenAnswer(invocation -> {
+            calls.incrementAndGet();
+            release.await(5, TimeUnit.SECONDS);
+            return bookDto;
+        });
+
+        //When
+        List<Future<BookDto>> results = callConcurrently(
+                () -> coalescingBookService.getBookById(1L), release);
+
+        //Then
+        for (Future<BookDto> result : results) {
+            assertSame(bookDto, result.get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    @DisplayName("Concurrent identical searches share one call and its failure")
+    void searchBooks_ConcurrentFailingCallers_ShareException() throws Exception {
+        //Given
+        BookSearchParametersDto searchParameters = new BookSearchParametersDto(
+                new String[]{"dune"}, null, null, null, null, null, null, null);
+        Pageable pageable = PageRequest.of(0, 10);
+        CountDownLatch release = new CountDownLatch(1);
+        when(bookService.searchBooks(searchParameters, pageable, BookFields.ALL))
+                .thenAnswer(invocation -> {
+                    release.await(5, TimeUnit.SECONDS);
+                    throw new EntityNotFoundException("No books");
+                });
+
+        //When
+        List<Future<List<BookDto>>> results = callConcurrently(
+                () -> coalescingBookService.searchBooks(searchParameters, pageable,
+                        BookFields.ALL), release);
+
+        //Then
+        for (Future<List<BookDto>> result : results) {
+            Exception exception = assertThrows(Exception.class,
+                    () -> result.get(5, TimeUnit.SECONDS));
+            assertTrue(exception.getCause() instanceof EntityNotFoundException);
+        }
+        verify(bookService, times(1)).searchBooks(searchParameters, pageable, BookFields.ALL);
+    }
+
+    @Test
+    @DisplayName("Sequential lookups are not coalesced")
+    void getBookById_SequentialCallers_CallsDelegateEachTime() {
+        //Given
+        when(bookService.getBookById(1L)).thenReturn(new BookDto().setId(1L));
+
+        //When
+        coalescingBookService.getBookById(1L);
+        coalescingBookService.getBookById(1L);
+
+        //Then
+        verify(bookService, times(2)).getBookById(1L);
+    }
+
+    /**
+     * Starts {@link #CALLERS} concurrent calls and opens {@code release} once all of them
+     * have started and had time to join the call in flight.
+     */
+    private <T> List<Future<T>> callConcurrently(Callable<T> call,
+                                                 CountDownLatch release)
+            throws InterruptedException {
+        CountDownLatch ready = new CountDownLatch(CALLERS);
+        List<Future<T>> results = new ArrayList<>();
+        for (int i = 0; i < CALLERS; i++) {
+            results.add(executor.submit(() -> {
+                ready.countDown();
+                return call.call();
+            }));
+        }
+        assertTrue(ready.await(5, TimeUnit.SECONDS));
+        TimeUnit.MILLISECONDS.sleep(200);
+        release.countDown();
+        return results;
+    }
+}
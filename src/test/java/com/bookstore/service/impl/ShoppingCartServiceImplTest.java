@@ -12,7 +12,9 @@ import static org.mockito.Mockito.when;
 import com.bookstore.dto.cartitem.CartItemCreateDto;
 import com.bookstore.dto.cartitem.CartItemUpdateDto;
 import com.bookstore.dto.shoppingcart.ShoppingCartDto;
+import com.bookstore.exception.BookNotFoundException;
 import com.bookstore.exception.EntityNotFoundException;
+import com.bookstore.index.LiveBookIdIndex;
 import com.bookstore.mapper.CartItemMapper;
 import com.bookstore.mapper.ShoppingCartMapper;
 import com.bookstore.model.Book;
@@ -50,6 +52,8 @@ class ShoppingCartServiceImplTest {
     private CartItemRepository cartItemRepository;
     @Mock
     private BookRepository bookRepository;
+    @Mock
+    private LiveBookIdIndex liveBookIdIndex;
     @InjectMocks
     private ShoppingCartServiceImpl shoppingCartService;
 
@@ -171,6 +175,48 @@ class ShoppingCartServiceImplTest {
                                 shoppingCartMapper);
     }
 
+    @Test
+    @DisplayName("Verify saveBookToTheCart() confirms a live id index miss in the DB")
+    void saveBookToTheCart_MissingFromIndex_ConfirmsInDbAndAddsBook() {
+        //Given
+        ShoppingCart shoppingCart = getShoppingCart();
+        CartItemCreateDto cartItemCreateDto = getCartItemCreateDto();
+        CartItem cartItem = getCartItem();
+        Book book = getBook();
+        Long bookId = cartItemCreateDto.getBookId();
+
+        when(liveBookIdIndex.isAbsent(bookId)).thenReturn(true);
+        when(bookRepository.findIdsByIdIn(List.of(bookId))).thenReturn(List.of(bookId));
+        when(shoppingCartRepository.findByUserId(anyLong())).thenReturn(Optional.of(shoppingCart));
+        when(bookRepository.findById(bookId)).thenReturn(Optional.of(book));
+        when(cartItemMapper.toEntity(cartItemCreateDto, book, shoppingCart)).thenReturn(cartItem);
+
+        //When
+        shoppingCartService.saveBookToTheCart(1L, cartItemCreateDto);
+
+        //Then
+        verify(liveBookIdIndex, times(1)).add(bookId);
+        verify(cartItemRepository, times(1)).save(cartItem);
+    }
+
+    @Test
+    @DisplayName("Verify saveBookToTheCart() rejects a book missing from the index and the DB")
+    void saveBookToTheCart_AbsentFromIndexAndDb_ThrowsBookNotFoundException() {
+        //Given
+        CartItemCreateDto cartItemCreateDto = getCartItemCreateDto();
+        Long bookId = cartItemCreateDto.getBookId();
+
+        when(liveBookIdIndex.isAbsent(bookId)).thenReturn(true);
+        when(bookRepository.findIdsByIdIn(List.of(bookId))).thenReturn(List.of());
+
+        //When
+        assertThrows(BookNotFoundException.class,
+                () -> shoppingCartService.saveBookToTheCart(1L, cartItemCreateDto));
+
+        //Then
+        verifyNoMoreInteractions(shoppingCartRepository, bookRepository, cartItemRepository);
+    }
+
     @Test
     @DisplayName("Verify EntityNotFoundException was thrown with invalid CartItemCreateDto")
     void saveBookToTheCart_InvalidCartItemCreateDto_ThrowsEntityNotFoundException() {
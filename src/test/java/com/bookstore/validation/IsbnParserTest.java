@@ -0,0 +1,47 @@
+package com.bookstore.validation;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class IsbnParserTest {
+    @Test
+    @DisplayName("ISBN-10 and ISBN-13 forms of a book share one canonical ISBN-13")
+    void toIsbn13_Isbn10AndIsbn13_ReturnsSameCanonicalIsbn() {
+        assertEquals("9780306406157", IsbnParser.toIsbn13("0-306-40615-2"));
+        assertEquals("9780306406157", IsbnParser.toIsbn13("978 0 306 40615 7"));
+        assertEquals("9780306406157", IsbnParser.toIsbn13("9780306406157"));
+        assertEquals("9781234567897", IsbnParser.toIsbn13("123456789X"));
+        assertEquals("9781234567897", IsbnParser.toIsbn13("123456789x"));
+    }
+
+    @Test
+    @DisplayName("Wrong checksums, lengths, prefixes and characters are rejected")
+    void isValid_MalformedIsbn_ReturnsFalse() {
+        assertTrue(IsbnParser.isValid("979-10-90636-07-1"));
+        assertFalse(IsbnParser.isValid("0-306-40615-3"));
+        assertFalse(IsbnParser.isValid("9780306406158"));
+        assertFalse(IsbnParser.isValid("9770306406150"));
+        assertFalse(IsbnParser.isValid("12345X7890"));
+        assertFalse(IsbnParser.isValid("030640615"));
+        assertFalse(IsbnParser.isValid("97803064061570"));
+        assertFalse(IsbnParser.isValid("0-306-4061a-2"));
+        assertFalse(IsbnParser.isValid(""));
+        assertFalse(IsbnParser.isValid(null));
+        assertNull(IsbnParser.toIsbn13("123"));
+    }
+
+    @Test
+    @DisplayName("Partial ISBNs become ISBN-13 prefixes")
+    void toIsbn13Prefix_PartialIsbn_ReturnsIsbn13Prefix() {
+        assertEquals("978030", IsbnParser.toIsbn13Prefix("978-030"));
+        assertEquals("97", IsbnParser.toIsbn13Prefix("97"));
+        assertEquals("978030640", IsbnParser.toIsbn13Prefix("0-306-40"));
+        assertNull(IsbnParser.toIsbn13Prefix("isbn"));
+        assertNull(IsbnParser.toIsbn13Prefix("-"));
+    }
+}
@@ -0,0 +1,6 @@
+INSERT INTO books_categories (book_id, category_id)
+VALUES (1, 1);
+INSERT INTO books_categories (book_id, category_id)
+VALUES (2, 1);
+INSERT INTO books_categories (book_id, category_id)
+VALUES (2, 2);
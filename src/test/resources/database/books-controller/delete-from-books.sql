@@ -1 +1,2 @@
+DELETE FROM book_sales;
 DELETE FROM books;
\ No newline at end of file
@@ -0,0 +1,2 @@
+DELETE FROM books_categories WHERE book_id IN (SELECT id FROM books WHERE author = 'Importer');
+DELETE FROM books WHERE author = 'Importer';
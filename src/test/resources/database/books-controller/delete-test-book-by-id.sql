@@ -0,0 +1 @@
+DELETE FROM books WHERE id = -100;
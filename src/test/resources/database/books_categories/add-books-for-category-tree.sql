@@ -0,0 +1,8 @@
+INSERT INTO books_categories (book_id, category_id)
+VALUES (1, 11);
+INSERT INTO books_categories (book_id, category_id)
+VALUES (2, 12);
+INSERT INTO books_categories (book_id, category_id)
+VALUES (2, 13);
+INSERT INTO books_categories (book_id, category_id)
+VALUES (3, 13);
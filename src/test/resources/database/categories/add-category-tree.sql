@@ -0,0 +1,6 @@
+INSERT INTO categories (id, name, description, is_deleted, parent_id, path)
+VALUES (11, 'Fiction', 'Fiction books', false, NULL, '/');
+INSERT INTO categories (id, name, description, is_deleted, parent_id, path)
+VALUES (12, 'Sci-Fi', 'Science fiction', false, 11, '/11/');
+INSERT INTO categories (id, name, description, is_deleted, parent_id, path)
+VALUES (13, 'Space Opera', 'Space opera', false, 12, '/11/12/');
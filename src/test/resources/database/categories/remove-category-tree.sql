@@ -0,0 +1,3 @@
+DELETE FROM categories WHERE id = 13;
+DELETE FROM categories WHERE id = 12;
+DELETE FROM categories WHERE id = 11;
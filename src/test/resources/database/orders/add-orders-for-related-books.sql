@@ -0,0 +1,20 @@
+INSERT INTO users (id, email, password, first_name, last_name, shipping_address, is_deleted)
+VALUES (100, 'buyer@test.com', 'Password', 'Buyer', 'Surname', 'Address', false);
+INSERT INTO orders (id, user_id, status, total, order_date, shipping_address, is_deleted)
+VALUES (100, 100, 'COMPLETED', 110.48, '2024-01-01 10:00:00', 'Address', false);
+INSERT INTO orders (id, user_id, status, total, order_date, shipping_address, is_deleted)
+VALUES (101, 100, 'PENDING', 110.48, '2024-01-02 10:00:00', 'Address', false);
+INSERT INTO orders (id, user_id, status, total, order_date, shipping_address, is_deleted)
+VALUES (102, 100, 'PENDING', 149.94, '2024-01-03 10:00:00', 'Address', true);
+INSERT INTO order_items (id, order_id, book_id, quantity, price)
+VALUES (100, 100, 2, 1, 99.99);
+INSERT INTO order_items (id, order_id, book_id, quantity, price)
+VALUES (101, 100, 3, 1, 10.49);
+INSERT INTO order_items (id, order_id, book_id, quantity, price)
+VALUES (102, 101, 3, 1, 10.49);
+INSERT INTO order_items (id, order_id, book_id, quantity, price)
+VALUES (103, 101, 2, 1, 99.99);
+INSERT INTO order_items (id, order_id, book_id, quantity, price)
+VALUES (104, 102, 2, 1, 99.99);
+INSERT INTO order_items (id, order_id, book_id, quantity, price)
+VALUES (105, 102, 1, 1, 49.95);
@@ -0,0 +1,3 @@
+DELETE FROM order_items WHERE order_id IN (100, 101, 102);
+DELETE FROM orders WHERE id IN (100, 101, 102);
+DELETE FROM users WHERE id = 100;